@@ -109,6 +109,22 @@ public class BatchRequest {
      * @return batch response
      */
     public BatchResponse commit(final boolean async) {
+        return commit(async, 1);
+    }
+
+    /**
+     * Sends the current request, with items accumulated by invoking methods on proxies obtained via
+     * {@link #getService(java.lang.Class)}, to the Batch service, and awaits for a synchronous or asynchronous
+     * response, depending on the {@code async} parameter.
+     * When {@code concurrency} is greater than 1, the Batch service is allowed to process up to that many items in
+     * parallel: this is only safe when items do not depend on each other's outcome.
+     * It also clears out the accumulated items, in case of reuse of this instance for subsequent requests.
+     *
+     * @param async whether asynchronous Batch process is requested, or not
+     * @param concurrency maximum number of items to be processed in parallel
+     * @return batch response
+     */
+    public BatchResponse commit(final boolean async, final int concurrency) {
         String boundary = "--batch_" + UUID.randomUUID().toString();
 
         WebClient webClient = WebClient.create(bcfb.getAddress()).path("batch").
@@ -117,6 +133,9 @@ public class BatchRequest {
         if (async) {
             webClient.header(RESTHeaders.PREFER, Preference.RESPOND_ASYNC);
         }
+        if (concurrency > 1) {
+            webClient.header(RESTHeaders.BATCH_CONCURRENCY, concurrency);
+        }
         if (tlsClientParameters != null) {
             ClientConfiguration config = WebClient.getConfig(webClient);
             HTTPConduit httpConduit = (HTTPConduit) config.getConduit();
@@ -45,6 +45,8 @@ public abstract class ProvisioningTaskTO extends SchedTaskTO {
 
     private boolean syncStatus;
 
+    private int concurrency = 1;
+
     private UnmatchingRule unmatchingRule;
 
     private MatchingRule matchingRule;
@@ -92,6 +94,14 @@ public abstract class ProvisioningTaskTO extends SchedTaskTO {
         this.syncStatus = syncStatus;
     }
 
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(final int concurrency) {
+        this.concurrency = concurrency;
+    }
+
     @JacksonXmlElementWrapper(localName = "actions")
     @JacksonXmlProperty(localName = "action")
     public List<String> getActions() {
@@ -123,6 +133,7 @@ public abstract class ProvisioningTaskTO extends SchedTaskTO {
                 append(performUpdate).
                 append(performDelete).
                 append(syncStatus).
+                append(concurrency).
                 append(unmatchingRule).
                 append(matchingRule).
                 append(actions).
@@ -148,6 +159,7 @@ public abstract class ProvisioningTaskTO extends SchedTaskTO {
                 append(performUpdate, other.performUpdate).
                 append(performDelete, other.performDelete).
                 append(syncStatus, other.syncStatus).
+                append(concurrency, other.concurrency).
                 append(unmatchingRule, other.unmatchingRule).
                 append(matchingRule, other.matchingRule).
                 append(actions, other.actions).
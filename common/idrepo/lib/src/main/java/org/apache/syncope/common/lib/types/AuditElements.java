@@ -28,6 +28,8 @@ public final class AuditElements implements BaseBean {
 
     public static final String LOGIN_EVENT = "login";
 
+    public static final String COALESCE_EVENT = "coalesce";
+
     public enum EventCategoryType {
 
         LOGIC("LOGIC"),
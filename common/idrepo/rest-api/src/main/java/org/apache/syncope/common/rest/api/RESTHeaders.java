@@ -46,6 +46,17 @@ public final class RESTHeaders {
      */
     public static final String NULL_PRIORITY_ASYNC = "X-Syncope-Null-Priority-Async";
 
+    /**
+     * Asks for the items of a batch request, when independent from each other, to be processed in parallel, with
+     * at most the given number of items being processed at the same time.
+     */
+    public static final String BATCH_CONCURRENCY = "X-Syncope-Batch-Concurrency";
+
+    /**
+     * Reports the progress of an asynchronous batch request, as {@code completed/total} items.
+     */
+    public static final String BATCH_PROGRESS = "X-Syncope-Batch-Progress";
+
     /**
      * Declares the type of exception being raised.
      *
@@ -60,6 +60,11 @@ public class AnyQuery extends AbstractQuery {
 
             return this;
         }
+
+        public Builder after(final String after) {
+            getInstance().setAfter(after);
+            return this;
+        }
     }
 
     private String realm;
@@ -70,6 +75,8 @@ public class AnyQuery extends AbstractQuery {
 
     private String fiql;
 
+    private String after;
+
     @Parameter(name = JAXRSService.PARAM_REALM, description = "realms define a hierarchical security domain tree, "
             + "primarily meant for containing Users, Groups and Any Objects", schema =
             @Schema(implementation = String.class, defaultValue = SyncopeConstants.ROOT_REALM, externalDocs =
@@ -127,6 +134,20 @@ public class AnyQuery extends AbstractQuery {
         this.fiql = fiql;
     }
 
+    @Parameter(name = JAXRSService.PARAM_AFTER, description = "when provided, switches to keyset pagination: "
+            + "results are sorted by key and start right after the given key, typically the one of the last item "
+            + "in the previous page; page and orderby are ignored; total count is only computed when starting from "
+            + "the first page (empty value), and reported as -1 otherwise", schema =
+            @Schema(implementation = String.class))
+    public String getAfter() {
+        return after;
+    }
+
+    @QueryParam(JAXRSService.PARAM_AFTER)
+    public void setAfter(final String after) {
+        this.after = after;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (this == obj) {
@@ -144,6 +165,7 @@ public class AnyQuery extends AbstractQuery {
                 append(realm, other.realm).
                 append(details, other.details).
                 append(fiql, other.fiql).
+                append(after, other.after).
                 build();
     }
 
@@ -154,6 +176,7 @@ public class AnyQuery extends AbstractQuery {
                 append(realm).
                 append(details).
                 append(fiql).
+                append(after).
                 build();
     }
 }
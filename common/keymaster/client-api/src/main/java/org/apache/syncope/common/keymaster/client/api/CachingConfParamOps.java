@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.common.keymaster.client.api;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Decorates another {@link ConfParamOps} by keeping in memory, per domain, the values read for each key and type,
+ * so that reading parameters does not involve any remote call once they are in cache.
+ * Values are evicted when set or removed through this instance, when {@link #invalidate(String, String)} or
+ * {@link #invalidate(String)} are invoked - typically upon change notifications - and, if a time-to-live is
+ * provided, when older than that.
+ * Cloneable values, as arrays, are copied when returned, so that callers cannot alter the cached instances.
+ */
+public class CachingConfParamOps implements ConfParamOps {
+
+    protected static final class CacheEntry {
+
+        private final Optional<Object> value;
+
+        private final long loadedAt;
+
+        CacheEntry(final Object value) {
+            this.value = Optional.ofNullable(value);
+            this.loadedAt = System.currentTimeMillis();
+        }
+    }
+
+    protected final ConfParamOps delegate;
+
+    protected final Duration timeToLive;
+
+    protected final Map<String, Map<Pair<String, Class<?>>, CacheEntry>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every invalidation, to discard values read from the delegate while they were being changed.
+     */
+    protected final AtomicLong generation = new AtomicLong();
+
+    public CachingConfParamOps(final ConfParamOps delegate) {
+        this(delegate, null);
+    }
+
+    public CachingConfParamOps(final ConfParamOps delegate, final Duration timeToLive) {
+        this.delegate = delegate;
+        this.timeToLive = timeToLive == null || timeToLive.isZero() || timeToLive.isNegative() ? null : timeToLive;
+    }
+
+    protected boolean isExpired(final CacheEntry entry) {
+        return timeToLive != null && System.currentTimeMillis() - entry.loadedAt > timeToLive.toMillis();
+    }
+
+    @Override
+    public Map<String, Object> list(final String domain) {
+        return delegate.list(domain);
+    }
+
+    @Override
+    public <T> T get(final String domain, final String key, final T defaultValue, final Class<T> reference) {
+        Map<Pair<String, Class<?>>, CacheEntry> domainCache =
+                cache.computeIfAbsent(domain, k -> new ConcurrentHashMap<>());
+        Pair<String, Class<?>> cacheKey = Pair.of(key, reference);
+
+        CacheEntry entry = domainCache.get(cacheKey);
+        if (entry == null || isExpired(entry)) {
+            long before = generation.get();
+            entry = new CacheEntry(delegate.get(domain, key, null, reference));
+            if (generation.get() == before) {
+                domainCache.put(cacheKey, entry);
+            }
+        }
+
+        return entry.value.map(ObjectUtils::cloneIfPossible).map(reference::cast).orElse(defaultValue);
+    }
+
+    @Override
+    public <T> void set(final String domain, final String key, final T value) {
+        try {
+            delegate.set(domain, key, value);
+        } finally {
+            invalidate(domain, key);
+        }
+    }
+
+    @Override
+    public void remove(final String domain, final String key) {
+        try {
+            delegate.remove(domain, key);
+        } finally {
+            invalidate(domain, key);
+        }
+    }
+
+    /**
+     * Evicts the values cached for the given key in the given domain.
+     *
+     * @param domain domain
+     * @param key configuration parameter key
+     */
+    public void invalidate(final String domain, final String key) {
+        generation.incrementAndGet();
+        Optional.ofNullable(cache.get(domain)).
+                ifPresent(domainCache -> domainCache.keySet().removeIf(cacheKey -> cacheKey.getLeft().equals(key)));
+    }
+
+    /**
+     * Evicts all values cached for the given domain.
+     *
+     * @param domain domain
+     */
+    public void invalidate(final String domain) {
+        generation.incrementAndGet();
+        cache.remove(domain);
+    }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.syncope.common.keymaster.client.api;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties("keymaster")
@@ -33,6 +34,13 @@ public class KeymasterProperties {
 
     private int maxRetries = 3;
 
+    /**
+     * How long configuration parameters read via REST from a self Keymaster are cached, disabled by default: as
+     * there are no change notifications, parameters changed by other clients are seen only once expired. Not used
+     * with Zookeeper, as it notifies changes.
+     */
+    private Duration confParamCacheTtl = Duration.ZERO;
+
     public String getAddress() {
         return address;
     }
@@ -72,4 +80,12 @@ public class KeymasterProperties {
     public void setMaxRetries(final int maxRetries) {
         this.maxRetries = maxRetries;
     }
+
+    public Duration getConfParamCacheTtl() {
+        return confParamCacheTtl;
+    }
+
+    public void setConfParamCacheTtl(final Duration confParamCacheTtl) {
+        this.confParamCacheTtl = confParamCacheTtl;
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.common.keymaster.client.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CachingConfParamOpsTest {
+
+    private static final String DOMAIN = "Master";
+
+    private static class InMemoryConfParamOps implements ConfParamOps {
+
+        private final Map<String, Object> params = new ConcurrentHashMap<>();
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public Map<String, Object> list(final String domain) {
+            return Map.copyOf(params);
+        }
+
+        @Override
+        public <T> T get(final String domain, final String key, final T defaultValue, final Class<T> reference) {
+            reads.incrementAndGet();
+            Object value = params.get(key);
+            return value == null ? defaultValue : reference.cast(value);
+        }
+
+        @Override
+        public <T> void set(final String domain, final String key, final T value) {
+            params.put(key, value);
+        }
+
+        @Override
+        public void remove(final String domain, final String key) {
+            params.remove(key);
+        }
+    }
+
+    private InMemoryConfParamOps delegate;
+
+    @BeforeEach
+    public void setUp() {
+        delegate = new InMemoryConfParamOps();
+        delegate.set(DOMAIN, "password.cipher.algorithm", "SHA1");
+        delegate.set(DOMAIN, "authentication.attributes", new String[] { "username", "email" });
+    }
+
+    @Test
+    public void readsOnce() {
+        CachingConfParamOps ops = new CachingConfParamOps(delegate);
+
+        assertEquals("SHA1", ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+        assertEquals("SHA1", ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+        assertEquals(1, delegate.reads.get());
+
+        assertEquals("default", ops.get(DOMAIN, "notfound", "default", String.class));
+        assertEquals("default", ops.get(DOMAIN, "notfound", "default", String.class));
+        assertEquals(2, delegate.reads.get());
+    }
+
+    @Test
+    public void evictsOnSetAndRemove() {
+        CachingConfParamOps ops = new CachingConfParamOps(delegate);
+        assertEquals("SHA1", ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+
+        ops.set(DOMAIN, "password.cipher.algorithm", "SHA256");
+        assertEquals("SHA256", ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+
+        ops.remove(DOMAIN, "password.cipher.algorithm");
+        assertNull(ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+    }
+
+    @Test
+    public void evictsOnInvalidate() {
+        CachingConfParamOps ops = new CachingConfParamOps(delegate);
+        assertEquals("SHA1", ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+
+        delegate.set(DOMAIN, "password.cipher.algorithm", "SHA256");
+        assertEquals("SHA1", ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+
+        ops.invalidate(DOMAIN, "password.cipher.algorithm");
+        assertEquals("SHA256", ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+
+        delegate.set(DOMAIN, "password.cipher.algorithm", "SHA512");
+        ops.invalidate(DOMAIN);
+        assertEquals("SHA512", ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+    }
+
+    @Test
+    public void expires() throws InterruptedException {
+        CachingConfParamOps ops = new CachingConfParamOps(delegate, Duration.ofMillis(50));
+        assertEquals("SHA1", ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+
+        delegate.set(DOMAIN, "password.cipher.algorithm", "SHA256");
+        Thread.sleep(100);
+        assertEquals("SHA256", ops.get(DOMAIN, "password.cipher.algorithm", null, String.class));
+    }
+
+    @Test
+    public void returnsDefensiveCopies() {
+        CachingConfParamOps ops = new CachingConfParamOps(delegate);
+
+        String[] first = ops.get(DOMAIN, "authentication.attributes", null, String[].class);
+        first[0] = "changed";
+
+        String[] second = ops.get(DOMAIN, "authentication.attributes", null, String[].class);
+        assertNotSame(first, second);
+        assertArrayEquals(new String[] { "username", "email" }, second);
+        assertEquals(1, delegate.reads.get());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.common.keymaster.client.zookeeper;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.CuratorCache;
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
+import org.apache.syncope.common.keymaster.client.api.CachingConfParamOps;
+
+/**
+ * Caches configuration parameters read from Zookeeper, evicting them as soon as the corresponding znodes are
+ * changed, by any client.
+ */
+public class ZookeeperCachingConfParamOps extends CachingConfParamOps implements AutoCloseable {
+
+    protected final CuratorCache curatorCache;
+
+    public ZookeeperCachingConfParamOps(final CuratorFramework client) {
+        super(new ZookeeperConfParamOps(client));
+
+        curatorCache = CuratorCache.build(client, ZookeeperConfParamOps.CONF_PATH);
+        curatorCache.listenable().addListener(CuratorCacheListener.builder().
+                forAll((type, oldData, data) -> invalidate(data == null ? oldData : data)).
+                build());
+        curatorCache.start();
+    }
+
+    protected void invalidate(final ChildData data) {
+        if (data == null) {
+            return;
+        }
+
+        String[] parts = StringUtils.split(
+                StringUtils.removeStart(data.getPath(), ZookeeperConfParamOps.CONF_PATH), '/');
+        if (parts.length == 1) {
+            invalidate(parts[0]);
+        } else if (parts.length == 2) {
+            invalidate(parts[0], parts[1]);
+        }
+    }
+
+    @Override
+    public void close() {
+        curatorCache.close();
+    }
+}
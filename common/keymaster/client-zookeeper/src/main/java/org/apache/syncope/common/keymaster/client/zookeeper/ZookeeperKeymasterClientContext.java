@@ -112,7 +112,7 @@ public class ZookeeperKeymasterClientContext {
     @Conditional(ZookeeperCondition.class)
     @Bean
     public ConfParamOps selfConfParamOps(final CuratorFramework client) {
-        return new ZookeeperConfParamOps(client);
+        return new ZookeeperCachingConfParamOps(client);
     }
 
     @Conditional(ZookeeperCondition.class)
@@ -22,12 +22,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import org.apache.curator.framework.CuratorFramework;
 import org.apache.syncope.common.keymaster.client.api.ConfParamOps;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,6 +44,9 @@ public class ZookeeperConfParamOpsITCase {
     @Autowired
     private ConfParamOps confParamOps;
 
+    @Autowired
+    private CuratorFramework client;
+
     @Test
     public void list() {
         Map<String, Object> confParams = confParamOps.list(DOMAIN);
@@ -119,4 +125,27 @@ public class ZookeeperConfParamOpsITCase {
         assertNull(confParamOps.get(DOMAIN, key, null, String.class));
         assertEquals("defaultValue", confParamOps.get(DOMAIN, key, "defaultValue", String.class));
     }
+
+    private static void waitUntil(final BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void changedByOtherClient() throws InterruptedException {
+        String key = UUID.randomUUID().toString();
+
+        confParamOps.set(DOMAIN, key, "before");
+        assertEquals("before", confParamOps.get(DOMAIN, key, null, String.class));
+
+        // change via another client, bypassing cache
+        ZookeeperConfParamOps other = new ZookeeperConfParamOps(client);
+        other.set(DOMAIN, key, "after");
+        waitUntil(() -> "after".equals(confParamOps.get(DOMAIN, key, null, String.class)));
+
+        other.remove(DOMAIN, key);
+        waitUntil(() -> confParamOps.get(DOMAIN, key, null, String.class) == null);
+    }
 }
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.regex.Pattern;
 import org.apache.cxf.ext.logging.LoggingFeature;
 import org.apache.cxf.jaxrs.client.JAXRSClientFactoryBean;
+import org.apache.syncope.common.keymaster.client.api.CachingConfParamOps;
 import org.apache.syncope.common.keymaster.client.api.ConfParamOps;
 import org.apache.syncope.common.keymaster.client.api.DomainOps;
 import org.apache.syncope.common.keymaster.client.api.KeymasterProperties;
@@ -76,9 +77,17 @@ public class SelfKeymasterClientContext {
     @Conditional(SelfKeymasterCondition.class)
     @Bean
     @ConditionalOnMissingBean(name = "selfConfParamOps")
-    public ConfParamOps selfConfParamOps(@Qualifier("selfKeymasterRESTClientFactoryBean")
+    public ConfParamOps selfConfParamOps(
+            final KeymasterProperties props,
+            @Qualifier("selfKeymasterRESTClientFactoryBean")
             final JAXRSClientFactoryBean selfKeymasterRESTClientFactoryBean) {
-        return new SelfKeymasterConfParamOps(selfKeymasterRESTClientFactoryBean);
+
+        ConfParamOps confParamOps = new SelfKeymasterConfParamOps(selfKeymasterRESTClientFactoryBean);
+        return props.getConfParamCacheTtl() == null
+                || props.getConfParamCacheTtl().isZero()
+                || props.getConfParamCacheTtl().isNegative()
+                ? confParamOps
+                : new CachingConfParamOps(confParamOps, props.getConfParamCacheTtl());
     }
 
     @Conditional(SelfKeymasterCondition.class)
@@ -40,6 +40,7 @@ import org.apache.syncope.core.persistence.api.dao.search.SearchCond;
 import org.apache.syncope.core.persistence.api.entity.AnyType;
 import org.apache.syncope.core.persistence.api.entity.Realm;
 import org.apache.syncope.core.provisioning.api.LogicActions;
+import org.apache.syncope.core.provisioning.api.VirAttrHandler;
 import org.apache.syncope.core.provisioning.java.utils.TemplateUtils;
 import org.apache.syncope.core.spring.implementation.ImplementationManager;
 
@@ -54,16 +55,20 @@ public abstract class AbstractAnyLogic<TO extends AnyTO, C extends AnyCR, U exte
 
     protected final TemplateUtils templateUtils;
 
+    protected final VirAttrHandler virAttrHandler;
+
     protected final Map<String, LogicActions> perContextActions = new ConcurrentHashMap<>();
 
     public AbstractAnyLogic(
             final RealmDAO realmDAO,
             final AnyTypeDAO anyTypeDAO,
-            final TemplateUtils templateUtils) {
+            final TemplateUtils templateUtils,
+            final VirAttrHandler virAttrHandler) {
 
         this.realmDAO = realmDAO;
         this.anyTypeDAO = anyTypeDAO;
         this.templateUtils = templateUtils;
+        this.virAttrHandler = virAttrHandler;
     }
 
     protected List<LogicActions> getActions(final Realm realm) {
@@ -222,6 +227,13 @@ public abstract class AbstractAnyLogic<TO extends AnyTO, C extends AnyCR, U exte
             boolean recursive,
             boolean details);
 
+    public abstract Pair<Integer, List<TO>> search(
+            SearchCond searchCond,
+            String after, int size,
+            String realm,
+            boolean recursive,
+            boolean details);
+
     public abstract ProvisioningResult<TO> update(U updateReq, boolean nullPriorityAsync);
 
     public abstract ProvisioningResult<TO> delete(String key, boolean nullPriorityAsync);
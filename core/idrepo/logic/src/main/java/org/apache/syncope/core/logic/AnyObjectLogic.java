@@ -26,6 +26,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.syncope.common.lib.SyncopeClientException;
 import org.apache.syncope.common.lib.request.AnyObjectCR;
@@ -52,6 +53,7 @@ import org.apache.syncope.core.persistence.api.entity.Realm;
 import org.apache.syncope.core.persistence.api.entity.anyobject.AnyObject;
 import org.apache.syncope.core.provisioning.api.AnyObjectProvisioningManager;
 import org.apache.syncope.core.provisioning.api.LogicActions;
+import org.apache.syncope.core.provisioning.api.VirAttrHandler;
 import org.apache.syncope.core.provisioning.api.data.AnyObjectDataBinder;
 import org.apache.syncope.core.provisioning.api.utils.RealmUtils;
 import org.apache.syncope.core.provisioning.java.utils.TemplateUtils;
@@ -76,12 +78,13 @@ public class AnyObjectLogic extends AbstractAnyLogic<AnyObjectTO, AnyObjectCR, A
             final RealmDAO realmDAO,
             final AnyTypeDAO anyTypeDAO,
             final TemplateUtils templateUtils,
+            final VirAttrHandler virAttrHandler,
             final AnyObjectDAO anyObjectDAO,
             final AnySearchDAO searchDAO,
             final AnyObjectDataBinder binder,
             final AnyObjectProvisioningManager provisioningManager) {
 
-        super(realmDAO, anyTypeDAO, templateUtils);
+        super(realmDAO, anyTypeDAO, templateUtils, virAttrHandler);
 
         this.anyObjectDAO = anyObjectDAO;
         this.searchDAO = searchDAO;
@@ -119,6 +122,46 @@ public class AnyObjectLogic extends AbstractAnyLogic<AnyObjectTO, AnyObjectCR, A
 
         List<AnyObject> matching = searchDAO.search(
                 base, recursive, authRealms, searchCond, page, size, orderBy, AnyTypeKind.ANY_OBJECT);
+        if (details) {
+            virAttrHandler.prefetch(matching);
+        }
+        List<AnyObjectTO> result = matching.stream().
+                map(anyObject -> binder.getAnyObjectTO(anyObject, details)).
+                collect(Collectors.toList());
+
+        return Pair.of(count, result);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Pair<Integer, List<AnyObjectTO>> search(
+            final SearchCond searchCond,
+            final String after, final int size,
+            final String realm,
+            final boolean recursive,
+            final boolean details) {
+
+        if (searchCond.hasAnyTypeCond() == null) {
+            throw new UnsupportedOperationException("Need to specify " + AnyType.class.getSimpleName());
+        }
+
+        Realm base = Optional.ofNullable(realmDAO.findByFullPath(realm)).
+                orElseThrow(() -> new NotFoundException("Realm " + realm));
+
+        Set<String> authRealms = RealmUtils.getEffective(
+                AuthContextUtils.getAuthorizations().get(AnyEntitlement.SEARCH.getFor(searchCond.hasAnyTypeCond())),
+                realm);
+
+        // counting requires a full scan, which keyset pagination is meant to avoid: only count on first page
+        int count = StringUtils.isBlank(after)
+                ? searchDAO.count(base, recursive, authRealms, searchCond, AnyTypeKind.ANY_OBJECT)
+                : -1;
+
+        List<AnyObject> matching = searchDAO.search(
+                base, recursive, authRealms, searchCond, after, size, AnyTypeKind.ANY_OBJECT);
+        if (details) {
+            virAttrHandler.prefetch(matching);
+        }
         List<AnyObjectTO> result = matching.stream().
                 map(anyObject -> binder.getAnyObjectTO(anyObject, details)).
                 collect(Collectors.toList());
@@ -224,6 +224,7 @@ public class AuditLogic extends AbstractTransactionalLogic<AuditConfTO> {
                     for (ResourceOperation resourceOperation : ResourceOperation.values()) {
                         propEventCategory.getEvents().add(resourceOperation.name().toLowerCase());
                     }
+                    propEventCategory.getEvents().add(AuditElements.COALESCE_EVENT);
                     pullEventCategory.getEvents().add(ResourceOperation.DELETE.name().toLowerCase());
 
                     for (UnmatchingRule unmatching : UnmatchingRule.values()) {
@@ -27,6 +27,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.syncope.common.keymaster.client.api.ConfParamOps;
 import org.apache.syncope.common.lib.SyncopeClientException;
@@ -62,6 +63,7 @@ import org.apache.syncope.core.persistence.api.entity.group.Group;
 import org.apache.syncope.core.persistence.api.entity.task.SchedTask;
 import org.apache.syncope.core.provisioning.api.GroupProvisioningManager;
 import org.apache.syncope.core.provisioning.api.LogicActions;
+import org.apache.syncope.core.provisioning.api.VirAttrHandler;
 import org.apache.syncope.core.provisioning.api.data.GroupDataBinder;
 import org.apache.syncope.core.provisioning.api.data.TaskDataBinder;
 import org.apache.syncope.core.provisioning.api.job.JobManager;
@@ -113,6 +115,7 @@ public class GroupLogic extends AbstractAnyLogic<GroupTO, GroupCR, GroupUR> {
             final RealmDAO realmDAO,
             final AnyTypeDAO anyTypeDAO,
             final TemplateUtils templateUtils,
+            final VirAttrHandler virAttrHandler,
             final UserDAO userDAO,
             final GroupDAO groupDAO,
             final SecurityProperties securityProperties,
@@ -127,7 +130,7 @@ public class GroupLogic extends AbstractAnyLogic<GroupTO, GroupCR, GroupUR> {
             final SchedulerFactoryBean scheduler,
             final EntityFactory entityFactory) {
 
-        super(realmDAO, anyTypeDAO, templateUtils);
+        super(realmDAO, anyTypeDAO, templateUtils, virAttrHandler);
 
         this.userDAO = userDAO;
         this.groupDAO = groupDAO;
@@ -184,6 +187,44 @@ public class GroupLogic extends AbstractAnyLogic<GroupTO, GroupCR, GroupUR> {
 
         List<Group> matching = searchDAO.search(
                 base, recursive, authRealms, effectiveCond, page, size, orderBy, AnyTypeKind.GROUP);
+        if (details) {
+            virAttrHandler.prefetch(matching);
+        }
+        List<GroupTO> result = matching.stream().
+                map(group -> binder.getGroupTO(group, details)).
+                collect(Collectors.toList());
+
+        return Pair.of(count, result);
+    }
+
+    @PreAuthorize("hasRole('" + IdRepoEntitlement.GROUP_SEARCH + "')")
+    @Transactional(readOnly = true)
+    @Override
+    public Pair<Integer, List<GroupTO>> search(
+            final SearchCond searchCond,
+            final String after, final int size,
+            final String realm,
+            final boolean recursive,
+            final boolean details) {
+
+        Realm base = Optional.ofNullable(realmDAO.findByFullPath(realm)).
+                orElseThrow(() -> new NotFoundException("Realm " + realm));
+
+        Set<String> authRealms = RealmUtils.getEffective(
+                AuthContextUtils.getAuthorizations().get(IdRepoEntitlement.GROUP_SEARCH), realm);
+
+        SearchCond effectiveCond = searchCond == null ? groupDAO.getAllMatchingCond() : searchCond;
+
+        // counting requires a full scan, which keyset pagination is meant to avoid: only count on first page
+        int count = StringUtils.isBlank(after)
+                ? searchDAO.count(base, recursive, authRealms, effectiveCond, AnyTypeKind.GROUP)
+                : -1;
+
+        List<Group> matching = searchDAO.search(
+                base, recursive, authRealms, effectiveCond, after, size, AnyTypeKind.GROUP);
+        if (details) {
+            virAttrHandler.prefetch(matching);
+        }
         List<GroupTO> result = matching.stream().
                 map(group -> binder.getGroupTO(group, details)).
                 collect(Collectors.toList());
@@ -63,6 +63,7 @@ import org.apache.syncope.core.provisioning.api.AnyObjectProvisioningManager;
 import org.apache.syncope.core.provisioning.api.AuditManager;
 import org.apache.syncope.core.provisioning.api.GroupProvisioningManager;
 import org.apache.syncope.core.provisioning.api.UserProvisioningManager;
+import org.apache.syncope.core.provisioning.api.VirAttrHandler;
 import org.apache.syncope.core.provisioning.api.data.AccessTokenDataBinder;
 import org.apache.syncope.core.provisioning.api.data.AnyObjectDataBinder;
 import org.apache.syncope.core.provisioning.api.data.AnyTypeClassDataBinder;
@@ -85,6 +86,7 @@ import org.apache.syncope.core.provisioning.api.data.SecurityQuestionDataBinder;
 import org.apache.syncope.core.provisioning.api.data.TaskDataBinder;
 import org.apache.syncope.core.provisioning.api.data.UserDataBinder;
 import org.apache.syncope.core.provisioning.api.job.JobManager;
+import org.apache.syncope.core.provisioning.api.job.report.ReportStore;
 import org.apache.syncope.core.provisioning.api.notification.NotificationJobDelegate;
 import org.apache.syncope.core.provisioning.api.notification.NotificationManager;
 import org.apache.syncope.core.provisioning.api.propagation.PropagationManager;
@@ -96,6 +98,7 @@ import org.apache.syncope.core.workflow.api.GroupWorkflowAdapter;
 import org.apache.syncope.core.workflow.api.UserWorkflowAdapter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
@@ -131,10 +134,9 @@ public class IdRepoLogicContext {
     @Bean
     public AuditLoader auditLoader(
             final AuditAccessor auditAccessor,
-            final ImplementationLookup implementationLookup,
-            final LogicProperties logicProperties) {
+            final ImplementationLookup implementationLookup) {
 
-        return new AuditLoader(auditAccessor, implementationLookup, logicProperties);
+        return new AuditLoader(auditAccessor, implementationLookup);
     }
 
     @ConditionalOnMissingBean
@@ -170,6 +172,7 @@ public class IdRepoLogicContext {
     public AnyObjectLogic anyObjectLogic(
             final AnyObjectDataBinder binder,
             final TemplateUtils templateUtils,
+            final VirAttrHandler virAttrHandler,
             final RealmDAO realmDAO,
             final AnyTypeDAO anyTypeDAO,
             final AnyObjectDAO anyObjectDAO,
@@ -180,6 +183,7 @@ public class IdRepoLogicContext {
                 realmDAO,
                 anyTypeDAO,
                 templateUtils,
+                virAttrHandler,
                 anyObjectDAO,
                 anySearchDAO,
                 binder,
@@ -268,6 +272,7 @@ public class IdRepoLogicContext {
             final GroupProvisioningManager provisioningManager,
             final JobManager jobManager,
             final TemplateUtils templateUtils,
+            final VirAttrHandler virAttrHandler,
             final EntityFactory entityFactory,
             final RealmDAO realmDAO,
             final AnyTypeDAO anyTypeDAO,
@@ -286,6 +291,7 @@ public class IdRepoLogicContext {
                 realmDAO,
                 anyTypeDAO,
                 templateUtils,
+                virAttrHandler,
                 userDAO,
                 groupDAO,
                 securityProperties,
@@ -387,9 +393,20 @@ public class IdRepoLogicContext {
             final SchedulerFactoryBean scheduler,
             final ReportDAO reportDAO,
             final EntityFactory entityFactory,
-            final ReportExecDAO reportExecDAO) {
+            final ReportExecDAO reportExecDAO,
+            final ReportStore reportStore,
+            final ApplicationEventPublisher publisher) {
 
-        return new ReportLogic(jobManager, scheduler, reportDAO, reportExecDAO, confParamOps, binder, entityFactory);
+        return new ReportLogic(
+                jobManager,
+                scheduler,
+                reportDAO,
+                reportExecDAO,
+                confParamOps,
+                binder,
+                entityFactory,
+                reportStore,
+                publisher);
     }
 
     @ConditionalOnMissingBean
@@ -494,6 +511,7 @@ public class IdRepoLogicContext {
     public UserLogic userLogic(
             final UserDataBinder binder,
             final TemplateUtils templateUtils,
+            final VirAttrHandler virAttrHandler,
             final RealmDAO realmDAO,
             final AnyTypeDAO anyTypeDAO,
             final UserDAO userDAO,
@@ -509,6 +527,7 @@ public class IdRepoLogicContext {
                 realmDAO,
                 anyTypeDAO,
                 templateUtils,
+                virAttrHandler,
                 userDAO,
                 groupDAO,
                 anySearchDAO,
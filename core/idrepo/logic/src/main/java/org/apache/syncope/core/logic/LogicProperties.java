@@ -22,14 +22,4 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties("logic")
 public class LogicProperties {
-
-    private boolean enableJDBCAuditAppender = true;
-
-    public boolean isEnableJDBCAuditAppender() {
-        return enableJDBCAuditAppender;
-    }
-
-    public void setEnableJDBCAuditAppender(final boolean enableJDBCAuditAppender) {
-        this.enableJDBCAuditAppender = enableJDBCAuditAppender;
-    }
 }
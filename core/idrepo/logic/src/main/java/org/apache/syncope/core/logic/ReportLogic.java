@@ -18,8 +18,10 @@
  */
 package org.apache.syncope.core.logic;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
@@ -70,13 +72,17 @@ import org.apache.syncope.core.persistence.api.entity.EntityFactory;
 import org.apache.syncope.core.persistence.api.entity.Report;
 import org.apache.syncope.core.persistence.api.entity.ReportExec;
 import org.apache.syncope.core.provisioning.api.data.ReportDataBinder;
+import org.apache.syncope.core.provisioning.api.event.EntityLifecycleEvent;
 import org.apache.syncope.core.provisioning.api.job.JobManager;
 import org.apache.syncope.core.provisioning.api.job.JobNamer;
+import org.apache.syncope.core.provisioning.api.job.report.ReportStore;
 import org.apache.syncope.core.provisioning.api.utils.ExceptionUtils2;
 import org.apache.syncope.core.spring.security.AuthContextUtils;
 import org.apache.xmlgraphics.util.MimeConstants;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
 import org.quartz.JobKey;
 import org.quartz.SchedulerException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.quartz.SchedulerFactoryBean;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
@@ -109,6 +115,10 @@ public class ReportLogic extends AbstractExecutableLogic<ReportTO> {
 
     protected final EntityFactory entityFactory;
 
+    protected final ReportStore reportStore;
+
+    protected final ApplicationEventPublisher publisher;
+
     public ReportLogic(
             final JobManager jobManager,
             final SchedulerFactoryBean scheduler,
@@ -116,7 +126,9 @@ public class ReportLogic extends AbstractExecutableLogic<ReportTO> {
             final ReportExecDAO reportExecDAO,
             final ConfParamOps confParamOps,
             final ReportDataBinder binder,
-            final EntityFactory entityFactory) {
+            final EntityFactory entityFactory,
+            final ReportStore reportStore,
+            final ApplicationEventPublisher publisher) {
 
         super(jobManager, scheduler);
 
@@ -125,6 +137,20 @@ public class ReportLogic extends AbstractExecutableLogic<ReportTO> {
         this.confParamOps = confParamOps;
         this.binder = binder;
         this.entityFactory = entityFactory;
+        this.reportStore = reportStore;
+        this.publisher = publisher;
+    }
+
+    /**
+     * Results in the report store are only removed once the removal of their execution is committed.
+     *
+     * @param reportExec report execution being removed
+     */
+    protected void deleteExecResult(final ReportExec reportExec) {
+        if (reportExec.getExecResultRef() != null) {
+            publisher.publishEvent(new EntityLifecycleEvent<>(
+                    this, SyncDeltaType.DELETE, reportExec, AuthContextUtils.getDomain()));
+        }
     }
 
     @PreAuthorize("hasRole('" + IdRepoEntitlement.REPORT_CREATE + "')")
@@ -238,9 +264,10 @@ public class ReportLogic extends AbstractExecutableLogic<ReportTO> {
         if (reportExec == null) {
             throw new NotFoundException("Report execution " + executionKey);
         }
-        if (!ReportExecStatus.SUCCESS.name().equals(reportExec.getStatus()) || reportExec.getExecResult() == null) {
+        boolean noData = reportExec.getExecResultRef() == null && reportExec.getExecResult() == null;
+        if (!ReportExecStatus.SUCCESS.name().equals(reportExec.getStatus()) || noData) {
             SyncopeClientException sce = SyncopeClientException.build(ClientExceptionType.InvalidReportExec);
-            sce.getElements().add(reportExec.getExecResult() == null
+            sce.getElements().add(noData
                     ? "No report data produced"
                     : "Report did not run successfully");
             throw sce;
@@ -271,9 +298,12 @@ public class ReportLogic extends AbstractExecutableLogic<ReportTO> {
             final ReportExec reportExec,
             final ReportExecExportFormat format) {
 
-        // streaming SAX handler from a compressed byte array stream
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(reportExec.getExecResult());
-                ZipInputStream zis = new ZipInputStream(bais)) {
+        // streaming SAX handler from the compressed stream in the database, as for results produced by former
+        // versions or stored via DatabaseReportStore, or in the report store
+        try (InputStream is = reportExec.getExecResult() == null
+                ? new BufferedInputStream(reportStore.read(reportExec.getExecResultRef()))
+                : new ByteArrayInputStream(reportExec.getExecResult());
+                ZipInputStream zis = new ZipInputStream(is)) {
 
             // a single ZipEntry in the ZipInputStream (see ReportJob)
             zis.getNextEntry();
@@ -339,6 +369,7 @@ public class ReportLogic extends AbstractExecutableLogic<ReportTO> {
 
         ReportTO deletedReport = binder.getReportTO(report);
         jobManager.unregister(report);
+        report.getExecs().forEach(this::deleteExecResult);
         reportDAO.delete(report);
         return deletedReport;
     }
@@ -378,6 +409,7 @@ public class ReportLogic extends AbstractExecutableLogic<ReportTO> {
 
         ExecTO reportExecToDelete = binder.getExecTO(reportExec);
         reportExecDAO.delete(reportExec);
+        deleteExecResult(reportExec);
         return reportExecToDelete;
     }
 
@@ -404,6 +436,7 @@ public class ReportLogic extends AbstractExecutableLogic<ReportTO> {
 
             try {
                 reportExecDAO.delete(exec);
+                deleteExecResult(exec);
                 item.setStatus(Response.Status.OK.getStatusCode());
             } catch (Exception e) {
                 LOG.error("Error deleting execution {} of report {}", exec.getKey(), key, e);
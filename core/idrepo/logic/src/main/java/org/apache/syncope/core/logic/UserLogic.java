@@ -20,16 +20,19 @@ package org.apache.syncope.core.logic;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.syncope.common.keymaster.client.api.ConfParamOps;
 import org.apache.syncope.common.lib.SyncopeClientException;
+import org.apache.syncope.common.lib.SyncopeConstants;
 import org.apache.syncope.common.lib.request.BooleanReplacePatchItem;
 import org.apache.syncope.common.lib.request.MembershipUR;
 import org.apache.syncope.common.lib.request.PasswordPatch;
@@ -61,11 +64,13 @@ import org.apache.syncope.core.persistence.api.entity.group.Group;
 import org.apache.syncope.core.persistence.api.entity.user.User;
 import org.apache.syncope.core.provisioning.api.LogicActions;
 import org.apache.syncope.core.provisioning.api.UserProvisioningManager;
+import org.apache.syncope.core.provisioning.api.VirAttrHandler;
 import org.apache.syncope.core.provisioning.api.data.UserDataBinder;
 import org.apache.syncope.core.provisioning.api.serialization.POJOHelper;
 import org.apache.syncope.core.provisioning.api.utils.RealmUtils;
 import org.apache.syncope.core.provisioning.java.utils.TemplateUtils;
 import org.apache.syncope.core.spring.security.AuthContextUtils;
+import org.apache.syncope.core.spring.security.DelegatedAdministrationException;
 import org.apache.syncope.core.spring.security.Encryptor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
@@ -98,6 +103,7 @@ public class UserLogic extends AbstractAnyLogic<UserTO, UserCR, UserUR> {
             final RealmDAO realmDAO,
             final AnyTypeDAO anyTypeDAO,
             final TemplateUtils templateUtils,
+            final VirAttrHandler virAttrHandler,
             final UserDAO userDAO,
             final GroupDAO groupDAO,
             final AnySearchDAO searchDAO,
@@ -108,7 +114,7 @@ public class UserLogic extends AbstractAnyLogic<UserTO, UserCR, UserUR> {
             final UserProvisioningManager provisioningManager,
             final SyncopeLogic syncopeLogic) {
 
-        super(realmDAO, anyTypeDAO, templateUtils);
+        super(realmDAO, anyTypeDAO, templateUtils, virAttrHandler);
 
         this.userDAO = userDAO;
         this.groupDAO = groupDAO;
@@ -160,6 +166,44 @@ public class UserLogic extends AbstractAnyLogic<UserTO, UserCR, UserUR> {
 
         List<User> matching = searchDAO.search(
                 base, recursive, authRealms, effectiveCond, page, size, orderBy, AnyTypeKind.USER);
+        if (details) {
+            virAttrHandler.prefetch(matching);
+        }
+        List<UserTO> result = matching.stream().
+                map(user -> binder.getUserTO(user, details)).
+                collect(Collectors.toList());
+
+        return Pair.of(count, result);
+    }
+
+    @PreAuthorize("hasRole('" + IdRepoEntitlement.USER_SEARCH + "')")
+    @Transactional(readOnly = true)
+    @Override
+    public Pair<Integer, List<UserTO>> search(
+            final SearchCond searchCond,
+            final String after, final int size,
+            final String realm,
+            final boolean recursive,
+            final boolean details) {
+
+        Realm base = Optional.ofNullable(realmDAO.findByFullPath(realm)).
+                orElseThrow(() -> new NotFoundException("Realm " + realm));
+
+        Set<String> authRealms = RealmUtils.getEffective(
+                AuthContextUtils.getAuthorizations().get(IdRepoEntitlement.USER_SEARCH), realm);
+
+        SearchCond effectiveCond = searchCond == null ? userDAO.getAllMatchingCond() : searchCond;
+
+        // counting requires a full scan, which keyset pagination is meant to avoid: only count on first page
+        int count = StringUtils.isBlank(after)
+                ? searchDAO.count(base, recursive, authRealms, effectiveCond, AnyTypeKind.USER)
+                : -1;
+
+        List<User> matching = searchDAO.search(
+                base, recursive, authRealms, effectiveCond, after, size, AnyTypeKind.USER);
+        if (details) {
+            virAttrHandler.prefetch(matching);
+        }
         List<UserTO> result = matching.stream().
                 map(user -> binder.getUserTO(user, details)).
                 collect(Collectors.toList());
@@ -233,6 +277,101 @@ public class UserLogic extends AbstractAnyLogic<UserTO, UserCR, UserUR> {
         return doUpdate(userUR, false, nullPriorityAsync);
     }
 
+    /**
+     * Assigns and unassigns the given users to / from the given group; users whose static membership would not
+     * change are not updated, so that the cost is proportional to the size of the change, rather than to the size
+     * of the group.
+     *
+     * @param groupKey group key
+     * @param added keys of users to assign to the group
+     * @param removed keys of users to unassign from the group
+     * @param nullPriorityAsync whether to propagate asynchronously to resources with null priority
+     * @return keys of users which could not be updated
+     */
+    @PreAuthorize("hasRole('" + IdRepoEntitlement.USER_UPDATE + "')")
+    public Set<String> updateMemberships(
+            final String groupKey,
+            final Collection<String> added,
+            final Collection<String> removed,
+            final boolean nullPriorityAsync) {
+
+        Group group = Optional.ofNullable(groupDAO.find(groupKey)).
+                orElseThrow(() -> new NotFoundException("Group " + groupKey));
+
+        Set<String> candidates = new HashSet<>(added);
+        candidates.addAll(removed);
+        Set<String> current = candidates.isEmpty()
+                ? Set.of()
+                : new HashSet<>(groupDAO.findUMemberKeys(group, candidates));
+
+        Set<String> failed = new HashSet<>();
+        added.stream().distinct().filter(user -> !current.contains(user)).forEach(user -> updateMembership(
+                user, groupKey, PatchOperation.ADD_REPLACE, nullPriorityAsync, failed));
+        removed.stream().distinct().filter(current::contains).forEach(user -> updateMembership(
+                user, groupKey, PatchOperation.DELETE, nullPriorityAsync, failed));
+        return failed;
+    }
+
+    /**
+     * Finds the keys of users statically assigned to the given group, which the caller is entitled to update: members
+     * outside the caller's realms are left out, so that they are not affected when all members are replaced.
+     *
+     * @param groupKey group key
+     * @return keys of users statically assigned to the given group, which the caller is entitled to update
+     */
+    @PreAuthorize("hasRole('" + IdRepoEntitlement.USER_UPDATE + "')")
+    @Transactional(readOnly = true)
+    public Set<String> findUpdatableMemberKeys(final String groupKey) {
+        Group group = Optional.ofNullable(groupDAO.find(groupKey)).
+                orElseThrow(() -> new NotFoundException("Group " + groupKey));
+
+        Set<String> authRealms = AuthContextUtils.getAuthorizations().
+                getOrDefault(IdRepoEntitlement.USER_UPDATE, Set.of());
+        if (authRealms.contains(SyncopeConstants.ROOT_REALM)
+                || authRealms.stream().map(RealmUtils::parseGroupOwnerRealm).flatMap(Optional::stream).
+                        anyMatch(pair -> groupKey.equals(pair.getRight()))) {
+
+            return new HashSet<>(groupDAO.findUMemberKeys(group));
+        }
+
+        Set<String> realms = authRealms.stream().
+                filter(realm -> realm.startsWith("/") && realm.indexOf('@') == -1).collect(Collectors.toSet());
+        Set<String> updatable = new HashSet<>(groupDAO.findUMemberKeysByRealm(group, realms));
+
+        // ownership of other groups and dynamic realms need to be checked for each remaining member
+        if (realms.size() < authRealms.size()) {
+            groupDAO.findUMemberKeys(group).stream().filter(member -> !updatable.contains(member)).forEach(member -> {
+                User user = userDAO.find(member);
+                try {
+                    userDAO.securityChecks(
+                            authRealms, member, user.getRealm().getFullPath(), userDAO.findAllGroupKeys(user));
+                    updatable.add(member);
+                } catch (DelegatedAdministrationException e) {
+                    LOG.debug("{} is not entitled to update {}", AuthContextUtils.getUsername(), member);
+                }
+            });
+        }
+
+        return updatable;
+    }
+
+    protected void updateMembership(
+            final String userKey,
+            final String groupKey,
+            final PatchOperation operation,
+            final boolean nullPriorityAsync,
+            final Set<String> failed) {
+
+        try {
+            doUpdate(new UserUR.Builder(userKey).
+                    membership(new MembershipUR.Builder(groupKey).operation(operation).build()).
+                    build(), false, nullPriorityAsync);
+        } catch (Exception e) {
+            LOG.error("While {} membership of {} to {}", operation, userKey, groupKey, e);
+            failed.add(userKey);
+        }
+    }
+
     protected Set<String> groups(final UserTO userTO) {
         return userTO.getMemberships().stream().filter(Objects::nonNull).
                 map(MembershipTO::getGroupKey).filter(Objects::nonNull).
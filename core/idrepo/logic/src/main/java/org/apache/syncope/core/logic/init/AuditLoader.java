@@ -29,9 +29,7 @@ import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.appender.rewrite.RewriteAppender;
 import org.apache.logging.log4j.core.config.LoggerConfig;
 import org.apache.syncope.common.lib.types.AuditLoggerName;
-import org.apache.syncope.core.logic.LogicProperties;
 import org.apache.syncope.core.logic.audit.AuditAppender;
-import org.apache.syncope.core.logic.audit.JdbcAuditAppender;
 import org.apache.syncope.core.persistence.api.ImplementationLookup;
 import org.apache.syncope.core.persistence.api.SyncopeCoreLoader;
 import org.apache.syncope.core.spring.ApplicationContextProvider;
@@ -47,16 +45,12 @@ public class AuditLoader implements SyncopeCoreLoader {
 
     protected final ImplementationLookup implementationLookup;
 
-    protected final LogicProperties props;
-
     public AuditLoader(
             final AuditAccessor auditAccessor,
-            final ImplementationLookup implementationLookup,
-            final LogicProperties props) {
+            final ImplementationLookup implementationLookup) {
 
         this.auditAccessor = auditAccessor;
         this.implementationLookup = implementationLookup;
-        this.props = props;
     }
 
     @Override
@@ -68,17 +62,6 @@ public class AuditLoader implements SyncopeCoreLoader {
     public void load(final String domain, final DataSource datasource) {
         LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
 
-        if (props.isEnableJDBCAuditAppender()) {
-            JdbcAuditAppender jdbcAuditAppender = (JdbcAuditAppender) ApplicationContextProvider.getBeanFactory().
-                    createBean(JdbcAuditAppender.class, AbstractBeanDefinition.AUTOWIRE_BY_TYPE, true);
-            jdbcAuditAppender.init(domain);
-
-            LoggerConfig logConf = new LoggerConfig(AuditLoggerName.getAuditLoggerName(domain), null, false);
-            logConf.addAppender(jdbcAuditAppender.getTargetAppender(), Level.DEBUG, null);
-            logConf.setLevel(Level.DEBUG);
-            ctx.getConfiguration().addLogger(logConf.getName(), logConf);
-        }
-
         // SYNCOPE-1144 For each custom audit appender class add related appenders to log4j logger
         auditAppenders(domain).forEach(auditAppender -> auditAppender.getEvents().stream().
                 map(event -> AuditLoggerName.getAuditEventLoggerName(domain, event.toAuditKey())).
@@ -20,6 +20,7 @@ package org.apache.syncope.core.logic;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayOutputStream;
@@ -27,6 +28,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
 import org.apache.syncope.common.lib.SyncopeConstants;
 import org.apache.syncope.common.lib.to.ReportTO;
 import org.apache.syncope.common.lib.types.IdMEntitlement;
@@ -36,6 +38,8 @@ import org.apache.syncope.core.persistence.api.dao.ReportExecDAO;
 import org.apache.syncope.core.persistence.api.entity.EntityFactory;
 import org.apache.syncope.core.persistence.api.entity.ReportExec;
 import org.apache.syncope.core.provisioning.api.job.report.ReportJobDelegate;
+import org.apache.syncope.core.provisioning.api.job.report.ReportStore;
+import org.apache.syncope.core.provisioning.java.job.report.DatabaseReportStore;
 import org.apache.syncope.core.provisioning.java.job.report.DefaultReportJobDelegate;
 import org.apache.syncope.core.spring.security.SyncopeAuthenticationDetails;
 import org.apache.syncope.core.spring.security.SyncopeGrantedAuthority;
@@ -81,6 +85,9 @@ public class ReportLogicTest extends AbstractTest {
     @Autowired
     private EntityFactory entityFactory;
 
+    @Autowired
+    private ReportStore reportStore;
+
     private void checkExport(final String execKey, final ReportExecExportFormat fmt) throws IOException {
         ReportExecExportFormat format = Optional.ofNullable(fmt).orElse(ReportExecExportFormat.XML);
         ReportExec reportExec = logic.getReportExec(execKey);
@@ -104,18 +111,28 @@ public class ReportLogicTest extends AbstractTest {
         report = logic.read(report.getKey());
         assertTrue(report.getExecutions().isEmpty());
 
-        ReportJobDelegate delegate = new DefaultReportJobDelegate(reportDAO, reportExecDAO, entityFactory);
+        ReportJobDelegate delegate = new DefaultReportJobDelegate(
+                reportDAO, reportExecDAO, entityFactory, reportStore, Deflater.BEST_SPEED);
         delegate.execute(report.getKey(), "test");
 
         report = logic.read(report.getKey());
         assertFalse(report.getExecutions().isEmpty());
 
         String execKey = report.getExecutions().get(0).getKey();
+        assertNotNull(reportExecDAO.find(execKey).getExecResultRef());
 
         checkExport(execKey, ReportExecExportFormat.XML);
         checkExport(execKey, ReportExecExportFormat.HTML);
         checkExport(execKey, ReportExecExportFormat.PDF);
         checkExport(execKey, ReportExecExportFormat.RTF);
         checkExport(execKey, ReportExecExportFormat.CSV);
+
+        // stored in the database by default
+        String execResultRef = reportExecDAO.find(execKey).getExecResultRef();
+        assertTrue(reportStore instanceof DatabaseReportStore);
+        assertNotNull(reportExecDAO.find(execKey).getExecResult());
+
+        logic.deleteExecution(execKey);
+        assertThrows(IOException.class, () -> reportStore.read(execResultRef));
     }
 }
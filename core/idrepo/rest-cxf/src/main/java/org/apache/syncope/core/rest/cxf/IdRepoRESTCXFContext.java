@@ -127,6 +127,7 @@ import org.apache.syncope.core.rest.cxf.service.SyncopeServiceImpl;
 import org.apache.syncope.core.rest.cxf.service.TaskServiceImpl;
 import org.apache.syncope.core.rest.cxf.service.UserSelfServiceImpl;
 import org.apache.syncope.core.rest.cxf.service.UserServiceImpl;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.ServletListenerRegistrationBean;
@@ -157,6 +158,21 @@ public class IdRepoRESTCXFContext {
         return executor;
     }
 
+    @ConditionalOnMissingBean(name = "batchItemExecutor")
+    @Bean
+    public ThreadPoolTaskExecutor batchItemExecutor(final RESTProperties props) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(props.getBatchItemExecutor().getCorePoolSize());
+        executor.setMaxPoolSize(props.getBatchItemExecutor().getMaxPoolSize());
+        executor.setQueueCapacity(props.getBatchItemExecutor().getQueueCapacity());
+        executor.setAwaitTerminationSeconds(props.getBatchItemExecutor().getAwaitTerminationSeconds());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setThreadNamePrefix("BatchItem-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
     @ConditionalOnMissingBean
     @Bean
     public DateParamConverterProvider dateParamConverterProvider() {
@@ -471,11 +487,14 @@ public class IdRepoRESTCXFContext {
     public SyncopeService syncopeService(
             final Bus bus,
             final SyncopeLogic syncopeLogic,
+            @Qualifier("batchExecutor")
             final ThreadPoolTaskExecutor batchExecutor,
+            @Qualifier("batchItemExecutor")
+            final ThreadPoolTaskExecutor batchItemExecutor,
             final BatchDAO batchDAO,
             final EntityFactory entityFactory) {
 
-        return new SyncopeServiceImpl(syncopeLogic, batchExecutor, bus, batchDAO, entityFactory);
+        return new SyncopeServiceImpl(syncopeLogic, batchExecutor, batchItemExecutor, bus, batchDAO, entityFactory);
     }
 
     @ConditionalOnMissingBean
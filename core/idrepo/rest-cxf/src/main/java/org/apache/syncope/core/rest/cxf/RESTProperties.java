@@ -26,7 +26,13 @@ public class RESTProperties {
 
     private final ExecutorProperties batchExecutor = new ExecutorProperties();
 
+    private final ExecutorProperties batchItemExecutor = new ExecutorProperties();
+
     public ExecutorProperties getBatchExecutor() {
         return batchExecutor;
     }
+
+    public ExecutorProperties getBatchItemExecutor() {
+        return batchItemExecutor;
+    }
 }
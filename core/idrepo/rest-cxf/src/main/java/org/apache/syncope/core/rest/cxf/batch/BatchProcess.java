@@ -19,8 +19,12 @@
 package org.apache.syncope.core.rest.cxf.batch;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.servlet.ServletConfig;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -32,19 +36,30 @@ import org.apache.syncope.common.rest.api.batch.BatchResponseItem;
 import org.apache.syncope.common.rest.api.service.JAXRSService;
 import org.apache.syncope.core.persistence.api.dao.BatchDAO;
 import org.apache.syncope.core.persistence.api.entity.Batch;
+import org.apache.syncope.core.persistence.api.entity.BatchResult;
+import org.apache.syncope.core.persistence.api.entity.EntityFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 public class BatchProcess implements Runnable {
 
     private static final Logger LOG = LoggerFactory.getLogger(BatchProcess.class);
 
+    /**
+     * How long a batch is kept after the last item was processed.
+     */
+    public static final long EXPIRY_MINUTES = 5;
+
     @Autowired
     private BatchDAO batchDAO;
 
+    @Autowired
+    private EntityFactory entityFactory;
+
     private String boundary;
 
     private String basePath;
@@ -59,6 +74,12 @@ public class BatchProcess implements Runnable {
 
     private Authentication authentication;
 
+    private int concurrency = 1;
+
+    private Executor itemExecutor;
+
+    private final AtomicReference<OffsetDateTime> lastTouch = new AtomicReference<>(OffsetDateTime.now());
+
     public void setBoundary(final String boundary) {
         this.boundary = boundary;
     }
@@ -87,58 +108,157 @@ public class BatchProcess implements Runnable {
         this.authentication = authentication;
     }
 
-    @Override
-    public void run() {
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+    public void setConcurrency(final int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public void setItemExecutor(final Executor itemExecutor) {
+        this.itemExecutor = itemExecutor;
+    }
 
-        List<BatchResponseItem> batchResponseItems = new ArrayList<>(batchRequestItems.size());
+    private BatchResponseItem process(final BatchRequestItem reqItem) {
+        LOG.debug("Batch Request item:\n{}", reqItem);
 
-        batchRequestItems.forEach(reqItem -> {
-            LOG.debug("Batch Request item:\n{}", reqItem);
+        AbstractHTTPDestination dest = destinationRegistry.getDestinationForPath(reqItem.getRequestURI(), true);
+        if (dest == null) {
+            dest = destinationRegistry.checkRestfulRequest(reqItem.getRequestURI());
+        }
+        LOG.debug("Destination found for {}: {}", reqItem.getRequestURI(), dest);
+
+        BatchResponseItem resItem = new BatchResponseItem();
+        if (dest == null) {
+            resItem.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        } else {
+            BatchItemRequest request = new BatchItemRequest(basePath, servletRequest, reqItem);
+            BatchItemResponse response = new BatchItemResponse();
+            try {
+                dest.invoke(servletConfig, servletConfig.getServletContext(), request, response);
+
+                resItem.setStatus(response.getStatus());
+                resItem.setHeaders(response.getHeaders());
+                String output = new String(response.getUnderlyingOutputStream().toByteArray(), StandardCharsets.UTF_8);
+                if (output.length() > 0) {
+                    resItem.setContent(output);
+                }
+
+                LOG.debug("Returned:\nstatus: {}\nheaders: {}\nbody:\n{}",
+                        response.getStatus(), response.getHeaders(), output);
+            } catch (IOException e) {
+                LOG.error("Invocation of {} failed", dest.getPath(), e);
 
-            AbstractHTTPDestination dest = destinationRegistry.getDestinationForPath(reqItem.getRequestURI(), true);
-            if (dest == null) {
-                dest = destinationRegistry.checkRestfulRequest(reqItem.getRequestURI());
+                resItem.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             }
-            LOG.debug("Destination found for {}: {}", reqItem.getRequestURI(), dest);
+        }
+
+        LOG.debug("Batch Response item:\n{}", resItem);
+        return resItem;
+    }
+
+    private static BatchResponseItem failure() {
+        BatchResponseItem resItem = new BatchResponseItem();
+        resItem.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        return resItem;
+    }
+
+    private void store(final int index, final BatchResponseItem resItem) {
+        BatchResult result = entityFactory.newEntity(BatchResult.class);
+        result.setBatch(boundary);
+        result.setItemIndex(index);
+        result.setContent(BatchPayloadGenerator.generate(resItem, JAXRSService.DOUBLE_DASH + boundary));
+        batchDAO.save(result);
+    }
 
-            BatchResponseItem resItem = new BatchResponseItem();
-            batchResponseItems.add(resItem);
-            if (dest == null) {
-                resItem.setStatus(HttpServletResponse.SC_NOT_FOUND);
+    private void touch() {
+        // postpone expiration, at most once per minute, as long as items are being processed
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime current = lastTouch.get();
+        if (now.isAfter(current.plusMinutes(1)) && lastTouch.compareAndSet(current, now)) {
+            Batch batch = batchDAO.find(boundary);
+            if (batch == null) {
+                LOG.error("Could not find batch {}, results will not be available", boundary);
             } else {
-                BatchItemRequest request = new BatchItemRequest(basePath, servletRequest, reqItem);
-                BatchItemResponse response = new BatchItemResponse();
-                try {
-                    dest.invoke(servletConfig, servletConfig.getServletContext(), request, response);
+                batch.setExpiryTime(now.plusMinutes(EXPIRY_MINUTES));
+                batchDAO.save(batch);
+            }
+        }
+    }
+
+    /**
+     * Processes the given item and stores its result, so that progress can be reported and results returned even
+     * before all items were processed; never throws, as a result is stored for each item, failure at worst:
+     * otherwise the batch would never be reported as completed.
+     *
+     * @param index item index
+     */
+    private void processAndStore(final int index) {
+        BatchResponseItem resItem;
+        try {
+            resItem = process(batchRequestItems.get(index));
+        } catch (Exception e) {
+            LOG.error("While processing item {} of batch {}", index, boundary, e);
 
-                    resItem.setStatus(response.getStatus());
-                    resItem.setHeaders(response.getHeaders());
-                    String output = new String(response.getUnderlyingOutputStream().toByteArray());
-                    if (output.length() > 0) {
-                        resItem.setContent(output);
-                    }
+            resItem = failure();
+        }
 
-                    LOG.debug("Returned:\nstatus: {}\nheaders: {}\nbody:\n{}",
-                            response.getStatus(), response.getHeaders(), output);
-                } catch (IOException e) {
-                    LOG.error("Invocation of {} failed", dest.getPath(), e);
+        try {
+            store(index, resItem);
+        } catch (Exception e) {
+            LOG.error("While storing result of item {} of batch {}", index, boundary, e);
 
-                    resItem.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-                }
+            try {
+                store(index, failure());
+            } catch (Exception fe) {
+                LOG.error("Could not store failure result of item {} of batch {}", index, boundary, fe);
             }
+        }
+
+        try {
+            touch();
+        } catch (Exception e) {
+            LOG.error("While postponing expiration of batch {}", boundary, e);
+        }
+    }
 
-            LOG.debug("Batch Response item:\n{}", resItem);
-        });
+    private void processInParallel() throws InterruptedException {
+        Semaphore permits = new Semaphore(concurrency);
 
-        String results = BatchPayloadGenerator.generate(batchResponseItems, JAXRSService.DOUBLE_DASH + boundary);
+        for (int i = 0; i < batchRequestItems.size(); i++) {
+            int index = i;
 
-        Batch batch = batchDAO.find(boundary);
-        if (batch == null) {
-            LOG.error("Could not find batch {}, cannot save results hence reporting here:\n{}", boundary, results);
+            permits.acquire();
+            itemExecutor.execute(() -> {
+                // this might run on the current thread, if no other is available
+                SecurityContext original = SecurityContextHolder.getContext();
+                SecurityContext ctx = SecurityContextHolder.createEmptyContext();
+                ctx.setAuthentication(authentication);
+                SecurityContextHolder.setContext(ctx);
+                try {
+                    processAndStore(index);
+                } finally {
+                    SecurityContextHolder.setContext(original);
+                    permits.release();
+                }
+            });
+        }
+
+        permits.acquire(concurrency);
+    }
+
+    @Override
+    public void run() {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        if (concurrency > 1 && itemExecutor != null) {
+            try {
+                processInParallel();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.error("Interrupted while processing batch {}", boundary, e);
+            }
         } else {
-            batch.setResults(results);
-            batchDAO.save(batch);
+            for (int i = 0; i < batchRequestItems.size(); i++) {
+                processAndStore(i);
+            }
         }
     }
 }
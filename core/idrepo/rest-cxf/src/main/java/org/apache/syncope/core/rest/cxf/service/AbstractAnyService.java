@@ -25,6 +25,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.tuple.Pair;
@@ -138,6 +139,18 @@ public abstract class AbstractAnyService<TO extends AnyTO, CR extends AnyCR, UR
                 : getSearchCond(anyQuery.getFiql(), realm);
 
         try {
+            if (anyQuery.getAfter() != null) {
+                Pair<Integer, List<TO>> result = getAnyLogic().search(
+                        searchCond,
+                        anyQuery.getAfter(),
+                        anyQuery.getSize(),
+                        isAssignableCond ? SyncopeConstants.ROOT_REALM : realm,
+                        anyQuery.getRecursive(),
+                        anyQuery.getDetails());
+
+                return buildKeysetPagedResult(result.getRight(), anyQuery.getSize(), result.getLeft());
+            }
+
             Pair<Integer, List<TO>> result = getAnyLogic().search(
                     searchCond,
                     anyQuery.getPage(),
@@ -156,6 +169,28 @@ public abstract class AbstractAnyService<TO extends AnyTO, CR extends AnyCR, UR
         }
     }
 
+    protected PagedResult<TO> buildKeysetPagedResult(final List<TO> list, final int size, final int totalCount) {
+        PagedResult<TO> result = new PagedResult<>();
+        result.getResult().addAll(list);
+
+        result.setPage(1);
+        result.setSize(result.getResult().size());
+        result.setTotalCount(totalCount);
+
+        // with keyset pagination, a full page means that further results might be available
+        if (result.getSize() == size) {
+            UriBuilder builder = uriInfo.getAbsolutePathBuilder();
+            uriInfo.getQueryParameters().forEach((key, value) -> builder.queryParam(key, value.toArray()));
+
+            result.setNext(builder.
+                    replaceQueryParam(PARAM_AFTER, list.get(list.size() - 1).getKey()).
+                    replaceQueryParam(PARAM_SIZE, size).
+                    build());
+        }
+
+        return result;
+    }
+
     protected OffsetDateTime findLastChange(final String key) {
         OffsetDateTime lastChange = getAnyDAO().findLastChange(key);
         if (lastChange == null) {
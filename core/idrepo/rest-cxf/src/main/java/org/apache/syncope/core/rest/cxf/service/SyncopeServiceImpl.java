@@ -20,6 +20,7 @@ package org.apache.syncope.core.rest.cxf.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.List;
 import javax.ws.rs.InternalServerErrorException;
@@ -29,6 +30,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.cxf.Bus;
 import org.apache.cxf.transport.DestinationFactoryManager;
@@ -42,12 +44,16 @@ import org.apache.syncope.common.lib.to.TypeExtensionTO;
 import org.apache.syncope.common.lib.types.ClientExceptionType;
 import org.apache.syncope.common.rest.api.Preference;
 import org.apache.syncope.common.rest.api.RESTHeaders;
+import org.apache.syncope.common.rest.api.batch.BatchPayloadGenerator;
 import org.apache.syncope.common.rest.api.batch.BatchPayloadParser;
 import org.apache.syncope.common.rest.api.batch.BatchRequestItem;
+import org.apache.syncope.common.rest.api.service.JAXRSService;
 import org.apache.syncope.common.rest.api.service.SyncopeService;
 import org.apache.syncope.core.logic.SyncopeLogic;
+import org.apache.syncope.core.persistence.api.dao.AnyDAO;
 import org.apache.syncope.core.persistence.api.dao.BatchDAO;
 import org.apache.syncope.core.persistence.api.entity.Batch;
+import org.apache.syncope.core.persistence.api.entity.BatchResult;
 import org.apache.syncope.core.persistence.api.entity.EntityFactory;
 import org.apache.syncope.core.rest.cxf.batch.BatchProcess;
 import org.apache.syncope.core.spring.ApplicationContextProvider;
@@ -65,6 +71,8 @@ public class SyncopeServiceImpl extends AbstractService implements SyncopeServic
 
     protected final ThreadPoolTaskExecutor batchExecutor;
 
+    protected final ThreadPoolTaskExecutor batchItemExecutor;
+
     protected final Bus bus;
 
     protected final BatchDAO batchDAO;
@@ -74,12 +82,14 @@ public class SyncopeServiceImpl extends AbstractService implements SyncopeServic
     public SyncopeServiceImpl(
             final SyncopeLogic logic,
             final ThreadPoolTaskExecutor batchExecutor,
+            final ThreadPoolTaskExecutor batchItemExecutor,
             final Bus bus,
             final BatchDAO batchDAO,
             final EntityFactory entityFactory) {
 
         this.logic = logic;
         this.batchExecutor = batchExecutor;
+        this.batchItemExecutor = batchItemExecutor;
         this.bus = bus;
         this.batchDAO = batchDAO;
         this.entityFactory = entityFactory;
@@ -137,7 +147,8 @@ public class SyncopeServiceImpl extends AbstractService implements SyncopeServic
         // prepare for batch processing
         Batch batch = entityFactory.newEntity(Batch.class);
         batch.setKey(boundary);
-        batch.setExpiryTime(OffsetDateTime.now().plusMinutes(5));
+        batch.setExpiryTime(OffsetDateTime.now().plusMinutes(BatchProcess.EXPIRY_MINUTES));
+        batch.setItemCount(batchRequestItems.size());
         batchDAO.save(batch);
 
         BatchProcess batchProcess = ApplicationContextProvider.getBeanFactory().createBean(BatchProcess.class);
@@ -148,6 +159,10 @@ public class SyncopeServiceImpl extends AbstractService implements SyncopeServic
         batchProcess.setServletConfig(messageContext.getServletConfig());
         batchProcess.setServletRequest(messageContext.getHttpServletRequest());
         batchProcess.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+        batchProcess.setConcurrency(Math.min(
+                NumberUtils.toInt(messageContext.getHttpServletRequest().getHeader(RESTHeaders.BATCH_CONCURRENCY), 1),
+                batchItemExecutor.getMaxPoolSize()));
+        batchProcess.setItemExecutor(batchItemExecutor);
 
         // manage synchronous Vs asynchronous batch processing
         if (getPreference() == Preference.RESPOND_ASYNC) {
@@ -174,21 +189,33 @@ public class SyncopeServiceImpl extends AbstractService implements SyncopeServic
             throw new NotFoundException("Batch " + boundary);
         }
 
-        if (batch.getResults() == null) {
+        int completed = batchDAO.countResults(boundary);
+        if (completed < batch.getItemCount()) {
             return Response.accepted().
                     type(RESTHeaders.multipartMixedWith(boundary)).
                     header(HttpHeaders.RETRY_AFTER, 5).
                     header(HttpHeaders.LOCATION, uriInfo.getAbsolutePathBuilder().build()).
+                    header(RESTHeaders.BATCH_PROGRESS, completed + "/" + batch.getItemCount()).
                     build();
         }
 
-        Response response = Response.ok(batch.getResults()).
-                type(RESTHeaders.multipartMixedWith(boundary)).
-                build();
+        // results are read and sent page by page, rather than all at once
+        StreamingOutput sout = os -> {
+            for (int page = 1; page <= (completed / AnyDAO.DEFAULT_PAGE_SIZE) + 1; page++) {
+                for (BatchResult result : batchDAO.findResults(boundary, page, AnyDAO.DEFAULT_PAGE_SIZE)) {
+                    os.write(result.getContent().getBytes(StandardCharsets.UTF_8));
+                }
+                os.flush();
+            }
+            os.write(BatchPayloadGenerator.generateEnd(JAXRSService.DOUBLE_DASH + boundary).
+                    getBytes(StandardCharsets.UTF_8));
 
-        batchDAO.delete(boundary);
+            batchDAO.delete(boundary);
+        };
 
-        return response;
+        return Response.ok(sout).
+                type(RESTHeaders.multipartMixedWith(boundary)).
+                build();
     }
 
     @Override
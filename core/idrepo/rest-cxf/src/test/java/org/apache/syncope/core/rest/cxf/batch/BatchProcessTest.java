@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.rest.cxf.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.cxf.transport.http.DestinationRegistry;
+import org.apache.syncope.common.rest.api.batch.BatchRequestItem;
+import org.apache.syncope.core.persistence.api.dao.BatchDAO;
+import org.apache.syncope.core.persistence.api.entity.BatchResult;
+import org.apache.syncope.core.persistence.api.entity.EntityFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchProcessTest {
+
+    private static class TestBatchResult implements BatchResult {
+
+        private static final long serialVersionUID = -6180460311506383307L;
+
+        private String batch;
+
+        private int itemIndex;
+
+        private String content;
+
+        @Override
+        public String getKey() {
+            return batch + '_' + itemIndex;
+        }
+
+        @Override
+        public String getBatch() {
+            return batch;
+        }
+
+        @Override
+        public void setBatch(final String batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public int getItemIndex() {
+            return itemIndex;
+        }
+
+        @Override
+        public void setItemIndex(final int itemIndex) {
+            this.itemIndex = itemIndex;
+        }
+
+        @Override
+        public String getContent() {
+            return content;
+        }
+
+        @Override
+        public void setContent(final String content) {
+            this.content = content;
+        }
+    }
+
+    @Mock
+    private BatchDAO batchDAO;
+
+    @Mock
+    private EntityFactory entityFactory;
+
+    @Mock
+    private DestinationRegistry destinationRegistry;
+
+    @InjectMocks
+    private BatchProcess batchProcess;
+
+    private final List<BatchResult> stored = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        when(entityFactory.newEntity(BatchResult.class)).thenAnswer(ic -> new TestBatchResult());
+
+        batchProcess.setBoundary("batch_boundary");
+        batchProcess.setDestinationRegistry(destinationRegistry);
+        batchProcess.setBatchRequestItems(IntStream.range(0, 3).mapToObj(i -> {
+            BatchRequestItem item = new BatchRequestItem();
+            item.setMethod("GET");
+            item.setRequestURI("/unknown/" + i);
+            return item;
+        }).collect(Collectors.toList()));
+    }
+
+    private void run(final int concurrency) {
+        // the second item cannot be stored with its actual result
+        when(batchDAO.save(any(BatchResult.class))).thenAnswer(ic -> {
+            BatchResult result = ic.getArgument(0);
+            if (result.getItemIndex() == 1 && result.getContent().contains("404")) {
+                throw new IllegalStateException("Could not store");
+            }
+            synchronized (stored) {
+                stored.add(result);
+            }
+            return result;
+        });
+
+        batchProcess.setConcurrency(concurrency);
+        batchProcess.setItemExecutor(Runnable::run);
+        batchProcess.run();
+
+        assertEquals(
+                List.of(0, 1, 2),
+                stored.stream().map(BatchResult::getItemIndex).sorted().collect(Collectors.toList()));
+        stored.stream().filter(result -> result.getItemIndex() != 1).
+                forEach(result -> assertTrue(result.getContent().contains("404")));
+        stored.stream().filter(result -> result.getItemIndex() == 1).
+                forEach(result -> assertTrue(result.getContent().contains("500")));
+    }
+
+    @Test
+    public void storeFailureSequentially() {
+        run(1);
+    }
+
+    @Test
+    public void storeFailureInParallel() {
+        run(2);
+    }
+}
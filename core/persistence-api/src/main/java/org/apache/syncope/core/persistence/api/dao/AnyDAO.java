@@ -93,6 +93,17 @@ public interface AnyDAO<A extends Any<?>> extends DAO<A> {
      */
     List<String> findAllKeys(int page, int itemsPerPage);
 
+    /**
+     * Find any objects' keys following the given key, in key order; unlike
+     * {@link #findAllKeys(int, int)}, the cost of each call does not grow with the number of keys already read.
+     *
+     * @param after key to start after, or {@code null} to start from the first
+     * @param changedSince if not {@code null}, only return keys of any objects created or last changed since then
+     * @param itemsPerPage maximum number of keys to return
+     * @return any objects' keys following the given key
+     */
+    List<String> findAllKeys(String after, OffsetDateTime changedSince, int itemsPerPage);
+
     <S extends Schema> AllowedSchemas<S> findAllowedSchemas(A any, Class<S> reference);
 
     A save(A any);
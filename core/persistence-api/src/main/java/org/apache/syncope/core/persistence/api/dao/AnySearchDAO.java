@@ -81,4 +81,81 @@ public interface AnySearchDAO extends DAO<Any<?>> {
             int itemsPerPage,
             List<OrderByClause> orderBy,
             AnyTypeKind kind);
+
+    /**
+     * Keyset (seek) pagination: matching any objects are returned ordered by key, starting right after the
+     * given key; unlike page-based search, the cost of retrieving late pages does not grow with the number of
+     * preceding results.
+     *
+     * @param base Realm to start searching from
+     * @param recursive whether search should recursively include results from child Realms
+     * @param adminRealms realms for which the caller owns the proper entitlement(s)
+     * @param searchCondition the search condition
+     * @param after key of the last any object returned by the previous invocation, or null to start from the first
+     * @param itemsPerPage number of results per page
+     * @param kind any object
+     * @param <T> any
+     * @return the list of any objects matching the given search condition, with key greater than the given one
+     */
+    <T extends Any<?>> List<T> search(
+            Realm base,
+            boolean recursive,
+            Set<String> adminRealms,
+            SearchCond searchCondition,
+            String after,
+            int itemsPerPage,
+            AnyTypeKind kind);
+
+    /**
+     * @param searchCondition the search condition
+     * @param kind any object
+     * @return the keys of any objects matching the given search condition
+     */
+    List<String> searchKeys(SearchCond searchCondition, AnyTypeKind kind);
+
+    /**
+     * Same as {@link #search(Realm, boolean, Set, SearchCond, int, int, List, AnyTypeKind)} but only returning
+     * keys, without loading any entity: meant for callers only needing identifiers.
+     *
+     * @param base Realm to start searching from
+     * @param recursive whether search should recursively include results from child Realms
+     * @param adminRealms realms for which the caller owns the proper entitlement(s)
+     * @param searchCondition the search condition
+     * @param page position of the first result, start from 1
+     * @param itemsPerPage number of results per page
+     * @param orderBy list of ordering clauses
+     * @param kind any object
+     * @return the keys of any objects matching the given search condition (in the given page)
+     */
+    List<String> searchKeys(
+            Realm base,
+            boolean recursive,
+            Set<String> adminRealms,
+            SearchCond searchCondition,
+            int page,
+            int itemsPerPage,
+            List<OrderByClause> orderBy,
+            AnyTypeKind kind);
+
+    /**
+     * Same as {@link #search(Realm, boolean, Set, SearchCond, String, int, AnyTypeKind)} but only returning
+     * keys, without loading any entity: meant for callers only needing identifiers.
+     *
+     * @param base Realm to start searching from
+     * @param recursive whether search should recursively include results from child Realms
+     * @param adminRealms realms for which the caller owns the proper entitlement(s)
+     * @param searchCondition the search condition
+     * @param after key returned last by the previous invocation, or null to start from the first
+     * @param itemsPerPage number of results per page
+     * @param kind any object
+     * @return the keys of any objects matching the given search condition, greater than the given one
+     */
+    List<String> searchKeys(
+            Realm base,
+            boolean recursive,
+            Set<String> adminRealms,
+            SearchCond searchCondition,
+            String after,
+            int itemsPerPage,
+            AnyTypeKind kind);
 }
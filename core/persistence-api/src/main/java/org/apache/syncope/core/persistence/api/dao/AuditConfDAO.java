@@ -18,6 +18,7 @@
  */
 package org.apache.syncope.core.persistence.api.dao;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import org.apache.syncope.common.lib.audit.AuditEntry;
 import org.apache.syncope.common.lib.types.AuditElements;
@@ -38,6 +39,23 @@ public interface AuditConfDAO extends DAO<AuditConf> {
 
     void delete(AuditConf auditConf);
 
+    /**
+     * Stores the given audit entries in a single batch.
+     *
+     * @param entries audit entries to store
+     */
+    void saveEntries(List<AuditEntry> entries);
+
+    /**
+     * Fills the structured columns of the audit entries stored before these were introduced, from their serialized
+     * message; entries are processed by date, about {@code batchSize} at a time.
+     *
+     * @param after only entries stored after this date are processed, if not null
+     * @param batchSize number of entries to process
+     * @return date of the last entry processed, to be passed for the next batch; null when none is left
+     */
+    OffsetDateTime fillEntryColumns(OffsetDateTime after, int batchSize);
+
     int countEntries(
             String entityKey,
             AuditElements.EventCategoryType type,
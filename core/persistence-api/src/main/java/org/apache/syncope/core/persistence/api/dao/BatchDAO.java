@@ -18,7 +18,9 @@
  */
 package org.apache.syncope.core.persistence.api.dao;
 
+import java.util.List;
 import org.apache.syncope.core.persistence.api.entity.Batch;
+import org.apache.syncope.core.persistence.api.entity.BatchResult;
 
 public interface BatchDAO extends DAO<Batch> {
 
@@ -26,6 +28,12 @@ public interface BatchDAO extends DAO<Batch> {
 
     Batch save(Batch batch);
 
+    BatchResult save(BatchResult result);
+
+    int countResults(String batch);
+
+    List<BatchResult> findResults(String batch, int page, int itemsPerPage);
+
     void delete(String key);
 
     int deleteExpired();
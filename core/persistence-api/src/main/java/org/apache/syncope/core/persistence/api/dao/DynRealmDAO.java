@@ -19,6 +19,7 @@
 package org.apache.syncope.core.persistence.api.dao;
 
 import java.util.List;
+import java.util.Set;
 import org.apache.syncope.core.persistence.api.entity.Any;
 import org.apache.syncope.core.persistence.api.entity.DynRealm;
 
@@ -36,5 +37,14 @@ public interface DynRealmDAO extends DAO<DynRealm> {
 
     void refreshDynMemberships(Any<?> any);
 
+    /**
+     * Evaluates the dynamic realm membership conditions against the given any (invoked during save), limiting to
+     * the ones referencing at least one of the given fields, plain schemas or special attributes.
+     *
+     * @param any any being saved
+     * @param changed fields, plain schemas or special attributes changed for the given any
+     */
+    void refreshDynMemberships(Any<?> any, Set<String> changed);
+
     void removeDynMemberships(String anyKey);
 }
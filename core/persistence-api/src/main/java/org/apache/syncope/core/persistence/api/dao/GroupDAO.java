@@ -57,6 +57,56 @@ public interface GroupDAO extends AnyDAO<Group> {
 
     List<UMembership> findUMemberships(Group group);
 
+    /**
+     * Finds the keys of users statically assigned to the given group, without loading any entity.
+     *
+     * @param group group
+     * @return keys of users statically assigned to the given group
+     */
+    List<String> findUMemberKeys(Group group);
+
+    /**
+     * Finds which among the given users are statically assigned to the given group: the cost is proportional to
+     * the number of users given, not to the size of the group.
+     *
+     * @param group group
+     * @param userKeys keys of users to check
+     * @return keys of the given users which are statically assigned to the given group
+     */
+    List<String> findUMemberKeys(Group group, Collection<String> userKeys);
+
+    /**
+     * Finds the keys of users statically assigned to the given group, whose realm is among the given ones or their
+     * descendants.
+     *
+     * @param group group
+     * @param realms full paths of realms
+     * @return keys of users statically assigned to the given group, within the given realms
+     */
+    List<String> findUMemberKeysByRealm(Group group, Collection<String> realms);
+
+    /**
+     * Pages through users assigned - either statically or dynamically - to the given group, in key order.
+     *
+     * @param group group
+     * @param after if not null, only users with key greater than this are returned
+     * @param count maximum number of users to return
+     * @return key and username of users assigned to the given group
+     */
+    List<Pair<String, String>> findUMembers(Group group, String after, int count);
+
+    /**
+     * Pages through users assigned - either statically or dynamically - to the given group, whose realm is among
+     * the given ones or their descendants, in key order.
+     *
+     * @param group group
+     * @param realms full paths of realms; if empty, users in any realm are returned
+     * @param after if not null, only users with key greater than this are returned
+     * @param count maximum number of users to return
+     * @return key and username of users assigned to the given group
+     */
+    List<Pair<String, String>> findUMembers(Group group, Collection<String> realms, String after, int count);
+
     List<TypeExtension> findTypeExtensions(AnyTypeClass anyTypeClass);
 
     List<String> findADynMembers(Group group);
@@ -102,6 +152,16 @@ public interface GroupDAO extends AnyDAO<Group> {
      */
     Pair<Set<String>, Set<String>> refreshDynMemberships(User user);
 
+    /**
+     * Evaluates the dynamic group membership conditions against the given user (invoked during save), limiting to
+     * the ones referencing at least one of the given fields, plain schemas or special attributes.
+     *
+     * @param user user being saved
+     * @param changed fields, plain schemas or special attributes changed for the given user
+     * @return pair of groups dynamically assigned before and after refresh
+     */
+    Pair<Set<String>, Set<String>> refreshDynMemberships(User user, Set<String> changed);
+
     /**
      * Removes the dynamic group memberships of the given anyObject (invoked during delete).
      *
@@ -19,6 +19,8 @@
 package org.apache.syncope.core.persistence.api.dao;
 
 import java.util.List;
+import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.syncope.core.persistence.api.entity.Privilege;
 import org.apache.syncope.core.persistence.api.entity.Realm;
 import org.apache.syncope.core.persistence.api.entity.Role;
@@ -50,6 +52,16 @@ public interface RoleDAO extends DAO<Role> {
 
     void refreshDynMemberships(User user);
 
+    /**
+     * Evaluates the dynamic role membership conditions against the given user (invoked during save), limiting to
+     * the ones referencing at least one of the given fields, plain schemas or special attributes.
+     *
+     * @param user user being saved
+     * @param changed fields, plain schemas or special attributes changed for the given user
+     * @return pair of roles dynamically assigned before and after refresh
+     */
+    Pair<Set<String>, Set<String>> refreshDynMemberships(User user, Set<String> changed);
+
     void removeDynMemberships(String key);
 
 }
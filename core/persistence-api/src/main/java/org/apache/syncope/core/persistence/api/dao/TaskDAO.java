@@ -29,6 +29,7 @@ import org.apache.syncope.core.persistence.api.dao.search.OrderByClause;
 import org.apache.syncope.core.persistence.api.entity.ExternalResource;
 import org.apache.syncope.core.persistence.api.entity.Implementation;
 import org.apache.syncope.core.persistence.api.entity.Notification;
+import org.apache.syncope.core.persistence.api.entity.task.PropagationTask;
 import org.apache.syncope.core.persistence.api.entity.task.PullTask;
 import org.apache.syncope.core.persistence.api.entity.task.PushTask;
 import org.apache.syncope.core.persistence.api.entity.task.SchedTask;
@@ -71,6 +72,49 @@ public interface TaskDAO extends DAO<Task<?>> {
             AnyTypeKind anyTypeKind,
             String entityKey);
 
+    /**
+     * Finds the propagation tasks queued for asynchronous execution, which are due by the given time.
+     *
+     * @param until due time
+     * @param max maximum number of results
+     * @return keys of due propagation tasks, earliest first
+     */
+    List<String> findDuePropagations(OffsetDateTime until, int max);
+
+    /**
+     * Atomically claims the given queued propagation task, if due by the given time, by incrementing its attempts and
+     * moving its due time to the given lease: this prevents other Core instances from executing it meanwhile.
+     * The task is not claimed while any task queued earlier for the same entity and External Resource is still
+     * pending, so that propagations reach the External Resource in the same order as they were queued.
+     *
+     * @param key propagation task key
+     * @param until due time
+     * @param lease time after which the task will be considered due again, if not dequeued nor rescheduled
+     * @return the claimed propagation task, if found and due
+     */
+    Optional<PropagationTask> claimPropagation(String key, OffsetDateTime until, OffsetDateTime lease);
+
+    /**
+     * Finds the latest propagation task queued for asynchronous execution towards the given External Resource, for
+     * the given object class and entity.
+     *
+     * @param resource External Resource
+     * @param objectClassName object class name
+     * @param entityKey entity key
+     * @return the latest queued propagation task, if any
+     */
+    Optional<PropagationTask> findLastQueuedPropagation(
+            ExternalResource resource, String objectClassName, String entityKey);
+
+    /**
+     * Atomically takes the given queued propagation task off the queue, provided that no attempt was made yet: this
+     * prevents it from being claimed until it is saved again with a due time.
+     *
+     * @param key propagation task key
+     * @return the held propagation task, if found and not yet attempted
+     */
+    Optional<PropagationTask> holdPropagation(String key);
+
     <T extends Task<T>> T save(T task);
 
     void delete(TaskType type, String key);
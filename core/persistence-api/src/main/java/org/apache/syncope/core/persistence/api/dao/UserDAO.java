@@ -87,4 +87,15 @@ public interface UserDAO extends AnyDAO<User> {
     Pair<Boolean, Boolean> enforcePolicies(User user);
 
     Pair<Set<String>, Set<String>> saveAndGetDynGroupMembs(User user);
+
+    /**
+     * Declares which fields, plain schemas or special attributes of the given user are changed within the current
+     * transaction: the next save of such user will only evaluate the dynamic membership conditions referencing
+     * at least one of them; declared changes are consumed by that save, so any further save evaluates all conditions,
+     * unless changes are declared again.
+     *
+     * @param key user key
+     * @param changed fields, plain schemas or special attributes changed for the given user
+     */
+    void declareChanges(String key, Set<String> changed);
 }
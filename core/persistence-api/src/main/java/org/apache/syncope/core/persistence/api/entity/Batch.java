@@ -26,7 +26,7 @@ public interface Batch extends ProvidedKeyEntity {
 
     void setExpiryTime(OffsetDateTime expiryTime);
 
-    String getResults();
+    int getItemCount();
 
-    void setResults(String results);
+    void setItemCount(int itemCount);
 }
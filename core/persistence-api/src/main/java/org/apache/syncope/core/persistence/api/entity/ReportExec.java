@@ -22,12 +22,19 @@ import org.apache.syncope.common.lib.types.ReportExecStatus;
 
 public interface ReportExec extends Exec {
 
+    /**
+     * @return result as stored in the database by former versions, if any
+     */
     byte[] getExecResult();
 
+    String getExecResultRef();
+
     Report getReport();
 
     void setExecResult(byte[] execResult);
 
+    void setExecResultRef(String execResultRef);
+
     void setReport(Report report);
 
     void setStatus(ReportExecStatus status);
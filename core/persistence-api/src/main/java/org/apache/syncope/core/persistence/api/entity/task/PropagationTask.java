@@ -18,6 +18,7 @@
  */
 package org.apache.syncope.core.persistence.api.entity.task;
 
+import java.time.OffsetDateTime;
 import org.apache.syncope.common.lib.types.AnyTypeKind;
 import org.apache.syncope.common.lib.types.ResourceOperation;
 import org.apache.syncope.core.persistence.api.entity.ExternalResource;
@@ -61,4 +62,35 @@ public interface PropagationTask extends Task<PropagationTask> {
     ExternalResource getResource();
 
     void setResource(ExternalResource resource);
+
+    /**
+     * When not {@code null}, this task is queued for asynchronous execution, which is due at the returned time.
+     *
+     * @return when the next execution attempt is due, if queued
+     */
+    OffsetDateTime getDueDate();
+
+    void setDueDate(OffsetDateTime dueDate);
+
+    /**
+     * @return when this task was queued for asynchronous execution, if queued: determines the execution order among
+     * tasks queued for the same entity and External Resource
+     */
+    OffsetDateTime getQueuedDate();
+
+    void setQueuedDate(OffsetDateTime queuedDate);
+
+    /**
+     * @return number of execution attempts made so far, if queued
+     */
+    int getAttempts();
+
+    void setAttempts(int attempts);
+
+    /**
+     * @return who requested the execution, if queued
+     */
+    String getExecutor();
+
+    void setExecutor(String executor);
 }
@@ -57,4 +57,12 @@ public interface ProvisioningTask<T extends SchedTask> extends SchedTask {
     boolean isSyncStatus();
 
     void setSyncStatus(boolean syncStatus);
+
+    /**
+     * @return how many workers can process, in parallel, the objects provisioned by this task; 1 (the default)
+     * means that objects are processed one after another
+     */
+    int getConcurrency();
+
+    void setConcurrency(int concurrency);
 }
@@ -127,11 +127,7 @@ public class JPAJSONUserDAO extends JPAUserDAO {
         // ensure that entity listeners are invoked at this point
         entityManager().flush();
 
-        roleDAO.refreshDynMemberships(merged);
-        Pair<Set<String>, Set<String>> dynGroupMembs = groupDAO.refreshDynMemberships(merged);
-        dynRealmDAO.refreshDynMemberships(merged);
-
-        return Pair.of(merged, dynGroupMembs);
+        return Pair.of(merged, refreshDynMemberships(merged));
     }
 
     @Override
@@ -21,6 +21,7 @@ package org.apache.syncope.core.persistence.jpa.dao;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -55,13 +56,16 @@ import org.apache.syncope.core.persistence.api.dao.search.RelationshipTypeCond;
 import org.apache.syncope.core.persistence.api.dao.search.ResourceCond;
 import org.apache.syncope.core.persistence.api.dao.search.RoleCond;
 import org.apache.syncope.core.persistence.api.dao.search.SearchCond;
-import org.apache.syncope.core.persistence.api.entity.Any;
 import org.apache.syncope.core.persistence.api.entity.AnyUtils;
 import org.apache.syncope.core.persistence.api.entity.AnyUtilsFactory;
 import org.apache.syncope.core.persistence.api.entity.EntityFactory;
+import org.apache.syncope.core.persistence.api.entity.JSONPlainAttr;
+import org.apache.syncope.core.persistence.api.entity.PlainAttr;
+import org.apache.syncope.core.persistence.api.entity.PlainAttrUniqueValue;
 import org.apache.syncope.core.persistence.api.entity.PlainAttrValue;
 import org.apache.syncope.core.persistence.api.entity.PlainSchema;
 import org.apache.syncope.core.persistence.api.entity.Realm;
+import org.apache.syncope.core.provisioning.api.serialization.POJOHelper;
 
 public class PGJPAJSONAnySearchDAO extends JPAAnySearchDAO {
 
@@ -77,10 +81,56 @@ public class PGJPAJSONAnySearchDAO extends JPAAnySearchDAO {
         return output;
     }
 
-    protected static String escapeIfString(final String value, final boolean isStr) {
-        return isStr
-                ? new StringBuilder().append('"').append(value.replace("'", "''")).append('"').toString()
-                : value;
+    protected static String jsonPathString(final String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    protected static String jsonPathValue(final String value, final boolean isStr) {
+        return isStr ? jsonPathString(value) : value;
+    }
+
+    /**
+     * Builds a {@code @?} jsonpath condition on the values of the given schema: unlike functions as
+     * {@code jsonb_path_exists}, such operator can be served by the {@code jsonb_path_ops} GIN index on
+     * {@code plainAttrs}, which narrows candidate rows to the ones holding the schema; the predicate is then
+     * rechecked on each, so the index only helps with schemas held by few rows.
+     *
+     * @param schema plain schema
+     * @param predicate jsonpath filter predicate on the schema values
+     * @param parameters query parameters
+     * @return SQL condition
+     */
+    protected String jsonPathMatch(final PlainSchema schema, final String predicate, final List<Object> parameters) {
+        String jsonPath = "$[*] ? (@.schema == " + jsonPathString(schema.getKey()) + ")."
+                + (schema.isUniqueConstraint() ? "uniqueValue" : "\"values\"[*]")
+                + " ? (" + predicate + ')';
+        return "plainAttrs @? CAST(?" + setParameter(parameters, jsonPath) + " AS jsonpath)";
+    }
+
+    /**
+     * Builds a {@code @>} containment condition matching the given attribute.
+     *
+     * @param container attribute holding the value to match
+     * @param parameters query parameters
+     * @return SQL condition
+     */
+    protected String valueContainment(final PlainAttr<?> container, final List<Object> parameters) {
+        return "plainAttrs @> CAST(?"
+                + setParameter(parameters, POJOHelper.serialize(List.of(container)))
+                + " AS jsonb)";
+    }
+
+    /**
+     * Builds a {@code @>} containment condition matching any attribute for the given schema.
+     *
+     * @param schema plain schema
+     * @param parameters query parameters
+     * @return SQL condition
+     */
+    protected String schemaContainment(final PlainSchema schema, final List<Object> parameters) {
+        return "plainAttrs @> CAST(?"
+                + setParameter(parameters, POJOHelper.serialize(List.of(Map.of("schema", schema.getKey()))))
+                + " AS jsonb)";
     }
 
     public PGJPAJSONAnySearchDAO(
@@ -199,18 +249,16 @@ public class PGJPAJSONAnySearchDAO extends JPAAnySearchDAO {
                     break;
 
                 case ISNOTNULL:
-                    query.append("jsonb_path_exists(").append(schema.getKey()).append(", '$[*]')");
+                    query.append(schemaContainment(schema, parameters));
                     break;
 
                 case ILIKE:
                 case LIKE:
-                    // jsonb_path_exists(Nome, '$[*] ? (@.stringValue like_regex "EL.*" flag "i")')
+                    // plainAttrs @? '$[*] ? (@.schema == "Nome")."values"[*] ? (@.stringValue like_regex "^EL.*$")'
                     if (schema.getType() == AttrSchemaType.String || schema.getType() == AttrSchemaType.Enum) {
-                        query.append("jsonb_path_exists(").append(schema.getKey()).append(", '$[*] ? ").
-                                append("(@.").append(key).append(" like_regex \"").
-                                append(escapeForLikeRegex(value).replace("%", ".*")).
-                                append("\"").
-                                append(lower ? " flag \"i\"" : "").append(")')");
+                        query.append(jsonPathMatch(schema, "@." + key + " like_regex "
+                                + jsonPathString('^' + escapeForLikeRegex(value).replace("%", ".*") + '$')
+                                + (lower ? " flag \"i\"" : ""), parameters));
                     } else {
                         query.append(' ').append(ALWAYS_FALSE_ASSERTION);
                         LOG.error("LIKE is only compatible with string or enum schemas");
@@ -219,39 +267,36 @@ public class PGJPAJSONAnySearchDAO extends JPAAnySearchDAO {
 
                 case IEQ:
                 case EQ:
-                    query.append("jsonb_path_exists(").append(schema.getKey()).append(", '$[*] ? ").
-                            append("(@.").append(key);
-                    if (StringUtils.containsAny(value, POSTGRESQL_REGEX_CHARS) || lower) {
-                        query.append(" like_regex \"").append(escapeForLikeRegex(value).replace("'", "''")).append('"');
+                    if (lower) {
+                        query.append(jsonPathMatch(schema, "@." + key + " like_regex "
+                                + jsonPathString('^' + escapeForLikeRegex(value) + '$') + " flag \"i\"", parameters));
                     } else {
-                        query.append(" == ").append(escapeIfString(value, isStr));
+                        // plainAttrs @> '[{"schema":"Nome","values":[{"stringValue":"EL"}]}]'
+                        PlainAttr<?> container = anyUtils.newPlainAttr();
+                        container.setSchema(schema);
+                        if (attrValue instanceof PlainAttrUniqueValue) {
+                            container.setUniqueValue((PlainAttrUniqueValue) attrValue);
+                        } else {
+                            ((JSONPlainAttr) container).add(attrValue);
+                        }
+                        query.append(valueContainment(container, parameters));
                     }
-
-                    query.append(lower ? " flag \"i\"" : "").append(")')");
                     break;
 
                 case GE:
-                    query.append("jsonb_path_exists(").append(schema.getKey()).append(", '$[*] ? ").
-                            append("(@.").append(key).append(" >= ").
-                            append(escapeIfString(value, isStr)).append(")')");
+                    query.append(jsonPathMatch(schema, "@." + key + " >= " + jsonPathValue(value, isStr), parameters));
                     break;
 
                 case GT:
-                    query.append("jsonb_path_exists(").append(schema.getKey()).append(", '$[*] ? ").
-                            append("(@.").append(key).append(" > ").
-                            append(escapeIfString(value, isStr)).append(")')");
+                    query.append(jsonPathMatch(schema, "@." + key + " > " + jsonPathValue(value, isStr), parameters));
                     break;
 
                 case LE:
-                    query.append("jsonb_path_exists(").append(schema.getKey()).append(", '$[*] ? ").
-                            append("(@.").append(key).append(" <= ").
-                            append(escapeIfString(value, isStr)).append(")')");
+                    query.append(jsonPathMatch(schema, "@." + key + " <= " + jsonPathValue(value, isStr), parameters));
                     break;
 
                 case LT:
-                    query.append("jsonb_path_exists(").append(schema.getKey()).append(", '$[*] ? ").
-                            append("(@.").append(key).append(" < ").
-                            append(escapeIfString(value, isStr)).append(")')");
+                    query.append(jsonPathMatch(schema, "@." + key + " < " + jsonPathValue(value, isStr), parameters));
                     break;
 
                 default:
@@ -272,13 +317,11 @@ public class PGJPAJSONAnySearchDAO extends JPAAnySearchDAO {
 
         switch (cond.getType()) {
             case ISNOTNULL:
-                query.append(not ? " NOT " : ' ').
-                        append("jsonb_path_exists(").append(checked.getLeft().getKey()).append(",'$[*]')");
+                query.append(not ? " NOT " : ' ').append(schemaContainment(checked.getLeft(), parameters));
                 break;
 
             case ISNULL:
-                query.append(not ? ' ' : " NOT ").
-                        append("jsonb_path_exists(").append(checked.getLeft().getKey()).append(",'$[*]')");
+                query.append(not ? ' ' : " NOT ").append(schemaContainment(checked.getLeft(), parameters));
                 break;
 
             default:
@@ -470,9 +513,7 @@ public class PGJPAJSONAnySearchDAO extends JPAAnySearchDAO {
 
         StringBuilder query = new StringBuilder().append('(');
         if (cond.isFromGroup()) {
-            realmDAO.findDescendants(realm).forEach(current -> query.append("realm_id=?").
-                    append(setParameter(parameters, current.getKey())).append(" OR "));
-            query.setLength(query.length() - 4);
+            query.append(buildRealmPathsFilter(Set.of(realm.getFullPath()), parameters));
         } else {
             for (Realm current = realm; current.getParent() != null; current = current.getParent()) {
                 query.append("realm_id=?").append(setParameter(parameters, current.getKey())).append(" OR ");
@@ -655,17 +696,24 @@ public class PGJPAJSONAnySearchDAO extends JPAAnySearchDAO {
     @Override
     protected String buildAdminRealmsFilter(
             final Set<String> realmKeys,
+            final Set<String> realmPaths,
             final SearchSupport svs,
             final List<Object> parameters) {
 
-        if (realmKeys.isEmpty()) {
+        if (realmKeys.isEmpty() && realmPaths.isEmpty()) {
             return "realm_id IS NOT NULL";
         }
 
-        String realmKeysArg = realmKeys.stream().
-                map(realmKey -> "?" + setParameter(parameters, realmKey)).
-                collect(Collectors.joining(","));
-        return "realm_id IN (" + realmKeysArg + ')';
+        List<String> conditions = new ArrayList<>();
+        if (!realmKeys.isEmpty()) {
+            conditions.add("realm_id IN (" + realmKeys.stream().
+                    map(realmKey -> "?" + setParameter(parameters, realmKey)).
+                    collect(Collectors.joining(",")) + ')');
+        }
+        if (!realmPaths.isEmpty()) {
+            conditions.add(buildRealmPathsFilter(realmPaths, parameters));
+        }
+        return conditions.size() == 1 ? conditions.get(0) : '(' + String.join(" OR ", conditions) + ')';
     }
 
     @Override
@@ -698,8 +746,7 @@ public class PGJPAJSONAnySearchDAO extends JPAAnySearchDAO {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    protected <T extends Any<?>> List<T> doSearch(
+    protected List<String> doSearch(
             final Realm base,
             final boolean recursive,
             final Set<String> adminRealms,
@@ -749,8 +796,8 @@ public class PGJPAJSONAnySearchDAO extends JPAAnySearchDAO {
             // 5. populate the search query with parameter values
             fillWithParameters(query, parameters);
 
-            // 6. Prepare the result (avoiding duplicates)
-            return buildResult(query.getResultList(), kind);
+            // 6. Prepare the result
+            return toKeys(query.getResultList());
         } catch (SyncopeClientException e) {
             throw e;
         } catch (Exception e) {
@@ -18,52 +18,15 @@
  */
 package org.apache.syncope.core.persistence.jpa.dao;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import java.util.List;
-import java.util.stream.Collectors;
-import org.apache.syncope.core.persistence.jpa.dao.AbstractJPAJSONLoggerDAO.JSONMessageCriteriaBuilder;
-import org.apache.syncope.core.provisioning.api.serialization.POJOHelper;
+public class PGJPAJSONAuditConfDAO extends JPAAuditConfDAO {
 
-public class PGJPAJSONAuditConfDAO extends AbstractJPAJSONLoggerDAO {
-
-    private static class PGMessageCriteriaBuilder extends JSONMessageCriteriaBuilder {
-
-        @Override
-        protected String doBuild(final List<ObjectNode> containers) {
-            if (entityKey != null) {
-                query.append('(').
-                        append(AUDIT_ENTRY_MESSAGE_COLUMN).append(" ->> 'before' LIKE '%").append(entityKey).
-                        append("%' OR ").
-                        append(AUDIT_ENTRY_MESSAGE_COLUMN).append(" ->> 'input' LIKE '%").append(entityKey).
-                        append("%' OR ").
-                        append(AUDIT_ENTRY_MESSAGE_COLUMN).append(" ->> 'output' LIKE '%").append(entityKey).
-                        append("%')");
-            }
-
-            if (!containers.isEmpty()) {
-                if (entityKey != null) {
-                    query.append(" AND (");
-                }
-                query.append(containers.stream().
-                        map(container -> AUDIT_ENTRY_MESSAGE_COLUMN + "::jsonb @> '"
-                        + POJOHelper.serialize(container).replace("'", "''")
-                        + "'::jsonb").collect(Collectors.joining(" OR ")));
-                if (entityKey != null) {
-                    query.append(')');
-                }
-            }
-
-            return query.toString();
-        }
+    @Override
+    protected String messageParameter() {
+        return "CAST(? AS jsonb)";
     }
 
     @Override
     protected String select() {
         return AUDIT_ENTRY_MESSAGE_COLUMN + "::text";
     }
-
-    @Override
-    protected MessageCriteriaBuilder messageCriteriaBuilder(final String entityKey) {
-        return new PGMessageCriteriaBuilder().entityKey(entityKey);
-    }
 }
@@ -17,8 +17,26 @@
 
 CREATE TABLE IF NOT EXISTS AuditEntry (
   EVENT_DATE TIMESTAMP,
+  WHO VARCHAR(255),
+  EVENT_TYPE VARCHAR(255),
+  CATEGORY VARCHAR(255),
+  SUBCATEGORY VARCHAR(255),
+  EVENT VARCHAR(255),
+  RESULT VARCHAR(255),
+  ENTITY_KEY VARCHAR(255),
   LOGGER_LEVEL VARCHAR(255) NOT NULL,
   LOGGER VARCHAR(255) NOT NULL,
   MESSAGE JSON NOT NULL,
   THROWABLE TEXT
 ) ENGINE=InnoDB;
+-- upgrade AuditEntry tables created before the following columns were introduced
+ALTER TABLE AuditEntry ADD WHO VARCHAR(255);
+ALTER TABLE AuditEntry ADD EVENT_TYPE VARCHAR(255);
+ALTER TABLE AuditEntry ADD CATEGORY VARCHAR(255);
+ALTER TABLE AuditEntry ADD SUBCATEGORY VARCHAR(255);
+ALTER TABLE AuditEntry ADD EVENT VARCHAR(255);
+ALTER TABLE AuditEntry ADD RESULT VARCHAR(255);
+ALTER TABLE AuditEntry ADD ENTITY_KEY VARCHAR(255);
+CREATE INDEX AuditEntry_date_idx ON AuditEntry(EVENT_DATE);
+CREATE INDEX AuditEntry_entity_idx ON AuditEntry(ENTITY_KEY);
+CREATE INDEX AuditEntry_event_idx ON AuditEntry(CATEGORY, SUBCATEGORY, EVENT);
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.persistence.jpa.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.apache.syncope.common.lib.types.AttrSchemaType;
+import org.apache.syncope.core.persistence.api.entity.PlainSchema;
+import org.apache.syncope.core.persistence.jpa.entity.JPAPlainSchema;
+import org.apache.syncope.core.persistence.jpa.entity.user.JPAJSONUPlainAttr;
+import org.apache.syncope.core.persistence.jpa.entity.user.JPAJSONUPlainAttrUniqueValue;
+import org.apache.syncope.core.persistence.jpa.entity.user.JPAJSONUPlainAttrValue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Checks, via {@code EXPLAIN} with the default planner settings, that conditions generated for plain attributes are
+ * served by the {@code jsonb_path_ops} GIN index on {@code plainAttrs} when selective: either matching a value by
+ * containment, or involving a schema held by few rows; range and pattern predicates are not narrowed by the index,
+ * only rechecked on the rows holding the schema.
+ */
+@EnabledIfSystemProperty(named = "profileId", matches = "pgjsonb")
+public class PGJPAJSONAnySearchDAOPlanTest {
+
+    private static final int ROWS = 20000;
+
+    private static final PGJPAJSONAnySearchDAO SEARCH_DAO =
+            new PGJPAJSONAnySearchDAO(null, null, null, null, null, null, null, null, null);
+
+    private static Connection CONN;
+
+    private static PlainSchema schema(final String key, final AttrSchemaType type, final boolean unique) {
+        JPAPlainSchema schema = new JPAPlainSchema();
+        schema.setKey(key);
+        schema.setType(type);
+        schema.setUniqueConstraint(unique);
+        return schema;
+    }
+
+    @BeforeAll
+    public static void setup() throws SQLException {
+        CONN = DriverManager.getConnection(
+                "jdbc:postgresql://" + System.getProperty("DB_CONTAINER_IP") + ":5432/syncope?stringtype=unspecified",
+                "syncope",
+                "syncope");
+
+        try (Statement stmt = CONN.createStatement()) {
+            stmt.execute("CREATE TEMPORARY TABLE PlanUser (id INTEGER PRIMARY KEY, plainAttrs JSONB)");
+            stmt.execute("CREATE INDEX PlanUser_plainAttrs_idx ON PlanUser USING gin ((plainAttrs) jsonb_path_ops)");
+        }
+        try (PreparedStatement stmt = CONN.prepareStatement("INSERT INTO PlanUser VALUES (?, CAST(? AS jsonb))")) {
+            for (int i = 0; i < ROWS; i++) {
+                stmt.setInt(1, i);
+                stmt.setString(2, "[{\"schema\":\"firstname\",\"values\":[{\"stringValue\":\"Name" + i + "\"}]},"
+                        + "{\"schema\":\"fullname\",\"uniqueValue\":{\"stringValue\":\"Full Name " + i + "\"}},"
+                        + "{\"schema\":\"score\",\"values\":[{\"longValue\":" + (i % 90) + "}]}"
+                        + (i % 100 == 0 ? ",{\"schema\":\"age\",\"values\":[{\"longValue\":" + (i % 90) + "}]}" : "")
+                        + (i % 100 == 1
+                        ? ",{\"schema\":\"nickname\",\"uniqueValue\":{\"stringValue\":\"Nick " + i + "\"}}" : "")
+                        + ']');
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        try (Statement stmt = CONN.createStatement()) {
+            stmt.execute("ANALYZE PlanUser");
+        }
+    }
+
+    @AfterAll
+    public static void cleanup() throws SQLException {
+        if (CONN != null) {
+            CONN.close();
+        }
+    }
+
+    private static PreparedStatement prepare(final String sql, final List<Object> parameters) throws SQLException {
+        PreparedStatement stmt = CONN.prepareStatement(sql.replaceAll("\\?\\d+", "?"));
+        for (int i = 0; i < parameters.size(); i++) {
+            stmt.setObject(i + 1, parameters.get(i));
+        }
+        return stmt;
+    }
+
+    private static void check(
+            final String condition,
+            final List<Object> parameters,
+            final long expected,
+            final boolean indexed) throws SQLException {
+
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement stmt = prepare("EXPLAIN SELECT id FROM PlanUser WHERE " + condition, parameters);
+                ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                plan.add(rs.getString(1));
+            }
+        }
+        if (indexed) {
+            assertTrue(plan.stream().anyMatch(row -> row.toLowerCase().contains("planuser_plainattrs_idx")),
+                    () -> condition + " not served by index:\n" + String.join("\n", plan));
+        }
+
+        try (PreparedStatement stmt = prepare("SELECT COUNT(id) FROM PlanUser WHERE " + condition, parameters);
+                ResultSet rs = stmt.executeQuery()) {
+
+            rs.next();
+            assertEquals(expected, rs.getLong(1));
+        }
+    }
+
+    @Test
+    public void eq() throws SQLException {
+        JPAJSONUPlainAttrValue value = new JPAJSONUPlainAttrValue();
+        value.setStringValue("Name42");
+        JPAJSONUPlainAttr attr = new JPAJSONUPlainAttr();
+        attr.setSchema("firstname");
+        attr.add(value);
+
+        List<Object> parameters = new ArrayList<>();
+        check(SEARCH_DAO.valueContainment(attr, parameters), parameters, 1, true);
+    }
+
+    @Test
+    public void uniqueEq() throws SQLException {
+        JPAJSONUPlainAttrUniqueValue value = new JPAJSONUPlainAttrUniqueValue();
+        value.setStringValue("Full Name 42");
+        JPAJSONUPlainAttr attr = new JPAJSONUPlainAttr();
+        attr.setSchema("fullname");
+        attr.setUniqueValue(value);
+
+        List<Object> parameters = new ArrayList<>();
+        check(SEARCH_DAO.valueContainment(attr, parameters), parameters, 1, true);
+    }
+
+    @Test
+    public void isNotNull() throws SQLException {
+        List<Object> parameters = new ArrayList<>();
+        check(SEARCH_DAO.schemaContainment(schema("age", AttrSchemaType.Long, false), parameters),
+                parameters, ROWS / 100, true);
+    }
+
+    @Test
+    public void ge() throws SQLException {
+        List<Object> parameters = new ArrayList<>();
+        check(SEARCH_DAO.jsonPathMatch(schema("age", AttrSchemaType.Long, false), "@.longValue >= 80", parameters),
+                parameters,
+                IntStream.range(0, ROWS).filter(i -> i % 100 == 0 && i % 90 >= 80).count(),
+                true);
+    }
+
+    @Test
+    public void geOnCommonSchema() throws SQLException {
+        // all rows hold the schema: the index cannot narrow them, hence the planner is free to choose
+        List<Object> parameters = new ArrayList<>();
+        check(SEARCH_DAO.jsonPathMatch(schema("score", AttrSchemaType.Long, false), "@.longValue >= 80", parameters),
+                parameters,
+                IntStream.range(0, ROWS).filter(i -> i % 90 >= 80).count(),
+                false);
+    }
+
+    @Test
+    public void ilike() throws SQLException {
+        List<Object> parameters = new ArrayList<>();
+        check(SEARCH_DAO.jsonPathMatch(
+                schema("nickname", AttrSchemaType.String, true),
+                "@.stringValue like_regex " + PGJPAJSONAnySearchDAO.jsonPathString("^nick 1.*$") + " flag \"i\"",
+                parameters),
+                parameters,
+                IntStream.range(0, ROWS).filter(i -> i % 100 == 1 && String.valueOf(i).startsWith("1")).count(),
+                true);
+    }
+}
@@ -449,8 +449,8 @@ public class PersistenceContext {
 
     @ConditionalOnMissingBean
     @Bean
-    public DelegationDAO delegationDAO() {
-        return new JPADelegationDAO();
+    public DelegationDAO delegationDAO(final ApplicationEventPublisher publisher) {
+        return new JPADelegationDAO(publisher);
     }
 
     @ConditionalOnMissingBean
@@ -20,12 +20,18 @@ package org.apache.syncope.core.persistence.jpa.content;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.stream.Collectors;
 import javax.sql.DataSource;
 import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.syncope.common.lib.SyncopeConstants;
 import org.apache.syncope.core.persistence.api.content.ContentLoader;
 import org.apache.syncope.core.persistence.jpa.entity.JPARealm;
 import org.apache.syncope.core.spring.ApplicationContextProvider;
@@ -107,6 +113,68 @@ public class XMLContentLoader implements ContentLoader {
                 LOG.error("[{}] While loading default content", domain, e);
             }
         }
+
+        try {
+            fillRealmFullPaths(domain, datasource);
+        } catch (DataAccessException e) {
+            LOG.error("[{}] While filling realm full paths", domain, e);
+        }
+    }
+
+    /**
+     * Sets the full path of realms not having one yet, as for realms loaded from XML content or created before the
+     * full path was persisted; realms whose full path exceeds {@link JPARealm#FULL_PATH_MAX_LENGTH} are left without,
+     * hence cannot be found by path until renamed or moved.
+     *
+     * @param domain domain
+     * @param dataSource domain's data source
+     */
+    protected void fillRealmFullPaths(final String domain, final DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        List<String[]> realms = jdbcTemplate.query(
+                "SELECT id, name, parent_id, fullPath FROM " + JPARealm.TABLE,
+                (rs, rowNum) -> new String[] {
+                    rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4) });
+        if (realms.stream().allMatch(realm -> realm[3] != null)) {
+            return;
+        }
+
+        Map<String, String[]> byId = realms.stream().collect(Collectors.toMap(realm -> realm[0], realm -> realm));
+        Map<String, String> fullPaths = new HashMap<>();
+        realms.forEach(realm -> fullPath(realm, byId, fullPaths));
+
+        List<String> tooLong = realms.stream().map(realm -> fullPaths.get(realm[0])).
+                filter(fullPath -> fullPath.length() > JPARealm.FULL_PATH_MAX_LENGTH).
+                sorted().collect(Collectors.toList());
+        if (!tooLong.isEmpty()) {
+            LOG.error("[{}] Full path of {} realms longer than {} chars, please rename or move: {}",
+                    domain, tooLong.size(), JPARealm.FULL_PATH_MAX_LENGTH, tooLong);
+        }
+
+        List<Object[]> updates = realms.stream().
+                filter(realm -> fullPaths.get(realm[0]).length() <= JPARealm.FULL_PATH_MAX_LENGTH
+                && !fullPaths.get(realm[0]).equals(realm[3])).
+                map(realm -> new Object[] { fullPaths.get(realm[0]), realm[0] }).
+                collect(Collectors.toList());
+        LOG.info("[{}] Setting full path of {} realms", domain, updates.size());
+
+        jdbcTemplate.batchUpdate("UPDATE " + JPARealm.TABLE + " SET fullPath=? WHERE id=?", updates);
+    }
+
+    private static String fullPath(
+            final String[] realm,
+            final Map<String, String[]> byId,
+            final Map<String, String> fullPaths) {
+
+        String fullPath = fullPaths.get(realm[0]);
+        if (fullPath == null) {
+            fullPath = realm[2] == null
+                    ? SyncopeConstants.ROOT_REALM
+                    : StringUtils.appendIfMissing(fullPath(byId.get(realm[2]), byId, fullPaths), "/") + realm[1];
+            fullPaths.put(realm[0], fullPath);
+        }
+        return fullPath;
     }
 
     protected void loadDefaultContent(
@@ -167,6 +167,25 @@ public abstract class AbstractAnyDAO<A extends Any<?>> extends AbstractDAO<A> im
         return query.getResultList();
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<String> findAllKeys(final String after, final OffsetDateTime changedSince, final int itemsPerPage) {
+        StringBuilder queryString = new StringBuilder("SELECT e.id FROM ").
+                append(anyUtils().anyClass().getSimpleName()).append(" e WHERE e.id > :after");
+        if (changedSince != null) {
+            queryString.append(" AND (e.creationDate >= :changedSince OR e.lastChangeDate >= :changedSince)");
+        }
+        queryString.append(" ORDER BY e.id");
+
+        TypedQuery<String> query = entityManager().createQuery(queryString.toString(), String.class);
+        query.setParameter("after", after == null ? StringUtils.EMPTY : after);
+        if (changedSince != null) {
+            query.setParameter("changedSince", changedSince);
+        }
+        query.setMaxResults(itemsPerPage);
+        return query.getResultList();
+    }
+
     @Transactional(readOnly = true)
     @Override
     public A authFind(final String key) {
@@ -21,8 +21,9 @@ package org.apache.syncope.core.persistence.jpa.dao;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -110,6 +111,13 @@ public abstract class AbstractAnySearchDAO extends AbstractDAO<Any<?>> implement
         return SearchCond.getAnd(result);
     }
 
+    protected static List<OrderByClause> keyOrderBy() {
+        OrderByClause keyClause = new OrderByClause();
+        keyClause.setField("key");
+        keyClause.setDirection(OrderByClause.Direction.ASC);
+        return List.of(keyClause);
+    }
+
     protected final RealmDAO realmDAO;
 
     protected final DynRealmDAO dynRealmDAO;
@@ -187,7 +195,18 @@ public abstract class AbstractAnySearchDAO extends AbstractDAO<Any<?>> implement
         return search(realmDAO.getRoot(), true, SyncopeConstants.FULL_ADMIN_REALMS, cond, -1, -1, orderBy, kind);
     }
 
-    protected abstract <T extends Any<?>> List<T> doSearch(
+    /**
+     * @param base Realm to start searching from
+     * @param recursive whether search should recursively include results from child Realms
+     * @param adminRealms realms for which the caller owns the proper entitlement(s)
+     * @param searchCondition the search condition
+     * @param page position of the first result, start from 1
+     * @param itemsPerPage number of results per page
+     * @param orderBy list of ordering clauses
+     * @param kind any object
+     * @return the keys of any objects matching the given search condition (in the given page), sorted
+     */
+    protected abstract List<String> doSearch(
             Realm base,
             boolean recursive,
             Set<String> adminRealms,
@@ -197,6 +216,39 @@ public abstract class AbstractAnySearchDAO extends AbstractDAO<Any<?>> implement
             List<OrderByClause> orderBy,
             AnyTypeKind kind);
 
+    /**
+     * Keyset (seek) search: results are ordered by key and restricted to keys greater than {@code after}, so
+     * that the underlying query never needs to skip any row.
+     *
+     * @param base Realm to start searching from
+     * @param recursive whether search should recursively include results from child Realms
+     * @param adminRealms realms for which the caller owns the proper entitlement(s)
+     * @param searchCondition the search condition
+     * @param after key of the last any object previously returned, or null
+     * @param itemsPerPage number of results per page
+     * @param kind any object
+     * @return the keys of any objects matching the given search condition, greater than the given one, sorted
+     */
+    protected List<String> doSearch(
+            final Realm base,
+            final boolean recursive,
+            final Set<String> adminRealms,
+            final SearchCond searchCondition,
+            final String after,
+            final int itemsPerPage,
+            final AnyTypeKind kind) {
+
+        SearchCond effectiveCond = searchCondition;
+        if (after != null) {
+            AnyCond afterCond = new AnyCond(AttrCond.Type.GT);
+            afterCond.setSchema("key");
+            afterCond.setExpression(after);
+            effectiveCond = SearchCond.getAnd(searchCondition, SearchCond.getLeaf(afterCond));
+        }
+
+        return doSearch(base, recursive, adminRealms, effectiveCond, 1, itemsPerPage, keyOrderBy(), kind);
+    }
+
     protected Pair<PlainSchema, PlainAttrValue> check(final AttrCond cond, final AnyTypeKind kind) {
         AnyUtils anyUtils = anyUtilsFactory.getInstance(kind);
 
@@ -342,20 +394,55 @@ public abstract class AbstractAnySearchDAO extends AbstractDAO<Any<?>> implement
         return memberKey;
     }
 
-    @SuppressWarnings("unchecked")
-    protected <T extends Any<?>> List<T> buildResult(final List<Object> raw, final AnyTypeKind kind) {
-        List<String> keys = raw.stream().
-                map(key -> key instanceof Object[] ? (String) ((Object[]) key)[0] : ((String) key)).
+    protected List<OrderByClause> effectiveOrderBy(final List<OrderByClause> orderBy, final AnyTypeKind kind) {
+        if (orderBy.isEmpty()) {
+            OrderByClause keyClause = new OrderByClause();
+            keyClause.setField(kind == AnyTypeKind.USER ? "username" : "name");
+            keyClause.setDirection(OrderByClause.Direction.ASC);
+            return List.of(keyClause);
+        }
+
+        return orderBy.stream().
+                filter(clause -> !ArrayUtils.contains(ORDER_BY_NOT_ALLOWED, clause.getField())).
                 collect(Collectors.toList());
+    }
+
+    protected boolean isValid(final Set<String> adminRealms, final SearchCond cond) {
+        if (CollectionUtils.isEmpty(adminRealms)) {
+            LOG.error("No realms provided");
+            return false;
+        }
+
+        LOG.debug("Search condition:\n{}", cond);
+        if (cond == null || !cond.isValid()) {
+            LOG.error("Invalid search condition:\n{}", cond);
+            return false;
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T extends Any<?>> List<T> buildResult(final List<String> keys, final AnyTypeKind kind) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
 
-        // sort anys according to keys' sorting, as their ordering is same as raw, e.g. the actual sql query results
-        List<Any<?>> anys = anyUtilsFactory.getInstance(kind).dao().findByKeys(keys).stream().
-                sorted(Comparator.comparing(any -> keys.indexOf(any.getKey()))).collect(Collectors.toList());
+        Map<String, Any<?>> anys = new HashMap<>(keys.size());
+        anyUtilsFactory.getInstance(kind).dao().findByKeys(keys).forEach(any -> anys.put(any.getKey(), any));
 
-        keys.stream().filter(key -> !anys.stream().anyMatch(any -> key.equals(any.getKey()))).
-                forEach(key -> LOG.error("Could not find {} with id {}, even if returned by native query", kind, key));
+        // single pass over keys, as their ordering is the one of the actual query results
+        List<T> result = new ArrayList<>(anys.size());
+        keys.stream().distinct().forEach(key -> {
+            Any<?> any = anys.get(key);
+            if (any == null) {
+                LOG.error("Could not find {} with id {}, even if returned by native query", kind, key);
+            } else {
+                result.add((T) any);
+            }
+        });
 
-        return (List<T>) anys;
+        return result;
     }
 
     @Override
@@ -369,29 +456,69 @@ public abstract class AbstractAnySearchDAO extends AbstractDAO<Any<?>> implement
             final List<OrderByClause> orderBy,
             final AnyTypeKind kind) {
 
-        if (CollectionUtils.isEmpty(adminRealms)) {
-            LOG.error("No realms provided");
+        if (!isValid(adminRealms, cond)) {
             return List.of();
         }
 
-        LOG.debug("Search condition:\n{}", cond);
-        if (cond == null || !cond.isValid()) {
-            LOG.error("Invalid search condition:\n{}", cond);
+        return buildResult(
+                doSearch(base, recursive, adminRealms, cond, page, itemsPerPage, effectiveOrderBy(orderBy, kind), kind),
+                kind);
+    }
+
+    @Override
+    public <T extends Any<?>> List<T> search(
+            final Realm base,
+            final boolean recursive,
+            final Set<String> adminRealms,
+            final SearchCond cond,
+            final String after,
+            final int itemsPerPage,
+            final AnyTypeKind kind) {
+
+        if (!isValid(adminRealms, cond)) {
             return List.of();
         }
 
-        List<OrderByClause> effectiveOrderBy;
-        if (orderBy.isEmpty()) {
-            OrderByClause keyClause = new OrderByClause();
-            keyClause.setField(kind == AnyTypeKind.USER ? "username" : "name");
-            keyClause.setDirection(OrderByClause.Direction.ASC);
-            effectiveOrderBy = List.of(keyClause);
-        } else {
-            effectiveOrderBy = orderBy.stream().
-                    filter(clause -> !ArrayUtils.contains(ORDER_BY_NOT_ALLOWED, clause.getField())).
-                    collect(Collectors.toList());
+        return buildResult(doSearch(base, recursive, adminRealms, cond, after, itemsPerPage, kind), kind);
+    }
+
+    @Override
+    public List<String> searchKeys(final SearchCond cond, final AnyTypeKind kind) {
+        return searchKeys(realmDAO.getRoot(), true, SyncopeConstants.FULL_ADMIN_REALMS, cond, -1, -1, List.of(), kind);
+    }
+
+    @Override
+    public List<String> searchKeys(
+            final Realm base,
+            final boolean recursive,
+            final Set<String> adminRealms,
+            final SearchCond cond,
+            final int page,
+            final int itemsPerPage,
+            final List<OrderByClause> orderBy,
+            final AnyTypeKind kind) {
+
+        if (!isValid(adminRealms, cond)) {
+            return List.of();
+        }
+
+        return doSearch(base, recursive, adminRealms, cond, page, itemsPerPage, effectiveOrderBy(orderBy, kind), kind);
+    }
+
+    @Override
+    public List<String> searchKeys(
+            final Realm base,
+            final boolean recursive,
+            final Set<String> adminRealms,
+            final SearchCond cond,
+            final String after,
+            final int itemsPerPage,
+            final AnyTypeKind kind) {
+
+        if (!isValid(adminRealms, cond)) {
+            return List.of();
         }
 
-        return doSearch(base, recursive, adminRealms, cond, page, itemsPerPage, effectiveOrderBy, kind);
+        return doSearch(base, recursive, adminRealms, cond, after, itemsPerPage, kind);
     }
 }
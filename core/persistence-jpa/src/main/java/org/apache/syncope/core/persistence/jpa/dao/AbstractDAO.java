@@ -18,21 +18,42 @@
  */
 package org.apache.syncope.core.persistence.jpa.dao;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import org.apache.openjpa.persistence.OpenJPAPersistence;
+import org.apache.syncope.common.lib.types.AnyTypeKind;
 import org.apache.syncope.core.persistence.api.dao.DAO;
 import org.apache.syncope.core.persistence.api.entity.Entity;
+import org.apache.syncope.core.provisioning.api.event.BulkAnyLifecycleEvent;
 import org.apache.syncope.core.spring.ApplicationContextProvider;
 import org.apache.syncope.core.spring.security.AuthContextUtils;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.orm.jpa.EntityManagerFactoryUtils;
 
 public abstract class AbstractDAO<E extends Entity> implements DAO<E> {
 
     protected static final Logger LOG = LoggerFactory.getLogger(DAO.class);
 
+    protected static final int BATCH_SIZE = 500;
+
+    protected static List<String> toKeys(final List<?> raw) {
+        return raw.stream().
+                map(key -> key instanceof Object[] ? (String) ((Object[]) key)[0] : ((String) key)).
+                collect(Collectors.toList());
+    }
+
     protected EntityManagerFactory entityManagerFactory() {
         return EntityManagerFactoryUtils.findEntityManagerFactory(
                 ApplicationContextProvider.getBeanFactory(), AuthContextUtils.getDomain());
@@ -44,6 +65,64 @@ public abstract class AbstractDAO<E extends Entity> implements DAO<E> {
                 "Could not find EntityManager for domain " + AuthContextUtils.getDomain()));
     }
 
+    /**
+     * Executes the given native statement once for each set of parameters, sending JDBC batches of
+     * {@link #BATCH_SIZE} statements on the connection bound to the current transaction.
+     *
+     * Statements bypass the persistence context: pending changes are flushed first. Tables updated this way are
+     * expected to be read only via native queries, whose results are never held in the query cache.
+     *
+     * @param sql native statement, with positional parameters
+     * @param parameters parameter values, one array for each execution
+     */
+    protected void batchUpdate(final String sql, final Collection<Object[]> parameters) {
+        if (parameters.isEmpty()) {
+            return;
+        }
+
+        entityManager().flush();
+
+        try (Connection conn = (Connection) OpenJPAPersistence.cast(entityManager()).getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int count = 0;
+            for (Object[] params : parameters) {
+                for (int i = 0; i < params.length; i++) {
+                    stmt.setObject(i + 1, params[i]);
+                }
+                stmt.addBatch();
+
+                if (++count % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            if (count % BATCH_SIZE != 0) {
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new PersistenceException("While executing " + sql, e);
+        }
+    }
+
+    /**
+     * Publishes a single {@link BulkAnyLifecycleEvent} for the given anys, as changed by statements sent via
+     * {@link #batchUpdate(String, Collection)}; anys are not loaded, only their keys are carried.
+     *
+     * @param publisher event publisher
+     * @param kind any type kind
+     * @param keys keys of the anys to notify about
+     */
+    protected void publishAnyUpdates(
+            final ApplicationEventPublisher publisher,
+            final AnyTypeKind kind,
+            final Set<String> keys) {
+
+        if (!keys.isEmpty()) {
+            publisher.publishEvent(new BulkAnyLifecycleEvent(
+                    this, SyncDeltaType.UPDATE, kind, keys, AuthContextUtils.getDomain()));
+        }
+    }
+
     @Override
     public void refresh(final E entity) {
         entityManager().refresh(entity);
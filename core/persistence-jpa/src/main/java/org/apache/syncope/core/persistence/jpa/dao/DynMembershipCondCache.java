@@ -0,0 +1,357 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.persistence.jpa.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManagerFactory;
+import org.apache.openjpa.event.RemoteCommitEvent;
+import org.apache.openjpa.event.RemoteCommitListener;
+import org.apache.openjpa.persistence.OpenJPAPersistence;
+import org.apache.openjpa.util.OpenJPAId;
+import org.apache.syncope.common.lib.search.SpecialAttr;
+import org.apache.syncope.core.persistence.api.dao.search.AbstractSearchCond;
+import org.apache.syncope.core.persistence.api.dao.search.AnyTypeCond;
+import org.apache.syncope.core.persistence.api.dao.search.AssignableCond;
+import org.apache.syncope.core.persistence.api.dao.search.AttrCond;
+import org.apache.syncope.core.persistence.api.dao.search.AuxClassCond;
+import org.apache.syncope.core.persistence.api.dao.search.DynRealmCond;
+import org.apache.syncope.core.persistence.api.dao.search.MemberCond;
+import org.apache.syncope.core.persistence.api.dao.search.MembershipCond;
+import org.apache.syncope.core.persistence.api.dao.search.PrivilegeCond;
+import org.apache.syncope.core.persistence.api.dao.search.RelationshipCond;
+import org.apache.syncope.core.persistence.api.dao.search.RelationshipTypeCond;
+import org.apache.syncope.core.persistence.api.dao.search.ResourceCond;
+import org.apache.syncope.core.persistence.api.dao.search.RoleCond;
+import org.apache.syncope.core.persistence.api.dao.search.SearchCond;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps, for each domain, the dynamic membership conditions already parsed from their FIQL representation, indexed
+ * by the fields, plain schemas and special attributes referenced by their leaf conditions: given what was changed on
+ * an any, only the conditions referencing any of that are returned for evaluation, without loading the others.
+ *
+ * The index is dropped whenever a dynamic membership is saved or deleted on this node - also after transaction
+ * completion - and whenever OpenJPA reports a remote commit touching any of the given dependencies, so that it stays
+ * as consistent as the data cache across cluster nodes.
+ */
+public class DynMembershipCondCache {
+
+    /**
+     * Parsed dynamic membership condition.
+     */
+    public static class Entry {
+
+        private final String source;
+
+        private final String owner;
+
+        private final SearchCond cond;
+
+        private final Set<String> references;
+
+        protected Entry(final String source, final String owner, final SearchCond cond) {
+            this.source = source;
+            this.owner = owner;
+            this.cond = cond;
+            this.references = references(cond);
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public SearchCond getCond() {
+            return cond;
+        }
+    }
+
+    /**
+     * Parsed conditions of a given scope, indexed by what they refer to.
+     */
+    protected static class Index {
+
+        protected final List<Entry> all;
+
+        protected final List<Entry> unrestricted = new ArrayList<>();
+
+        protected final Map<String, List<Entry>> byReference = new HashMap<>();
+
+        protected Index(final List<Entry> all) {
+            this.all = all;
+            all.forEach(entry -> {
+                if (entry.references == null) {
+                    unrestricted.add(entry);
+                } else {
+                    entry.references.forEach(reference -> byReference.
+                            computeIfAbsent(reference, k -> new ArrayList<>()).add(entry));
+                }
+            });
+        }
+
+        protected Collection<Entry> affectedBy(final Collection<String> changed) {
+            if (changed == null) {
+                return all;
+            }
+
+            Set<Entry> affected = new LinkedHashSet<>(unrestricted);
+            changed.forEach(reference -> affected.addAll(byReference.getOrDefault(reference, List.of())));
+            return affected;
+        }
+    }
+
+    /**
+     * Returns what the given leaf condition refers to, or {@code null} if that is not known.
+     *
+     * @param leaf leaf condition
+     * @return field, plain schema or special attribute the given leaf condition refers to
+     */
+    protected static String reference(final AbstractSearchCond leaf) {
+        String reference = null;
+        if (leaf instanceof AttrCond) {
+            reference = ((AttrCond) leaf).getSchema();
+        } else if (leaf instanceof AssignableCond) {
+            reference = "realm";
+        } else if (leaf instanceof AnyTypeCond) {
+            reference = SpecialAttr.TYPE.toString();
+        } else if (leaf instanceof AuxClassCond) {
+            reference = SpecialAttr.AUX_CLASSES.toString();
+        } else if (leaf instanceof ResourceCond) {
+            reference = SpecialAttr.RESOURCES.toString();
+        } else if (leaf instanceof MembershipCond) {
+            reference = SpecialAttr.GROUPS.toString();
+        } else if (leaf instanceof RelationshipCond) {
+            reference = SpecialAttr.RELATIONSHIPS.toString();
+        } else if (leaf instanceof RelationshipTypeCond) {
+            reference = SpecialAttr.RELATIONSHIP_TYPES.toString();
+        } else if (leaf instanceof RoleCond) {
+            reference = SpecialAttr.ROLES.toString();
+        } else if (leaf instanceof PrivilegeCond) {
+            reference = SpecialAttr.PRIVILEGES.toString();
+        } else if (leaf instanceof DynRealmCond) {
+            reference = SpecialAttr.DYNREALMS.toString();
+        } else if (leaf instanceof MemberCond) {
+            reference = SpecialAttr.MEMBER.toString();
+        }
+        return reference;
+    }
+
+    protected static Set<String> references(final SearchCond cond) {
+        Set<String> references = new HashSet<>();
+        return collect(cond, references) ? references : null;
+    }
+
+    protected static boolean collect(final SearchCond cond, final Set<String> references) {
+        switch (cond.getType()) {
+            case LEAF:
+            case NOT_LEAF:
+                String reference = cond.getLeaf(AbstractSearchCond.class).map(DynMembershipCondCache::reference).
+                        orElse(null);
+                if (reference == null) {
+                    return false;
+                }
+                references.add(reference);
+                return true;
+
+            case AND:
+            case OR:
+                return collect(cond.getLeft(), references) && collect(cond.getRight(), references);
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Tells the entity types touched by the given remote commit event.
+     *
+     * @param event remote commit event
+     * @return names of the entity types touched
+     */
+    @SuppressWarnings("unchecked")
+    protected static Set<String> typeNames(final RemoteCommitEvent event) {
+        Stream<String> typeNames;
+        if (event.getPayloadType() == RemoteCommitEvent.PAYLOAD_EXTENTS) {
+            typeNames = Stream.of(
+                    (Collection<String>) event.getPersistedTypeNames(),
+                    (Collection<String>) event.getUpdatedTypeNames(),
+                    (Collection<String>) event.getDeletedTypeNames()).
+                    flatMap(Collection::stream);
+        } else {
+            Stream<Object> oids = Stream.concat(
+                    ((Collection<Object>) event.getUpdatedObjectIds()).stream(),
+                    ((Collection<Object>) event.getDeletedObjectIds()).stream());
+            if (event.getPayloadType() == RemoteCommitEvent.PAYLOAD_OIDS_WITH_ADDS) {
+                oids = Stream.concat(oids, ((Collection<Object>) event.getPersistedObjectIds()).stream());
+            }
+
+            typeNames = Stream.concat(
+                    ((Collection<String>) event.getPersistedTypeNames()).stream(),
+                    oids.map(oid -> oid instanceof OpenJPAId ? ((OpenJPAId) oid).getType().getName() : null));
+        }
+        return typeNames.collect(Collectors.toSet());
+    }
+
+    protected final Set<String> dependencies;
+
+    protected final Map<String, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+
+    protected final Map<String, Map<String, Index>> indexes = new ConcurrentHashMap<>();
+
+    protected final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    protected final Set<String> listening = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param dependencies entity types whose changes on other cluster nodes shall drop the index
+     */
+    public DynMembershipCondCache(final Class<?>... dependencies) {
+        this.dependencies = Stream.of(dependencies).map(Class::getName).collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the parsed condition for the given dynamic membership, parsing it only if not available or if its
+     * source was changed meanwhile.
+     *
+     * @param membership dynamic membership key
+     * @param source what the condition is parsed from: FIQL representation and anything else affecting parsing
+     * @param owner key of the group, role or dynamic realm owning the dynamic membership
+     * @param parser parses the condition, if needed
+     * @return parsed condition
+     */
+    public Entry get(
+            final String membership,
+            final String source,
+            final String owner,
+            final Supplier<SearchCond> parser) {
+
+        Map<String, Entry> domainEntries = entries.computeIfAbsent(
+                AuthContextUtils.getDomain(), domain -> new ConcurrentHashMap<>());
+
+        Entry entry = domainEntries.get(membership);
+        if (entry == null || !Objects.equals(entry.source, source) || !Objects.equals(entry.owner, owner)) {
+            entry = new Entry(source, owner, parser.get());
+            domainEntries.put(membership, entry);
+        }
+        return entry;
+    }
+
+    protected AtomicLong generation(final String domain) {
+        return generations.computeIfAbsent(domain, d -> new AtomicLong());
+    }
+
+    protected void listen(final String domain, final EntityManagerFactory entityManagerFactory) {
+        if (listening.add(domain)) {
+            OpenJPAPersistence.cast(entityManagerFactory).getConfiguration().getRemoteCommitEventManager().
+                    addListener(new RemoteCommitListener() {
+
+                        @Override
+                        public void afterCommit(final RemoteCommitEvent event) {
+                            if (typeNames(event).stream().anyMatch(dependencies::contains)) {
+                                drop(domain);
+                            }
+                        }
+
+                        @Override
+                        public void close() {
+                            listening.remove(domain);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Returns the parsed conditions of the given scope which need to be evaluated given the changes occurred;
+     * the index for the given scope is built via the given loader, if not available.
+     *
+     * @param entityManagerFactory entity manager factory for the current domain
+     * @param scope what the conditions apply to, as users or a given any type
+     * @param changed fields, plain schemas or special attributes changed; {@code null} means unknown, thus any
+     * condition shall be evaluated
+     * @param loader provides all the parsed conditions of the given scope, via {@link #get}
+     * @return the parsed conditions to evaluate
+     */
+    public Collection<Entry> affectedBy(
+            final EntityManagerFactory entityManagerFactory,
+            final String scope,
+            final Collection<String> changed,
+            final Supplier<List<Entry>> loader) {
+
+        String domain = AuthContextUtils.getDomain();
+        listen(domain, entityManagerFactory);
+
+        Map<String, Index> domainIndexes = indexes.computeIfAbsent(domain, d -> new ConcurrentHashMap<>());
+        Index index = domainIndexes.get(scope);
+        if (index == null) {
+            long generation = generation(domain).get();
+            index = new Index(loader.get());
+            // store only if not dropped while loading, otherwise next call will load again
+            if (generation(domain).get() == generation) {
+                domainIndexes.put(scope, index);
+            }
+        }
+
+        return index.affectedBy(changed);
+    }
+
+    protected void drop(final String domain) {
+        generation(domain).incrementAndGet();
+        indexes.remove(domain);
+    }
+
+    /**
+     * Drops all the parsed conditions of dynamic memberships owned by the given group, role or dynamic realm,
+     * and the index for the current domain, now and after completion of the current transaction.
+     *
+     * @param owner key of the group, role or dynamic realm owning the dynamic membership
+     */
+    public void invalidate(final String owner) {
+        String domain = AuthContextUtils.getDomain();
+
+        Map<String, Entry> domainEntries = entries.get(domain);
+        if (domainEntries != null) {
+            domainEntries.values().removeIf(entry -> owner.equals(entry.owner));
+        }
+        drop(domain);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(final int status) {
+                    drop(domain);
+                }
+            });
+        }
+    }
+}
@@ -393,23 +393,22 @@ public class JPAAnyMatchDAO extends AbstractDAO<Any<?>> implements AnyMatchDAO {
     }
 
     protected boolean matches(final Any<?> any, final AnyCond cond, final boolean not) {
-        // Keeps track of difference between entity's getKey() and JPA @Id fields
-        if ("key".equals(cond.getSchema())) {
-            cond.setSchema("id");
-        }
+        // Keeps track of difference between entity's getKey() and JPA @Id fields;
+        // cond is not altered as it might be evaluated again, see DynMembershipCondCache
+        String field = "key".equals(cond.getSchema()) ? "id" : cond.getSchema();
 
         PropertyDescriptor pd;
         Object anyAttrValue;
         try {
-            pd = BeanUtils.getPropertyDescriptor(any.getClass(), cond.getSchema());
+            pd = BeanUtils.getPropertyDescriptor(any.getClass(), field);
             if (pd == null) {
-                LOG.warn("Ignoring invalid schema '{}'", cond.getSchema());
+                LOG.warn("Ignoring invalid schema '{}'", field);
                 return false;
             }
 
             anyAttrValue = pd.getReadMethod().invoke(any);
         } catch (Exception e) {
-            LOG.error("While accessing {}.{}", any, cond.getSchema(), e);
+            LOG.error("While accessing {}.{}", any, field, e);
             return false;
         }
 
@@ -458,7 +457,6 @@ public class JPAAnyMatchDAO extends AbstractDAO<Any<?>> implements AnyMatchDAO {
                     }
 
                     if (relMethod != null && String.class.isAssignableFrom(relMethod.getReturnType())) {
-                        cond.setSchema(cond.getSchema() + "_id");
                         schema.setType(AttrSchemaType.String);
                     }
                 }
@@ -57,7 +57,6 @@ import org.apache.syncope.core.persistence.api.dao.search.RelationshipTypeCond;
 import org.apache.syncope.core.persistence.api.dao.search.ResourceCond;
 import org.apache.syncope.core.persistence.api.dao.search.RoleCond;
 import org.apache.syncope.core.persistence.api.dao.search.SearchCond;
-import org.apache.syncope.core.persistence.api.entity.Any;
 import org.apache.syncope.core.persistence.api.entity.AnyUtils;
 import org.apache.syncope.core.persistence.api.entity.AnyUtilsFactory;
 import org.apache.syncope.core.persistence.api.entity.DynRealm;
@@ -65,6 +64,7 @@ import org.apache.syncope.core.persistence.api.entity.EntityFactory;
 import org.apache.syncope.core.persistence.api.entity.PlainAttrValue;
 import org.apache.syncope.core.persistence.api.entity.PlainSchema;
 import org.apache.syncope.core.persistence.api.entity.Realm;
+import org.apache.syncope.core.persistence.jpa.entity.JPARealm;
 import org.apache.syncope.core.provisioning.api.utils.RealmUtils;
 
 /**
@@ -95,20 +95,60 @@ public class JPAAnySearchDAO extends AbstractAnySearchDAO {
                 validator);
     }
 
+    /**
+     * Builds the condition selecting the keys of all realms under the given full paths: this relies on the indexed
+     * full path column, rather than on the list of descendant realms' keys.
+     *
+     * @param realmPaths realm full paths
+     * @param parameters query parameters
+     * @return SQL condition on realm keys
+     */
+    protected String buildRealmPathsFilter(final Set<String> realmPaths, final List<Object> parameters) {
+        String conditions = realmPaths.stream().map(realmPath -> "fullPath=?"
+                + setParameter(parameters, realmPath)
+                + " OR fullPath LIKE ?"
+                + setParameter(parameters, StringUtils.appendIfMissing(realmPath, "/") + '%')).
+                collect(Collectors.joining(" OR "));
+        return "realm_id IN (SELECT id FROM " + JPARealm.TABLE + " WHERE " + conditions + ')';
+    }
+
     protected String buildAdminRealmsFilter(
             final Set<String> realmKeys,
+            final Set<String> realmPaths,
             final SearchSupport svs,
             final List<Object> parameters) {
 
-        if (realmKeys.isEmpty()) {
+        if (realmKeys.isEmpty() && realmPaths.isEmpty()) {
             return "u.any_id IS NOT NULL";
         }
 
-        String realmKeysArg = realmKeys.stream().
-                map(realmKey -> "?" + setParameter(parameters, realmKey)).
-                collect(Collectors.joining(","));
+        List<String> conditions = new ArrayList<>();
+        if (!realmKeys.isEmpty()) {
+            conditions.add("realm_id IN (" + realmKeys.stream().
+                    map(realmKey -> "?" + setParameter(parameters, realmKey)).
+                    collect(Collectors.joining(",")) + ')');
+        }
+        if (!realmPaths.isEmpty()) {
+            conditions.add(buildRealmPathsFilter(realmPaths, parameters));
+        }
         return "u.any_id IN (SELECT any_id FROM " + svs.field().name
-                + " WHERE realm_id IN (" + realmKeysArg + "))";
+                + " WHERE " + String.join(" OR ", conditions) + ')';
+    }
+
+    /**
+     * Removes paths which are descendants of other paths in the given set, since already covered; when the root realm
+     * is found, no filter on realms is needed at all, hence an empty set is returned.
+     *
+     * @param realmPaths realm full paths
+     * @return minimal set of realm full paths
+     */
+    protected static Set<String> normalizeRealmPaths(final Set<String> realmPaths) {
+        if (realmPaths.contains(SyncopeConstants.ROOT_REALM)) {
+            return Set.of();
+        }
+        return realmPaths.stream().
+                filter(realmPath -> realmPaths.stream().noneMatch(other -> realmPath.startsWith(other + '/'))).
+                collect(Collectors.toSet());
     }
 
     protected Triple<String, Set<String>, Set<String>> getAdminRealmsFilter(
@@ -119,6 +159,7 @@ public class JPAAnySearchDAO extends AbstractAnySearchDAO {
             final List<Object> parameters) {
 
         Set<String> realmKeys = new HashSet<>();
+        Set<String> realmPaths = new HashSet<>();
         Set<String> dynRealmKeys = new HashSet<>();
         Set<String> groupOwners = new HashSet<>();
 
@@ -134,8 +175,7 @@ public class JPAAnySearchDAO extends AbstractAnySearchDAO {
                         noRealm.getElements().add("Invalid realm specified: " + realmPath);
                         throw noRealm;
                     } else {
-                        realmKeys.addAll(realmDAO.findDescendants(realm).stream().
-                                map(Realm::getKey).collect(Collectors.toSet()));
+                        realmPaths.add(realm.getFullPath());
                     }
                 } else {
                     DynRealm dynRealm = dynRealmDAO.find(realmPath);
@@ -147,7 +187,7 @@ public class JPAAnySearchDAO extends AbstractAnySearchDAO {
                 }
             });
             if (!dynRealmKeys.isEmpty()) {
-                realmKeys.clear();
+                realmPaths.clear();
             }
         } else {
             if (adminRealms.stream().anyMatch(r -> base.getFullPath().startsWith(r))) {
@@ -155,7 +195,10 @@ public class JPAAnySearchDAO extends AbstractAnySearchDAO {
             }
         }
 
-        return Triple.of(buildAdminRealmsFilter(realmKeys, svs, parameters), dynRealmKeys, groupOwners);
+        return Triple.of(
+                buildAdminRealmsFilter(realmKeys, normalizeRealmPaths(realmPaths), svs, parameters),
+                dynRealmKeys,
+                groupOwners);
     }
 
     SearchSupport buildSearchSupport(final AnyTypeKind kind) {
@@ -198,8 +241,7 @@ public class JPAAnySearchDAO extends AbstractAnySearchDAO {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    protected <T extends Any<?>> List<T> doSearch(
+    protected List<String> doSearch(
             final Realm base,
             final boolean recursive,
             final Set<String> adminRealms,
@@ -253,8 +295,8 @@ public class JPAAnySearchDAO extends AbstractAnySearchDAO {
             // 5. populate the search query with parameter values
             fillWithParameters(query, parameters);
 
-            // 6. Prepare the result (avoiding duplicates)
-            return buildResult(query.getResultList(), kind);
+            // 6. Prepare the result
+            return toKeys(query.getResultList());
         } catch (SyncopeClientException e) {
             throw e;
         } catch (Exception e) {
@@ -902,10 +944,7 @@ public class JPAAnySearchDAO extends AbstractAnySearchDAO {
         StringBuilder query = new StringBuilder("SELECT DISTINCT any_id FROM ").
                 append(svs.field().name).append(" WHERE (");
         if (cond.isFromGroup()) {
-            realmDAO.findDescendants(realm).forEach(current -> {
-                query.append("realm_id=?").append(setParameter(parameters, current.getKey())).append(" OR ");
-            });
-            query.setLength(query.length() - 4);
+            query.append(buildRealmPathsFilter(Set.of(realm.getFullPath()), parameters));
         } else {
             for (Realm current = realm; current.getParent() != null; current = current.getParent()) {
                 query.append("realm_id=?").append(setParameter(parameters, current.getKey())).append(" OR ");
@@ -18,89 +18,140 @@
  */
 package org.apache.syncope.core.persistence.jpa.dao;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.openjpa.persistence.OpenJPAPersistence;
 import org.apache.syncope.common.lib.audit.AuditEntry;
 import org.apache.syncope.common.lib.types.AuditElements;
+import org.apache.syncope.common.lib.types.AuditLoggerName;
 import org.apache.syncope.core.persistence.api.dao.AuditConfDAO;
 import org.apache.syncope.core.persistence.api.dao.search.OrderByClause;
 import org.apache.syncope.core.persistence.api.entity.AuditConf;
 import org.apache.syncope.core.persistence.jpa.entity.JPAAuditConf;
 import org.apache.syncope.core.provisioning.api.serialization.POJOHelper;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 public class JPAAuditConfDAO extends AbstractDAO<AuditConf> implements AuditConfDAO {
 
+    protected static final JsonMapper MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+    /**
+     * Builds criteria on the structured columns.
+     */
     protected static class MessageCriteriaBuilder {
 
-        protected final StringBuilder query = new StringBuilder();
+        protected final List<String> clauses = new ArrayList<>();
+
+        protected final List<Object> parameters = new ArrayList<>();
 
-        protected String andIfNeeded() {
-            return query.length() == 0 ? " " : " AND ";
+        protected MessageCriteriaBuilder equal(final String column, final Object value) {
+            parameters.add(value);
+            clauses.add(column + "=?" + parameters.size());
+            return this;
         }
 
-        protected MessageCriteriaBuilder entityKey(final String entityKey) {
+        public MessageCriteriaBuilder entityKey(final String entityKey) {
             if (entityKey != null) {
-                query.append(andIfNeeded()).append(AUDIT_ENTRY_MESSAGE_COLUMN).
-                        append(" LIKE '%key%").append(entityKey).append("%'");
+                equal("ENTITY_KEY", entityKey);
             }
             return this;
         }
 
         public MessageCriteriaBuilder type(final AuditElements.EventCategoryType type) {
             if (type != null) {
-                query.append(andIfNeeded()).append(AUDIT_ENTRY_MESSAGE_COLUMN).
-                        append(" LIKE '%\"type\":\"").append(type.name()).append("\"%'");
+                equal("EVENT_TYPE", type.name());
             }
             return this;
         }
 
         public MessageCriteriaBuilder category(final String category) {
             if (StringUtils.isNotBlank(category)) {
-                query.append(andIfNeeded()).append(AUDIT_ENTRY_MESSAGE_COLUMN).
-                        append(" LIKE '%\"category\":\"").append(category).append("\"%'");
+                equal("CATEGORY", category);
             }
             return this;
         }
 
         public MessageCriteriaBuilder subcategory(final String subcategory) {
             if (StringUtils.isNotBlank(subcategory)) {
-                query.append(andIfNeeded()).append(AUDIT_ENTRY_MESSAGE_COLUMN).
-                        append(" LIKE '%\"subcategory\":\"").append(subcategory).append("\"%'");
+                equal("SUBCATEGORY", subcategory);
             }
             return this;
         }
 
         public MessageCriteriaBuilder events(final List<String> events) {
             if (!events.isEmpty()) {
-                query.append(andIfNeeded()).append("( ").
-                        append(events.stream().
-                                map(event -> AUDIT_ENTRY_MESSAGE_COLUMN + " LIKE '%\"event\":\"" + event + "\"%'").
-                                collect(Collectors.joining(" OR "))).
-                        append(" )");
+                clauses.add("EVENT IN (" + events.stream().map(event -> {
+                    parameters.add(event);
+                    return "?" + parameters.size();
+                }).collect(Collectors.joining(",")) + ')');
             }
             return this;
         }
 
         public MessageCriteriaBuilder result(final AuditElements.Result result) {
             if (result != null) {
-                query.append(andIfNeeded()).append(AUDIT_ENTRY_MESSAGE_COLUMN).
-                        append(" LIKE '%\"result\":\"").append(result.name()).append("\"%' ");
+                equal("RESULT", result.name());
             }
             return this;
         }
 
         public String build() {
-            return query.toString();
+            return clauses.isEmpty()
+                    ? StringUtils.EMPTY
+                    : " WHERE " + String.join(" AND ", clauses);
+        }
+
+        public void fill(final Query query) {
+            for (int i = 0; i < parameters.size(); i++) {
+                query.setParameter(i + 1, parameters.get(i));
+            }
         }
     }
 
+    /**
+     * Looks for the key of the entity an audit entry is about: first in output, then in before and finally in
+     * inputs; for each, either the {@code key} field or the {@code entity.key} field (as for provisioning results)
+     * are considered.
+     *
+     * @param entry audit entry
+     * @return entity key, if found
+     */
+    protected static Optional<String> entityKey(final AuditEntry entry) {
+        return Stream.concat(Stream.of(entry.getOutput(), entry.getBefore()), entry.getInputs().stream()).
+                filter(value -> value != null && value.startsWith("{")).
+                map(value -> {
+                    try {
+                        JsonNode node = MAPPER.readTree(value);
+                        if (node.has("entity")) {
+                            node = node.get("entity");
+                        }
+                        return node.has("key") && node.get("key").isTextual() ? node.get("key").asText() : null;
+                    } catch (Exception e) {
+                        return null;
+                    }
+                }).
+                filter(Objects::nonNull).
+                findFirst();
+    }
+
     @Override
     public AuditConf find(final String key) {
         return entityManager().find(JPAAuditConf.class, key);
@@ -123,6 +174,126 @@ public class JPAAuditConfDAO extends AbstractDAO<AuditConf> implements AuditConf
         entityManager().remove(auditConf);
     }
 
+    /**
+     * @return placeholder for the serialized audit entry, in the INSERT statement
+     */
+    protected String messageParameter() {
+        return "?";
+    }
+
+    protected String insertEntries() {
+        return "INSERT INTO " + AUDIT_ENTRY_TABLE
+                + " (EVENT_DATE, WHO, EVENT_TYPE, CATEGORY, SUBCATEGORY, EVENT, RESULT, ENTITY_KEY, "
+                + "LOGGER_LEVEL, LOGGER, " + AUDIT_ENTRY_MESSAGE_COLUMN + ", THROWABLE) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, " + messageParameter() + ", ?)";
+    }
+
+    protected static Object[] insertParameters(
+            final Timestamp date,
+            final AuditEntry entry,
+            final String level,
+            final String logger,
+            final String message,
+            final String throwable) {
+
+        return new Object[] {
+            date,
+            entry.getWho(),
+            entry.getLogger().getType().name(),
+            entry.getLogger().getCategory(),
+            entry.getLogger().getSubcategory(),
+            entry.getLogger().getEvent(),
+            entry.getLogger().getResult().name(),
+            entityKey(entry).orElse(null),
+            level,
+            logger,
+            message,
+            throwable
+        };
+    }
+
+    @Transactional(rollbackFor = Throwable.class)
+    @Override
+    public void saveEntries(final List<AuditEntry> entries) {
+        String logger = AuditLoggerName.getAuditLoggerName(AuthContextUtils.getDomain());
+
+        batchUpdate(insertEntries(), entries.stream().map(entry -> insertParameters(
+                Timestamp.from(Optional.ofNullable(entry.getDate()).orElseGet(OffsetDateTime::now).toInstant()),
+                entry,
+                "DEBUG",
+                logger,
+                POJOHelper.serialize(entry),
+                entry.getThrowable())).
+                collect(Collectors.toList()));
+    }
+
+    @Transactional(rollbackFor = Throwable.class)
+    @Override
+    public OffsetDateTime fillEntryColumns(final OffsetDateTime after, final int batchSize) {
+        entityManager().flush();
+
+        String range = " FROM " + AUDIT_ENTRY_TABLE
+                + " WHERE EVENT_TYPE IS NULL AND EVENT_DATE > ? AND EVENT_DATE <= ?";
+        Timestamp from = after == null ? new Timestamp(0) : Timestamp.from(after.toInstant());
+        Timestamp to = null;
+        List<Object[]> entries = new ArrayList<>();
+        try (Connection conn = (Connection) OpenJPAPersistence.cast(entityManager()).getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT EVENT_DATE FROM " + AUDIT_ENTRY_TABLE
+                    + " WHERE EVENT_TYPE IS NULL AND EVENT_DATE > ? ORDER BY EVENT_DATE")) {
+
+                stmt.setTimestamp(1, from);
+                stmt.setMaxRows(batchSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        to = rs.getTimestamp(1);
+                    }
+                }
+            }
+            if (to == null) {
+                return null;
+            }
+
+            // entries sharing the date of the last one are included, so the next batch can start after such date
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT EVENT_DATE, LOGGER_LEVEL, LOGGER, " + select() + ", THROWABLE" + range)) {
+
+                stmt.setTimestamp(1, from);
+                stmt.setTimestamp(2, to);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        entries.add(new Object[] {
+                            rs.getTimestamp(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5) });
+                    }
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE" + range)) {
+                stmt.setTimestamp(1, from);
+                stmt.setTimestamp(2, to);
+                stmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("While reading audit entries stored before " + to, e);
+        }
+
+        batchUpdate(insertEntries(), entries.stream().map(entry -> {
+            AuditEntry parsed = null;
+            try {
+                parsed = POJOHelper.deserialize((String) entry[3], AuditEntry.class);
+            } catch (Exception e) {
+                LOG.warn("Could not parse audit entry stored on {}, structured columns left empty", entry[0], e);
+            }
+            return parsed == null || parsed.getLogger() == null
+                    ? new Object[] {
+                        entry[0], null, null, null, null, null, null, null, entry[1], entry[2], entry[3], entry[4] }
+                    : insertParameters(
+                            (Timestamp) entry[0], parsed,
+                            (String) entry[1], (String) entry[2], (String) entry[3], (String) entry[4]);
+        }).collect(Collectors.toList()));
+
+        return to.toInstant().atOffset(ZoneOffset.UTC);
+    }
+
     protected MessageCriteriaBuilder messageCriteriaBuilder(final String entityKey) {
         return new MessageCriteriaBuilder().entityKey(entityKey);
     }
@@ -136,16 +307,16 @@ public class JPAAuditConfDAO extends AbstractDAO<AuditConf> implements AuditConf
             final List<String> events,
             final AuditElements.Result result) {
 
-        String queryString = "SELECT COUNT(0)"
-                + " FROM " + AUDIT_ENTRY_TABLE
-                + " WHERE " + messageCriteriaBuilder(entityKey).
-                        type(type).
-                        category(category).
-                        subcategory(subcategory).
-                        result(result).
-                        events(events).
-                        build();
-        Query countQuery = entityManager().createNativeQuery(queryString);
+        MessageCriteriaBuilder criteria = messageCriteriaBuilder(entityKey).
+                type(type).
+                category(category).
+                subcategory(subcategory).
+                result(result).
+                events(events);
+
+        Query countQuery = entityManager().createNativeQuery(
+                "SELECT COUNT(0) FROM " + AUDIT_ENTRY_TABLE + criteria.build());
+        criteria.fill(countQuery);
 
         return ((Number) countQuery.getSingleResult()).intValue();
     }
@@ -167,15 +338,14 @@ public class JPAAuditConfDAO extends AbstractDAO<AuditConf> implements AuditConf
             final AuditElements.Result result,
             final List<OrderByClause> orderByClauses) {
 
-        String queryString = "SELECT " + select()
-                + " FROM " + AUDIT_ENTRY_TABLE
-                + " WHERE " + messageCriteriaBuilder(entityKey).
-                        type(type).
-                        category(category).
-                        subcategory(subcategory).
-                        result(result).
-                        events(events).
-                        build();
+        MessageCriteriaBuilder criteria = messageCriteriaBuilder(entityKey).
+                type(type).
+                category(category).
+                subcategory(subcategory).
+                result(result).
+                events(events);
+
+        String queryString = "SELECT " + select() + " FROM " + AUDIT_ENTRY_TABLE + criteria.build();
         if (!orderByClauses.isEmpty()) {
             queryString += " ORDER BY " + orderByClauses.stream().
                     map(orderBy -> orderBy.getField() + ' ' + orderBy.getDirection().name()).
@@ -183,6 +353,7 @@ public class JPAAuditConfDAO extends AbstractDAO<AuditConf> implements AuditConf
         }
 
         Query query = entityManager().createNativeQuery(queryString);
+        criteria.fill(query);
         query.setFirstResult(itemsPerPage * (page <= 0 ? 0 : page - 1));
         if (itemsPerPage >= 0) {
             query.setMaxResults(itemsPerPage);
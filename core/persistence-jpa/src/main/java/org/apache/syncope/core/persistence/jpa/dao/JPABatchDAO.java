@@ -19,10 +19,14 @@
 package org.apache.syncope.core.persistence.jpa.dao;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 import org.apache.syncope.core.persistence.api.dao.BatchDAO;
 import org.apache.syncope.core.persistence.api.entity.Batch;
+import org.apache.syncope.core.persistence.api.entity.BatchResult;
 import org.apache.syncope.core.persistence.jpa.entity.JPABatch;
+import org.apache.syncope.core.persistence.jpa.entity.JPABatchResult;
 import org.springframework.transaction.annotation.Transactional;
 
 @Transactional(rollbackFor = Throwable.class)
@@ -39,8 +43,39 @@ public class JPABatchDAO extends AbstractDAO<Batch> implements BatchDAO {
         return entityManager().merge(batch);
     }
 
+    @Override
+    public BatchResult save(final BatchResult result) {
+        return entityManager().merge(result);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public int countResults(final String batch) {
+        Query query = entityManager().createQuery(
+                "SELECT COUNT(e) FROM " + JPABatchResult.class.getSimpleName() + " e WHERE e.batch=:batch");
+        query.setParameter("batch", batch);
+        return ((Number) query.getSingleResult()).intValue();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BatchResult> findResults(final String batch, final int page, final int itemsPerPage) {
+        TypedQuery<BatchResult> query = entityManager().createQuery(
+                "SELECT e FROM " + JPABatchResult.class.getSimpleName() + " e WHERE e.batch=:batch "
+                + "ORDER BY e.itemIndex", BatchResult.class);
+        query.setParameter("batch", batch);
+        query.setFirstResult(itemsPerPage * (page <= 0 ? 0 : page - 1));
+        query.setMaxResults(itemsPerPage);
+        return query.getResultList();
+    }
+
     @Override
     public void delete(final String key) {
+        Query query = entityManager().createQuery(
+                "DELETE FROM " + JPABatchResult.class.getSimpleName() + " e WHERE e.batch=:batch");
+        query.setParameter("batch", key);
+        query.executeUpdate();
+
         Batch batch = find(key);
         if (batch == null) {
             return;
@@ -51,9 +86,18 @@ public class JPABatchDAO extends AbstractDAO<Batch> implements BatchDAO {
 
     @Override
     public int deleteExpired() {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        // also remove results stored after their batch was removed
         Query query = entityManager().createQuery(
+                "DELETE FROM " + JPABatchResult.class.getSimpleName() + " e WHERE e.batch NOT IN "
+                + "(SELECT b.id FROM " + JPABatch.class.getSimpleName() + " b WHERE b.expiryTime >= :now)");
+        query.setParameter("now", now);
+        query.executeUpdate();
+
+        query = entityManager().createQuery(
                 "DELETE FROM " + JPABatch.class.getSimpleName() + " e WHERE e.expiryTime < :now");
-        query.setParameter("now", OffsetDateTime.now());
+        query.setParameter("now", now);
         return query.executeUpdate();
     }
 }
@@ -28,9 +28,19 @@ import org.apache.syncope.core.persistence.api.entity.Delegation;
 import org.apache.syncope.core.persistence.api.entity.Role;
 import org.apache.syncope.core.persistence.api.entity.user.User;
 import org.apache.syncope.core.persistence.jpa.entity.JPADelegation;
+import org.apache.syncope.core.provisioning.api.event.EntityLifecycleEvent;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.springframework.context.ApplicationEventPublisher;
 
 public class JPADelegationDAO extends AbstractDAO<Delegation> implements DelegationDAO {
 
+    protected final ApplicationEventPublisher publisher;
+
+    public JPADelegationDAO(final ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
     @Override
     public Delegation find(final String key) {
         return entityManager().find(JPADelegation.class, key);
@@ -101,12 +111,20 @@ public class JPADelegationDAO extends AbstractDAO<Delegation> implements Delegat
 
     @Override
     public Delegation save(final Delegation delegation) {
-        return entityManager().merge(delegation);
+        Delegation merged = entityManager().merge(delegation);
+
+        publisher.publishEvent(new EntityLifecycleEvent<>(
+                this, SyncDeltaType.CREATE_OR_UPDATE, merged, AuthContextUtils.getDomain()));
+
+        return merged;
     }
 
     @Override
     public void delete(final Delegation delegation) {
         entityManager().remove(delegation);
+
+        publisher.publishEvent(
+                new EntityLifecycleEvent<>(this, SyncDeltaType.DELETE, delegation, AuthContextUtils.getDomain()));
     }
 
     @Override
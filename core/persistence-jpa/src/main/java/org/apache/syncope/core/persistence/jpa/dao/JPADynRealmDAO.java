@@ -19,9 +19,15 @@
 package org.apache.syncope.core.persistence.jpa.dao;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import org.apache.syncope.common.lib.types.AnyTypeKind;
 import org.apache.syncope.core.persistence.api.dao.AnyMatchDAO;
 import org.apache.syncope.core.persistence.api.dao.AnyObjectDAO;
 import org.apache.syncope.core.persistence.api.dao.AnySearchDAO;
@@ -33,9 +39,10 @@ import org.apache.syncope.core.persistence.api.entity.DynRealm;
 import org.apache.syncope.core.persistence.api.search.SearchCondConverter;
 import org.apache.syncope.core.persistence.api.search.SearchCondVisitor;
 import org.apache.syncope.core.persistence.jpa.entity.JPADynRealm;
-import org.apache.syncope.core.provisioning.api.event.AnyLifecycleEvent;
-import org.apache.syncope.core.spring.security.AuthContextUtils;
-import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.apache.syncope.core.persistence.jpa.entity.JPADynRealmMembership;
+import org.apache.syncope.core.persistence.jpa.entity.anyobject.JPAAnyObject;
+import org.apache.syncope.core.persistence.jpa.entity.group.JPAGroup;
+import org.apache.syncope.core.persistence.jpa.entity.user.JPAUser;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -57,6 +64,9 @@ public class JPADynRealmDAO extends AbstractDAO<DynRealm> implements DynRealmDAO
 
     protected final SearchCondVisitor searchCondVisitor;
 
+    protected final DynMembershipCondCache condCache = new DynMembershipCondCache(
+            JPADynRealm.class, JPADynRealmMembership.class);
+
     public JPADynRealmDAO(
             final ApplicationEventPublisher publisher,
             final UserDAO userDAO,
@@ -92,17 +102,24 @@ public class JPADynRealmDAO extends AbstractDAO<DynRealm> implements DynRealmDAO
         return entityManager().merge(dynRealm);
     }
 
-    @SuppressWarnings("unchecked")
-    protected List<String> clearDynMembers(final DynRealm dynRealm) {
-        Query find = entityManager().createNativeQuery(
-                "SELECT any_id FROM " + DYNMEMB_TABLE + " WHERE dynRealm_id=?");
-        find.setParameter(1, dynRealm.getKey());
+    protected Map<AnyTypeKind, Set<String>> findDynMembers(final DynRealm dynRealm) {
+        Map<AnyTypeKind, Set<String>> members = new EnumMap<>(AnyTypeKind.class);
+        Map.of(AnyTypeKind.USER, JPAUser.TABLE,
+                AnyTypeKind.GROUP, JPAGroup.TABLE,
+                AnyTypeKind.ANY_OBJECT, JPAAnyObject.TABLE).forEach((kind, table) -> {
+
+            Query find = entityManager().createNativeQuery(
+                    "SELECT m.any_id FROM " + DYNMEMB_TABLE + " m, " + table + " a "
+                    + "WHERE m.any_id=a.id AND m.dynRealm_id=?");
+            find.setParameter(1, dynRealm.getKey());
+
+            members.put(kind, new HashSet<>(toKeys(find.getResultList())));
+        });
+        return members;
+    }
 
-        List<String> cleared = new ArrayList<>();
-        find.getResultList().stream().map(key -> key instanceof Object[]
-                ? (String) ((Object[]) key)[0]
-                : ((String) key)).
-                forEach(key -> cleared.add((String) key));
+    protected Map<AnyTypeKind, Set<String>> clearDynMembers(final DynRealm dynRealm) {
+        Map<AnyTypeKind, Set<String>> cleared = findDynMembers(dynRealm);
 
         Query delete = entityManager().createNativeQuery("DELETE FROM " + DYNMEMB_TABLE + " WHERE dynRealm_id=?");
         delete.setParameter(1, dynRealm.getKey());
@@ -111,44 +128,44 @@ public class JPADynRealmDAO extends AbstractDAO<DynRealm> implements DynRealmDAO
         return cleared;
     }
 
-    protected void notifyDynMembershipRemoval(final List<String> anyKeys) {
-        anyKeys.forEach(key -> {
-            Any<?> any = userDAO.find(key);
-            if (any == null) {
-                any = groupDAO.find(key);
-            }
-            if (any == null) {
-                any = anyObjectDAO.find(key);
-            }
-            if (any != null) {
-                publisher.publishEvent(
-                        new AnyLifecycleEvent<>(this, SyncDeltaType.UPDATE, any, AuthContextUtils.getDomain()));
-            }
-        });
+    protected void notifyDynMembershipChanges(final AnyTypeKind kind, final Set<String> anyKeys) {
+        publishAnyUpdates(publisher, kind, anyKeys);
     }
 
     @Override
     public DynRealm saveAndRefreshDynMemberships(final DynRealm dynRealm) {
         DynRealm merged = save(dynRealm);
+        condCache.invalidate(merged.getKey());
+
+        // refresh dynamic memberships, only touching the rows actually changed
+        Map<AnyTypeKind, Set<String>> before = findDynMembers(merged);
+
+        Map<AnyTypeKind, Set<String>> after = new EnumMap<>(AnyTypeKind.class);
+        merged.getDynMemberships().forEach(memb -> after.computeIfAbsent(
+                memb.getAnyType().getKind(), kind -> new HashSet<>()).addAll(searchDAO.searchKeys(
+                SearchCondConverter.convert(searchCondVisitor, memb.getFIQLCond()), memb.getAnyType().getKind())));
+
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (AnyTypeKind kind : AnyTypeKind.values()) {
+            Set<String> kindBefore = before.getOrDefault(kind, Set.of());
+            Set<String> kindAfter = after.getOrDefault(kind, Set.of());
+
+            Set<String> changed = new HashSet<>();
+            kindBefore.stream().filter(key -> !kindAfter.contains(key)).forEach(key -> {
+                deletes.add(new Object[] { key, merged.getKey() });
+                changed.add(key);
+            });
+            kindAfter.stream().filter(key -> !kindBefore.contains(key)).forEach(key -> {
+                inserts.add(new Object[] { key, merged.getKey() });
+                changed.add(key);
+            });
+
+            notifyDynMembershipChanges(kind, changed);
+        }
 
-        // refresh dynamic memberships
-        List<String> cleared = clearDynMembers(merged);
-
-        merged.getDynMemberships().stream().map(memb -> searchDAO.search(
-                SearchCondConverter.convert(searchCondVisitor, memb.getFIQLCond()), memb.getAnyType().getKind())).
-                forEach(matching -> matching.forEach(any -> {
-
-            Query insert = entityManager().createNativeQuery("INSERT INTO " + DYNMEMB_TABLE + " VALUES(?, ?)");
-            insert.setParameter(1, any.getKey());
-            insert.setParameter(2, merged.getKey());
-            insert.executeUpdate();
-
-            publisher.publishEvent(
-                    new AnyLifecycleEvent<>(this, SyncDeltaType.UPDATE, any, AuthContextUtils.getDomain()));
-            cleared.remove(any.getKey());
-        }));
-
-        notifyDynMembershipRemoval(cleared);
+        batchUpdate("DELETE FROM " + DYNMEMB_TABLE + " WHERE any_id=? AND dynRealm_id=?", deletes);
+        batchUpdate("INSERT INTO " + DYNMEMB_TABLE + " VALUES(?, ?)", inserts);
 
         return merged;
     }
@@ -160,7 +177,8 @@ public class JPADynRealmDAO extends AbstractDAO<DynRealm> implements DynRealmDAO
             return;
         }
 
-        notifyDynMembershipRemoval(clearDynMembers(dynRealm));
+        clearDynMembers(dynRealm).forEach(this::notifyDynMembershipChanges);
+        condCache.invalidate(dynRealm.getKey());
 
         entityManager().remove(dynRealm);
     }
@@ -168,29 +186,45 @@ public class JPADynRealmDAO extends AbstractDAO<DynRealm> implements DynRealmDAO
     @Transactional
     @Override
     public void refreshDynMemberships(final Any<?> any) {
-        findAll().forEach(dynRealm -> dynRealm.getDynMembership(any.getType()).ifPresent(memb -> {
-            boolean matches = anyMatchDAO.matches(
-                    any, SearchCondConverter.convert(searchCondVisitor, memb.getFIQLCond()));
+        refreshDynMemberships(any, null);
+    }
 
-            Query find = entityManager().createNativeQuery(
-                    "SELECT dynRealm_id FROM " + DYNMEMB_TABLE + " WHERE any_id=?");
-            find.setParameter(1, any.getKey());
-            boolean existing = !find.getResultList().isEmpty();
-
-            if (matches && !existing) {
-                Query insert = entityManager().
-                        createNativeQuery("INSERT INTO " + DYNMEMB_TABLE + " VALUES(?, ?)");
-                insert.setParameter(1, any.getKey());
-                insert.setParameter(2, dynRealm.getKey());
-                insert.executeUpdate();
-            } else if (!matches && existing) {
-                Query delete = entityManager().createNativeQuery(
-                        "DELETE FROM " + DYNMEMB_TABLE + " WHERE dynRealm_id=? AND any_id=?");
-                delete.setParameter(1, dynRealm.getKey());
-                delete.setParameter(2, any.getKey());
-                delete.executeUpdate();
+    @Transactional
+    @Override
+    public void refreshDynMemberships(final Any<?> any, final Set<String> changed) {
+        Query query = entityManager().createNativeQuery(
+                "SELECT dynRealm_id FROM " + DYNMEMB_TABLE + " WHERE any_id=?");
+        query.setParameter(1, any.getKey());
+
+        Set<String> before = new HashSet<>(toKeys(query.getResultList()));
+        Set<String> after = new HashSet<>(before);
+        condCache.affectedBy(
+                entityManagerFactory(),
+                any.getType().getKey(),
+                changed,
+                () -> findAll().stream().
+                        flatMap(dynRealm -> dynRealm.getDynMembership(any.getType()).map(memb -> condCache.get(
+                        memb.getKey(),
+                        memb.getFIQLCond(),
+                        dynRealm.getKey(),
+                        () -> SearchCondConverter.convert(searchCondVisitor, memb.getFIQLCond()))).stream()).
+                        collect(Collectors.toList())).forEach(entry -> {
+
+            if (anyMatchDAO.matches(any, entry.getCond())) {
+                after.add(entry.getOwner());
+            } else {
+                after.remove(entry.getOwner());
             }
-        }));
+        });
+
+        batchUpdate(
+                "DELETE FROM " + DYNMEMB_TABLE + " WHERE dynRealm_id=? AND any_id=?",
+                before.stream().filter(dynRealm -> !after.contains(dynRealm)).
+                        map(dynRealm -> new Object[] { dynRealm, any.getKey() }).collect(Collectors.toList()));
+        batchUpdate(
+                "INSERT INTO " + DYNMEMB_TABLE + " VALUES(?, ?)",
+                after.stream().filter(dynRealm -> !before.contains(dynRealm)).
+                        map(dynRealm -> new Object[] { any.getKey(), dynRealm }).collect(Collectors.toList()));
     }
 
     @Override
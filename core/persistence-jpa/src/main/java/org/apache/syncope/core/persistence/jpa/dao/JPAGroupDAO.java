@@ -21,18 +21,21 @@ package org.apache.syncope.core.persistence.jpa.dao;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.persistence.NoResultException;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.syncope.common.lib.types.AnyTypeKind;
 import org.apache.syncope.common.lib.types.IdRepoEntitlement;
-import org.apache.syncope.core.persistence.api.dao.AnyDAO;
 import org.apache.syncope.core.persistence.api.dao.AnyMatchDAO;
 import org.apache.syncope.core.persistence.api.dao.AnyObjectDAO;
 import org.apache.syncope.core.persistence.api.dao.AnySearchDAO;
@@ -48,6 +51,7 @@ import org.apache.syncope.core.persistence.api.entity.AnyType;
 import org.apache.syncope.core.persistence.api.entity.AnyTypeClass;
 import org.apache.syncope.core.persistence.api.entity.AnyUtils;
 import org.apache.syncope.core.persistence.api.entity.AnyUtilsFactory;
+import org.apache.syncope.core.persistence.api.entity.DynGroupMembership;
 import org.apache.syncope.core.persistence.api.entity.ExternalResource;
 import org.apache.syncope.core.persistence.api.entity.Realm;
 import org.apache.syncope.core.persistence.api.entity.anyobject.ADynGroupMembership;
@@ -60,12 +64,14 @@ import org.apache.syncope.core.persistence.api.entity.user.UMembership;
 import org.apache.syncope.core.persistence.api.entity.user.User;
 import org.apache.syncope.core.persistence.api.search.SearchCondConverter;
 import org.apache.syncope.core.persistence.api.search.SearchCondVisitor;
+import org.apache.syncope.core.persistence.jpa.entity.JPARealm;
 import org.apache.syncope.core.persistence.jpa.entity.anyobject.JPAADynGroupMembership;
 import org.apache.syncope.core.persistence.jpa.entity.anyobject.JPAAMembership;
 import org.apache.syncope.core.persistence.jpa.entity.group.JPAGroup;
 import org.apache.syncope.core.persistence.jpa.entity.group.JPATypeExtension;
 import org.apache.syncope.core.persistence.jpa.entity.user.JPAUDynGroupMembership;
 import org.apache.syncope.core.persistence.jpa.entity.user.JPAUMembership;
+import org.apache.syncope.core.persistence.jpa.entity.user.JPAUser;
 import org.apache.syncope.core.provisioning.api.event.AnyLifecycleEvent;
 import org.apache.syncope.core.provisioning.api.utils.RealmUtils;
 import org.apache.syncope.core.spring.security.AuthContextUtils;
@@ -80,6 +86,11 @@ public class JPAGroupDAO extends AbstractAnyDAO<Group> implements GroupDAO {
 
     public static final String ADYNMEMB_TABLE = "ADynGroupMembers";
 
+    /**
+     * Maximum number of keys bound in a single IN clause.
+     */
+    protected static final int MAX_IN_KEYS = 500;
+
     protected final ApplicationEventPublisher publisher;
 
     protected final AnyMatchDAO anyMatchDAO;
@@ -94,6 +105,9 @@ public class JPAGroupDAO extends AbstractAnyDAO<Group> implements GroupDAO {
 
     protected final SearchCondVisitor searchCondVisitor;
 
+    protected final DynMembershipCondCache condCache = new DynMembershipCondCache(
+            JPAGroup.class, JPAUDynGroupMembership.class, JPAADynGroupMembership.class);
+
     public JPAGroupDAO(
             final AnyUtilsFactory anyUtilsFactory,
             final ApplicationEventPublisher publisher,
@@ -264,6 +278,126 @@ public class JPAGroupDAO extends AbstractAnyDAO<Group> implements GroupDAO {
         return query.getResultList();
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> findUMemberKeys(final Group group) {
+        Query query = entityManager().createNativeQuery(
+                "SELECT user_id FROM " + JPAUMembership.TABLE + " WHERE group_id=?");
+        query.setParameter(1, group.getKey());
+
+        List<String> result = new ArrayList<>();
+        query.getResultList().stream().map(key -> key instanceof Object[]
+                ? (String) ((Object[]) key)[0]
+                : ((String) key)).
+                forEach(user -> result.add((String) user));
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> findUMemberKeys(final Group group, final Collection<String> userKeys) {
+        List<String> keys = new ArrayList<>(userKeys);
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += MAX_IN_KEYS) {
+            List<String> chunk = keys.subList(i, Math.min(i + MAX_IN_KEYS, keys.size()));
+
+            Query query = entityManager().createNativeQuery(
+                    "SELECT user_id FROM " + JPAUMembership.TABLE + " WHERE group_id=?1 AND user_id IN ("
+                    + IntStream.range(0, chunk.size()).mapToObj(j -> "?" + (j + 2)).collect(Collectors.joining(","))
+                    + ")");
+            query.setParameter(1, group.getKey());
+            for (int j = 0; j < chunk.size(); j++) {
+                query.setParameter(j + 2, chunk.get(j));
+            }
+
+            query.getResultList().stream().map(key -> key instanceof Object[]
+                    ? (String) ((Object[]) key)[0]
+                    : ((String) key)).
+                    forEach(user -> result.add((String) user));
+        }
+        return result;
+    }
+
+    /**
+     * Builds the condition selecting users under the given realm full paths, adding the related query parameters.
+     *
+     * @param realms realm full paths
+     * @param parameters query parameters
+     * @return SQL condition on realm keys
+     */
+    protected static String realmsCondition(final Collection<String> realms, final List<Object> parameters) {
+        return "realm_id IN (SELECT id FROM " + JPARealm.TABLE + " WHERE " + realms.stream().map(realm -> {
+            parameters.add(realm);
+            parameters.add(StringUtils.appendIfMissing(realm, "/") + '%');
+            return "fullPath=?" + (parameters.size() - 1) + " OR fullPath LIKE ?" + parameters.size();
+        }).collect(Collectors.joining(" OR ")) + ')';
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> findUMemberKeysByRealm(final Group group, final Collection<String> realms) {
+        if (realms.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(group.getKey());
+        String queryString = "SELECT id FROM " + JPAUser.TABLE + " WHERE id IN (SELECT user_id FROM "
+                + JPAUMembership.TABLE + " WHERE group_id=?1) AND " + realmsCondition(realms, parameters);
+
+        Query query = entityManager().createNativeQuery(queryString);
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+
+        List<String> result = new ArrayList<>();
+        query.getResultList().stream().map(key -> key instanceof Object[]
+                ? (String) ((Object[]) key)[0]
+                : ((String) key)).
+                forEach(user -> result.add((String) user));
+        return result;
+    }
+
+    @Override
+    public List<Pair<String, String>> findUMembers(final Group group, final String after, final int count) {
+        return findUMembers(group, List.of(), after, count);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Pair<String, String>> findUMembers(
+            final Group group,
+            final Collection<String> realms,
+            final String after,
+            final int count) {
+
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(group.getKey());
+        parameters.add(group.getKey());
+        StringBuilder queryString = new StringBuilder("SELECT id, username FROM ").append(JPAUser.TABLE).
+                append(" WHERE id IN (SELECT user_id FROM ").append(JPAUMembership.TABLE).append(" WHERE group_id=?1").
+                append(" UNION SELECT any_id FROM ").append(UDYNMEMB_TABLE).append(" WHERE group_id=?2)");
+        if (after != null) {
+            parameters.add(after);
+            queryString.append(" AND id>?").append(parameters.size());
+        }
+        if (!realms.isEmpty()) {
+            queryString.append(" AND ").append(realmsCondition(realms, parameters));
+        }
+        queryString.append(" ORDER BY id");
+
+        Query query = entityManager().createNativeQuery(queryString.toString());
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        query.setMaxResults(count);
+
+        List<Pair<String, String>> result = new ArrayList<>();
+        ((List<Object[]>) query.getResultList()).
+                forEach(row -> result.add(Pair.of((String) row[0], (String) row[1])));
+        return result;
+    }
+
     @Override
     public List<Group> findAll(final int page, final int itemsPerPage) {
         TypedQuery<Group> query = entityManager().createQuery(
@@ -289,67 +423,111 @@ public class JPAGroupDAO extends AbstractAnyDAO<Group> implements GroupDAO {
                 SearchCondConverter.convert(searchCondVisitor, baseCondFIQL));
     }
 
-    @Override
-    public Group saveAndRefreshDynMemberships(final Group group) {
-        Group merged = save(group);
+    protected DynMembershipCondCache.Entry condCacheEntry(final DynGroupMembership<?> memb) {
+        Group group = memb.getGroup();
+        return condCache.get(
+                memb.getKey(),
+                group.getRealm().getFullPath() + ' ' + memb.getFIQLCond(),
+                group.getKey(),
+                () -> buildDynMembershipCond(memb.getFIQLCond(), group.getRealm()));
+    }
 
-        // refresh dynamic memberships
-        clearUDynMembers(merged);
-        if (merged.getUDynMembership() != null) {
-            SearchCond cond = buildDynMembershipCond(merged.getUDynMembership().getFIQLCond(), merged.getRealm());
-            int count = anySearchDAO.count(
-                    merged.getRealm(), true, Set.of(merged.getRealm().getFullPath()), cond, AnyTypeKind.USER);
-            for (int page = 1; page <= (count / AnyDAO.DEFAULT_PAGE_SIZE) + 1; page++) {
-                List<User> matching = anySearchDAO.search(
-                        merged.getRealm(),
-                        true,
-                        Set.of(merged.getRealm().getFullPath()),
-                        cond,
-                        page,
-                        AnyDAO.DEFAULT_PAGE_SIZE,
-                        List.of(),
-                        AnyTypeKind.USER);
+    protected void publishGroupUpdates(final Set<String> groups) {
+        groups.stream().map(this::find).filter(Objects::nonNull).forEach(group -> publisher.publishEvent(
+                new AnyLifecycleEvent<>(this, SyncDeltaType.UPDATE, group, AuthContextUtils.getDomain())));
+    }
 
-                matching.forEach(user -> {
-                    Query insert = entityManager().createNativeQuery("INSERT INTO " + UDYNMEMB_TABLE + " VALUES(?, ?)");
-                    insert.setParameter(1, user.getKey());
-                    insert.setParameter(2, merged.getKey());
-                    insert.executeUpdate();
+    protected void publishDynMembershipChanges(
+            final AnyTypeKind kind,
+            final Set<String> before,
+            final Set<String> after) {
 
-                    publisher.publishEvent(
-                            new AnyLifecycleEvent<>(this, SyncDeltaType.UPDATE, user, AuthContextUtils.getDomain()));
-                });
-            }
+        Set<String> changed = new HashSet<>(before);
+        changed.addAll(after);
+        changed.removeIf(key -> before.contains(key) && after.contains(key));
+
+        publishAnyUpdates(publisher, kind, changed);
+    }
+
+    protected void refreshUDynMembers(final Group group) {
+        Query query = entityManager().createNativeQuery("SELECT any_id FROM " + UDYNMEMB_TABLE + " WHERE group_id=?");
+        query.setParameter(1, group.getKey());
+        Set<String> before = new HashSet<>(toKeys(query.getResultList()));
+
+        Set<String> after = new HashSet<>();
+        if (group.getUDynMembership() != null) {
+            after.addAll(anySearchDAO.searchKeys(
+                    group.getRealm(),
+                    true,
+                    Set.of(group.getRealm().getFullPath()),
+                    buildDynMembershipCond(group.getUDynMembership().getFIQLCond(), group.getRealm()),
+                    -1,
+                    -1,
+                    List.of(),
+                    AnyTypeKind.USER));
         }
-        clearADynMembers(merged);
-        merged.getADynMemberships().forEach(memb -> {
-            SearchCond cond = buildDynMembershipCond(memb.getFIQLCond(), merged.getRealm());
-            int count = anySearchDAO.count(
-                    merged.getRealm(), true, Set.of(merged.getRealm().getFullPath()), cond, AnyTypeKind.ANY_OBJECT);
-            for (int page = 1; page <= (count / AnyDAO.DEFAULT_PAGE_SIZE) + 1; page++) {
-                List<AnyObject> matching = anySearchDAO.search(
-                        merged.getRealm(),
+
+        batchUpdate(
+                "DELETE FROM " + UDYNMEMB_TABLE + " WHERE any_id=? AND group_id=?",
+                before.stream().filter(key -> !after.contains(key)).
+                        map(key -> new Object[] { key, group.getKey() }).collect(Collectors.toList()));
+        batchUpdate(
+                "INSERT INTO " + UDYNMEMB_TABLE + " VALUES(?, ?)",
+                after.stream().filter(key -> !before.contains(key)).
+                        map(key -> new Object[] { key, group.getKey() }).collect(Collectors.toList()));
+
+        publishDynMembershipChanges(AnyTypeKind.USER, before, after);
+    }
+
+    protected void refreshADynMembers(final Group group) {
+        Query query = entityManager().createNativeQuery(
+                "SELECT anyType_id, any_id FROM " + ADYNMEMB_TABLE + " WHERE group_id=?");
+        query.setParameter(1, group.getKey());
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> existing = query.getResultList();
+        Map<String, Set<String>> before = new HashMap<>();
+        existing.forEach(row -> before.computeIfAbsent(row[0].toString(), k -> new HashSet<>()).add(row[1].toString()));
+
+        Map<String, Set<String>> after = new HashMap<>();
+        group.getADynMemberships().forEach(memb -> after.put(
+                memb.getAnyType().getKey(),
+                new HashSet<>(anySearchDAO.searchKeys(
+                        group.getRealm(),
                         true,
-                        Set.of(merged.getRealm().getFullPath()),
-                        cond,
-                        page,
-                        AnyDAO.DEFAULT_PAGE_SIZE,
+                        Set.of(group.getRealm().getFullPath()),
+                        buildDynMembershipCond(memb.getFIQLCond(), group.getRealm()),
+                        -1,
+                        -1,
                         List.of(),
-                        AnyTypeKind.ANY_OBJECT);
-
-                matching.forEach(any -> {
-                    Query insert = entityManager().createNativeQuery(
-                            "INSERT INTO " + ADYNMEMB_TABLE + " VALUES(?, ?, ?)");
-                    insert.setParameter(1, any.getType().getKey());
-                    insert.setParameter(2, any.getKey());
-                    insert.setParameter(3, merged.getKey());
-                    insert.executeUpdate();
-
-                    publisher.publishEvent(
-                            new AnyLifecycleEvent<>(this, SyncDeltaType.UPDATE, any, AuthContextUtils.getDomain()));
-                });
-            }
-        });
+                        AnyTypeKind.ANY_OBJECT))));
+
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        before.forEach((anyType, keys) -> keys.stream().
+                filter(key -> !after.getOrDefault(anyType, Set.of()).contains(key)).
+                forEach(key -> deletes.add(new Object[] { key, group.getKey() })));
+        after.forEach((anyType, keys) -> keys.stream().
+                filter(key -> !before.getOrDefault(anyType, Set.of()).contains(key)).
+                forEach(key -> inserts.add(new Object[] { anyType, key, group.getKey() })));
+
+        batchUpdate("DELETE FROM " + ADYNMEMB_TABLE + " WHERE any_id=? AND group_id=?", deletes);
+        batchUpdate("INSERT INTO " + ADYNMEMB_TABLE + " VALUES(?, ?, ?)", inserts);
+
+        publishDynMembershipChanges(
+                AnyTypeKind.ANY_OBJECT,
+                before.values().stream().flatMap(Set::stream).collect(Collectors.toSet()),
+                after.values().stream().flatMap(Set::stream).collect(Collectors.toSet()));
+    }
+
+    @Override
+    public Group saveAndRefreshDynMemberships(final Group group) {
+        Group merged = save(group);
+        condCache.invalidate(merged.getKey());
+
+        // refresh dynamic memberships, only touching the rows actually changed
+        refreshUDynMembers(merged);
+        refreshADynMembers(merged);
 
         dynRealmDAO.refreshDynMemberships(merged);
 
@@ -358,6 +536,7 @@ public class JPAGroupDAO extends AbstractAnyDAO<Group> implements GroupDAO {
 
     @Override
     public void delete(final Group group) {
+        condCache.invalidate(group.getKey());
         dynRealmDAO.removeDynMemberships(group.getKey());
 
         findAMemberships(group).forEach(membership -> {
@@ -492,43 +671,33 @@ public class JPAGroupDAO extends AbstractAnyDAO<Group> implements GroupDAO {
                 "SELECT group_id FROM " + JPAGroupDAO.ADYNMEMB_TABLE + " WHERE any_id=?");
         query.setParameter(1, anyObject.getKey());
 
-        Set<String> before = new HashSet<>();
-        Set<String> after = new HashSet<>();
-        findWithADynMemberships(anyObject.getType()).forEach(memb -> {
-            boolean matches = anyMatchDAO.matches(
-                    anyObject,
-                    buildDynMembershipCond(memb.getFIQLCond(), memb.getGroup().getRealm()));
-            if (matches) {
-                after.add(memb.getGroup().getKey());
-            }
-
-            Query find = entityManager().createNativeQuery(
-                    "SELECT any_id FROM " + ADYNMEMB_TABLE + " WHERE group_id=? AND any_id=?");
-            find.setParameter(1, memb.getGroup().getKey());
-            find.setParameter(2, anyObject.getKey());
-            boolean existing = !find.getResultList().isEmpty();
-            if (existing) {
-                before.add(memb.getGroup().getKey());
+        Set<String> before = new HashSet<>(toKeys(query.getResultList()));
+        Set<String> after = new HashSet<>(before);
+        Set<String> changed = new HashSet<>();
+        condCache.affectedBy(
+                entityManagerFactory(),
+                AnyTypeKind.ANY_OBJECT.name() + ':' + anyObject.getType().getKey(),
+                null,
+                () -> findWithADynMemberships(anyObject.getType()).stream().
+                        map(this::condCacheEntry).collect(Collectors.toList())).forEach(entry -> {
+
+            boolean matches = anyMatchDAO.matches(anyObject, entry.getCond());
+            if (matches ? after.add(entry.getOwner()) : after.remove(entry.getOwner())) {
+                changed.add(entry.getOwner());
             }
+        });
 
-            if (matches && !existing) {
-                Query insert = entityManager().createNativeQuery(
-                        "INSERT INTO " + ADYNMEMB_TABLE + " VALUES(?, ?, ?)");
-                insert.setParameter(1, anyObject.getType().getKey());
-                insert.setParameter(2, anyObject.getKey());
-                insert.setParameter(3, memb.getGroup().getKey());
-                insert.executeUpdate();
-            } else if (!matches && existing) {
-                Query delete = entityManager().createNativeQuery(
-                        "DELETE FROM " + ADYNMEMB_TABLE + " WHERE group_id=? AND any_id=?");
-                delete.setParameter(1, memb.getGroup().getKey());
-                delete.setParameter(2, anyObject.getKey());
-                delete.executeUpdate();
-            }
+        batchUpdate(
+                "DELETE FROM " + ADYNMEMB_TABLE + " WHERE group_id=? AND any_id=?",
+                changed.stream().filter(group -> !after.contains(group)).
+                        map(group -> new Object[] { group, anyObject.getKey() }).collect(Collectors.toList()));
+        batchUpdate(
+                "INSERT INTO " + ADYNMEMB_TABLE + " VALUES(?, ?, ?)",
+                changed.stream().filter(after::contains).
+                        map(group -> new Object[] { anyObject.getType().getKey(), anyObject.getKey(), group }).
+                        collect(Collectors.toList()));
 
-            publisher.publishEvent(
-                    new AnyLifecycleEvent<>(this, SyncDeltaType.UPDATE, memb.getGroup(), AuthContextUtils.getDomain()));
-        });
+        publishGroupUpdates(changed);
 
         return Pair.of(before, after);
     }
@@ -589,46 +758,42 @@ public class JPAGroupDAO extends AbstractAnyDAO<Group> implements GroupDAO {
     @Transactional
     @Override
     public Pair<Set<String>, Set<String>> refreshDynMemberships(final User user) {
+        return refreshDynMemberships(user, null);
+    }
+
+    @Transactional
+    @Override
+    public Pair<Set<String>, Set<String>> refreshDynMemberships(final User user, final Set<String> changed) {
         Query query = entityManager().createNativeQuery(
                 "SELECT group_id FROM " + JPAGroupDAO.UDYNMEMB_TABLE + " WHERE any_id=?");
         query.setParameter(1, user.getKey());
 
-        Set<String> before = new HashSet<>();
-        Set<String> after = new HashSet<>();
-        findWithUDynMemberships().forEach(memb -> {
-            boolean matches = anyMatchDAO.matches(
-                    user,
-                    buildDynMembershipCond(memb.getFIQLCond(), memb.getGroup().getRealm()));
-            if (matches) {
-                after.add(memb.getGroup().getKey());
-            }
-
-            Query find = entityManager().createNativeQuery(
-                    "SELECT any_id FROM " + UDYNMEMB_TABLE + " WHERE group_id=? AND any_id=?");
-            find.setParameter(1, memb.getGroup().getKey());
-            find.setParameter(2, user.getKey());
-            boolean existing = !find.getResultList().isEmpty();
-            if (existing) {
-                before.add(memb.getGroup().getKey());
+        Set<String> before = new HashSet<>(toKeys(query.getResultList()));
+        Set<String> after = new HashSet<>(before);
+        Set<String> changedGroups = new HashSet<>();
+        condCache.affectedBy(
+                entityManagerFactory(),
+                AnyTypeKind.USER.name(),
+                changed,
+                () -> findWithUDynMemberships().stream().
+                        map(this::condCacheEntry).collect(Collectors.toList())).forEach(entry -> {
+
+            boolean matches = anyMatchDAO.matches(user, entry.getCond());
+            if (matches ? after.add(entry.getOwner()) : after.remove(entry.getOwner())) {
+                changedGroups.add(entry.getOwner());
             }
+        });
 
-            if (matches && !existing) {
-                Query insert = entityManager().createNativeQuery(
-                        "INSERT INTO " + UDYNMEMB_TABLE + " VALUES(?, ?)");
-                insert.setParameter(1, user.getKey());
-                insert.setParameter(2, memb.getGroup().getKey());
-                insert.executeUpdate();
-            } else if (!matches && existing) {
-                Query delete = entityManager().createNativeQuery(
-                        "DELETE FROM " + UDYNMEMB_TABLE + " WHERE group_id=? AND any_id=?");
-                delete.setParameter(1, memb.getGroup().getKey());
-                delete.setParameter(2, user.getKey());
-                delete.executeUpdate();
-            }
+        batchUpdate(
+                "DELETE FROM " + UDYNMEMB_TABLE + " WHERE group_id=? AND any_id=?",
+                changedGroups.stream().filter(group -> !after.contains(group)).
+                        map(group -> new Object[] { group, user.getKey() }).collect(Collectors.toList()));
+        batchUpdate(
+                "INSERT INTO " + UDYNMEMB_TABLE + " VALUES(?, ?)",
+                changedGroups.stream().filter(after::contains).
+                        map(group -> new Object[] { user.getKey(), group }).collect(Collectors.toList()));
 
-            publisher.publishEvent(
-                    new AnyLifecycleEvent<>(this, SyncDeltaType.UPDATE, memb.getGroup(), AuthContextUtils.getDomain()));
-        });
+        publishGroupUpdates(changedGroups);
 
         return Pair.of(before, after);
     }
@@ -20,7 +20,8 @@ package org.apache.syncope.core.persistence.jpa.dao;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.persistence.NoResultException;
 import javax.persistence.TypedQuery;
 import org.apache.commons.lang3.StringUtils;
@@ -43,6 +44,7 @@ import org.apache.syncope.core.persistence.api.entity.policy.Policy;
 import org.apache.syncope.core.persistence.api.entity.policy.PropagationPolicy;
 import org.apache.syncope.core.persistence.api.entity.policy.ProvisioningPolicy;
 import org.apache.syncope.core.persistence.jpa.entity.JPARealm;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 public class JPARealmDAO extends AbstractDAO<Realm> implements RealmDAO {
@@ -55,6 +57,12 @@ public class JPARealmDAO extends AbstractDAO<Realm> implements RealmDAO {
 
     protected final SAML2SPClientAppDAO saml2SPClientAppDAO;
 
+    /**
+     * Per-domain full path to realm key mappings; entries are checked against the realm found on each read, hence
+     * changes made by other nodes are detected and fixed on the fly.
+     */
+    protected final Map<String, Map<String, String>> keysByFullPath = new ConcurrentHashMap<>();
+
     public JPARealmDAO(
             final RoleDAO roleDAO,
             final CASSPClientAppDAO casSPClientAppDAO,
@@ -88,33 +96,43 @@ public class JPARealmDAO extends AbstractDAO<Realm> implements RealmDAO {
         return entityManager().find(JPARealm.class, key);
     }
 
+    protected Map<String, String> keysByFullPath() {
+        return keysByFullPath.computeIfAbsent(AuthContextUtils.getDomain(), domain -> new ConcurrentHashMap<>());
+    }
+
     @Transactional(readOnly = true)
     @Override
     public Realm findByFullPath(final String fullPath) {
-        if (SyncopeConstants.ROOT_REALM.equals(fullPath)) {
-            return getRoot();
-        }
+        if (!SyncopeConstants.ROOT_REALM.equals(fullPath)
+                && (StringUtils.isBlank(fullPath) || !PATH_PATTERN.matcher(fullPath).matches())) {
 
-        if (StringUtils.isBlank(fullPath) || !PATH_PATTERN.matcher(fullPath).matches()) {
             throw new MalformedPathException(fullPath);
         }
 
-        Realm root = getRoot();
-        if (root == null) {
-            return null;
-        }
+        Map<String, String> keys = keysByFullPath();
 
-        Realm current = root;
-        for (final String pathElement : fullPath.substring(1).split("/")) {
-            Optional<Realm> first = findChildren(current).stream().
-                    filter(realm -> pathElement.equals(realm.getName())).findFirst();
-            if (first.isPresent()) {
-                current = first.get();
-            } else {
-                return null;
+        String key = keys.get(fullPath);
+        if (key != null) {
+            Realm realm = find(key);
+            if (realm != null && fullPath.equals(realm.getFullPath())) {
+                return realm;
             }
+            keys.remove(fullPath, key);
+        }
+
+        TypedQuery<Realm> query = entityManager().createQuery(
+                "SELECT e FROM " + JPARealm.class.getSimpleName() + " e WHERE e.fullPath=:fullPath", Realm.class);
+        query.setParameter("fullPath", fullPath);
+
+        Realm result = null;
+        try {
+            result = query.getSingleResult();
+            keys.put(fullPath, result.getKey());
+        } catch (NoResultException e) {
+            LOG.debug("Realm {} not found", fullPath, e);
         }
-        return current;
+
+        return result;
     }
 
     private <T extends Policy> List<Realm> findSamePolicyChildren(final Realm realm, final T policy) {
@@ -227,19 +245,20 @@ public class JPARealmDAO extends AbstractDAO<Realm> implements RealmDAO {
         return query.getResultList();
     }
 
-    private void findDescendants(final List<Realm> result, final Realm realm) {
-        result.add(realm);
-        List<Realm> children = findChildren(realm);
-        if (children != null) {
-            children.forEach(child -> findDescendants(result, child));
-        }
+    protected List<Realm> findDescendants(final String fullPath) {
+        TypedQuery<Realm> query = entityManager().createQuery(
+                "SELECT e FROM " + JPARealm.class.getSimpleName() + " e "
+                + "WHERE e.fullPath=:fullPath OR e.fullPath LIKE :prefix "
+                + "ORDER BY e.fullPath", Realm.class);
+        query.setParameter("fullPath", fullPath);
+        query.setParameter("prefix", StringUtils.appendIfMissing(fullPath, "/") + '%');
+
+        return query.getResultList();
     }
 
     @Override
     public List<Realm> findDescendants(final Realm realm) {
-        List<Realm> result = new ArrayList<>();
-        findDescendants(result, realm);
-        return result;
+        return findDescendants(realm.getFullPath());
     }
 
     @Transactional(readOnly = true)
@@ -250,6 +269,18 @@ public class JPARealmDAO extends AbstractDAO<Realm> implements RealmDAO {
 
     @Override
     public Realm save(final Realm realm) {
+        String fullPath = ((JPARealm) realm).buildFullPath();
+        String oldFullPath = realm.getFullPath();
+        if (!fullPath.equals(oldFullPath)) {
+            // realm was renamed or moved: update the full path of all its descendants
+            findDescendants(oldFullPath).stream().filter(descendant -> !descendant.equals(realm)).
+                    forEach(descendant -> ((JPARealm) descendant).setFullPath(
+                    fullPath + descendant.getFullPath().substring(oldFullPath.length())));
+
+            keysByFullPath().keySet().removeIf(path -> path.equals(oldFullPath) || path.startsWith(oldFullPath + '/'));
+        }
+        ((JPARealm) realm).setFullPath(fullPath);
+
         return entityManager().merge(realm);
     }
 
@@ -264,6 +295,8 @@ public class JPARealmDAO extends AbstractDAO<Realm> implements RealmDAO {
 
             toBeDeleted.setParent(null);
 
+            keysByFullPath().remove(toBeDeleted.getFullPath());
+
             entityManager().remove(toBeDeleted);
         });
     }
@@ -19,9 +19,13 @@
 package org.apache.syncope.core.persistence.jpa.dao;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.syncope.common.lib.types.AnyTypeKind;
 import org.apache.syncope.core.persistence.api.dao.AnyMatchDAO;
 import org.apache.syncope.core.persistence.api.dao.AnySearchDAO;
@@ -34,8 +38,10 @@ import org.apache.syncope.core.persistence.api.entity.user.User;
 import org.apache.syncope.core.persistence.api.search.SearchCondConverter;
 import org.apache.syncope.core.persistence.api.search.SearchCondVisitor;
 import org.apache.syncope.core.persistence.jpa.entity.JPARole;
+import org.apache.syncope.core.persistence.jpa.entity.user.JPADynRoleMembership;
 import org.apache.syncope.core.persistence.jpa.entity.user.JPAUser;
 import org.apache.syncope.core.provisioning.api.event.AnyLifecycleEvent;
+import org.apache.syncope.core.provisioning.api.event.EntityLifecycleEvent;
 import org.apache.syncope.core.spring.security.AuthContextUtils;
 import org.identityconnectors.framework.common.objects.SyncDeltaType;
 import org.springframework.context.ApplicationEventPublisher;
@@ -55,6 +61,9 @@ public class JPARoleDAO extends AbstractDAO<Role> implements RoleDAO {
 
     protected final SearchCondVisitor searchCondVisitor;
 
+    protected final DynMembershipCondCache condCache = new DynMembershipCondCache(
+            JPARole.class, JPADynRoleMembership.class);
+
     public JPARoleDAO(
             final AnyMatchDAO anyMatchDAO,
             final ApplicationEventPublisher publisher,
@@ -108,30 +117,44 @@ public class JPARoleDAO extends AbstractDAO<Role> implements RoleDAO {
     @Override
     public Role save(final Role role) {
         ((JPARole) role).list2json();
-        return entityManager().merge(role);
+        Role merged = entityManager().merge(role);
+
+        publisher.publishEvent(new EntityLifecycleEvent<>(
+                this, SyncDeltaType.CREATE_OR_UPDATE, merged, AuthContextUtils.getDomain()));
+
+        return merged;
     }
 
     @Override
     public Role saveAndRefreshDynMemberships(final Role role) {
         Role merged = save(role);
+        condCache.invalidate(merged.getKey());
 
-        // refresh dynamic memberships
-        clearDynMembers(merged);
+        // refresh dynamic memberships, only touching the rows actually changed
+        Query query = entityManager().createNativeQuery("SELECT any_id FROM " + DYNMEMB_TABLE + " WHERE role_id=?");
+        query.setParameter(1, merged.getKey());
+        Set<String> before = new HashSet<>(toKeys(query.getResultList()));
+
+        Set<String> after = new HashSet<>();
         if (merged.getDynMembership() != null) {
-            List<User> matching = anySearchDAO.search(
+            after.addAll(anySearchDAO.searchKeys(
                     SearchCondConverter.convert(searchCondVisitor, merged.getDynMembership().getFIQLCond()),
-                    AnyTypeKind.USER);
+                    AnyTypeKind.USER));
+        }
 
-            matching.forEach(user -> {
-                Query insert = entityManager().createNativeQuery("INSERT INTO " + DYNMEMB_TABLE + " VALUES(?, ?)");
-                insert.setParameter(1, user.getKey());
-                insert.setParameter(2, merged.getKey());
-                insert.executeUpdate();
+        batchUpdate(
+                "DELETE FROM " + DYNMEMB_TABLE + " WHERE any_id=? AND role_id=?",
+                before.stream().filter(key -> !after.contains(key)).
+                        map(key -> new Object[] { key, merged.getKey() }).collect(Collectors.toList()));
+        batchUpdate(
+                "INSERT INTO " + DYNMEMB_TABLE + " VALUES(?, ?)",
+                after.stream().filter(key -> !before.contains(key)).
+                        map(key -> new Object[] { key, merged.getKey() }).collect(Collectors.toList()));
 
-                publisher.publishEvent(
-                        new AnyLifecycleEvent<>(this, SyncDeltaType.UPDATE, user, AuthContextUtils.getDomain()));
-            });
-        }
+        Set<String> changed = new HashSet<>(before);
+        changed.addAll(after);
+        changed.removeIf(key -> before.contains(key) && after.contains(key));
+        publishAnyUpdates(publisher, AnyTypeKind.USER, changed);
 
         return merged;
     }
@@ -149,10 +172,14 @@ public class JPARoleDAO extends AbstractDAO<Role> implements RoleDAO {
         });
 
         clearDynMembers(role);
+        condCache.invalidate(role.getKey());
 
         delegationDAO.findByRole(role).forEach(delegation -> delegation.getRoles().remove(role));
 
         entityManager().remove(role);
+
+        publisher.publishEvent(
+                new EntityLifecycleEvent<>(this, SyncDeltaType.DELETE, role, AuthContextUtils.getDomain()));
     }
 
     @Override
@@ -193,33 +220,47 @@ public class JPARoleDAO extends AbstractDAO<Role> implements RoleDAO {
     @Transactional
     @Override
     public void refreshDynMemberships(final User user) {
+        refreshDynMemberships(user, null);
+    }
+
+    @Transactional
+    @Override
+    public Pair<Set<String>, Set<String>> refreshDynMemberships(final User user, final Set<String> changed) {
         Query query = entityManager().createNativeQuery(
                 "SELECT role_id FROM " + DYNMEMB_TABLE + " WHERE any_id=?");
         query.setParameter(1, user.getKey());
 
-        findAll().stream().filter(role -> role.getDynMembership() != null).forEach(role -> {
-            boolean matches = anyMatchDAO.matches(
-                    user, SearchCondConverter.convert(searchCondVisitor, role.getDynMembership().getFIQLCond()));
-
-            Query find = entityManager().createNativeQuery(
-                    "SELECT any_id FROM " + DYNMEMB_TABLE + " WHERE role_id=?");
-            find.setParameter(1, role.getKey());
-            boolean existing = !find.getResultList().isEmpty();
-
-            if (matches && !existing) {
-                Query insert = entityManager().createNativeQuery(
-                        "INSERT INTO " + DYNMEMB_TABLE + " VALUES(?, ?)");
-                insert.setParameter(1, user.getKey());
-                insert.setParameter(2, role.getKey());
-                insert.executeUpdate();
-            } else if (!matches && existing) {
-                Query delete = entityManager().createNativeQuery(
-                        "DELETE FROM " + DYNMEMB_TABLE + " WHERE role_id=? AND any_id=?");
-                delete.setParameter(1, role.getKey());
-                delete.setParameter(2, user.getKey());
-                delete.executeUpdate();
+        Set<String> before = new HashSet<>(toKeys(query.getResultList()));
+        Set<String> after = new HashSet<>(before);
+        condCache.affectedBy(
+                entityManagerFactory(),
+                AnyTypeKind.USER.name(),
+                changed,
+                () -> findAll().stream().filter(role -> role.getDynMembership() != null).
+                        map(role -> condCache.get(
+                        role.getDynMembership().getKey(),
+                        role.getDynMembership().getFIQLCond(),
+                        role.getKey(),
+                        () -> SearchCondConverter.convert(searchCondVisitor, role.getDynMembership().getFIQLCond()))).
+                        collect(Collectors.toList())).forEach(entry -> {
+
+            if (anyMatchDAO.matches(user, entry.getCond())) {
+                after.add(entry.getOwner());
+            } else {
+                after.remove(entry.getOwner());
             }
         });
+
+        batchUpdate(
+                "DELETE FROM " + DYNMEMB_TABLE + " WHERE role_id=? AND any_id=?",
+                before.stream().filter(role -> !after.contains(role)).
+                        map(role -> new Object[] { role, user.getKey() }).collect(Collectors.toList()));
+        batchUpdate(
+                "INSERT INTO " + DYNMEMB_TABLE + " VALUES(?, ?)",
+                after.stream().filter(role -> !before.contains(role)).
+                        map(role -> new Object[] { user.getKey(), role }).collect(Collectors.toList()));
+
+        return Pair.of(before, after);
     }
 
     @Override
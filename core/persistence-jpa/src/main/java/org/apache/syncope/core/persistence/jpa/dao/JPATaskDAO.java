@@ -493,6 +493,101 @@ public class JPATaskDAO extends AbstractDAO<Task<?>> implements TaskDAO {
         return ((Number) query.getSingleResult()).intValue();
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<String> findDuePropagations(final OffsetDateTime until, final int max) {
+        TypedQuery<String> query = entityManager().createQuery(
+                "SELECT e.id FROM " + JPAPropagationTask.class.getSimpleName() + " e "
+                + "WHERE e.dueDate <= :until ORDER BY e.dueDate ASC", String.class);
+        query.setParameter("until", until);
+        query.setMaxResults(max);
+        return query.getResultList();
+    }
+
+    @Transactional(rollbackFor = { Throwable.class })
+    @Override
+    public Optional<PropagationTask> claimPropagation(
+            final String key, final OffsetDateTime until, final OffsetDateTime lease) {
+
+        // new tasks are always queued after the existing ones, hence checking before claiming is enough
+        if (hasEarlierQueuedPropagation(key)) {
+            LOG.debug("Propagation task {} waits for the ones queued earlier for the same entity and resource", key);
+            return Optional.empty();
+        }
+
+        Query query = entityManager().createQuery(
+                "UPDATE " + JPAPropagationTask.class.getSimpleName() + " e "
+                + "SET e.dueDate = :lease, e.attempts = e.attempts + 1 "
+                + "WHERE e.id = :key AND e.dueDate <= :until");
+        query.setParameter("lease", lease);
+        query.setParameter("key", key);
+        query.setParameter("until", until);
+        if (query.executeUpdate() == 0) {
+            return Optional.empty();
+        }
+
+        return refreshed(key);
+    }
+
+    protected boolean hasEarlierQueuedPropagation(final String key) {
+        PropagationTask task = entityManager().find(JPAPropagationTask.class, key);
+        if (task == null || task.getEntityKey() == null || task.getQueuedDate() == null) {
+            return false;
+        }
+
+        TypedQuery<Long> query = entityManager().createQuery(
+                "SELECT COUNT(e) FROM " + JPAPropagationTask.class.getSimpleName() + " e "
+                + "WHERE e.resource=:resource AND e.entityKey=:entityKey AND e.dueDate IS NOT NULL "
+                + "AND (e.queuedDate < :queuedDate OR (e.queuedDate = :queuedDate AND e.id < :key))", Long.class);
+        query.setParameter("resource", task.getResource());
+        query.setParameter("entityKey", task.getEntityKey());
+        query.setParameter("queuedDate", task.getQueuedDate());
+        query.setParameter("key", key);
+        return query.getSingleResult() > 0;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<PropagationTask> findLastQueuedPropagation(
+            final ExternalResource resource, final String objectClassName, final String entityKey) {
+
+        TypedQuery<PropagationTask> query = entityManager().createQuery(
+                "SELECT e FROM " + JPAPropagationTask.class.getSimpleName() + " e "
+                + "WHERE e.resource=:resource AND e.objectClassName=:objectClassName AND e.entityKey=:entityKey "
+                + "AND e.dueDate IS NOT NULL "
+                + "ORDER BY e.dueDate DESC", PropagationTask.class);
+        query.setParameter("resource", resource);
+        query.setParameter("objectClassName", objectClassName);
+        query.setParameter("entityKey", entityKey);
+        query.setMaxResults(1);
+        return query.getResultList().stream().findFirst();
+    }
+
+    @Transactional(rollbackFor = { Throwable.class })
+    @Override
+    public Optional<PropagationTask> holdPropagation(final String key) {
+        Query query = entityManager().createQuery(
+                "UPDATE " + JPAPropagationTask.class.getSimpleName() + " e "
+                + "SET e.dueDate = NULL "
+                + "WHERE e.id = :key AND e.attempts = 0 AND e.dueDate IS NOT NULL");
+        query.setParameter("key", key);
+        if (query.executeUpdate() == 0) {
+            return Optional.empty();
+        }
+
+        return refreshed(key);
+    }
+
+    protected Optional<PropagationTask> refreshed(final String key) {
+        // bulk updates bypass the persistence context and the data cache
+        entityManager().getEntityManagerFactory().getCache().evict(JPAPropagationTask.class, key);
+        JPAPropagationTask task = entityManager().find(JPAPropagationTask.class, key);
+        if (task != null) {
+            entityManager().refresh(task);
+        }
+        return Optional.ofNullable(task);
+    }
+
     @Transactional(rollbackFor = { Throwable.class })
     @Override
     public <T extends Task<T>> T save(final T task) {
@@ -21,6 +21,7 @@ package org.apache.syncope.core.persistence.jpa.dao;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,7 @@ import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.syncope.common.lib.search.SpecialAttr;
 import org.apache.syncope.common.lib.types.AnyTypeKind;
 import org.apache.syncope.common.lib.types.EntityViolationType;
 import org.apache.syncope.common.lib.types.IdRepoEntitlement;
@@ -79,6 +81,8 @@ import org.apache.syncope.core.spring.security.Encryptor;
 import org.apache.syncope.core.spring.security.SecurityProperties;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 public class JPAUserDAO extends AbstractAnyDAO<User> implements UserDAO {
 
@@ -96,6 +100,8 @@ public class JPAUserDAO extends AbstractAnyDAO<User> implements UserDAO {
 
     protected final SecurityProperties securityProperties;
 
+    protected static final String DECLARED_CHANGES = JPAUserDAO.class.getName() + ".declaredChanges";
+
     protected final Map<String, AccountRule> perContextAccountRules = new ConcurrentHashMap<>();
 
     protected final Map<String, PasswordRule> perContextPasswordRules = new ConcurrentHashMap<>();
@@ -500,11 +506,71 @@ public class JPAUserDAO extends AbstractAnyDAO<User> implements UserDAO {
             throw e;
         }
 
-        roleDAO.refreshDynMemberships(merged);
-        Pair<Set<String>, Set<String>> dynGroupMembs = groupDAO.refreshDynMemberships(merged);
-        dynRealmDAO.refreshDynMemberships(merged);
+        return Pair.of(merged, refreshDynMemberships(merged));
+    }
+
+    /**
+     * Returns and removes the changes declared for the given user, so that they only apply to the save which is
+     * currently taking place.
+     *
+     * @param key user key
+     * @return changes declared for the given user, if any
+     */
+    @SuppressWarnings("unchecked")
+    protected Optional<Set<String>> consumeDeclaredChanges(final String key) {
+        return Optional.ofNullable((Map<String, Set<String>>) TransactionSynchronizationManager.getResource(
+                DECLARED_CHANGES)).map(changes -> changes.remove(key));
+    }
+
+    @Override
+    public void declareChanges(final String key, final Set<String> changed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            LOG.debug("No active transaction, ignoring changes declared for user {}", key);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Set<String>> changes = (Map<String, Set<String>>) TransactionSynchronizationManager.getResource(
+                DECLARED_CHANGES);
+        if (changes == null) {
+            changes = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(DECLARED_CHANGES, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(final int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DECLARED_CHANGES);
+                }
+            });
+        }
+        changes.computeIfAbsent(key, k -> new HashSet<>()).addAll(changed);
+    }
+
+    /**
+     * Refreshes dynamic role, group and realm memberships of the given user; if changes were declared since the
+     * previous save, only the conditions referencing such changes are evaluated.
+     *
+     * @param user user being saved
+     * @return pair of groups dynamically assigned before and after refresh
+     */
+    protected Pair<Set<String>, Set<String>> refreshDynMemberships(final User user) {
+        Set<String> changed = consumeDeclaredChanges(user.getKey()).map(HashSet::new).orElse(null);
+
+        Pair<Set<String>, Set<String>> dynRoleMembs = roleDAO.refreshDynMemberships(user, changed);
+        if (changed != null && !dynRoleMembs.getLeft().equals(dynRoleMembs.getRight())) {
+            changed.add(SpecialAttr.ROLES.toString());
+            changed.add(SpecialAttr.PRIVILEGES.toString());
+        }
+
+        Pair<Set<String>, Set<String>> dynGroupMembs = groupDAO.refreshDynMemberships(user, changed);
+        if (changed != null && !dynGroupMembs.getLeft().equals(dynGroupMembs.getRight())) {
+            changed.add(SpecialAttr.GROUPS.toString());
+            changed.add(SpecialAttr.RESOURCES.toString());
+        }
+
+        dynRealmDAO.refreshDynMemberships(user, changed);
 
-        return Pair.of(merged, dynGroupMembs);
+        return dynGroupMembs;
     }
 
     @Override
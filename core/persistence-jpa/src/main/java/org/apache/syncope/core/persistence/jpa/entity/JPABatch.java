@@ -20,7 +20,6 @@ package org.apache.syncope.core.persistence.jpa.entity;
 
 import java.time.OffsetDateTime;
 import javax.persistence.Entity;
-import javax.persistence.Lob;
 import javax.persistence.Table;
 import org.apache.syncope.core.persistence.api.entity.Batch;
 
@@ -34,8 +33,7 @@ public class JPABatch extends AbstractProvidedKeyEntity implements Batch {
 
     private OffsetDateTime expiryTime;
 
-    @Lob
-    private String results;
+    private int itemCount;
 
     @Override
     public OffsetDateTime getExpiryTime() {
@@ -48,12 +46,12 @@ public class JPABatch extends AbstractProvidedKeyEntity implements Batch {
     }
 
     @Override
-    public String getResults() {
-        return results;
+    public int getItemCount() {
+        return itemCount;
     }
 
     @Override
-    public void setResults(final String results) {
-        this.results = results;
+    public void setItemCount(final int itemCount) {
+        this.itemCount = itemCount;
     }
 }
@@ -24,6 +24,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
@@ -65,12 +66,20 @@ public class JPARealm extends AbstractGeneratedKeyEntity implements Realm {
 
     public static final String TABLE = "Realm";
 
+    /**
+     * Longest full path allowed, matching the column size: longer paths are rejected by {@code RealmValidator}.
+     */
+    public static final int FULL_PATH_MAX_LENGTH = 255;
+
     @Size(min = 1)
     private String name;
 
     @ManyToOne
     private JPARealm parent;
 
+    @Column(length = FULL_PATH_MAX_LENGTH)
+    private String fullPath;
+
     @ManyToOne(fetch = FetchType.EAGER)
     private JPAPasswordPolicy passwordPolicy;
 
@@ -120,11 +129,22 @@ public class JPARealm extends AbstractGeneratedKeyEntity implements Realm {
 
     @Override
     public String getFullPath() {
+        return fullPath == null ? buildFullPath() : fullPath;
+    }
+
+    /**
+     * @return full path as resulting from current name and parent, regardless of the persisted value
+     */
+    public String buildFullPath() {
         return getParent() == null
                 ? SyncopeConstants.ROOT_REALM
                 : StringUtils.appendIfMissing(getParent().getFullPath(), "/") + getName();
     }
 
+    public void setFullPath(final String fullPath) {
+        this.fullPath = fullPath;
+    }
+
     @Override
     public AccountPolicy getAccountPolicy() {
         return accountPolicy == null && getParent() != null ? getParent().getAccountPolicy() : accountPolicy;
@@ -45,12 +45,18 @@ public class JPAReportExec extends AbstractExec implements ReportExec {
     private JPAReport report;
 
     /**
-     * Report execution result, stored as an XML stream.
+     * Report execution result, stored as an XML stream: only populated by former versions, as results are now
+     * kept in the configured report store.
      */
     @Lob
     @Basic(fetch = FetchType.LAZY)
     private Byte[] execResult;
 
+    /**
+     * Reference to the report execution result in the configured report store.
+     */
+    private String execResultRef;
+
     @Override
     public Report getReport() {
         return report;
@@ -72,6 +78,16 @@ public class JPAReportExec extends AbstractExec implements ReportExec {
         this.execResult = Optional.ofNullable(execResult).map(ArrayUtils::toObject).orElse(null);
     }
 
+    @Override
+    public String getExecResultRef() {
+        return execResultRef;
+    }
+
+    @Override
+    public void setExecResultRef(final String execResultRef) {
+        this.execResultRef = execResultRef;
+    }
+
     @Override
     public void setStatus(final ReportExecStatus status) {
         super.setStatus(status.name());
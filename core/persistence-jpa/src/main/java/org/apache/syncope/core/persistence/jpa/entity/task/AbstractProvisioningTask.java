@@ -56,6 +56,8 @@ public abstract class AbstractProvisioningTask<T extends SchedTask>
     @NotNull
     private Boolean syncStatus = false;
 
+    private Integer concurrency;
+
     /**
      * @see UnmatchingRule
      */
@@ -124,6 +126,16 @@ public abstract class AbstractProvisioningTask<T extends SchedTask>
         this.syncStatus = syncStatus;
     }
 
+    @Override
+    public int getConcurrency() {
+        return concurrency == null || concurrency < 1 ? 1 : concurrency;
+    }
+
+    @Override
+    public void setConcurrency(final int concurrency) {
+        this.concurrency = concurrency;
+    }
+
     @Override
     public UnmatchingRule getUnmatchingRule() {
         return this.unmatchingRule;
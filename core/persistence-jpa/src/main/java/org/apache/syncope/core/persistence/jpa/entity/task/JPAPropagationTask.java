@@ -18,6 +18,7 @@
  */
 package org.apache.syncope.core.persistence.jpa.entity.task;
 
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import javax.persistence.CascadeType;
@@ -88,6 +89,14 @@ public class JPAPropagationTask extends AbstractTask<PropagationTask> implements
     @ManyToOne
     private JPAExternalResource resource;
 
+    private OffsetDateTime dueDate;
+
+    private OffsetDateTime queuedDate;
+
+    private Integer attempts;
+
+    private String executor;
+
     @OneToMany(targetEntity = JPAPropagationTaskExec.class,
             cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "task")
     private List<TaskExec<PropagationTask>> executions = new ArrayList<>();
@@ -193,6 +202,46 @@ public class JPAPropagationTask extends AbstractTask<PropagationTask> implements
         this.resource = (JPAExternalResource) resource;
     }
 
+    @Override
+    public OffsetDateTime getDueDate() {
+        return dueDate;
+    }
+
+    @Override
+    public void setDueDate(final OffsetDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    @Override
+    public OffsetDateTime getQueuedDate() {
+        return queuedDate;
+    }
+
+    @Override
+    public void setQueuedDate(final OffsetDateTime queuedDate) {
+        this.queuedDate = queuedDate;
+    }
+
+    @Override
+    public int getAttempts() {
+        return attempts == null ? 0 : attempts;
+    }
+
+    @Override
+    public void setAttempts(final int attempts) {
+        this.attempts = attempts;
+    }
+
+    @Override
+    public String getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void setExecutor(final String executor) {
+        this.executor = executor;
+    }
+
     @Override
     protected Class<? extends TaskExec<PropagationTask>> executionClass() {
         return JPAPropagationTaskExec.class;
@@ -23,6 +23,7 @@ import org.apache.syncope.common.lib.SyncopeConstants;
 import org.apache.syncope.common.lib.types.EntityViolationType;
 import org.apache.syncope.core.persistence.api.dao.RealmDAO;
 import org.apache.syncope.core.persistence.api.entity.Realm;
+import org.apache.syncope.core.persistence.jpa.entity.JPARealm;
 
 public class RealmValidator extends AbstractValidator<RealmCheck, Realm> {
 
@@ -56,6 +57,15 @@ public class RealmValidator extends AbstractValidator<RealmCheck, Realm> {
                         getTemplate(EntityViolationType.InvalidRealm, "Only alphanumeric chars allowed in realm name")).
                         addPropertyNode("name").addConstraintViolation();
             }
+
+            if (realm.getFullPath().length() > JPARealm.FULL_PATH_MAX_LENGTH) {
+                isValid = false;
+
+                context.buildConstraintViolationWithTemplate(
+                        getTemplate(EntityViolationType.InvalidRealm,
+                                "Realm full path longer than " + JPARealm.FULL_PATH_MAX_LENGTH + " chars")).
+                        addPropertyNode("fullPath").addConstraintViolation();
+            }
         }
 
         return isValid;
@@ -289,6 +289,46 @@ public class AnySearchTest extends AbstractTest {
         assertTrue(users.isEmpty());
     }
 
+    @Test
+    public void searchByKeyset() {
+        SearchCond cond = userDAO.getAllMatchingCond();
+
+        List<User> all = searchDAO.search(
+                realmDAO.getRoot(), true, SyncopeConstants.FULL_ADMIN_REALMS, cond, -1, -1,
+                List.of(), AnyTypeKind.USER);
+        List<String> expected = all.stream().map(User::getKey).sorted().collect(Collectors.toList());
+
+        List<String> actual = new ArrayList<>();
+        String after = null;
+        List<User> page;
+        do {
+            page = searchDAO.search(
+                    realmDAO.getRoot(), true, SyncopeConstants.FULL_ADMIN_REALMS, cond, after, 2, AnyTypeKind.USER);
+            assertTrue(page.size() <= 2);
+            page.forEach(user -> actual.add(user.getKey()));
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getKey();
+            }
+        } while (page.size() == 2);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void searchKeys() {
+        MembershipCond groupCond = new MembershipCond();
+        groupCond.setGroup("root");
+        SearchCond cond = SearchCond.getLeaf(groupCond);
+
+        List<User> users = searchDAO.search(
+                realmDAO.getRoot(), true, SyncopeConstants.FULL_ADMIN_REALMS, cond, 1, 10, List.of(), AnyTypeKind.USER);
+        assertFalse(users.isEmpty());
+
+        List<String> keys = searchDAO.searchKeys(
+                realmDAO.getRoot(), true, SyncopeConstants.FULL_ADMIN_REALMS, cond, 1, 10, List.of(), AnyTypeKind.USER);
+        assertEquals(users.stream().map(User::getKey).collect(Collectors.toList()), keys);
+    }
+
     @Test
     public void searchByGroup() {
         MembershipCond groupCond = new MembershipCond();
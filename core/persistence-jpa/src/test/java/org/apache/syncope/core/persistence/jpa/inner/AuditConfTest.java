@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.persistence.jpa.inner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.Query;
+import org.apache.syncope.common.lib.audit.AuditEntry;
+import org.apache.syncope.common.lib.types.AuditElements;
+import org.apache.syncope.common.lib.types.AuditLoggerName;
+import org.apache.syncope.core.persistence.api.DomainHolder;
+import org.apache.syncope.core.persistence.api.dao.AuditConfDAO;
+import org.apache.syncope.core.persistence.jpa.AbstractTest;
+import org.apache.syncope.core.provisioning.api.serialization.POJOHelper;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional("Master")
+public class AuditConfTest extends AbstractTest {
+
+    @Autowired
+    private AuditConfDAO auditConfDAO;
+
+    @Autowired
+    private DomainHolder domainHolder;
+
+    @BeforeEach
+    public void createAuditEntryTable() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("/audit/audit.sql"));
+        populator.setContinueOnError(true);
+        populator.execute(domainHolder.getDomains().get(AuthContextUtils.getDomain()));
+    }
+
+    private static AuditEntry entry(final String event, final AuditElements.Result result, final String output) {
+        AuditEntry entry = new AuditEntry();
+        entry.setWho("admin");
+        entry.setDate(OffsetDateTime.now());
+        entry.setLogger(new AuditLoggerName(
+                AuditElements.EventCategoryType.LOGIC, "UserLogic", null, event, result));
+        entry.setOutput(output);
+        return entry;
+    }
+
+    @Test
+    public void saveAndSearchEntries() {
+        String key = UUID.randomUUID().toString();
+        auditConfDAO.saveEntries(List.of(
+                entry("create", AuditElements.Result.SUCCESS, "{\"key\":\"" + key + "\"}"),
+                entry("update", AuditElements.Result.SUCCESS, "{\"entity\":{\"key\":\"" + key + "\"}}"),
+                entry("update", AuditElements.Result.FAILURE, null)));
+
+        assertEquals(2, auditConfDAO.countEntries(
+                key, AuditElements.EventCategoryType.LOGIC, "UserLogic", null, List.of(), null));
+        assertEquals(1, auditConfDAO.countEntries(
+                key, null, null, null, List.of("update"), AuditElements.Result.SUCCESS));
+        assertEquals(1, auditConfDAO.countEntries(
+                null, null, "UserLogic", null, List.of("create", "delete"), null));
+        assertEquals(2, auditConfDAO.countEntries(
+                null, null, null, null, List.of("update"), null));
+
+        List<AuditEntry> entries = auditConfDAO.searchEntries(
+                key, 1, 10, null, null, null, List.of("create"), null, List.of());
+        assertEquals(1, entries.size());
+        assertEquals("admin", entries.get(0).getWho());
+        assertEquals("create", entries.get(0).getLogger().getEvent());
+    }
+
+    @Test
+    public void fillEntryColumns() {
+        String key = UUID.randomUUID().toString();
+
+        // entries stored before structured columns were introduced
+        OffsetDateTime now = OffsetDateTime.now();
+        Query insert = entityManager().createNativeQuery("INSERT INTO " + AuditConfDAO.AUDIT_ENTRY_TABLE
+                + " (EVENT_DATE, LOGGER_LEVEL, LOGGER, MESSAGE) VALUES (?1, ?2, ?3, ?4)");
+        for (int i = 0; i < 3; i++) {
+            insert.setParameter(1, Timestamp.from(now.minusMinutes(i).toInstant()));
+            insert.setParameter(2, "DEBUG");
+            insert.setParameter(3, AuditLoggerName.getAuditLoggerName(AuthContextUtils.getDomain()));
+            insert.setParameter(4, POJOHelper.serialize(
+                    entry(i == 0 ? "delete" : "update", AuditElements.Result.SUCCESS, "{\"key\":\"" + key + "\"}")));
+            insert.executeUpdate();
+        }
+
+        auditConfDAO.saveEntries(List.of(
+                entry("create", AuditElements.Result.SUCCESS, "{\"key\":\"" + key + "\"}")));
+
+        assertEquals(1, auditConfDAO.countEntries(
+                key, AuditElements.EventCategoryType.LOGIC, "UserLogic", null, List.of(), null));
+
+        // two batches, then none is left
+        OffsetDateTime after = auditConfDAO.fillEntryColumns(null, 2);
+        assertNotNull(after);
+        after = auditConfDAO.fillEntryColumns(after, 2);
+        assertNotNull(after);
+        assertNull(auditConfDAO.fillEntryColumns(after, 2));
+
+        assertEquals(4, auditConfDAO.countEntries(
+                key, AuditElements.EventCategoryType.LOGIC, "UserLogic", null, List.of(), null));
+        assertEquals(1, auditConfDAO.countEntries(
+                key, null, null, null, List.of("delete"), AuditElements.Result.SUCCESS));
+        assertEquals(0, auditConfDAO.countEntries(
+                key, null, null, null, List.of("delete"), AuditElements.Result.FAILURE));
+
+        List<AuditEntry> entries = auditConfDAO.searchEntries(
+                key, 1, 10, null, null, null, List.of("delete"), null, List.of());
+        assertEquals(1, entries.size());
+        assertEquals("delete", entries.get(0).getLogger().getEvent());
+    }
+}
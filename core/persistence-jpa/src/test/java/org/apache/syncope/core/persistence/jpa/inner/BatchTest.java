@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.persistence.jpa.inner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.apache.syncope.core.persistence.api.dao.BatchDAO;
+import org.apache.syncope.core.persistence.api.entity.Batch;
+import org.apache.syncope.core.persistence.api.entity.BatchResult;
+import org.apache.syncope.core.persistence.jpa.AbstractTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional("Master")
+public class BatchTest extends AbstractTest {
+
+    @Autowired
+    private BatchDAO batchDAO;
+
+    private Batch batch(final OffsetDateTime expiryTime, final int itemCount) {
+        Batch batch = entityFactory.newEntity(Batch.class);
+        batch.setKey(UUID.randomUUID().toString());
+        batch.setExpiryTime(expiryTime);
+        batch.setItemCount(itemCount);
+        return batchDAO.save(batch);
+    }
+
+    private void result(final Batch batch, final int itemIndex) {
+        BatchResult result = entityFactory.newEntity(BatchResult.class);
+        result.setBatch(batch.getKey());
+        result.setItemIndex(itemIndex);
+        result.setContent("item " + itemIndex);
+        batchDAO.save(result);
+    }
+
+    @Test
+    public void results() {
+        Batch batch = batch(OffsetDateTime.now().plusMinutes(5), 3);
+        assertNotNull(batchDAO.find(batch.getKey()));
+        assertEquals(0, batchDAO.countResults(batch.getKey()));
+
+        // items are stored in completion order, not in request order
+        result(batch, 2);
+        result(batch, 0);
+        result(batch, 1);
+        entityManager().flush();
+
+        assertEquals(3, batchDAO.countResults(batch.getKey()));
+        assertEquals(List.of(0, 1), batchDAO.findResults(batch.getKey(), 1, 2).stream().
+                map(BatchResult::getItemIndex).collect(Collectors.toList()));
+        assertEquals(List.of("item 2"), batchDAO.findResults(batch.getKey(), 2, 2).stream().
+                map(BatchResult::getContent).collect(Collectors.toList()));
+
+        batchDAO.delete(batch.getKey());
+        entityManager().flush();
+
+        assertNull(batchDAO.find(batch.getKey()));
+        assertEquals(0, batchDAO.countResults(batch.getKey()));
+    }
+
+    @Test
+    public void deleteExpired() {
+        Batch expired = batch(OffsetDateTime.now().minusMinutes(1), 1);
+        result(expired, 0);
+        Batch active = batch(OffsetDateTime.now().plusMinutes(5), 1);
+        result(active, 0);
+        entityManager().flush();
+
+        assertEquals(1, batchDAO.deleteExpired());
+        entityManager().clear();
+
+        assertNull(batchDAO.find(expired.getKey()));
+        assertEquals(0, batchDAO.countResults(expired.getKey()));
+        assertNotNull(batchDAO.find(active.getKey()));
+        assertEquals(1, batchDAO.countResults(active.getKey()));
+    }
+}
@@ -22,7 +22,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.syncope.common.lib.SyncopeConstants;
 import org.apache.syncope.core.persistence.api.dao.AnyTypeDAO;
 import org.apache.syncope.core.persistence.api.dao.GroupDAO;
@@ -67,6 +70,36 @@ public class GroupTest extends AbstractTest {
         assertEquals(2, group.getTypeExtension(anyTypeDAO.findUser()).get().getAuxClasses().size());
     }
 
+    @Test
+    public void findUMembers() {
+        Group group = groupDAO.findByName("root");
+
+        assertEquals(
+                Set.of("1417acbe-cbf6-4277-9372-e75e04f97000", "74cd8ece-715a-44a4-a736-e17b46c4e7e6"),
+                new HashSet<>(groupDAO.findUMemberKeys(group)));
+        assertEquals(
+                List.of("74cd8ece-715a-44a4-a736-e17b46c4e7e6"),
+                groupDAO.findUMemberKeys(group, List.of(
+                        "74cd8ece-715a-44a4-a736-e17b46c4e7e6", "c9b2dec2-00a7-4855-97c0-d854842b4b24")));
+
+        List<Pair<String, String>> members = groupDAO.findUMembers(group, null, 1);
+        assertEquals(List.of(Pair.of("1417acbe-cbf6-4277-9372-e75e04f97000", "rossini")), members);
+
+        members = groupDAO.findUMembers(group, members.get(0).getLeft(), 10);
+        assertEquals(List.of(Pair.of("74cd8ece-715a-44a4-a736-e17b46c4e7e6", "verdi")), members);
+
+        // rossini is in /even, verdi in /
+        assertEquals(
+                List.of("1417acbe-cbf6-4277-9372-e75e04f97000"),
+                groupDAO.findUMemberKeysByRealm(group, List.of("/even")));
+        assertEquals(List.of(), groupDAO.findUMemberKeysByRealm(group, List.of("/ev", "/odd")));
+        assertEquals(
+                List.of(Pair.of("1417acbe-cbf6-4277-9372-e75e04f97000", "rossini")),
+                groupDAO.findUMembers(group, List.of("/even"), null, 10));
+        assertEquals(List.of(), groupDAO.findUMembers(
+                group, List.of("/even"), "1417acbe-cbf6-4277-9372-e75e04f97000", 10));
+    }
+
     @Test
     public void save() {
         Group group = entityFactory.newEntity(Group.class);
@@ -27,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.List;
+import java.util.stream.Collectors;
 import org.apache.syncope.common.lib.SyncopeConstants;
 import org.apache.syncope.common.lib.types.EntityViolationType;
 import org.apache.syncope.core.persistence.api.attrvalue.validation.InvalidEntityException;
@@ -124,6 +125,38 @@ public class RealmTest extends AbstractTest {
         assertEquals("986d1236-3ac5-4a19-810c-5ab21d79cba1", actual.getPasswordPolicy().getKey());
     }
 
+    @Test
+    public void move() {
+        Realm moved = entityFactory.newEntity(Realm.class);
+        moved.setName("moved");
+        moved.setParent(realmDAO.findByFullPath("/even"));
+        moved = realmDAO.save(moved);
+
+        Realm inner = entityFactory.newEntity(Realm.class);
+        inner.setName("inner");
+        inner.setParent(moved);
+        inner = realmDAO.save(inner);
+        entityManager().flush();
+
+        assertEquals(inner, realmDAO.findByFullPath("/even/moved/inner"));
+        assertEquals(4, realmDAO.findDescendants(realmDAO.findByFullPath("/even")).size());
+
+        moved.setParent(realmDAO.findByFullPath("/odd"));
+        moved.setName("renamed");
+        realmDAO.save(moved);
+        entityManager().flush();
+
+        assertNull(realmDAO.findByFullPath("/even/moved"));
+        assertNull(realmDAO.findByFullPath("/even/moved/inner"));
+        assertEquals(inner, realmDAO.findByFullPath("/odd/renamed/inner"));
+        assertEquals("/odd/renamed/inner", realmDAO.find(inner.getKey()).getFullPath());
+
+        List<Realm> descendants = realmDAO.findDescendants(realmDAO.findByFullPath("/odd"));
+        assertEquals(List.of("/odd", "/odd/renamed", "/odd/renamed/inner"),
+                descendants.stream().map(Realm::getFullPath).collect(Collectors.toList()));
+        assertEquals(2, realmDAO.findDescendants(realmDAO.findByFullPath("/even")).size());
+    }
+
     @Test
     public void saveInvalidName() {
         Realm realm = entityFactory.newEntity(Realm.class);
@@ -138,6 +171,27 @@ public class RealmTest extends AbstractTest {
         }
     }
 
+    @Test
+    public void saveTooLongFullPath() {
+        Realm realm = entityFactory.newEntity(Realm.class);
+        realm.setName("a".repeat(200));
+        realm.setParent(realmDAO.findByFullPath("/even"));
+        realm = realmDAO.save(realm);
+        entityManager().flush();
+
+        Realm child = entityFactory.newEntity(Realm.class);
+        child.setName("b".repeat(60));
+        child.setParent(realm);
+
+        try {
+            realmDAO.save(child);
+            entityManager().flush();
+            fail("This should not happen");
+        } catch (InvalidEntityException e) {
+            assertTrue(e.hasViolation(EntityViolationType.InvalidRealm));
+        }
+    }
+
     @Test
     public void saveNullParent() {
         Realm realm = entityFactory.newEntity(Realm.class);
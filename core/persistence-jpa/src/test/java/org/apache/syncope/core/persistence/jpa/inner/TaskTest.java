@@ -24,8 +24,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import org.apache.syncope.common.lib.types.AnyTypeKind;
 import org.apache.syncope.common.lib.types.ResourceOperation;
@@ -124,6 +127,108 @@ public class TaskTest extends AbstractTest {
         assertEquals(task, actual);
     }
 
+    @Test
+    public void claimPropagation() {
+        PropagationTask task = entityFactory.newEntity(PropagationTask.class);
+        task.setResource(resourceDAO.find("ws-target-resource-1"));
+        task.setAnyTypeKind(AnyTypeKind.USER);
+        task.setAnyType(AnyTypeKind.USER.name());
+        task.setOperation(ResourceOperation.UPDATE);
+        task.setConnObjectKey("one@two.com");
+        task.setPropagationData(new PropagationData(Set.of(AttributeBuilder.build("testAttribute", "testValue"))));
+        task.setDueDate(OffsetDateTime.now().minusMinutes(1));
+        task.setAttempts(0);
+        task.setExecutor("admin");
+        task = taskDAO.save(task);
+        entityManager().flush();
+
+        OffsetDateTime now = OffsetDateTime.now();
+        assertTrue(taskDAO.findDuePropagations(now, 10).contains(task.getKey()));
+
+        Optional<PropagationTask> claimed = taskDAO.claimPropagation(task.getKey(), now, now.plusMinutes(10));
+        assertTrue(claimed.isPresent());
+        assertEquals(1, claimed.get().getAttempts());
+        assertTrue(claimed.get().getDueDate().isAfter(now));
+
+        assertFalse(taskDAO.findDuePropagations(now, 10).contains(task.getKey()));
+        assertTrue(taskDAO.claimPropagation(task.getKey(), now, now.plusMinutes(10)).isEmpty());
+    }
+
+    @Test
+    public void claimPropagationInQueueOrder() {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        List<PropagationTask> tasks = new ArrayList<>();
+        for (ResourceOperation operation : List.of(ResourceOperation.CREATE, ResourceOperation.UPDATE)) {
+            PropagationTask task = entityFactory.newEntity(PropagationTask.class);
+            task.setResource(resourceDAO.find("ws-target-resource-1"));
+            task.setAnyTypeKind(AnyTypeKind.USER);
+            task.setAnyType(AnyTypeKind.USER.name());
+            task.setEntityKey("1417acbe-cbf6-4277-9372-e75e04f97000");
+            task.setOperation(operation);
+            task.setConnObjectKey("one@two.com");
+            task.setPropagationData(
+                    new PropagationData(Set.of(AttributeBuilder.build("testAttribute", "testValue"))));
+            task.setQueuedDate(now.minusMinutes(tasks.isEmpty() ? 2 : 1));
+            task.setDueDate(now.minusMinutes(1));
+            task.setAttempts(0);
+            task.setExecutor("admin");
+            tasks.add(taskDAO.save(task));
+        }
+        entityManager().flush();
+
+        // the CREATE failed and was rescheduled later than the UPDATE, which must wait nonetheless
+        PropagationTask create = tasks.get(0);
+        create.setAttempts(1);
+        create.setDueDate(now.plusMinutes(5));
+        create = taskDAO.save(create);
+        entityManager().flush();
+
+        String updateKey = tasks.get(1).getKey();
+        assertTrue(taskDAO.findDuePropagations(now, 10).contains(updateKey));
+        assertTrue(taskDAO.claimPropagation(updateKey, now, now.plusMinutes(10)).isEmpty());
+
+        // once the CREATE is dequeued, the UPDATE can be claimed
+        create.setDueDate(null);
+        taskDAO.save(create);
+        entityManager().flush();
+
+        assertTrue(taskDAO.claimPropagation(updateKey, now, now.plusMinutes(10)).isPresent());
+    }
+
+    @Test
+    public void holdPropagation() {
+        ExternalResource resource = resourceDAO.find("ws-target-resource-1");
+
+        PropagationTask task = entityFactory.newEntity(PropagationTask.class);
+        task.setResource(resource);
+        task.setObjectClassName("__ACCOUNT__");
+        task.setAnyTypeKind(AnyTypeKind.USER);
+        task.setAnyType(AnyTypeKind.USER.name());
+        task.setEntityKey("74cd8ece-715a-44a4-a736-e17b46c4e7e6");
+        task.setOperation(ResourceOperation.UPDATE);
+        task.setConnObjectKey("one@two.com");
+        task.setPropagationData(new PropagationData(Set.of(AttributeBuilder.build("testAttribute", "testValue"))));
+        task.setDueDate(OffsetDateTime.now().plusMinutes(1));
+        task.setAttempts(0);
+        task.setExecutor("admin");
+        task = taskDAO.save(task);
+        entityManager().flush();
+
+        Optional<PropagationTask> queued = taskDAO.findLastQueuedPropagation(
+                resource, "__ACCOUNT__", "74cd8ece-715a-44a4-a736-e17b46c4e7e6");
+        assertTrue(queued.isPresent());
+        assertEquals(task.getKey(), queued.get().getKey());
+
+        Optional<PropagationTask> held = taskDAO.holdPropagation(task.getKey());
+        assertTrue(held.isPresent());
+        assertNull(held.get().getDueDate());
+
+        assertTrue(taskDAO.findLastQueuedPropagation(
+                resource, "__ACCOUNT__", "74cd8ece-715a-44a4-a736-e17b46c4e7e6").isEmpty());
+        assertTrue(taskDAO.holdPropagation(task.getKey()).isEmpty());
+    }
+
     @Test
     public void delete() {
         PropagationTask task = taskDAO.find(TaskType.PROPAGATION, "1e697572-b896-484c-ae7f-0c8f63fcbc6c");
@@ -28,8 +28,10 @@ import static org.junit.jupiter.api.Assertions.fail;
 
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.apache.syncope.common.lib.types.CipherAlgorithm;
 import org.apache.syncope.core.persistence.api.attrvalue.validation.InvalidEntityException;
 import org.apache.syncope.core.persistence.api.dao.DerSchemaDAO;
@@ -100,6 +102,16 @@ public class UserTest extends AbstractTest {
         assertNotNull(userKeys);
 
         assertEquals(users.size(), userKeys.size());
+
+        List<String> keyset = new ArrayList<>();
+        List<String> page = userDAO.findAllKeys(null, null, 2);
+        while (!page.isEmpty()) {
+            keyset.addAll(page);
+            page = userDAO.findAllKeys(page.get(page.size() - 1), null, 2);
+        }
+        assertEquals(userKeys.stream().sorted().collect(Collectors.toList()), keyset);
+
+        assertTrue(userDAO.findAllKeys(null, OffsetDateTime.now().plusDays(1), 100).isEmpty());
     }
 
     @Test
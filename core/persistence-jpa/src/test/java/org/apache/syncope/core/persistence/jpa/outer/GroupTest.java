@@ -297,6 +297,80 @@ public class GroupTest extends AbstractTest {
         return result;
     }
 
+    @Test
+    public void udynMembershipWithDeclaredChanges() {
+        // 0. create group with dynamic membership
+        Group group = entityFactory.newEntity(Group.class);
+        group.setRealm(realmDAO.getRoot());
+        group.setName("new");
+
+        UDynGroupMembership dynMembership = entityFactory.newEntity(UDynGroupMembership.class);
+        dynMembership.setFIQLCond("cool==true");
+        dynMembership.setGroup(group);
+
+        group.setUDynMembership(dynMembership);
+
+        Group actual = groupDAO.saveAndRefreshDynMemberships(group);
+
+        entityManager().flush();
+
+        User user = userDAO.findByUsername("bellini");
+        assertTrue(groupDAO.findUDynMembers(actual).contains(user.getKey()));
+
+        // 1. change the attribute referenced by the condition, but declare something else as changed:
+        // the condition is not evaluated, hence the dynamic membership is preserved
+        user.getPlainAttr("cool").get().getValues().get(0).setBooleanValue(false);
+        userDAO.declareChanges(user.getKey(), Set.of("firstname"));
+        user = userDAO.save(user);
+
+        entityManager().flush();
+
+        assertTrue(groupDAO.findUDynMembers(actual).contains(user.getKey()));
+
+        // 2. declared changes were consumed by the previous save: all conditions are evaluated, hence the dynamic
+        // membership is removed
+        user = userDAO.save(user);
+
+        entityManager().flush();
+
+        assertFalse(groupDAO.findUDynMembers(actual).contains(user.getKey()));
+
+        // 3. change back the attribute and declare the actual change: the condition is evaluated, hence the dynamic
+        // membership is restored
+        user.getPlainAttr("cool").get().getValues().get(0).setBooleanValue(true);
+        userDAO.declareChanges(user.getKey(), Set.of("cool"));
+        user = userDAO.save(user);
+
+        entityManager().flush();
+
+        assertTrue(groupDAO.findUDynMembers(actual).contains(user.getKey()));
+
+        // 4. make the condition reference something else: conditions are indexed again, hence declaring the former
+        // attribute as changed does not evaluate the condition anymore...
+        actual.getUDynMembership().setFIQLCond("username==bellini");
+        actual = groupDAO.saveAndRefreshDynMemberships(actual);
+
+        entityManager().flush();
+
+        assertTrue(groupDAO.findUDynMembers(actual).contains(user.getKey()));
+
+        user.setUsername("bellini2");
+        userDAO.declareChanges(user.getKey(), Set.of("cool"));
+        user = userDAO.save(user);
+
+        entityManager().flush();
+
+        assertTrue(groupDAO.findUDynMembers(actual).contains(user.getKey()));
+
+        // 5. ...while declaring the newly referenced attribute does
+        userDAO.declareChanges(user.getKey(), Set.of("username"));
+        user = userDAO.save(user);
+
+        entityManager().flush();
+
+        assertFalse(groupDAO.findUDynMembers(actual).contains(user.getKey()));
+    }
+
     @Test
     public void adynMembership() {
         // 0. create any object matching the condition below
@@ -164,7 +164,16 @@ public class RoleTest extends AbstractTest {
         assertEquals(1, members.size());
         assertEquals("c9b2dec2-00a7-4855-97c0-d854842b4b24", members.get(0));
 
-        // 5. delete role and verify that dynamic membership was also removed
+        // 5. change the dynamic condition and verify that members were replaced
+        actual.getDynMembership().setFIQLCond("username==rossini");
+        actual = roleDAO.saveAndRefreshDynMemberships(actual);
+
+        entityManager().flush();
+
+        members = roleDAO.findDynMembers(actual);
+        assertEquals(List.of("1417acbe-cbf6-4277-9372-e75e04f97000"), members);
+
+        // 6. delete role and verify that dynamic membership was also removed
         String dynMembershipKey = actual.getDynMembership().getKey();
 
         roleDAO.delete(actual);
@@ -18,6 +18,7 @@
  */
 package org.apache.syncope.core.provisioning.api;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import org.apache.syncope.core.persistence.api.entity.Any;
@@ -35,6 +36,17 @@ public interface VirAttrHandler {
      */
     void setValues(Any<?> any, ConnectorObject connObj);
 
+    /**
+     * Reads, from the associated external resources, the values of all virtual attributes of the given anys which
+     * are not found in cache, then updates cache accordingly; values are read in bulk and resources are queried in
+     * parallel.
+     * Meant to be invoked before iterating over a page of search results, in order to avoid one remote round trip
+     * for each any.
+     *
+     * @param anys any objects
+     */
+    void prefetch(Collection<? extends Any<?>> anys);
+
     /**
      * Query external resource (or cache, if configured) associated to the given any for values associated to the given
      * virtual schema, not related to any membership.
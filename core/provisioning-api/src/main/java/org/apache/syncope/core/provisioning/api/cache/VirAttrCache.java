@@ -18,6 +18,13 @@
  */
 package org.apache.syncope.core.provisioning.api.cache;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
 /**
  * Virtual Attribute Value cache.
  */
@@ -48,4 +55,49 @@ public interface VirAttrCache {
      * @return value after caching
      */
     VirAttrCacheValue put(VirAttrCacheKey key, VirAttrCacheValue value);
+
+    /**
+     * Retrieve cached values for the given keys; values not cached are read via the given loader, then cached.
+     * Implementations may ensure that concurrent requests for the same keys trigger a single load.
+     *
+     * @param keys cache keys
+     * @param loader function reading, in bulk, values for keys not cached
+     * @return cached or loaded values, by key; keys for which no value could be found are not reported
+     */
+    default Map<VirAttrCacheKey, VirAttrCacheValue> getAll(
+            final Collection<VirAttrCacheKey> keys,
+            final Function<Set<VirAttrCacheKey>, Map<VirAttrCacheKey, VirAttrCacheValue>> loader) {
+
+        Map<VirAttrCacheKey, VirAttrCacheValue> result = new HashMap<>();
+        keys.forEach(key -> {
+            VirAttrCacheValue value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+
+        Set<VirAttrCacheKey> toLoad = new HashSet<>(keys);
+        toLoad.removeAll(result.keySet());
+        if (!toLoad.isEmpty()) {
+            loader.apply(toLoad).forEach((key, value) -> result.put(key, put(key, value)));
+        }
+
+        return result;
+    }
+
+    /**
+     * Remove all cached values.
+     */
+    default void clear() {
+        // nothing to do by default
+    }
+
+    /**
+     * Report cache statistics.
+     *
+     * @return cache statistics, empty by default
+     */
+    default Map<String, Object> getStatistics() {
+        return Map.of();
+    }
 }
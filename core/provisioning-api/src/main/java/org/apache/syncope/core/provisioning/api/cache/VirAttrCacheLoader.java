@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.api.cache;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads virtual attribute values from external resources, on behalf of {@link VirAttrCache} implementations
+ * refreshing their entries.
+ */
+@FunctionalInterface
+public interface VirAttrCacheLoader {
+
+    /**
+     * Read, in bulk, current values for the given cache keys; invoked within the domain owning the cache entries.
+     *
+     * @param keys cache keys
+     * @return virtual attribute values, by key; for keys not reported, values could not be read and cached values
+     * are kept
+     */
+    Map<VirAttrCacheKey, VirAttrCacheValue> loadAll(Set<VirAttrCacheKey> keys);
+}
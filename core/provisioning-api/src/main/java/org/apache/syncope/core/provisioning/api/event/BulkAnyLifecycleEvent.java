@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.api.event;
+
+import java.util.Set;
+import org.apache.syncope.common.lib.types.AnyTypeKind;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Coalesced variant of {@link AnyLifecycleEvent}, published once for all the entities of the same kind affected by
+ * a bulk operation, as the refresh of dynamic memberships.
+ */
+public class BulkAnyLifecycleEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 4417361474271637206L;
+
+    private final SyncDeltaType type;
+
+    private final AnyTypeKind kind;
+
+    private final Set<String> keys;
+
+    private final String domain;
+
+    public BulkAnyLifecycleEvent(
+            final Object source,
+            final SyncDeltaType type,
+            final AnyTypeKind kind,
+            final Set<String> keys,
+            final String domain) {
+
+        super(source);
+
+        this.type = type;
+        this.kind = kind;
+        this.keys = keys;
+        this.domain = domain;
+    }
+
+    public SyncDeltaType getType() {
+        return type;
+    }
+
+    public AnyTypeKind getKind() {
+        return kind;
+    }
+
+    public Set<String> getKeys() {
+        return keys;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+}
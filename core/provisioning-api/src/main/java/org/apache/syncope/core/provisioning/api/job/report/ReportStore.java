@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.api.job.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Storage for report execution results, which are written and read as streams so that their size does not bound
+ * heap usage; only the reference returned by {@link #reference(String, String)} is persisted with the execution.
+ */
+public interface ReportStore {
+
+    /**
+     * Builds the reference under which the result of the given report execution is going to be stored.
+     *
+     * @param domain domain
+     * @param executionKey report execution key
+     * @return reference to be persisted with the report execution
+     */
+    String reference(String domain, String executionKey);
+
+    /**
+     * Opens a stream for writing the result under the given reference; any previous content is replaced.
+     *
+     * @param reference reference, as returned by {@link #reference(String, String)}
+     * @return stream to write the result to, to be closed by the caller
+     * @throws IOException if the stream could not be opened
+     */
+    OutputStream write(String reference) throws IOException;
+
+    /**
+     * Opens a stream for reading the result stored under the given reference.
+     *
+     * @param reference reference, as returned by {@link #reference(String, String)}
+     * @return stream to read the result from, to be closed by the caller
+     * @throws IOException if nothing is stored under the given reference, or the stream could not be opened
+     */
+    InputStream read(String reference) throws IOException;
+
+    /**
+     * Removes the result stored under the given reference, if any.
+     *
+     * @param reference reference, as returned by {@link #reference(String, String)}
+     * @throws IOException if removal failed
+     */
+    void delete(String reference) throws IOException;
+}
@@ -48,6 +48,15 @@ public interface PropagationTaskExecutor {
      */
     TaskExec<PropagationTask> execute(PropagationTaskInfo taskInfo, PropagationReporter reporter, String executor);
 
+    /**
+     * Execute the given task, previously queued for asynchronous execution, then either schedule its next attempt,
+     * according to the propagation policy of the related External Resource, or dequeue it.
+     *
+     * @param task queued task, already claimed
+     * @return the generated TaskExec, or null if execution was deferred
+     */
+    TaskExec<PropagationTask> executeQueued(PropagationTask task);
+
     /**
      * Execute the given collection of tasks.
      * The process is interrupted as soon as the result of the communication with a resource with non-null priority is
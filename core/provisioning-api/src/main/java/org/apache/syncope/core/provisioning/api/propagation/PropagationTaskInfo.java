@@ -30,6 +30,8 @@ import org.identityconnectors.framework.common.objects.ObjectClass;
 
 public class PropagationTaskInfo {
 
+    private String key;
+
     private final ExternalResource resource;
 
     private final ResourceOperation operation;
@@ -74,6 +76,17 @@ public class PropagationTaskInfo {
         this.propagationData = propagationData;
     }
 
+    /**
+     * @return key of the queued propagation task this instance was built from, if any
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(final String key) {
+        this.key = key;
+    }
+
     public ExternalResource getResource() {
         return resource;
     }
@@ -145,7 +158,8 @@ public class PropagationTaskInfo {
     @Override
     public String toString() {
         return "PropagationTaskInfo{"
-                + "resource=" + resource.getKey()
+                + "key=" + key
+                + ", resource=" + resource.getKey()
                 + ", operation=" + operation
                 + ", objectClass=" + objectClass
                 + ", anyTypeKind=" + anyTypeKind
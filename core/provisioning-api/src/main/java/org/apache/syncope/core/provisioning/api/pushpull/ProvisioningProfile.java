@@ -19,6 +19,7 @@
 package org.apache.syncope.core.provisioning.api.pushpull;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.syncope.common.lib.to.ProvisioningReport;
 import org.apache.syncope.common.lib.types.ConflictResolutionAction;
@@ -31,7 +32,7 @@ public class ProvisioningProfile<T extends ProvisioningTask<?>, A extends Provis
 
     private final T task;
 
-    private final List<ProvisioningReport> results = new ArrayList<>();
+    private final List<ProvisioningReport> results = Collections.synchronizedList(new ArrayList<>());
 
     private boolean dryRun;
 
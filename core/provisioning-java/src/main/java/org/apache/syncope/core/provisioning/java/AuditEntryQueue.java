@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.apache.syncope.common.lib.audit.AuditEntry;
+import org.apache.syncope.common.lib.types.AuditLoggerName;
+import org.apache.syncope.core.persistence.api.SyncopeCoreLoader;
+import org.apache.syncope.core.persistence.api.dao.AuditConfDAO;
+import org.apache.syncope.core.provisioning.api.serialization.POJOHelper;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Bounded queue of audit events, drained by a single thread which forwards the related audit entries to the audit
+ * loggers and stores them in batches, per domain.
+ * When the queue is full or not (yet) started, events are processed on the calling thread, so that none is dropped.
+ */
+public class AuditEntryQueue implements SyncopeCoreLoader {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(AuditEntryQueue.class);
+
+    public static class Event {
+
+        protected final String domain;
+
+        protected final String auditKey;
+
+        protected final Throwable throwable;
+
+        protected final AuditEntry entry;
+
+        public Event(
+                final String domain,
+                final String auditKey,
+                final Throwable throwable,
+                final AuditEntry entry) {
+
+            this.domain = domain;
+            this.auditKey = auditKey;
+            this.throwable = throwable;
+            this.entry = entry;
+        }
+    }
+
+    protected final ProvisioningProperties.AuditProperties props;
+
+    protected final AuditConfDAO auditConfDAO;
+
+    protected final BlockingQueue<Event> queue;
+
+    protected volatile ExecutorService writer;
+
+    public AuditEntryQueue(final ProvisioningProperties.AuditProperties props, final AuditConfDAO auditConfDAO) {
+        this.props = props;
+        this.auditConfDAO = auditConfDAO;
+        this.queue = new LinkedBlockingQueue<>(props.getQueueCapacity());
+    }
+
+    @Override
+    public int getOrder() {
+        return 290;
+    }
+
+    @Override
+    public void load() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("AuditEntryQueue-"));
+        executor.submit(this::drain);
+        writer = executor;
+    }
+
+    /**
+     * One-off migration: fills the structured columns of the audit entries stored before these were introduced,
+     * so that all entries can be searched by such columns.
+     */
+    @Override
+    public void load(final String domain, final DataSource datasource) {
+        try {
+            AuthContextUtils.callAsAdmin(domain, () -> {
+                OffsetDateTime after = auditConfDAO.fillEntryColumns(null, props.getBatchSize());
+                if (after != null) {
+                    LOG.info("[{}] Filling structured columns of audit entries stored before these were introduced",
+                            domain);
+                }
+                while (after != null) {
+                    LOG.debug("[{}] Structured columns of audit entries filled up to {}", domain, after);
+                    after = auditConfDAO.fillEntryColumns(after, props.getBatchSize());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            LOG.error("[{}] While filling structured columns of audit entries", domain, e);
+        }
+    }
+
+    @Override
+    public void unload() {
+        ExecutorService executor = writer;
+        writer = null;
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<Event> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        write(pending);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public void offer(final Event event) {
+        if (writer == null || !queue.offer(event)) {
+            write(List.of(event));
+        }
+    }
+
+    protected void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<Event> batch = new ArrayList<>();
+                batch.add(queue.take());
+                queue.drainTo(batch, props.getBatchSize() - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                LOG.error("Unexpected error while writing audit entries", t);
+            }
+        }
+    }
+
+    protected void log(final Event event, final AuditEntry entry) {
+        Logger logger = LoggerFactory.getLogger(AuditLoggerName.getAuditLoggerName(event.domain));
+        Logger eventLogger = LoggerFactory.getLogger(
+                AuditLoggerName.getAuditEventLoggerName(event.domain, event.auditKey));
+        if (!logger.isDebugEnabled() && !eventLogger.isDebugEnabled()) {
+            return;
+        }
+
+        String serializedAuditEntry = POJOHelper.serialize(entry);
+        if (event.throwable == null) {
+            logger.debug(serializedAuditEntry);
+            eventLogger.debug(serializedAuditEntry);
+        } else {
+            logger.debug(serializedAuditEntry, event.throwable);
+            eventLogger.debug(serializedAuditEntry, event.throwable);
+        }
+    }
+
+    protected void write(final List<Event> events) {
+        Map<String, List<AuditEntry>> entries = new LinkedHashMap<>();
+        events.forEach(event -> {
+            try {
+                log(event, event.entry);
+            } catch (Exception e) {
+                LOG.error("While logging audit entry for {}", event.auditKey, e);
+            }
+            entries.computeIfAbsent(event.domain, domain -> new ArrayList<>()).add(event.entry);
+        });
+
+        if (props.isPersist()) {
+            entries.forEach((domain, domainEntries) -> {
+                try {
+                    AuthContextUtils.callAsAdmin(domain, () -> {
+                        auditConfDAO.saveEntries(domainEntries);
+                        return null;
+                    });
+                } catch (Exception e) {
+                    LOG.error("Could not store {} audit entries for domain {}: {}",
+                            domainEntries.size(), domain, POJOHelper.serialize(domainEntries), e);
+                }
+            });
+        }
+    }
+}
@@ -36,8 +36,6 @@ import org.apache.syncope.core.provisioning.api.event.AfterHandlingEvent;
 import org.apache.syncope.core.provisioning.api.serialization.POJOHelper;
 import org.apache.syncope.core.provisioning.api.utils.ExceptionUtils2;
 import org.apache.syncope.core.spring.security.AuthContextUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -77,8 +75,11 @@ public class DefaultAuditManager implements AuditManager {
 
     protected final AuditConfDAO auditConfDAO;
 
-    public DefaultAuditManager(final AuditConfDAO auditConfDAO) {
+    protected final AuditEntryQueue auditEntryQueue;
+
+    public DefaultAuditManager(final AuditConfDAO auditConfDAO, final AuditEntryQueue auditEntryQueue) {
         this.auditConfDAO = auditConfDAO;
+        this.auditEntryQueue = auditEntryQueue;
     }
 
     @Override
@@ -141,41 +142,55 @@ public class DefaultAuditManager implements AuditManager {
 
         AuditConf audit = auditConfDAO.find(auditLoggerName.toAuditKey());
         if (audit != null && audit.isActive()) {
-            Throwable throwable = null;
-            if (output instanceof Throwable) {
-                throwable = (Throwable) output;
-            }
+            Throwable throwable = output instanceof Throwable ? (Throwable) output : null;
+            OffsetDateTime date = OffsetDateTime.now();
+
+            auditEntryQueue.offer(new AuditEntryQueue.Event(
+                    AuthContextUtils.getDomain(),
+                    audit.getKey(),
+                    throwable,
+                    buildAuditEntry(who, auditLoggerName, date, before, output, throwable, input)));
+        }
+    }
 
-            AuditEntry auditEntry = new AuditEntry();
-            auditEntry.setWho(who);
-            auditEntry.setLogger(auditLoggerName);
-            auditEntry.setDate(OffsetDateTime.now());
-            auditEntry.setBefore(POJOHelper.serialize((maskSensitive(before))));
-            if (throwable == null) {
-                auditEntry.setOutput(POJOHelper.serialize((maskSensitive(output))));
-            } else {
-                auditEntry.setOutput(throwable.getMessage());
-                auditEntry.setThrowable(ExceptionUtils2.getFullStackTrace(throwable));
-            }
-            if (input != null) {
-                auditEntry.getInputs().addAll(Arrays.stream(input).
-                        map(DefaultAuditManager::maskSensitive).map(POJOHelper::serialize).
-                        collect(Collectors.toList()));
-            }
+    /**
+     * Builds the audit entry, serializing the given objects after masking sensitive values; this happens on the
+     * thread which reported the event, before the given objects can be further modified.
+     *
+     * @param who who performed the audited operation
+     * @param auditLoggerName audited event
+     * @param date when the audited event happened
+     * @param before state before the audited operation
+     * @param output outcome of the audited operation
+     * @param throwable outcome of the audited operation, if failed
+     * @param input inputs of the audited operation
+     * @return audit entry
+     */
+    protected AuditEntry buildAuditEntry(
+            final String who,
+            final AuditLoggerName auditLoggerName,
+            final OffsetDateTime date,
+            final Object before,
+            final Object output,
+            final Throwable throwable,
+            final Object... input) {
 
-            Logger logger = LoggerFactory.getLogger(
-                    AuditLoggerName.getAuditLoggerName(AuthContextUtils.getDomain()));
-            Logger eventLogger = LoggerFactory.getLogger(
-                    AuditLoggerName.getAuditEventLoggerName(AuthContextUtils.getDomain(), audit.getKey()));
-            String serializedAuditEntry = POJOHelper.serialize(auditEntry);
-
-            if (throwable == null) {
-                logger.debug(serializedAuditEntry);
-                eventLogger.debug(serializedAuditEntry);
-            } else {
-                logger.debug(serializedAuditEntry, throwable);
-                eventLogger.debug(serializedAuditEntry, throwable);
-            }
+        AuditEntry auditEntry = new AuditEntry();
+        auditEntry.setWho(who);
+        auditEntry.setLogger(auditLoggerName);
+        auditEntry.setDate(date);
+        auditEntry.setBefore(POJOHelper.serialize((maskSensitive(before))));
+        if (throwable == null) {
+            auditEntry.setOutput(POJOHelper.serialize((maskSensitive(output))));
+        } else {
+            auditEntry.setOutput(throwable.getMessage());
+            auditEntry.setThrowable(ExceptionUtils2.getFullStackTrace(throwable));
+        }
+        if (input != null) {
+            auditEntry.getInputs().addAll(Arrays.stream(input).
+                    map(DefaultAuditManager::maskSensitive).map(POJOHelper::serialize).
+                    collect(Collectors.toList()));
         }
+        return auditEntry;
     }
 }
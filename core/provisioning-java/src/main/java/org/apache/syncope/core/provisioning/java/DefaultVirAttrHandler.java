@@ -18,28 +18,41 @@
  */
 package org.apache.syncope.core.provisioning.java;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.syncope.common.lib.to.Item;
 import org.apache.syncope.common.lib.to.Provision;
 import org.apache.syncope.core.persistence.api.dao.AllowedSchemas;
+import org.apache.syncope.core.persistence.api.dao.AnyTypeDAO;
+import org.apache.syncope.core.persistence.api.dao.VirSchemaDAO;
 import org.apache.syncope.core.persistence.api.entity.Any;
+import org.apache.syncope.core.persistence.api.entity.AnyType;
 import org.apache.syncope.core.persistence.api.entity.AnyUtilsFactory;
 import org.apache.syncope.core.persistence.api.entity.ExternalResource;
 import org.apache.syncope.core.persistence.api.entity.Membership;
 import org.apache.syncope.core.persistence.api.entity.VirSchema;
+import org.apache.syncope.core.provisioning.api.Connector;
 import org.apache.syncope.core.provisioning.api.ConnectorManager;
+import org.apache.syncope.core.provisioning.api.MappingManager;
 import org.apache.syncope.core.provisioning.api.VirAttrHandler;
 import org.apache.syncope.core.provisioning.api.cache.VirAttrCache;
 import org.apache.syncope.core.provisioning.api.cache.VirAttrCacheKey;
+import org.apache.syncope.core.provisioning.api.cache.VirAttrCacheLoader;
 import org.apache.syncope.core.provisioning.api.cache.VirAttrCacheValue;
 import org.apache.syncope.core.provisioning.java.pushpull.OutboundMatcher;
+import org.apache.syncope.core.provisioning.java.utils.MappingUtils;
 import org.identityconnectors.framework.common.objects.Attribute;
 import org.identityconnectors.framework.common.objects.ConnectorObject;
 import org.slf4j.Logger;
@@ -47,28 +60,44 @@ import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Transactional;
 
 @Transactional(readOnly = true)
-public class DefaultVirAttrHandler implements VirAttrHandler {
+public class DefaultVirAttrHandler implements VirAttrHandler, VirAttrCacheLoader {
 
     protected static final Logger LOG = LoggerFactory.getLogger(VirAttrHandler.class);
 
+    protected final AnyTypeDAO anyTypeDAO;
+
+    protected final VirSchemaDAO virSchemaDAO;
+
     protected final ConnectorManager connectorManager;
 
     protected final VirAttrCache virAttrCache;
 
     protected final OutboundMatcher outboundMatcher;
 
+    protected final MappingManager mappingManager;
+
     protected final AnyUtilsFactory anyUtilsFactory;
 
+    protected final Executor executor;
+
     public DefaultVirAttrHandler(
+            final AnyTypeDAO anyTypeDAO,
+            final VirSchemaDAO virSchemaDAO,
             final ConnectorManager connectorManager,
             final VirAttrCache virAttrCache,
             final OutboundMatcher outboundMatcher,
-            final AnyUtilsFactory anyUtilsFactory) {
+            final MappingManager mappingManager,
+            final AnyUtilsFactory anyUtilsFactory,
+            final Executor executor) {
 
+        this.anyTypeDAO = anyTypeDAO;
+        this.virSchemaDAO = virSchemaDAO;
         this.connectorManager = connectorManager;
         this.virAttrCache = virAttrCache;
         this.outboundMatcher = outboundMatcher;
+        this.mappingManager = mappingManager;
         this.anyUtilsFactory = anyUtilsFactory;
+        this.executor = executor;
     }
 
     @Override
@@ -98,56 +127,211 @@ public class DefaultVirAttrHandler implements VirAttrHandler {
         });
     }
 
+    @Override
+    public void prefetch(final Collection<? extends Any<?>> anys) {
+        // 1. collect, for each resource / provision, the virtual schemas not found in cache for each any
+        Map<Pair<ExternalResource, Provision>, Map<Any<?>, Set<VirSchema>>> toRead = new HashMap<>();
+        anys.forEach(any -> {
+            Set<ExternalResource> resources = anyUtilsFactory.getInstance(any).getAllResources(any);
+
+            AllowedSchemas<VirSchema> schemas =
+                    anyUtilsFactory.getInstance(any).dao().findAllowedSchemas(any, VirSchema.class);
+            Stream.concat(
+                    schemas.getForSelf().stream(),
+                    schemas.getForMemberships().values().stream().flatMap(Set::stream)).
+                    filter(schema -> resources.contains(schema.getResource())
+                    && schema.getAnyType().equals(any.getType())
+                    && virAttrCache.get(
+                            new VirAttrCacheKey(any.getType().getKey(), any.getKey(), schema.getKey())) == null).
+                    forEach(schema -> schema.getResource().getProvision(schema.getAnyType().getKey()).
+                    ifPresent(provision -> toRead.
+                    computeIfAbsent(Pair.of(schema.getResource(), provision), k -> new HashMap<>()).
+                    computeIfAbsent(any, k -> new HashSet<>()).
+                    add(schema)));
+        });
+
+        // 2. read in bulk for each resource / provision, in parallel: anything not found will be read on demand
+        readAll(toRead, executor).forEach((cacheKey, cacheValue) -> {
+            virAttrCache.put(cacheKey, cacheValue);
+            LOG.debug("Set in cache: {}={}", cacheKey, cacheValue);
+        });
+    }
+
+    protected boolean canReadAll(final Pair<ExternalResource, Provision> pair) {
+        return MappingUtils.getConnObjectKeyItem(pair.getRight()).isPresent()
+                && outboundMatcher.rule(pair.getLeft(), pair.getRight()).isEmpty();
+    }
+
+    /**
+     * Prepares one bulk read for each resource / provision, and runs them via the given executor; resources /
+     * provisions for which {@link #canReadAll(Pair)} does not hold are skipped.
+     *
+     * @param toRead virtual schemas to read for each any, by resource / provision
+     * @param readExecutor executor running the bulk reads
+     * @return values read, by cache key
+     */
+    protected Map<VirAttrCacheKey, VirAttrCacheValue> readAll(
+            final Map<Pair<ExternalResource, Provision>, Map<Any<?>, Set<VirSchema>>> toRead,
+            final Executor readExecutor) {
+
+        Map<VirAttrCacheKey, VirAttrCacheValue> result = new ConcurrentHashMap<>();
+
+        List<CompletableFuture<Void>> reads = new ArrayList<>();
+        toRead.forEach((pair, schemasByAny) -> {
+            if (!canReadAll(pair)) {
+                LOG.debug("Cannot read in bulk from {}", pair);
+                return;
+            }
+
+            Map<String, Any<?>> anysByConnObjectKeyValue = new HashMap<>();
+            schemasByAny.keySet().forEach(any -> mappingManager.getConnObjectKeyValue(
+                    any, pair.getLeft(), pair.getRight()).
+                    ifPresent(value -> anysByConnObjectKeyValue.put(value, any)));
+            if (anysByConnObjectKeyValue.isEmpty()) {
+                return;
+            }
+
+            Set<VirSchema> schemasToRead = schemasByAny.values().stream().
+                    flatMap(Set::stream).collect(Collectors.toSet());
+            List<Item> linkingItems = schemasToRead.stream().map(VirSchema::asLinkingMappingItem).
+                    collect(Collectors.toList());
+            Connector connector = connectorManager.getConnector(pair.getLeft());
+
+            LOG.debug("About to read from {} for {} objects: {}", pair, anysByConnObjectKeyValue.size(), schemasToRead);
+
+            reads.add(CompletableFuture.supplyAsync(() -> outboundMatcher.matchByConnObjectKeyValues(
+                    connector,
+                    MappingUtils.getConnObjectKeyItem(pair.getRight()).get(),
+                    anysByConnObjectKeyValue.keySet(),
+                    pair.getRight(),
+                    Optional.empty(),
+                    linkingItems), readExecutor).
+                    thenAccept(connObjs -> connObjs.forEach((value, connObj) -> {
+                Any<?> any = anysByConnObjectKeyValue.get(value);
+                schemasByAny.get(any).forEach(schema -> {
+                    Attribute attr = connObj.getAttributeByName(schema.getExtAttrName());
+                    if (attr != null) {
+                        result.put(
+                                new VirAttrCacheKey(any.getType().getKey(), any.getKey(), schema.getKey()),
+                                new VirAttrCacheValue(attr.getValue()));
+                    }
+                });
+            })).exceptionally(e -> {
+                LOG.error("While reading in bulk from {}", pair, e);
+                return null;
+            }));
+        });
+
+        CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new)).join();
+
+        return result;
+    }
+
+    protected Map<VirSchema, VirAttrCacheValue> read(
+            final Any<?> any,
+            final ExternalResource resource,
+            final Provision provision,
+            final Set<VirSchema> schemas) {
+
+        LOG.debug("About to read from {}: {}", resource, schemas);
+
+        Map<VirSchema, VirAttrCacheValue> result = new HashMap<>();
+        outboundMatcher.match(
+                connectorManager.getConnector(resource),
+                any,
+                resource,
+                provision,
+                Optional.empty(),
+                schemas.stream().map(VirSchema::asLinkingMappingItem).toArray(Item[]::new)).
+                forEach(connObj -> schemas.forEach(schema -> {
+
+            Attribute attr = connObj.getAttributeByName(schema.getExtAttrName());
+            if (attr != null) {
+                result.put(schema, new VirAttrCacheValue(attr.getValue()));
+            }
+        }));
+        return result;
+    }
+
     protected Map<VirSchema, List<String>> getValues(final Any<?> any, final Set<VirSchema> schemas) {
         Set<ExternalResource> resources = anyUtilsFactory.getInstance(any).getAllResources(any);
 
         Map<VirSchema, List<String>> result = new HashMap<>();
 
-        Map<Pair<ExternalResource, Provision>, Set<VirSchema>> toRead = new HashMap<>();
+        Map<Pair<ExternalResource, Provision>, Map<VirAttrCacheKey, VirSchema>> toRead = new HashMap<>();
 
         schemas.stream().filter(schema -> resources.contains(schema.getResource())).forEach(schema -> {
             VirAttrCacheKey cacheKey = new VirAttrCacheKey(any.getType().getKey(), any.getKey(), schema.getKey());
-            VirAttrCacheValue cacheValue = virAttrCache.get(cacheKey);
-
-            if (cacheValue != null) {
-                LOG.debug("Found in cache: {}={}", cacheKey, cacheValue);
-                result.put(schema, cacheValue.getValues());
-            } else if (schema.getAnyType().equals(any.getType())) {
-                schema.getResource().getProvision(schema.getAnyType().getKey()).ifPresent(provision -> {
-                    Set<VirSchema> schemasToRead = toRead.get(Pair.of(schema.getResource(), provision));
-                    if (schemasToRead == null) {
-                        schemasToRead = new HashSet<>();
-                        toRead.put(Pair.of(schema.getResource(), provision), schemasToRead);
-                    }
-                    schemasToRead.add(schema);
-                });
+
+            Optional<Provision> provision = schema.getAnyType().equals(any.getType())
+                    ? schema.getResource().getProvision(schema.getAnyType().getKey())
+                    : Optional.empty();
+            if (provision.isPresent()) {
+                toRead.computeIfAbsent(Pair.of(schema.getResource(), provision.get()), k -> new HashMap<>()).
+                        put(cacheKey, schema);
+            } else {
+                VirAttrCacheValue cacheValue = virAttrCache.get(cacheKey);
+                if (cacheValue != null) {
+                    LOG.debug("Found in cache: {}={}", cacheKey, cacheValue);
+                    result.put(schema, cacheValue.getValues());
+                }
             }
         });
 
-        toRead.forEach((pair, schemasToRead) -> {
-            LOG.debug("About to read from {}: {}", pair, schemasToRead);
+        toRead.forEach((pair, schemasToRead) -> virAttrCache.getAll(schemasToRead.keySet(), cacheKeys -> {
+            Map<VirAttrCacheKey, VirAttrCacheValue> values = new HashMap<>();
+            read(any, pair.getLeft(), pair.getRight(),
+                    cacheKeys.stream().map(schemasToRead::get).collect(Collectors.toSet())).
+                    forEach((schema, cacheValue) -> values.put(
+                    new VirAttrCacheKey(any.getType().getKey(), any.getKey(), schema.getKey()), cacheValue));
+            return values;
+        }).forEach((cacheKey, cacheValue) -> result.put(schemasToRead.get(cacheKey), cacheValue.getValues())));
 
-            outboundMatcher.match(
-                    connectorManager.getConnector(pair.getLeft()),
-                    any,
-                    pair.getLeft(),
-                    pair.getRight(),
-                    Optional.empty(),
-                    schemasToRead.stream().map(VirSchema::asLinkingMappingItem).toArray(Item[]::new)).
-                    forEach(connObj -> schemasToRead.forEach(schema -> {
+        return result;
+    }
 
-                Attribute attr = connObj.getAttributeByName(schema.getExtAttrName());
-                if (attr != null) {
-                    VirAttrCacheKey cacheKey =
-                            new VirAttrCacheKey(any.getType().getKey(), any.getKey(), schema.getKey());
-                    VirAttrCacheValue cacheValue = virAttrCache.put(cacheKey, new VirAttrCacheValue(attr.getValue()));
-                    LOG.debug("Set in cache: {}={}", cacheKey, cacheValue);
+    @Override
+    public Map<VirAttrCacheKey, VirAttrCacheValue> loadAll(final Set<VirAttrCacheKey> keys) {
+        // 1. collect, for each resource / provision, the virtual schemas to read for each any
+        Map<Pair<ExternalResource, Provision>, Map<Any<?>, Set<VirSchema>>> toRead = new HashMap<>();
+        keys.stream().collect(Collectors.groupingBy(key -> Pair.of(key.getAnyType(), key.getAny()))).
+                forEach((anyKey, cacheKeys) -> {
 
-                    result.put(schema, cacheValue.getValues());
-                }
-            }));
+            AnyType anyType = anyTypeDAO.find(anyKey.getLeft());
+            Any<?> any = anyType == null
+                    ? null
+                    : anyUtilsFactory.getInstance(anyType.getKind()).dao().find(anyKey.getRight());
+            if (any == null) {
+                return;
+            }
+
+            Set<ExternalResource> resources = anyUtilsFactory.getInstance(any).getAllResources(any);
+            cacheKeys.stream().map(key -> virSchemaDAO.find(key.getSchema())).
+                    filter(schema -> schema != null
+                    && schema.getAnyType().equals(anyType)
+                    && resources.contains(schema.getResource())).
+                    forEach(schema -> schema.getResource().getProvision(anyType.getKey()).
+                    ifPresent(provision -> toRead.
+                    computeIfAbsent(Pair.of(schema.getResource(), provision), k -> new HashMap<>()).
+                    computeIfAbsent(any, k -> new HashSet<>()).
+                    add(schema)));
         });
 
+        // 2. read in bulk where possible: this is already running in background, hence on the calling thread
+        Map<VirAttrCacheKey, VirAttrCacheValue> result = new HashMap<>(readAll(toRead, Runnable::run));
+
+        // 3. read any by any from the remaining resources / provisions
+        toRead.entrySet().stream().filter(entry -> !canReadAll(entry.getKey())).
+                forEach(entry -> entry.getValue().forEach((any, schemas) -> {
+            try {
+                read(any, entry.getKey().getLeft(), entry.getKey().getRight(), schemas).
+                        forEach((schema, cacheValue) -> result.put(
+                        new VirAttrCacheKey(any.getType().getKey(), any.getKey(), schema.getKey()), cacheValue));
+            } catch (RuntimeException e) {
+                LOG.error("While reading from {} for {}", entry.getKey(), any, e);
+            }
+        }));
+
         return result;
     }
 
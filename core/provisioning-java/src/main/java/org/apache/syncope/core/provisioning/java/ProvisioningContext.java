@@ -21,6 +21,7 @@ package org.apache.syncope.core.provisioning.java;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Properties;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -121,11 +122,12 @@ import org.apache.syncope.core.provisioning.api.data.WAConfigDataBinder;
 import org.apache.syncope.core.provisioning.api.data.wa.WAClientAppDataBinder;
 import org.apache.syncope.core.provisioning.api.job.JobManager;
 import org.apache.syncope.core.provisioning.api.job.report.ReportJobDelegate;
+import org.apache.syncope.core.provisioning.api.job.report.ReportStore;
 import org.apache.syncope.core.provisioning.api.notification.NotificationJobDelegate;
 import org.apache.syncope.core.provisioning.api.notification.NotificationManager;
 import org.apache.syncope.core.provisioning.api.propagation.PropagationManager;
 import org.apache.syncope.core.provisioning.api.propagation.PropagationTaskExecutor;
-import org.apache.syncope.core.provisioning.java.cache.CaffeineVirAttrCache;
+import org.apache.syncope.core.provisioning.java.cache.RefreshingVirAttrCache;
 import org.apache.syncope.core.provisioning.java.data.AccessTokenDataBinderImpl;
 import org.apache.syncope.core.provisioning.java.data.AnyObjectDataBinderImpl;
 import org.apache.syncope.core.provisioning.java.data.AnyTypeClassDataBinderImpl;
@@ -166,10 +168,15 @@ import org.apache.syncope.core.provisioning.java.job.SyncopeSpringBeanJobFactory
 import org.apache.syncope.core.provisioning.java.job.SystemLoadReporterJob;
 import org.apache.syncope.core.provisioning.java.job.notification.DefaultNotificationJobDelegate;
 import org.apache.syncope.core.provisioning.java.job.notification.NotificationJob;
+import org.apache.syncope.core.provisioning.java.job.report.DatabaseReportStore;
 import org.apache.syncope.core.provisioning.java.job.report.DefaultReportJobDelegate;
+import org.apache.syncope.core.provisioning.java.job.report.FileSystemReportStore;
+import org.apache.syncope.core.provisioning.java.job.report.ReportStoreCleanup;
 import org.apache.syncope.core.provisioning.java.notification.DefaultNotificationManager;
 import org.apache.syncope.core.provisioning.java.propagation.DefaultPropagationManager;
 import org.apache.syncope.core.provisioning.java.propagation.PriorityPropagationTaskExecutor;
+import org.apache.syncope.core.provisioning.java.propagation.PropagationOutboxDispatcher;
+import org.apache.syncope.core.provisioning.java.propagation.ResourceBulkheads;
 import org.apache.syncope.core.provisioning.java.pushpull.InboundMatcher;
 import org.apache.syncope.core.provisioning.java.pushpull.OutboundMatcher;
 import org.apache.syncope.core.provisioning.java.utils.ConnObjectUtils;
@@ -278,6 +285,26 @@ public class ProvisioningContext {
         return executor;
     }
 
+    /**
+     * Used by {@link DefaultVirAttrHandler} to read virtual attribute values from several resources in parallel.
+     *
+     * @param props the provisioning properties
+     * @return executor thread pool task executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor virAttrHandlerExecutor(final ProvisioningProperties props) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(props.getVirAttrHandlerExecutor().getCorePoolSize());
+        executor.setMaxPoolSize(props.getVirAttrHandlerExecutor().getMaxPoolSize());
+        executor.setQueueCapacity(props.getVirAttrHandlerExecutor().getQueueCapacity());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(props.getVirAttrHandlerExecutor().getAwaitTerminationSeconds());
+        executor.setThreadNamePrefix("VirAttrHandlerExecutor-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
     @Bean
     public SchedulerDBInit quartzDataSourceInit(final ProvisioningProperties provisioningProperties) {
         SchedulerDBInit init = new SchedulerDBInit();
@@ -498,12 +525,25 @@ public class ProvisioningContext {
     @ConditionalOnMissingBean
     @Bean
     public VirAttrHandler virAttrHandler(
+            final AnyTypeDAO anyTypeDAO,
+            final VirSchemaDAO virSchemaDAO,
             final AnyUtilsFactory anyUtilsFactory,
             final ConnectorManager connectorManager,
             final VirAttrCache virAttrCache,
-            @Lazy final OutboundMatcher outboundMatcher) {
+            @Lazy final OutboundMatcher outboundMatcher,
+            @Lazy final MappingManager mappingManager,
+            @Qualifier("virAttrHandlerExecutor")
+            final ThreadPoolTaskExecutor virAttrHandlerExecutor) {
 
-        return new DefaultVirAttrHandler(connectorManager, virAttrCache, outboundMatcher, anyUtilsFactory);
+        return new DefaultVirAttrHandler(
+                anyTypeDAO,
+                virSchemaDAO,
+                connectorManager,
+                virAttrCache,
+                outboundMatcher,
+                mappingManager,
+                anyUtilsFactory,
+                virAttrHandlerExecutor);
     }
 
     @ConditionalOnMissingBean
@@ -606,11 +646,31 @@ public class ProvisioningContext {
         return new IntAttrNameParser(plainSchemaDAO, derSchemaDAO, virSchemaDAO, anyUtilsFactory);
     }
 
+    @ConditionalOnMissingBean
+    @Bean
+    public PropagationOutboxDispatcher propagationOutboxDispatcher(
+            @Qualifier("propagationTaskExecutorAsyncExecutor")
+            final ThreadPoolTaskExecutor propagationTaskExecutorAsyncExecutor,
+            final ProvisioningProperties props,
+            final TaskDAO taskDAO) {
+
+        return new PropagationOutboxDispatcher(
+                props.getPropagationOutbox(), taskDAO, propagationTaskExecutorAsyncExecutor);
+    }
+
+    @ConditionalOnMissingBean
+    @Bean
+    public ResourceBulkheads resourceBulkheads(final ProvisioningProperties props) {
+        return new ResourceBulkheads(props.getResourceBulkhead());
+    }
+
     @ConditionalOnMissingBean
     @Bean
     public PropagationTaskExecutor propagationTaskExecutor(
             @Qualifier("propagationTaskExecutorAsyncExecutor")
             final ThreadPoolTaskExecutor propagationTaskExecutorAsyncExecutor,
+            final PropagationOutboxDispatcher propagationOutboxDispatcher,
+            final ResourceBulkheads resourceBulkheads,
             final EntityFactory entityFactory,
             final TaskUtilsFactory taskUtilsFactory,
             final AnyUtilsFactory anyUtilsFactory,
@@ -645,7 +705,9 @@ public class ProvisioningContext {
                 entityFactory,
                 outboundMatcher,
                 validator,
-                propagationTaskExecutorAsyncExecutor);
+                resourceBulkheads,
+                propagationTaskExecutorAsyncExecutor,
+                propagationOutboxDispatcher);
     }
 
     @ConditionalOnMissingBean
@@ -703,8 +765,14 @@ public class ProvisioningContext {
 
     @ConditionalOnMissingBean
     @Bean
-    public VirAttrCache virAttrCache(final ProvisioningProperties provisioningProperties) {
-        VirAttrCache virAttrCache = new CaffeineVirAttrCache();
+    public VirAttrCache virAttrCache(
+            final ProvisioningProperties provisioningProperties,
+            final ConfParamOps confParamOps,
+            @Qualifier("virAttrHandlerExecutor")
+            final ThreadPoolTaskExecutor virAttrHandlerExecutor) {
+
+        VirAttrCache virAttrCache = new RefreshingVirAttrCache(
+                provisioningProperties.getVirAttrCacheInvalidation(), confParamOps, virAttrHandlerExecutor);
         virAttrCache.setCacheSpec(provisioningProperties.getVirAttrCacheSpec());
         return virAttrCache;
     }
@@ -754,8 +822,14 @@ public class ProvisioningContext {
 
     @ConditionalOnMissingBean
     @Bean
-    public AuditManager auditManager(final AuditConfDAO auditConfDAO) {
-        return new DefaultAuditManager(auditConfDAO);
+    public AuditEntryQueue auditEntryQueue(final ProvisioningProperties props, final AuditConfDAO auditConfDAO) {
+        return new AuditEntryQueue(props.getAudit(), auditConfDAO);
+    }
+
+    @ConditionalOnMissingBean
+    @Bean
+    public AuditManager auditManager(final AuditConfDAO auditConfDAO, final AuditEntryQueue auditEntryQueue) {
+        return new DefaultAuditManager(auditConfDAO, auditEntryQueue);
     }
 
     @ConditionalOnMissingBean
@@ -791,14 +865,31 @@ public class ProvisioningContext {
         return new NotificationJob(securityProperties, domainHolder, delegate);
     }
 
+    @ConditionalOnMissingBean
+    @Bean
+    public ReportStore reportStore(final ProvisioningProperties props, final ReportExecDAO reportExecDAO) {
+        return StringUtils.isBlank(props.getReport().getDirectory())
+                ? new DatabaseReportStore(reportExecDAO)
+                : new FileSystemReportStore(Path.of(props.getReport().getDirectory()));
+    }
+
+    @ConditionalOnMissingBean
+    @Bean
+    public ReportStoreCleanup reportStoreCleanup(final ReportStore reportStore) {
+        return new ReportStoreCleanup(reportStore);
+    }
+
     @ConditionalOnMissingBean
     @Bean
     public ReportJobDelegate reportJobDelegate(
             final ReportDAO reportDAO,
             final ReportExecDAO reportExecDAO,
-            final EntityFactory entityFactory) {
+            final EntityFactory entityFactory,
+            final ReportStore reportStore,
+            final ProvisioningProperties props) {
 
-        return new DefaultReportJobDelegate(reportDAO, reportExecDAO, entityFactory);
+        return new DefaultReportJobDelegate(
+                reportDAO, reportExecDAO, entityFactory, reportStore, props.getReport().getCompressionLevel());
     }
 
     @ConditionalOnMissingBean
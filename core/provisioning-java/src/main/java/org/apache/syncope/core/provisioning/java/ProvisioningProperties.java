@@ -18,10 +18,12 @@
  */
 package org.apache.syncope.core.provisioning.java;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
 import org.quartz.impl.jdbcjobstore.DriverDelegate;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -170,11 +172,263 @@ public class ProvisioningProperties {
         }
     }
 
+    public static class VirAttrCacheInvalidationProperties {
+
+        private boolean enabled = true;
+
+        private Duration pollInterval = Duration.ofSeconds(10);
+
+        private int maxKeys = 500;
+
+        private Duration retention = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(final Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(final int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(final Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    public static class PropagationOutboxProperties {
+
+        private boolean enabled;
+
+        private Duration pollInterval = Duration.ofSeconds(10);
+
+        private int batchSize = 100;
+
+        private Duration lease = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(final Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(final int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(final Duration lease) {
+            this.lease = lease;
+        }
+    }
+
+    public static class ResourceBulkheadProperties {
+
+        private boolean enabled;
+
+        private int maxInFlight = 10;
+
+        private Duration latencyThreshold = Duration.ofSeconds(5);
+
+        private int failureRateThreshold = 50;
+
+        private int slidingWindowSize = 20;
+
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        private Duration acquireTimeout = Duration.ofSeconds(30);
+
+        private Duration poolAcquireTimeout = Duration.ofMillis(500);
+
+        private Duration retryDelay = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(final int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(final Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(final int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(final int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(final Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public Duration getAcquireTimeout() {
+            return acquireTimeout;
+        }
+
+        public void setAcquireTimeout(final Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+        }
+
+        public Duration getPoolAcquireTimeout() {
+            return poolAcquireTimeout;
+        }
+
+        public void setPoolAcquireTimeout(final Duration poolAcquireTimeout) {
+            this.poolAcquireTimeout = poolAcquireTimeout;
+        }
+
+        public Duration getRetryDelay() {
+            return retryDelay;
+        }
+
+        public void setRetryDelay(final Duration retryDelay) {
+            this.retryDelay = retryDelay;
+        }
+    }
+
+    public static class AuditProperties {
+
+        private boolean persist = true;
+
+        private int queueCapacity = 10000;
+
+        private int batchSize = 500;
+
+        public boolean isPersist() {
+            return persist;
+        }
+
+        public void setPersist(final boolean persist) {
+            this.persist = persist;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(final int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class ReportProperties {
+
+        /**
+         * Durable directory, shared among all Core instances, where report execution results are stored; when not
+         * set, results are stored in the database.
+         */
+        private String directory;
+
+        private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(final String directory) {
+            this.directory = directory;
+        }
+
+        public int getCompressionLevel() {
+            return compressionLevel;
+        }
+
+        public void setCompressionLevel(final int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+        }
+    }
+
     private final ExecutorProperties asyncConnectorFacadeExecutor = new ExecutorProperties();
 
     private final ExecutorProperties propagationTaskExecutorAsyncExecutor = new ExecutorProperties();
 
-    private String virAttrCacheSpec = "maximumSize=5000,expireAfterAccess=1m";
+    private final ExecutorProperties virAttrHandlerExecutor = new ExecutorProperties();
+
+    private final PropagationOutboxProperties propagationOutbox = new PropagationOutboxProperties();
+
+    private final ResourceBulkheadProperties resourceBulkhead = new ResourceBulkheadProperties();
+
+    private String virAttrCacheSpec = "maximumSize=5000,expireAfterAccess=5m,refreshAfterWrite=1m";
+
+    private final VirAttrCacheInvalidationProperties virAttrCacheInvalidation =
+            new VirAttrCacheInvalidationProperties();
+
+    private final AuditProperties audit = new AuditProperties();
+
+    private final ReportProperties report = new ReportProperties();
 
     private final List<String> connIdLocation = new ArrayList<>();
 
@@ -190,6 +444,10 @@ public class ProvisioningProperties {
         this.virAttrCacheSpec = virAttrCacheSpec;
     }
 
+    public VirAttrCacheInvalidationProperties getVirAttrCacheInvalidation() {
+        return virAttrCacheInvalidation;
+    }
+
     public ExecutorProperties getAsyncConnectorFacadeExecutor() {
         return asyncConnectorFacadeExecutor;
     }
@@ -198,6 +456,26 @@ public class ProvisioningProperties {
         return propagationTaskExecutorAsyncExecutor;
     }
 
+    public ExecutorProperties getVirAttrHandlerExecutor() {
+        return virAttrHandlerExecutor;
+    }
+
+    public PropagationOutboxProperties getPropagationOutbox() {
+        return propagationOutbox;
+    }
+
+    public ResourceBulkheadProperties getResourceBulkhead() {
+        return resourceBulkhead;
+    }
+
+    public AuditProperties getAudit() {
+        return audit;
+    }
+
+    public ReportProperties getReport() {
+        return report;
+    }
+
     public List<String> getConnIdLocation() {
         return connIdLocation;
     }
@@ -20,6 +20,8 @@ package org.apache.syncope.core.provisioning.java.cache;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.Map;
 import org.apache.syncope.core.provisioning.api.cache.VirAttrCache;
 import org.apache.syncope.core.provisioning.api.cache.VirAttrCacheKey;
 import org.apache.syncope.core.provisioning.api.cache.VirAttrCacheValue;
@@ -30,7 +32,7 @@ public class CaffeineVirAttrCache implements VirAttrCache {
 
     @Override
     public void setCacheSpec(final String cacheSpec) {
-        cache = Caffeine.from(cacheSpec).build();
+        cache = Caffeine.from(cacheSpec).recordStats().build();
     }
 
     @Override
@@ -48,4 +50,20 @@ public class CaffeineVirAttrCache implements VirAttrCache {
         cache.put(key, value);
         return value;
     }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = cache.stats();
+        return Map.of(
+                "size", cache.estimatedSize(),
+                "hitCount", stats.hitCount(),
+                "missCount", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictionCount", stats.evictionCount());
+    }
 }
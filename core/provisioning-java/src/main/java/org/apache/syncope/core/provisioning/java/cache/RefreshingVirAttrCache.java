@@ -0,0 +1,557 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.sql.DataSource;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.syncope.common.keymaster.client.api.ConfParamOps;
+import org.apache.syncope.core.persistence.api.SyncopeCoreLoader;
+import org.apache.syncope.core.provisioning.api.cache.VirAttrCache;
+import org.apache.syncope.core.provisioning.api.cache.VirAttrCacheKey;
+import org.apache.syncope.core.provisioning.api.cache.VirAttrCacheLoader;
+import org.apache.syncope.core.provisioning.api.cache.VirAttrCacheValue;
+import org.apache.syncope.core.provisioning.api.serialization.POJOHelper;
+import org.apache.syncope.core.provisioning.java.ProvisioningProperties;
+import org.apache.syncope.core.spring.ApplicationContextProvider;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Virtual attribute value cache which:
+ * <ul>
+ * <li>keeps entries separated by domain;</li>
+ * <li>when {@code refreshAfterWrite} is part of the cache spec, serves stale entries while reloading them in
+ * background via {@link VirAttrCacheLoader}: refreshes requested close in time are read together, in bulk;</li>
+ * <li>ensures that concurrent bulk loads for the same keys only hit the external resource once;</li>
+ * <li>shares invalidations with other Core instances, via Keymaster configuration parameters.</li>
+ * </ul>
+ * Each Core instance publishes the keys it expires under its own configuration parameter, rewritten only when new
+ * keys are expired, and polls the ones published by other instances; parameters not rewritten for longer than the
+ * configured retention - e.g. left by instances which did not shut down cleanly - are removed by the first instance
+ * noticing them.
+ */
+public class RefreshingVirAttrCache implements VirAttrCache, SyncopeCoreLoader {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(VirAttrCache.class);
+
+    protected static final String INVALIDATIONS_PREFIX = "virAttrCache.invalidations.";
+
+    /**
+     * Invalidations published by a Core instance: each invalidated key is reported as
+     * {@code [sequence, anyType, any, schema]}.
+     */
+    public static class InvalidationLog {
+
+        private long seq;
+
+        private long updated;
+
+        private final List<String[]> keys = new ArrayList<>();
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public void setSeq(final long seq) {
+            this.seq = seq;
+        }
+
+        public long getUpdated() {
+            return updated;
+        }
+
+        public void setUpdated(final long updated) {
+            this.updated = updated;
+        }
+
+        public List<String[]> getKeys() {
+            return keys;
+        }
+    }
+
+    /**
+     * How long refreshes are collected, after the first one, before being read in bulk.
+     */
+    protected static final long REFRESH_BATCH_DELAY = 50L;
+
+    protected static class Refresh {
+
+        protected final VirAttrCacheValue oldValue;
+
+        protected final CompletableFuture<VirAttrCacheValue> future = new CompletableFuture<>();
+
+        protected Refresh(final VirAttrCacheValue oldValue) {
+            this.oldValue = oldValue;
+        }
+    }
+
+    protected final ProvisioningProperties.VirAttrCacheInvalidationProperties props;
+
+    protected final ConfParamOps confParamOps;
+
+    protected final Executor executor;
+
+    protected final String node = UUID.randomUUID().toString();
+
+    protected final Set<String> domains = ConcurrentHashMap.newKeySet();
+
+    protected final Map<Pair<String, VirAttrCacheKey>, CompletableFuture<VirAttrCacheValue>> loading =
+            new ConcurrentHashMap<>();
+
+    protected final Map<String, Queue<VirAttrCacheKey>> expired = new ConcurrentHashMap<>();
+
+    protected final Map<String, InvalidationLog> published = new ConcurrentHashMap<>();
+
+    protected final Map<Pair<String, String>, Long> received = new ConcurrentHashMap<>();
+
+    protected final Set<String> receiving = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Refreshes waiting to be read in bulk, by domain; access is guarded by the map itself.
+     */
+    protected final Map<String, Map<VirAttrCacheKey, Refresh>> refreshes = new HashMap<>();
+
+    protected final LongAdder bulkLoadCount = new LongAdder();
+
+    protected final LongAdder bulkLoadFailureCount = new LongAdder();
+
+    protected final LongAdder bulkLoadTime = new LongAdder();
+
+    protected final LongAdder coalescedLoadCount = new LongAdder();
+
+    protected final LongAdder bulkRefreshCount = new LongAdder();
+
+    protected final LongAdder publishedInvalidationCount = new LongAdder();
+
+    protected final LongAdder receivedInvalidationCount = new LongAdder();
+
+    protected LoadingCache<Pair<String, VirAttrCacheKey>, VirAttrCacheValue> cache;
+
+    protected VirAttrCacheLoader loader;
+
+    protected ScheduledExecutorService poller;
+
+    public RefreshingVirAttrCache(
+            final ProvisioningProperties.VirAttrCacheInvalidationProperties props,
+            final ConfParamOps confParamOps,
+            final Executor executor) {
+
+        this.props = props;
+        this.confParamOps = confParamOps;
+        this.executor = executor;
+    }
+
+    public void setLoader(final VirAttrCacheLoader loader) {
+        this.loader = loader;
+    }
+
+    protected Optional<VirAttrCacheLoader> loader() {
+        synchronized (this) {
+            if (loader == null) {
+                loader = ApplicationContextProvider.getBeanFactory().
+                        getBeanProvider(VirAttrCacheLoader.class).getIfAvailable();
+            }
+        }
+        return Optional.ofNullable(loader);
+    }
+
+    @Override
+    public void setCacheSpec(final String cacheSpec) {
+        cache = Caffeine.from(cacheSpec).executor(executor).recordStats().build(
+                new CacheLoader<Pair<String, VirAttrCacheKey>, VirAttrCacheValue>() {
+
+            @Override
+            public VirAttrCacheValue load(final Pair<String, VirAttrCacheKey> key) {
+                return RefreshingVirAttrCache.this.read(key.getLeft(), Set.of(key.getRight())).get(key.getRight());
+            }
+
+            @Override
+            public CompletableFuture<? extends VirAttrCacheValue> asyncReload(
+                    final Pair<String, VirAttrCacheKey> key,
+                    final VirAttrCacheValue oldValue,
+                    final Executor reloadExecutor) {
+
+                return refresh(key, oldValue);
+            }
+        });
+    }
+
+    /**
+     * Adds the given key to the refreshes pending for its domain; the first refresh added schedules the bulk read.
+     *
+     * @param key domain and cache key
+     * @param oldValue current value
+     * @return future completed with current values, or with the given old value if these could not be read
+     */
+    protected CompletableFuture<VirAttrCacheValue> refresh(
+            final Pair<String, VirAttrCacheKey> key, final VirAttrCacheValue oldValue) {
+
+        boolean first;
+        Refresh refresh;
+        synchronized (refreshes) {
+            first = !refreshes.containsKey(key.getLeft());
+            refresh = refreshes.computeIfAbsent(key.getLeft(), k -> new HashMap<>()).
+                    computeIfAbsent(key.getRight(), k -> new Refresh(oldValue));
+        }
+
+        if (first) {
+            CompletableFuture.runAsync(
+                    () -> refresh(key.getLeft()),
+                    CompletableFuture.delayedExecutor(REFRESH_BATCH_DELAY, TimeUnit.MILLISECONDS, executor));
+        }
+
+        return refresh.future;
+    }
+
+    /**
+     * Reads, in bulk, the refreshes pending for the given domain.
+     *
+     * @param domain domain
+     */
+    protected void refresh(final String domain) {
+        Map<VirAttrCacheKey, Refresh> pending;
+        synchronized (refreshes) {
+            pending = refreshes.remove(domain);
+        }
+        if (pending == null) {
+            return;
+        }
+
+        bulkRefreshCount.increment();
+        try {
+            Map<VirAttrCacheKey, VirAttrCacheValue> loaded = read(domain, pending.keySet());
+            pending.forEach((key, refresh) -> refresh.future.complete(
+                    Optional.ofNullable(loaded.get(key)).orElse(refresh.oldValue)));
+        } catch (Exception e) {
+            LOG.error("While refreshing {} in domain {}", pending.keySet(), domain, e);
+            pending.values().forEach(refresh -> refresh.future.complete(refresh.oldValue));
+        }
+    }
+
+    /**
+     * Reads current values for the given keys; the original security context is restored afterwards.
+     *
+     * @param domain domain
+     * @param keys cache keys
+     * @return current values, by key; keys for which values could not be read are not reported
+     */
+    protected Map<VirAttrCacheKey, VirAttrCacheValue> read(final String domain, final Set<VirAttrCacheKey> keys) {
+        Optional<VirAttrCacheLoader> virAttrCacheLoader = loader();
+        if (virAttrCacheLoader.isEmpty()) {
+            return Map.of();
+        }
+
+        SecurityContext original = SecurityContextHolder.getContext();
+        SecurityContextHolder.setContext(SecurityContextHolder.createEmptyContext());
+        try {
+            Map<VirAttrCacheKey, VirAttrCacheValue> values = AuthContextUtils.callAsAdmin(
+                    domain, () -> virAttrCacheLoader.get().loadAll(keys));
+            LOG.debug("Reloaded {} in domain {}: {}", keys, domain, values);
+            return values;
+        } finally {
+            SecurityContextHolder.setContext(original);
+        }
+    }
+
+    protected Pair<String, VirAttrCacheKey> key(final VirAttrCacheKey key) {
+        return Pair.of(AuthContextUtils.getDomain(), key);
+    }
+
+    @Override
+    public void expire(final VirAttrCacheKey key) {
+        Pair<String, VirAttrCacheKey> domainKey = key(key);
+        cache.invalidate(domainKey);
+        // prevents any load in progress from caching values read before expiring
+        loading.remove(domainKey);
+
+        if (props.isEnabled()) {
+            expired.computeIfAbsent(domainKey.getLeft(), k -> new ConcurrentLinkedQueue<>()).add(key);
+        }
+    }
+
+    @Override
+    public VirAttrCacheValue get(final VirAttrCacheKey key) {
+        return cache.getIfPresent(key(key));
+    }
+
+    @Override
+    public VirAttrCacheValue put(final VirAttrCacheKey key, final VirAttrCacheValue value) {
+        cache.put(key(key), value);
+        return value;
+    }
+
+    @Override
+    public Map<VirAttrCacheKey, VirAttrCacheValue> getAll(
+            final Collection<VirAttrCacheKey> keys,
+            final Function<Set<VirAttrCacheKey>, Map<VirAttrCacheKey, VirAttrCacheValue>> loader) {
+
+        Map<VirAttrCacheKey, VirAttrCacheValue> result = new HashMap<>();
+        Map<VirAttrCacheKey, CompletableFuture<VirAttrCacheValue>> owned = new HashMap<>();
+        Map<VirAttrCacheKey, CompletableFuture<VirAttrCacheValue>> awaited = new HashMap<>();
+
+        keys.forEach(key -> {
+            Pair<String, VirAttrCacheKey> domainKey = key(key);
+
+            VirAttrCacheValue value = cache.getIfPresent(domainKey);
+            if (value != null) {
+                result.put(key, value);
+                return;
+            }
+
+            CompletableFuture<VirAttrCacheValue> future = new CompletableFuture<>();
+            CompletableFuture<VirAttrCacheValue> inFlight = loading.putIfAbsent(domainKey, future);
+            if (inFlight == null) {
+                owned.put(key, future);
+            } else {
+                coalescedLoadCount.increment();
+                awaited.put(key, inFlight);
+            }
+        });
+
+        if (!owned.isEmpty()) {
+            long start = System.nanoTime();
+            try {
+                Map<VirAttrCacheKey, VirAttrCacheValue> loaded = loader.apply(owned.keySet());
+
+                owned.forEach((key, future) -> {
+                    VirAttrCacheValue value = loaded.get(key);
+                    if (value != null) {
+                        // do not cache if expired meanwhile
+                        if (loading.remove(key(key), future)) {
+                            cache.put(key(key), value);
+                        }
+                        result.put(key, value);
+                    }
+                    future.complete(value);
+                });
+            } catch (RuntimeException e) {
+                bulkLoadFailureCount.increment();
+                owned.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach((key, future) -> loading.remove(key(key), future));
+
+                bulkLoadCount.increment();
+                bulkLoadTime.add(System.nanoTime() - start);
+            }
+        }
+
+        awaited.forEach((key, future) -> {
+            try {
+                Optional.ofNullable(future.join()).ifPresent(value -> result.put(key, value));
+            } catch (CompletionException e) {
+                LOG.debug("Concurrent load failed for {}", key, e);
+            }
+        });
+
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+        loading.clear();
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = cache.stats();
+        long bulkLoads = bulkLoadCount.sum();
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("size", cache.estimatedSize());
+        statistics.put("hitCount", stats.hitCount());
+        statistics.put("missCount", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("evictionCount", stats.evictionCount());
+        statistics.put("refreshCount", stats.loadSuccessCount());
+        statistics.put("refreshFailureCount", stats.loadFailureCount());
+        statistics.put("averageRefreshMillis", TimeUnit.NANOSECONDS.toMillis((long) stats.averageLoadPenalty()));
+        statistics.put("bulkLoadCount", bulkLoads);
+        statistics.put("bulkLoadFailureCount", bulkLoadFailureCount.sum());
+        statistics.put("averageBulkLoadMillis",
+                bulkLoads == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(bulkLoadTime.sum() / bulkLoads));
+        statistics.put("coalescedLoadCount", coalescedLoadCount.sum());
+        statistics.put("bulkRefreshCount", bulkRefreshCount.sum());
+        statistics.put("publishedInvalidationCount", publishedInvalidationCount.sum());
+        statistics.put("receivedInvalidationCount", receivedInvalidationCount.sum());
+        return statistics;
+    }
+
+    @Override
+    public int getOrder() {
+        return 1000;
+    }
+
+    @Override
+    public void load() {
+        if (!props.isEnabled()) {
+            return;
+        }
+
+        poller = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("VirAttrCache-"));
+        long interval = props.getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void load(final String domain, final DataSource datasource) {
+        domains.add(domain);
+    }
+
+    @Override
+    public void unload(final String domain) {
+        domains.remove(domain);
+        if (props.isEnabled()) {
+            try {
+                confParamOps.remove(domain, INVALIDATIONS_PREFIX + node);
+            } catch (Exception e) {
+                LOG.debug("While removing published invalidations from domain {}", domain, e);
+            }
+        }
+    }
+
+    @Override
+    public void unload() {
+        Optional.ofNullable(poller).ifPresent(ScheduledExecutorService::shutdownNow);
+        Set.copyOf(domains).forEach(this::unload);
+    }
+
+    protected void poll() {
+        domains.forEach(domain -> {
+            try {
+                publish(domain);
+            } catch (Exception e) {
+                LOG.error("While publishing virtual attribute cache invalidations on domain {}", domain, e);
+            }
+
+            try {
+                receive(domain);
+            } catch (Exception e) {
+                LOG.error("While reading virtual attribute cache invalidations on domain {}", domain, e);
+            }
+        });
+    }
+
+    /**
+     * Appends invalidations happened since last poll to the ones published by this Core instance.
+     *
+     * @param domain domain
+     */
+    protected void publish(final String domain) {
+        Queue<VirAttrCacheKey> queue = expired.get(domain);
+        if (queue == null || queue.isEmpty()) {
+            return;
+        }
+
+        InvalidationLog log = published.computeIfAbsent(domain, k -> new InvalidationLog());
+        for (VirAttrCacheKey key = queue.poll(); key != null; key = queue.poll()) {
+            log.setSeq(log.getSeq() + 1);
+            log.getKeys().add(new String[] {
+                String.valueOf(log.getSeq()), key.getAnyType(), key.getAny(), key.getSchema() });
+            publishedInvalidationCount.increment();
+        }
+        if (log.getKeys().size() > props.getMaxKeys()) {
+            log.getKeys().subList(0, log.getKeys().size() - props.getMaxKeys()).clear();
+        }
+        log.setUpdated(System.currentTimeMillis());
+
+        confParamOps.set(domain, INVALIDATIONS_PREFIX + node, POJOHelper.serialize(log));
+    }
+
+    /**
+     * Applies invalidations published by other Core instances since last poll; if some were missed, all entries for
+     * the given domain are invalidated.
+     *
+     * @param domain domain
+     */
+    protected void receive(final String domain) {
+        // invalidations published before this instance started reading cannot affect its entries
+        boolean first = receiving.add(domain);
+
+        confParamOps.list(domain).forEach((param, value) -> {
+            if (!param.startsWith(INVALIDATIONS_PREFIX) || param.equals(INVALIDATIONS_PREFIX + node)) {
+                return;
+            }
+
+            InvalidationLog log = Optional.ofNullable(value).
+                    map(v -> POJOHelper.deserialize(
+                    v instanceof String ? (String) v : POJOHelper.serialize(v), InvalidationLog.class)).
+                    orElse(null);
+            if (log == null) {
+                return;
+            }
+
+            if (System.currentTimeMillis() - log.getUpdated() > props.getRetention().toMillis()) {
+                LOG.debug("Removing {} from domain {}, not updated since {}", param, domain, log.getUpdated());
+                confParamOps.remove(domain, param);
+                received.remove(Pair.of(domain, param));
+                return;
+            }
+
+            Long last = received.put(Pair.of(domain, param), log.getSeq());
+            long from = last == null ? (first ? log.getSeq() : 0) : last;
+            if (log.getSeq() <= from) {
+                return;
+            }
+
+            if (log.getKeys().isEmpty() || Long.parseLong(log.getKeys().get(0)[0]) > from + 1) {
+                LOG.debug("Missed invalidations from {} on domain {}, clearing", param, domain);
+                cache.asMap().keySet().removeIf(key -> domain.equals(key.getLeft()));
+                loading.keySet().removeIf(key -> domain.equals(key.getLeft()));
+            } else {
+                log.getKeys().stream().filter(entry -> Long.parseLong(entry[0]) > from).forEach(entry -> {
+                    Pair<String, VirAttrCacheKey> key =
+                            Pair.of(domain, new VirAttrCacheKey(entry[1], entry[2], entry[3]));
+                    cache.invalidate(key);
+                    loading.remove(key);
+                    receivedInvalidationCount.increment();
+                });
+            }
+        });
+    }
+}
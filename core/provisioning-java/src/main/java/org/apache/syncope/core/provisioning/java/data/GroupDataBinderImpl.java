@@ -312,7 +312,6 @@ public class GroupDataBinderImpl extends AbstractAnyDataBinder implements GroupD
             if (group.getUDynMembership() != null) {
                 group.getUDynMembership().setGroup(null);
                 group.setUDynMembership(null);
-                groupDAO.clearUDynMembers(group);
             }
         } else {
             setDynMembership(group, anyTypeDAO.findUser(), groupUR.getUDynMembershipCond());
@@ -322,7 +321,6 @@ public class GroupDataBinderImpl extends AbstractAnyDataBinder implements GroupD
             memb.setGroup(null);
             itor.remove();
         }
-        groupDAO.clearADynMembers(group);
         for (Map.Entry<String, String> entry : groupUR.getADynMembershipConds().entrySet()) {
             AnyType anyType = anyTypeDAO.find(entry.getKey());
             if (anyType == null) {
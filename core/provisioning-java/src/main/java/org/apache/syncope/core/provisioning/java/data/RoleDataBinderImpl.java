@@ -126,7 +126,6 @@ public class RoleDataBinderImpl implements RoleDataBinder {
         role = roleDAO.save(role);
 
         // dynamic membership
-        roleDAO.clearDynMembers(role);
         if (role.getKey() == null && roleTO.getDynMembershipCond() != null) {
             setDynMembership(role, roleTO.getDynMembershipCond());
         } else if (role.getDynMembership() != null && roleTO.getDynMembershipCond() == null) {
@@ -227,6 +227,7 @@ public class TaskDataBinderImpl extends AbstractExecutableDatabinder implements
         provisioningTask.setPerformUpdate(provisioningTaskTO.isPerformUpdate());
         provisioningTask.setPerformDelete(provisioningTaskTO.isPerformDelete());
         provisioningTask.setSyncStatus(provisioningTaskTO.isSyncStatus());
+        provisioningTask.setConcurrency(provisioningTaskTO.getConcurrency());
 
         provisioningTaskTO.getActions().forEach(action -> {
             Implementation implementation = implementationDAO.find(action);
@@ -360,6 +361,7 @@ public class TaskDataBinderImpl extends AbstractExecutableDatabinder implements
             provisioningTaskTO.setPerformUpdate(provisioningTask.isPerformUpdate());
             provisioningTaskTO.setPerformDelete(provisioningTask.isPerformDelete());
             provisioningTaskTO.setSyncStatus(provisioningTask.isSyncStatus());
+            provisioningTaskTO.setConcurrency(provisioningTask.getConcurrency());
         }
     }
 
@@ -38,6 +38,7 @@ import org.apache.syncope.common.lib.request.PasswordPatch;
 import org.apache.syncope.common.lib.request.StringPatchItem;
 import org.apache.syncope.common.lib.request.UserCR;
 import org.apache.syncope.common.lib.request.UserUR;
+import org.apache.syncope.common.lib.search.SpecialAttr;
 import org.apache.syncope.common.lib.to.ConnObject;
 import org.apache.syncope.common.lib.to.Item;
 import org.apache.syncope.common.lib.to.LinkedAccountTO;
@@ -99,6 +100,12 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(rollbackFor = { Throwable.class })
 public class UserDataBinderImpl extends AbstractAnyDataBinder implements UserDataBinder {
 
+    /**
+     * Fields which might be changed along with any update, regardless of its content.
+     */
+    protected static final Set<String> UPDATE_FIELDS = Set.of(
+            "status", "suspended", "lastModifier", "lastChangeDate", "lastChangeContext");
+
     protected final RoleDAO roleDAO;
 
     protected final SecurityQuestionDAO securityQuestionDAO;
@@ -449,11 +456,65 @@ public class UserDataBinderImpl extends AbstractAnyDataBinder implements UserDat
                 orElse(false);
     }
 
+    /**
+     * Returns the fields, plain schemas and special attributes which might be changed by the given update request,
+     * so that dynamic membership conditions not referencing any of them can be skipped.
+     *
+     * @param userUR update request
+     * @return fields, plain schemas and special attributes which might be changed
+     */
+    protected Set<String> changes(final UserUR userUR) {
+        Set<String> changed = new HashSet<>(UPDATE_FIELDS);
+
+        if (userUR.getUsername() != null) {
+            changed.add("username");
+        }
+        if (userUR.getRealm() != null) {
+            changed.add("realm");
+        }
+        if (userUR.getPassword() != null) {
+            changed.addAll(Set.of("password", "cipherAlgorithm", "changePwdDate"));
+        }
+        if (userUR.getSecurityQuestion() != null) {
+            changed.add("securityQuestion");
+        }
+        if (userUR.getSecurityAnswer() != null) {
+            changed.add("securityAnswer");
+        }
+        if (userUR.getMustChangePassword() != null) {
+            changed.add("mustChangePassword");
+        }
+        userUR.getPlainAttrs().forEach(patch -> changed.add(patch.getAttr().getSchema()));
+        if (!userUR.getAuxClasses().isEmpty()) {
+            changed.add(SpecialAttr.AUX_CLASSES.toString());
+        }
+        if (!userUR.getResources().isEmpty()) {
+            changed.add(SpecialAttr.RESOURCES.toString());
+        }
+        if (!userUR.getMemberships().isEmpty()) {
+            // resources can also be assigned via group membership
+            changed.add(SpecialAttr.GROUPS.toString());
+            changed.add(SpecialAttr.RESOURCES.toString());
+        }
+        if (!userUR.getRelationships().isEmpty()) {
+            changed.add(SpecialAttr.RELATIONSHIPS.toString());
+            changed.add(SpecialAttr.RELATIONSHIP_TYPES.toString());
+        }
+        if (!userUR.getRoles().isEmpty()) {
+            changed.add(SpecialAttr.ROLES.toString());
+            changed.add(SpecialAttr.PRIVILEGES.toString());
+        }
+
+        return changed;
+    }
+
     @Override
     public Pair<PropagationByResource<String>, PropagationByResource<Pair<String, String>>> update(
             final User toBeUpdated, final UserUR userUR) {
 
-        // Re-merge any pending change from workflow tasks
+        // Re-merge any pending change from workflow tasks: dynamic memberships are not worth evaluating here, as the
+        // save below, and the one by workflow right after, will do
+        userDAO.declareChanges(toBeUpdated.getKey(), Set.of());
         User user = userDAO.save(toBeUpdated);
 
         PropagationByResource<String> propByRes = new PropagationByResource<>();
@@ -733,6 +794,9 @@ public class UserDataBinderImpl extends AbstractAnyDataBinder implements UserDat
             throw scce;
         }
 
+        // Restrict the dynamic membership conditions to be evaluated when saving the changes from above
+        userDAO.declareChanges(user.getKey(), changes(userUR));
+
         // Re-merge any pending change from above
         User saved = userDAO.save(user);
 
@@ -84,9 +84,9 @@ public abstract class AbstractSchedTaskJobDelegate<T extends SchedTask> implemen
 
     protected final AtomicReference<String> status = new AtomicReference<>();
 
-    protected boolean interrupt;
+    protected volatile boolean interrupt;
 
-    protected boolean interrupted;
+    protected volatile boolean interrupted;
 
     @Override
     public String currentStatus() {
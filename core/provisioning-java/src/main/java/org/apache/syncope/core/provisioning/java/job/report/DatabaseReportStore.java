@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.job.report;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.syncope.core.persistence.api.dao.ReportExecDAO;
+import org.apache.syncope.core.persistence.api.entity.ReportExec;
+import org.apache.syncope.core.provisioning.api.job.report.ReportStore;
+
+/**
+ * Stores report execution results in the database, along with their execution, as done before report stores were
+ * introduced; results are buffered in memory while being written.
+ */
+public class DatabaseReportStore implements ReportStore {
+
+    protected final ReportExecDAO reportExecDAO;
+
+    public DatabaseReportStore(final ReportExecDAO reportExecDAO) {
+        this.reportExecDAO = reportExecDAO;
+    }
+
+    protected ReportExec find(final String reference) throws IOException {
+        ReportExec reportExec = reportExecDAO.find(reference);
+        if (reportExec == null) {
+            throw new IOException("Report execution " + reference + " not found");
+        }
+        return reportExec;
+    }
+
+    @Override
+    public String reference(final String domain, final String executionKey) {
+        return executionKey;
+    }
+
+    @Override
+    public OutputStream write(final String reference) throws IOException {
+        ReportExec reportExec = find(reference);
+        return new ByteArrayOutputStream() {
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+
+                reportExec.setExecResult(toByteArray());
+                reportExecDAO.save(reportExec);
+            }
+        };
+    }
+
+    @Override
+    public InputStream read(final String reference) throws IOException {
+        ReportExec reportExec = find(reference);
+        if (reportExec.getExecResult() == null) {
+            throw new IOException("No result stored for report execution " + reference);
+        }
+        return new ByteArrayInputStream(reportExec.getExecResult());
+    }
+
+    @Override
+    public void delete(final String reference) throws IOException {
+        ReportExec reportExec = reportExecDAO.find(reference);
+        if (reportExec != null) {
+            reportExec.setExecResult(null);
+            reportExecDAO.save(reportExec);
+        }
+    }
+}
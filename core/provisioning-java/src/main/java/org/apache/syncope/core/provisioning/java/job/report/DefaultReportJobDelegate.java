@@ -18,13 +18,12 @@
  */
 package org.apache.syncope.core.provisioning.java.job.report;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import javax.xml.XMLConstants;
@@ -43,8 +42,10 @@ import org.apache.syncope.core.persistence.api.entity.EntityFactory;
 import org.apache.syncope.core.persistence.api.entity.Report;
 import org.apache.syncope.core.persistence.api.entity.ReportExec;
 import org.apache.syncope.core.provisioning.api.job.report.ReportJobDelegate;
+import org.apache.syncope.core.provisioning.api.job.report.ReportStore;
 import org.apache.syncope.core.provisioning.api.utils.ExceptionUtils2;
 import org.apache.syncope.core.spring.implementation.ImplementationManager;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
 import org.quartz.JobExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,6 +74,10 @@ public class DefaultReportJobDelegate implements ReportJobDelegate {
 
     protected final EntityFactory entityFactory;
 
+    protected final ReportStore reportStore;
+
+    protected final int compressionLevel;
+
     protected final AtomicReference<String> status = new AtomicReference<>();
 
     protected boolean interrupt;
@@ -82,11 +87,15 @@ public class DefaultReportJobDelegate implements ReportJobDelegate {
     public DefaultReportJobDelegate(
             final ReportDAO reportDAO,
             final ReportExecDAO reportExecDAO,
-            final EntityFactory entityFactory) {
+            final EntityFactory entityFactory,
+            final ReportStore reportStore,
+            final int compressionLevel) {
 
         this.reportDAO = reportDAO;
         this.reportExecDAO = reportExecDAO;
         this.entityFactory = entityFactory;
+        this.reportStore = reportStore;
+        this.compressionLevel = compressionLevel;
     }
 
     @Override
@@ -129,12 +138,17 @@ public class DefaultReportJobDelegate implements ReportJobDelegate {
         report.add(execution);
         report = reportDAO.save(report);
 
-        // 2. define a SAX handler for generating result as XML
+        // 2. define a SAX handler for generating result as XML, streamed to the report store
         TransformerHandler handler;
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ZipOutputStream zos = new ZipOutputStream(baos);
-        zos.setLevel(Deflater.BEST_COMPRESSION);
+        String execResultRef = reportStore.reference(AuthContextUtils.getDomain(), execution.getKey());
+        ZipOutputStream zos;
+        try {
+            zos = new ZipOutputStream(new BufferedOutputStream(reportStore.write(execResultRef)));
+        } catch (IOException e) {
+            throw new JobExecutionException("While opening " + execResultRef + " for writing", e, true);
+        }
+        zos.setLevel(compressionLevel);
         try {
             handler = TRANSFORMER_FACTORY.newTransformerHandler();
             Transformer serializer = handler.getTransformer();
@@ -144,9 +158,15 @@ public class DefaultReportJobDelegate implements ReportJobDelegate {
             // a single ZipEntry in the ZipOutputStream
             zos.putNextEntry(new ZipEntry(report.getName()));
 
-            // streaming SAX handler in a compressed byte array stream
+            // streaming SAX handler in a compressed stream
             handler.setResult(new StreamResult(zos));
         } catch (Exception e) {
+            try {
+                zos.close();
+                reportStore.delete(execResultRef);
+            } catch (IOException ioe) {
+                LOG.error("While removing {}", execResultRef, ioe);
+            }
             throw new JobExecutionException("While configuring for SAX generation", e, true);
         }
 
@@ -213,12 +233,21 @@ public class DefaultReportJobDelegate implements ReportJobDelegate {
             try {
                 zos.closeEntry();
                 zos.close();
-                baos.close();
+
+                execution.setExecResultRef(execResultRef);
             } catch (IOException e) {
                 LOG.error("While closing StreamResult's backend", e);
+
+                execution.setStatus(ReportExecStatus.FAILURE);
+                reportExecutionMessage.append(ExceptionUtils2.getFullStackTrace(e));
+
+                try {
+                    reportStore.delete(execResultRef);
+                } catch (IOException ioe) {
+                    LOG.error("While removing {}", execResultRef, ioe);
+                }
             }
 
-            execution.setExecResult(baos.toByteArray());
             execution.setMessage(reportExecutionMessage.toString());
             execution.setEnd(OffsetDateTime.now());
             reportExecDAO.save(execution);
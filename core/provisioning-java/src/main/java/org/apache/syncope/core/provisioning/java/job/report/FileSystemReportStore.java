@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.job.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.apache.syncope.core.provisioning.api.job.report.ReportStore;
+
+/**
+ * Stores report execution results as files under a given directory, one sub-directory per domain.
+ * When running more than one Core instance, such directory must be shared among all of them.
+ */
+public class FileSystemReportStore implements ReportStore {
+
+    protected final Path directory;
+
+    public FileSystemReportStore(final Path directory) {
+        this.directory = directory.toAbsolutePath().normalize();
+    }
+
+    protected Path resolve(final String reference) throws IOException {
+        Path path = directory.resolve(reference).normalize();
+        if (!path.startsWith(directory)) {
+            throw new IOException("Invalid reference: " + reference);
+        }
+        return path;
+    }
+
+    @Override
+    public String reference(final String domain, final String executionKey) {
+        return domain + '/' + executionKey + ".zip";
+    }
+
+    @Override
+    public OutputStream write(final String reference) throws IOException {
+        Path path = resolve(reference);
+        Files.createDirectories(path.getParent());
+        return Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public InputStream read(final String reference) throws IOException {
+        return Files.newInputStream(resolve(reference));
+    }
+
+    @Override
+    public void delete(final String reference) throws IOException {
+        Files.deleteIfExists(resolve(reference));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.job.report;
+
+import java.io.IOException;
+import org.apache.syncope.core.persistence.api.entity.ReportExec;
+import org.apache.syncope.core.provisioning.api.event.EntityLifecycleEvent;
+import org.apache.syncope.core.provisioning.api.job.report.ReportStore;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Removes report execution results from the {@link ReportStore} once the removal of their execution is committed.
+ */
+public class ReportStoreCleanup {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(ReportStoreCleanup.class);
+
+    protected final ReportStore reportStore;
+
+    public ReportStoreCleanup(final ReportStore reportStore) {
+        this.reportStore = reportStore;
+    }
+
+    @TransactionalEventListener
+    public void afterDelete(final EntityLifecycleEvent<?> event) {
+        if (event.getType() != SyncDeltaType.DELETE || !(event.getEntity() instanceof ReportExec)) {
+            return;
+        }
+
+        ReportExec reportExec = (ReportExec) event.getEntity();
+        if (reportExec.getExecResultRef() != null) {
+            try {
+                reportStore.delete(reportExec.getExecResultRef());
+            } catch (IOException e) {
+                LOG.error("While removing result of {}", reportExec.getKey(), e);
+            }
+        }
+    }
+}
@@ -18,16 +18,19 @@
  */
 package org.apache.syncope.core.provisioning.java.propagation;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -86,12 +89,16 @@ import org.identityconnectors.framework.common.objects.Uid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.retry.RetryException;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
 import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
 import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
 import org.springframework.retry.policy.SimpleRetryPolicy;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
 
 @Transactional(rollbackFor = { Throwable.class })
 public abstract class AbstractPropagationTaskExecutor implements PropagationTaskExecutor {
@@ -132,6 +139,8 @@ public abstract class AbstractPropagationTaskExecutor implements PropagationTask
 
     protected final PlainAttrValidationManager validator;
 
+    protected final ResourceBulkheads bulkheads;
+
     protected final Map<String, PropagationActions> perContextActions = new ConcurrentHashMap<>();
 
     public AbstractPropagationTaskExecutor(
@@ -150,7 +159,8 @@ public abstract class AbstractPropagationTaskExecutor implements PropagationTask
             final TaskUtilsFactory taskUtilsFactory,
             final EntityFactory entityFactory,
             final OutboundMatcher outboundMatcher,
-            final PlainAttrValidationManager validator) {
+            final PlainAttrValidationManager validator,
+            final ResourceBulkheads bulkheads) {
 
         this.connectorManager = connectorManager;
         this.connObjectUtils = connObjectUtils;
@@ -168,11 +178,13 @@ public abstract class AbstractPropagationTaskExecutor implements PropagationTask
         this.entityFactory = entityFactory;
         this.outboundMatcher = outboundMatcher;
         this.validator = validator;
+        this.bulkheads = bulkheads;
     }
 
     @Override
     public void expireRetryTemplate(final String resource) {
         retryTemplates.remove(resource);
+        bulkheads.reset(resource);
     }
 
     protected List<PropagationActions> getPropagationActions(final ExternalResource resource) {
@@ -370,6 +382,172 @@ public abstract class AbstractPropagationTaskExecutor implements PropagationTask
         return result;
     }
 
+    /**
+     * Determines the effective operation of a queued task followed by another task for the same remote object.
+     *
+     * @param pending operation of the queued task
+     * @param incoming operation of the following task
+     * @return effective operation, or empty if the two tasks cannot be merged
+     */
+    protected Optional<ResourceOperation> coalesce(final ResourceOperation pending, final ResourceOperation incoming) {
+        if (pending == ResourceOperation.NONE || incoming == ResourceOperation.NONE) {
+            return Optional.empty();
+        }
+        if (incoming == ResourceOperation.DELETE) {
+            return Optional.of(ResourceOperation.DELETE);
+        }
+        // a delete followed by a (re-)create must reach the resource as such
+        if (pending == ResourceOperation.DELETE) {
+            return Optional.empty();
+        }
+        return Optional.of(pending == ResourceOperation.CREATE || incoming == ResourceOperation.CREATE
+                ? ResourceOperation.CREATE
+                : ResourceOperation.UPDATE);
+    }
+
+    /**
+     * Merges the given task into the given queued task, not yet attempted, for the same remote object: attributes
+     * from the given task take precedence over the ones with same name from the queued task.
+     * Only tasks stored via {@link #enqueue(PropagationTaskInfo, String)} are coalesced, hence this requires the
+     * propagation outbox to be enabled.
+     *
+     * @param pending queued task
+     * @param taskInfo task to be merged
+     * @return the queued task, after merge, or empty if the two tasks cannot be merged
+     */
+    protected Optional<PropagationTask> coalesce(final PropagationTask pending, final PropagationTaskInfo taskInfo) {
+        Optional<ResourceOperation> operation = coalesce(pending.getOperation(), taskInfo.getOperation());
+        if (operation.isEmpty()) {
+            return Optional.empty();
+        }
+
+        PropagationData propagationData;
+        if (operation.get() == ResourceOperation.DELETE) {
+            propagationData = taskInfo.getPropagationData();
+        } else {
+            if (!CollectionUtils.isEmpty(pending.getPropagationData().getAttributeDeltas())
+                    || !CollectionUtils.isEmpty(taskInfo.getPropagationData().getAttributeDeltas())) {
+
+                return Optional.empty();
+            }
+
+            Map<String, Attribute> attrs = new LinkedHashMap<>();
+            pending.getPropagationData().getAttributes().forEach(attr -> attrs.put(attr.getName(), attr));
+            taskInfo.getPropagationData().getAttributes().forEach(attr -> attrs.put(attr.getName(), attr));
+            propagationData = new PropagationData(new HashSet<>(attrs.values()));
+        }
+
+        OffsetDateTime dueDate = pending.getDueDate();
+        ResourceOperation pendingOperation = pending.getOperation();
+        return taskDAO.holdPropagation(pending.getKey()).map(held -> {
+            LOG.debug("Coalescing {} into queued task {}", taskInfo, held.getKey());
+
+            if (held.getOldConnObjectKey() == null) {
+                held.setOldConnObjectKey(taskInfo.getOldConnObjectKey());
+            }
+            if (taskInfo.getConnObjectKey() != null) {
+                held.setConnObjectKey(taskInfo.getConnObjectKey());
+            }
+            held.setOperation(operation.get());
+            held.setPropagationData(propagationData);
+            // keeps its place in the queue
+            held.setDueDate(dueDate);
+            PropagationTask merged = taskDAO.save(held);
+
+            String anyTypeKind = Optional.ofNullable(taskInfo.getAnyTypeKind()).
+                    map(kind -> kind.name().toLowerCase()).orElse("realm");
+            if (auditManager.auditRequested(
+                    AuthContextUtils.getUsername(),
+                    AuditElements.EventCategoryType.PROPAGATION,
+                    anyTypeKind,
+                    taskInfo.getResource().getKey(),
+                    AuditElements.COALESCE_EVENT)) {
+
+                auditManager.audit(
+                        AuthContextUtils.getWho(),
+                        AuditElements.EventCategoryType.PROPAGATION,
+                        anyTypeKind,
+                        taskInfo.getResource().getKey(),
+                        AuditElements.COALESCE_EVENT,
+                        Result.SUCCESS,
+                        pendingOperation,
+                        taskDataBinder.getTaskTO(merged, taskUtilsFactory.getInstance(TaskType.PROPAGATION), false),
+                        taskInfo);
+            }
+
+            return merged;
+        });
+    }
+
+    protected SleepingBackOffPolicy<?> backOffPolicy(final PropagationPolicy policy) {
+        String[] params = policy.getBackOffParams().split(";");
+
+        switch (policy.getBackOffStrategy()) {
+            case EXPONENTIAL:
+                ExponentialBackOffPolicy eBackOffPolicy = new ExponentialBackOffPolicy();
+                if (params.length > 0) {
+                    try {
+                        eBackOffPolicy.setInitialInterval(Long.valueOf(params[0]));
+                    } catch (NumberFormatException e) {
+                        LOG.error("Could not convert to long: {}", params[0], e);
+                    }
+                }
+                if (params.length > 1) {
+                    try {
+                        eBackOffPolicy.setMaxInterval(Long.valueOf(params[1]));
+                    } catch (NumberFormatException e) {
+                        LOG.error("Could not convert to long: {}", params[1], e);
+                    }
+                }
+                if (params.length > 2) {
+                    try {
+                        eBackOffPolicy.setMultiplier(Double.valueOf(params[2]));
+                    } catch (NumberFormatException e) {
+                        LOG.error("Could not convert to double: {}", params[2], e);
+                    }
+                }
+                return eBackOffPolicy;
+
+            case RANDOM:
+                ExponentialRandomBackOffPolicy erBackOffPolicy = new ExponentialRandomBackOffPolicy();
+                if (params.length > 0) {
+                    try {
+                        erBackOffPolicy.setInitialInterval(Long.valueOf(params[0]));
+                    } catch (NumberFormatException e) {
+                        LOG.error("Could not convert to long: {}", params[0], e);
+                    }
+                }
+                if (params.length > 1) {
+                    try {
+                        erBackOffPolicy.setMaxInterval(Long.valueOf(params[1]));
+                    } catch (NumberFormatException e) {
+                        LOG.error("Could not convert to long: {}", params[1], e);
+                    }
+                }
+                if (params.length > 2) {
+                    try {
+                        erBackOffPolicy.setMultiplier(Double.valueOf(params[2]));
+                    } catch (NumberFormatException e) {
+                        LOG.error("Could not convert to double: {}", params[2], e);
+                    }
+                }
+                return erBackOffPolicy;
+
+            case FIXED:
+            default:
+                FixedBackOffPolicy fBackOffPolicy = new FixedBackOffPolicy();
+                if (params.length > 0) {
+                    try {
+                        fBackOffPolicy.setBackOffPeriod(Long.valueOf(params[0]));
+                    } catch (NumberFormatException e) {
+                        LOG.error("Could not convert to long: {}", params[0], e);
+                    }
+
+                }
+                return fBackOffPolicy;
+        }
+    }
+
     protected Optional<RetryTemplate> retryTemplate(final ExternalResource resource) {
         RetryTemplate retryTemplate = null;
 
@@ -382,74 +560,7 @@ public abstract class AbstractPropagationTaskExecutor implements PropagationTask
                 retryPolicy.setMaxAttempts(resource.getPropagationPolicy().getMaxAttempts());
                 retryTemplate.setRetryPolicy(retryPolicy);
 
-                String[] params = resource.getPropagationPolicy().getBackOffParams().split(";");
-
-                switch (resource.getPropagationPolicy().getBackOffStrategy()) {
-                    case EXPONENTIAL:
-                        ExponentialBackOffPolicy eBackOffPolicy = new ExponentialBackOffPolicy();
-                        if (params.length > 0) {
-                            try {
-                                eBackOffPolicy.setInitialInterval(Long.valueOf(params[0]));
-                            } catch (NumberFormatException e) {
-                                LOG.error("Could not convert to long: {}", params[0], e);
-                            }
-                        }
-                        if (params.length > 1) {
-                            try {
-                                eBackOffPolicy.setMaxInterval(Long.valueOf(params[1]));
-                            } catch (NumberFormatException e) {
-                                LOG.error("Could not convert to long: {}", params[1], e);
-                            }
-                        }
-                        if (params.length > 2) {
-                            try {
-                                eBackOffPolicy.setMultiplier(Double.valueOf(params[2]));
-                            } catch (NumberFormatException e) {
-                                LOG.error("Could not convert to double: {}", params[2], e);
-                            }
-                        }
-                        retryTemplate.setBackOffPolicy(eBackOffPolicy);
-                        break;
-
-                    case RANDOM:
-                        ExponentialRandomBackOffPolicy erBackOffPolicy = new ExponentialRandomBackOffPolicy();
-                        if (params.length > 0) {
-                            try {
-                                erBackOffPolicy.setInitialInterval(Long.valueOf(params[0]));
-                            } catch (NumberFormatException e) {
-                                LOG.error("Could not convert to long: {}", params[0], e);
-                            }
-                        }
-                        if (params.length > 1) {
-                            try {
-                                erBackOffPolicy.setMaxInterval(Long.valueOf(params[1]));
-                            } catch (NumberFormatException e) {
-                                LOG.error("Could not convert to long: {}", params[1], e);
-                            }
-                        }
-                        if (params.length > 2) {
-                            try {
-                                erBackOffPolicy.setMultiplier(Double.valueOf(params[2]));
-                            } catch (NumberFormatException e) {
-                                LOG.error("Could not convert to double: {}", params[2], e);
-                            }
-                        }
-                        retryTemplate.setBackOffPolicy(erBackOffPolicy);
-                        break;
-
-                    case FIXED:
-                    default:
-                        FixedBackOffPolicy fBackOffPolicy = new FixedBackOffPolicy();
-                        if (params.length > 0) {
-                            try {
-                                fBackOffPolicy.setBackOffPeriod(Long.valueOf(params[0]));
-                            } catch (NumberFormatException e) {
-                                LOG.error("Could not convert to long: {}", params[0], e);
-                            }
-
-                        }
-                        retryTemplate.setBackOffPolicy(fBackOffPolicy);
-                }
+                retryTemplate.setBackOffPolicy(backOffPolicy(resource.getPropagationPolicy()));
 
                 retryTemplates.put(resource.getKey(), retryTemplate);
             }
@@ -458,6 +569,29 @@ public abstract class AbstractPropagationTaskExecutor implements PropagationTask
         return Optional.ofNullable(retryTemplate);
     }
 
+    /**
+     * Computes, without sleeping, the back off period that the propagation policy of the given External Resource
+     * requires after the given number of failed attempts.
+     *
+     * @param resource External Resource
+     * @param attempts number of attempts made so far
+     * @return delay before next attempt, or empty if no more attempts are allowed
+     */
+    protected Optional<Duration> nextAttemptDelay(final ExternalResource resource, final int attempts) {
+        PropagationPolicy policy = resource.getPropagationPolicy();
+        if (policy == null || attempts >= policy.getMaxAttempts()) {
+            return Optional.empty();
+        }
+
+        AtomicLong backOffPeriod = new AtomicLong();
+        BackOffPolicy backOffPolicy = backOffPolicy(policy).withSleeper(backOffPeriod::set);
+        BackOffContext context = backOffPolicy.start(null);
+        for (int i = 0; i < attempts; i++) {
+            backOffPolicy.backOff(context);
+        }
+        return Optional.of(Duration.ofMillis(backOffPeriod.get()));
+    }
+
     @Override
     public TaskExec<PropagationTask> execute(
             final PropagationTaskInfo taskInfo,
@@ -467,14 +601,96 @@ public abstract class AbstractPropagationTaskExecutor implements PropagationTask
         return retryTemplate(taskInfo.getResource()).map(rt -> rt.execute(context -> {
             LOG.debug("#{} Propagation attempt", context.getRetryCount());
 
-            TaskExec<PropagationTask> exec = doExecute(taskInfo, reporter, executor);
+            TaskExec<PropagationTask> exec = doExecuteGuarded(taskInfo, reporter, executor);
             if (context.getRetryCount() < taskInfo.getResource().getPropagationPolicy().getMaxAttempts() - 1
                     && !ExecStatus.SUCCESS.name().equals(exec.getStatus())) {
 
                 throw new RetryException("Attempt #" + context.getRetryCount() + " failed");
             }
             return exec;
-        })).orElseGet(() -> doExecute(taskInfo, reporter, executor));
+        })).orElseGet(() -> doExecuteGuarded(taskInfo, reporter, executor));
+    }
+
+    @Override
+    public TaskExec<PropagationTask> executeQueued(final PropagationTask task) {
+        PropagationTaskInfo taskInfo = new PropagationTaskInfo(
+                task.getResource(),
+                task.getOperation(),
+                new ObjectClass(task.getObjectClassName()),
+                task.getAnyTypeKind(),
+                task.getAnyType(),
+                task.getEntityKey(),
+                task.getConnObjectKey(),
+                task.getPropagationData());
+        taskInfo.setKey(task.getKey());
+        taskInfo.setOldConnObjectKey(task.getOldConnObjectKey());
+
+        PropagationTask queued;
+
+        ResourceBulkheads.Permit permit = bulkheads.acquire(task.getResource().getKey());
+        if (!permit.isGranted()) {
+            LOG.debug("Deferring queued task {}: {}", task.getKey(), permit.getReason());
+
+            // does not count as an attempt
+            queued = taskDAO.find(TaskType.PROPAGATION, task.getKey());
+            if (queued != null) {
+                queued.setAttempts(queued.getAttempts() - 1);
+                queued.setDueDate(OffsetDateTime.now().plus(permit.getRetryAfter()));
+                taskDAO.save(queued);
+            }
+            return null;
+        }
+
+        LOG.debug("#{} Propagation attempt for queued task {}", task.getAttempts(), task.getKey());
+
+        TaskExec<PropagationTask> exec = doExecute(
+                taskInfo, new DefaultPropagationReporter(), task.getExecutor(), permit);
+
+        queued = taskDAO.find(TaskType.PROPAGATION, task.getKey());
+        if (queued != null) {
+            Optional<Duration> delay = ExecStatus.SUCCESS.name().equals(exec.getStatus())
+                    ? Optional.empty()
+                    : nextAttemptDelay(queued.getResource(), queued.getAttempts());
+            if (delay.isPresent()) {
+                LOG.debug("Queued task {} will be attempted again in {}", queued.getKey(), delay.get());
+
+                queued.setDueDate(OffsetDateTime.now().plus(delay.get()));
+                taskDAO.save(queued);
+            } else if (queued.getExecs().isEmpty()) {
+                taskDAO.delete(queued);
+            } else {
+                queued.setDueDate(null);
+                taskDAO.save(queued);
+            }
+        }
+
+        return exec;
+    }
+
+    /**
+     * Stores the given task as due immediately, for asynchronous execution.
+     *
+     * @param taskInfo task to be queued
+     * @param executor the executor of this task
+     * @return the stored task
+     */
+    protected PropagationTask enqueue(final PropagationTaskInfo taskInfo, final String executor) {
+        Optional<PropagationTask> coalesced = taskDAO.findLastQueuedPropagation(
+                resourceDAO.find(taskInfo.getResource().getKey()),
+                taskInfo.getObjectClass().getObjectClassValue(),
+                taskInfo.getEntityKey()).
+                flatMap(pending -> coalesce(pending, taskInfo));
+        if (coalesced.isPresent()) {
+            return coalesced.get();
+        }
+
+        PropagationTask task = newPropagationTask(taskInfo);
+        OffsetDateTime now = OffsetDateTime.now();
+        task.setQueuedDate(now);
+        task.setDueDate(now);
+        task.setAttempts(0);
+        task.setExecutor(executor);
+        return taskDAO.save(task);
     }
 
     protected boolean isFetchRemoteObj(final PropagationTaskInfo taskInfo) {
@@ -483,6 +699,55 @@ public abstract class AbstractPropagationTaskExecutor implements PropagationTask
                 orElse(true);
     }
 
+    /**
+     * Tells whether the current thread belongs to the pool shared by asynchronous propagations.
+     *
+     * @return whether the current thread belongs to the pool shared by asynchronous propagations
+     */
+    protected boolean isPooled() {
+        return false;
+    }
+
+    /**
+     * Executes the given task within the bulkhead of the related External Resource, waiting up to the configured
+     * timeout to enter it - or for the much shorter pool timeout, when running on the shared propagation pool - or
+     * rejects it if the bulkhead cannot be entered.
+     *
+     * @param taskInfo to be executed
+     * @param reporter to report propagation execution status
+     * @param executor the executor of this task
+     * @return the generated TaskExec
+     */
+    protected TaskExec<PropagationTask> doExecuteGuarded(
+            final PropagationTaskInfo taskInfo,
+            final PropagationReporter reporter,
+            final String executor) {
+
+        ResourceBulkheads.Permit permit = isPooled()
+                ? bulkheads.acquirePooled(taskInfo.getResource().getKey())
+                : bulkheads.acquireWaiting(taskInfo.getResource().getKey());
+        return permit.isGranted()
+                ? doExecute(taskInfo, reporter, executor, permit)
+                : rejected(taskInfo, permit.getReason(), reporter, executor);
+    }
+
+    protected TaskExec<PropagationTask> doExecute(
+            final PropagationTaskInfo taskInfo,
+            final PropagationReporter reporter,
+            final String executor,
+            final ResourceBulkheads.Permit permit) {
+
+        long start = System.nanoTime();
+        boolean failure = true;
+        try {
+            TaskExec<PropagationTask> exec = doExecute(taskInfo, reporter, executor);
+            failure = ExecStatus.FAILURE.name().equals(exec.getStatus());
+            return exec;
+        } finally {
+            permit.release(failure, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
     protected TaskExec<PropagationTask> doExecute(
             final PropagationTaskInfo taskInfo,
             final PropagationReporter reporter,
@@ -764,8 +1029,16 @@ public abstract class AbstractPropagationTaskExecutor implements PropagationTask
             return Optional.empty();
         }
 
+        if (taskInfo.getKey() != null) {
+            return Optional.ofNullable(taskDAO.find(TaskType.PROPAGATION, taskInfo.getKey()));
+        }
+
+        return Optional.of(newPropagationTask(taskInfo));
+    }
+
+    protected PropagationTask newPropagationTask(final PropagationTaskInfo taskInfo) {
         PropagationTask task = entityFactory.newEntity(PropagationTask.class);
-        task.setResource(resourceDAO.find(resource.getKey()));
+        task.setResource(resourceDAO.find(taskInfo.getResource().getKey()));
         task.setObjectClassName(taskInfo.getObjectClass().getObjectClassValue());
         task.setAnyTypeKind(taskInfo.getAnyTypeKind());
         task.setAnyType(taskInfo.getAnyType());
@@ -774,8 +1047,7 @@ public abstract class AbstractPropagationTaskExecutor implements PropagationTask
         task.setConnObjectKey(taskInfo.getConnObjectKey());
         task.setOldConnObjectKey(taskInfo.getOldConnObjectKey());
         task.setPropagationData(taskInfo.getPropagationData());
-
-        return Optional.of(task);
+        return task;
     }
 
     /**
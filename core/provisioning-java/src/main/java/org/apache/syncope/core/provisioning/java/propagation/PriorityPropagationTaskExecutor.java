@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
@@ -86,8 +87,15 @@ public class PriorityPropagationTaskExecutor extends AbstractPropagationTaskExec
         return callable;
     }
 
+    /**
+     * Marks the threads of {@link #taskExecutor} while running propagation tasks.
+     */
+    protected static final ThreadLocal<Boolean> POOLED = ThreadLocal.withInitial(() -> false);
+
     protected final ThreadPoolTaskExecutor taskExecutor;
 
+    protected final PropagationOutboxDispatcher outboxDispatcher;
+
     public PriorityPropagationTaskExecutor(
             final ConnectorManager connectorManager,
             final ConnObjectUtils connObjectUtils,
@@ -105,7 +113,9 @@ public class PriorityPropagationTaskExecutor extends AbstractPropagationTaskExec
             final EntityFactory entityFactory,
             final OutboundMatcher outboundMatcher,
             final PlainAttrValidationManager validator,
-            final ThreadPoolTaskExecutor taskExecutor) {
+            final ResourceBulkheads bulkheads,
+            final ThreadPoolTaskExecutor taskExecutor,
+            final PropagationOutboxDispatcher outboxDispatcher) {
 
         super(connectorManager,
                 connObjectUtils,
@@ -122,8 +132,39 @@ public class PriorityPropagationTaskExecutor extends AbstractPropagationTaskExec
                 taskUtilsFactory,
                 entityFactory,
                 outboundMatcher,
-                validator);
+                validator,
+                bulkheads);
         this.taskExecutor = taskExecutor;
+        this.outboxDispatcher = outboxDispatcher;
+    }
+
+    /**
+     * Tells whether the given task can be queued for asynchronous execution, e.g. when it does not carry any
+     * in-memory state which cannot be stored.
+     *
+     * @param taskInfo task to be executed
+     * @return whether the given task can be queued for asynchronous execution
+     */
+    protected boolean isQueueable(final PropagationTaskInfo taskInfo) {
+        return outboxDispatcher.isEnabled()
+                && taskInfo.getConnector() == null
+                && taskInfo.getUpdateRequest() == null;
+    }
+
+    @Override
+    protected boolean isPooled() {
+        return POOLED.get();
+    }
+
+    protected Callable<TaskExec<PropagationTask>> pooled(final PropagationTaskCallable callable) {
+        return () -> {
+            POOLED.set(true);
+            try {
+                return callable.call();
+            } finally {
+                POOLED.remove();
+            }
+        };
     }
 
     @Override
@@ -173,7 +214,12 @@ public class PriorityPropagationTaskExecutor extends AbstractPropagationTaskExec
 
                 concurrentTasks.forEach(taskInfo -> {
                     try {
-                        futures.add(completionService.submit(newPropagationTaskCallable(taskInfo, reporter, executor)));
+                        if (nullPriorityAsync && isQueueable(taskInfo)) {
+                            outboxDispatcher.dispatchAfterCommit(enqueue(taskInfo, executor).getKey());
+                        } else {
+                            futures.add(completionService.submit(
+                                    pooled(newPropagationTaskCallable(taskInfo, reporter, executor))));
+                        }
 
                         if (nullPriorityAsync) {
                             reporter.onSuccessOrNonPriorityResourceFailures(
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.propagation;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.apache.syncope.common.lib.types.EntitlementsHolder;
+import org.apache.syncope.core.persistence.api.SyncopeCoreLoader;
+import org.apache.syncope.core.persistence.api.dao.TaskDAO;
+import org.apache.syncope.core.persistence.api.entity.task.PropagationTask;
+import org.apache.syncope.core.provisioning.api.propagation.PropagationTaskExecutor;
+import org.apache.syncope.core.provisioning.java.ProvisioningProperties;
+import org.apache.syncope.core.spring.ApplicationContextProvider;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Drains the queue of propagation tasks stored for asynchronous execution: tasks are dispatched as soon as the
+ * transaction which queued them commits, while a periodic poll picks up any task due for (re)execution, including
+ * the ones left behind by a restart or by a saturated thread pool.
+ */
+public class PropagationOutboxDispatcher implements SyncopeCoreLoader {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(PropagationOutboxDispatcher.class);
+
+    protected final ProvisioningProperties.PropagationOutboxProperties props;
+
+    protected final TaskDAO taskDAO;
+
+    protected final ThreadPoolTaskExecutor taskExecutor;
+
+    protected final Set<String> domains = ConcurrentHashMap.newKeySet();
+
+    protected ScheduledExecutorService poller;
+
+    protected PropagationTaskExecutor propagationTaskExecutor;
+
+    public PropagationOutboxDispatcher(
+            final ProvisioningProperties.PropagationOutboxProperties props,
+            final TaskDAO taskDAO,
+            final ThreadPoolTaskExecutor taskExecutor) {
+
+        this.props = props;
+        this.taskDAO = taskDAO;
+        this.taskExecutor = taskExecutor;
+    }
+
+    public boolean isEnabled() {
+        return props.isEnabled();
+    }
+
+    protected PropagationTaskExecutor propagationTaskExecutor() {
+        synchronized (this) {
+            if (propagationTaskExecutor == null) {
+                propagationTaskExecutor = ApplicationContextProvider.getBeanFactory().
+                        getBean(PropagationTaskExecutor.class);
+            }
+        }
+        return propagationTaskExecutor;
+    }
+
+    @Override
+    public int getOrder() {
+        return 1000;
+    }
+
+    @Override
+    public void load() {
+        if (!props.isEnabled()) {
+            return;
+        }
+
+        poller = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("PropagationOutbox-"));
+        long interval = props.getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void load(final String domain, final DataSource datasource) {
+        domains.add(domain);
+    }
+
+    @Override
+    public void unload(final String domain) {
+        domains.remove(domain);
+    }
+
+    @Override
+    public void unload() {
+        Optional.ofNullable(poller).ifPresent(ScheduledExecutorService::shutdownNow);
+    }
+
+    protected void poll() {
+        domains.forEach(domain -> {
+            try {
+                List<String> due = AuthContextUtils.callAsAdmin(
+                        domain, () -> taskDAO.findDuePropagations(OffsetDateTime.now(), props.getBatchSize()));
+                LOG.debug("Found {} propagation tasks due on domain {}", due.size(), domain);
+
+                due.forEach(key -> dispatch(domain, key));
+            } catch (Exception e) {
+                LOG.error("While looking for propagation tasks due on domain {}", domain, e);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        });
+    }
+
+    /**
+     * Dispatches the given queued task once the current transaction commits; if no transaction is active, dispatch
+     * happens right away.
+     *
+     * @param key queued propagation task key
+     */
+    public void dispatchAfterCommit(final String key) {
+        String domain = AuthContextUtils.getDomain();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    dispatch(domain, key);
+                }
+            });
+        } else {
+            dispatch(domain, key);
+        }
+    }
+
+    /**
+     * Submits the given queued task for execution; when the thread pool is saturated, the task is left to the
+     * periodic poll.
+     *
+     * @param domain domain
+     * @param key queued propagation task key
+     */
+    public void dispatch(final String domain, final String key) {
+        try {
+            taskExecutor.execute(() -> {
+                SecurityContextHolder.setContext(SecurityContextHolder.createEmptyContext());
+                try {
+                    OffsetDateTime now = OffsetDateTime.now();
+                    Optional<PropagationTask> claimed = AuthContextUtils.callAsAdmin(
+                            domain, () -> taskDAO.claimPropagation(key, now, now.plus(props.getLease())));
+                    claimed.ifPresent(task -> AuthContextUtils.callAs(
+                            domain,
+                            task.getExecutor(),
+                            EntitlementsHolder.getInstance().getValues(),
+                            () -> propagationTaskExecutor().executeQueued(task)));
+                } catch (Exception e) {
+                    LOG.error("While executing queued propagation task {} on domain {}", key, domain, e);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Could not dispatch queued propagation task {} on domain {}, leaving to poll", key, domain);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.propagation;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.syncope.core.provisioning.java.ProvisioningProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Isolates External Resources from each other during propagation: each resource gets its own bulkhead, bounding the
+ * number of in-flight operations, and its own circuit breaker, fast-failing operations while the resource keeps
+ * failing.
+ * The concurrency limit of each bulkhead adapts to the observed latency: it grows by one every {@code limit} calls
+ * completing within the configured threshold and halves on slow or failed calls, never exceeding the configured
+ * maximum nor going below one.
+ * Callers can either be rejected at once when the concurrency limit is reached, and retry after the configured
+ * delay, or wait for a slot up to a given timeout; threads of the shared propagation pool only wait for a much shorter
+ * time, not to be held by a single slow resource. While the circuit is open, callers are always rejected at once.
+ */
+public class ResourceBulkheads {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(ResourceBulkheads.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+
+    }
+
+    /**
+     * Outcome of an attempt to enter the bulkhead of a given resource; when granted, it must be released once the
+     * guarded operation is over.
+     */
+    public static class Permit {
+
+        protected final Bulkhead bulkhead;
+
+        protected final String reason;
+
+        protected final Duration retryAfter;
+
+        protected Permit(final Bulkhead bulkhead, final String reason, final Duration retryAfter) {
+            this.bulkhead = bulkhead;
+            this.reason = reason;
+            this.retryAfter = retryAfter;
+        }
+
+        public boolean isGranted() {
+            return reason == null;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        /**
+         * Reports the outcome of the guarded operation.
+         *
+         * @param failure whether the guarded operation failed
+         * @param elapsed time taken by the guarded operation
+         */
+        public void release(final boolean failure, final Duration elapsed) {
+            if (bulkhead != null && isGranted()) {
+                bulkhead.release(failure, elapsed);
+            }
+        }
+    }
+
+    public static class Status {
+
+        private final State state;
+
+        private final int limit;
+
+        private final int inFlight;
+
+        private final int failureRate;
+
+        private final long rejected;
+
+        public Status(final State state, final int limit, final int inFlight, final int failureRate,
+                final long rejected) {
+
+            this.state = state;
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.failureRate = failureRate;
+            this.rejected = rejected;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        public int getFailureRate() {
+            return failureRate;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+    }
+
+    protected class Bulkhead {
+
+        protected final String resource;
+
+        protected final boolean[] outcomes = new boolean[Math.max(1, props.getSlidingWindowSize())];
+
+        protected int calls;
+
+        protected int failures;
+
+        protected int next;
+
+        protected double limit = props.getMaxInFlight();
+
+        protected int inFlight;
+
+        protected State state = State.CLOSED;
+
+        protected long openedAt;
+
+        protected boolean probing;
+
+        protected long rejected;
+
+        protected Bulkhead(final String resource) {
+            this.resource = resource;
+        }
+
+        protected synchronized Permit acquire(final Duration timeout) {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (true) {
+                if (state == State.OPEN) {
+                    long remaining = props.getOpenDuration().toNanos() - (System.nanoTime() - openedAt);
+                    if (remaining > 0) {
+                        rejected++;
+                        return new Permit(this, "Circuit open for resource " + resource, Duration.ofNanos(remaining));
+                    }
+
+                    LOG.debug("Circuit for resource {} is now half-open", resource);
+                    state = State.HALF_OPEN;
+                }
+                if (state == State.HALF_OPEN && probing) {
+                    rejected++;
+                    return new Permit(this, "Circuit half-open for resource " + resource, props.getOpenDuration());
+                }
+                if (inFlight < (int) limit) {
+                    break;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    rejected++;
+                    return new Permit(
+                            this,
+                            "Concurrency limit (" + (int) limit + ") reached for resource " + resource,
+                            props.getRetryDelay());
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejected++;
+                    return new Permit(
+                            this,
+                            "Interrupted while waiting for resource " + resource,
+                            props.getRetryDelay());
+                }
+            }
+
+            if (state == State.HALF_OPEN) {
+                probing = true;
+            }
+            inFlight++;
+            return new Permit(this, null, Duration.ZERO);
+        }
+
+        protected synchronized void release(final boolean failure, final Duration elapsed) {
+            inFlight--;
+            notifyAll();
+
+            if (failure || elapsed.compareTo(props.getLatencyThreshold()) > 0) {
+                limit = Math.max(1, limit / 2);
+            } else {
+                limit = Math.min(props.getMaxInFlight(), limit + 1 / limit);
+            }
+
+            if (state == State.HALF_OPEN) {
+                probing = false;
+                if (failure) {
+                    open();
+                } else {
+                    LOG.info("Circuit for resource {} is now closed", resource);
+                    state = State.CLOSED;
+                    calls = 0;
+                    failures = 0;
+                    next = 0;
+                }
+                return;
+            }
+
+            if (calls == outcomes.length) {
+                if (outcomes[next]) {
+                    failures--;
+                }
+            } else {
+                calls++;
+            }
+            outcomes[next] = failure;
+            if (failure) {
+                failures++;
+            }
+            next = (next + 1) % outcomes.length;
+
+            if (state == State.CLOSED
+                    && calls == outcomes.length
+                    && failureRate() >= props.getFailureRateThreshold()) {
+
+                open();
+            }
+        }
+
+        protected void open() {
+            LOG.warn("Circuit for resource {} is now open, failure rate: {}%", resource, failureRate());
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+
+        protected int failureRate() {
+            return calls == 0 ? 0 : failures * 100 / calls;
+        }
+
+        protected synchronized Status status() {
+            return new Status(state, (int) limit, inFlight, failureRate(), rejected);
+        }
+    }
+
+    protected static final Permit UNGUARDED = new Permit(null, null, Duration.ZERO);
+
+    protected final ProvisioningProperties.ResourceBulkheadProperties props;
+
+    protected final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public ResourceBulkheads(final ProvisioningProperties.ResourceBulkheadProperties props) {
+        this.props = props;
+    }
+
+    /**
+     * Attempts to enter the bulkhead of the given resource, without waiting.
+     *
+     * @param resource External Resource key
+     * @return permit, granted or not
+     */
+    public Permit acquire(final String resource) {
+        return acquire(resource, Duration.ZERO);
+    }
+
+    /**
+     * Attempts to enter the bulkhead of the given resource, waiting up to the configured timeout if the concurrency
+     * limit is reached.
+     *
+     * @param resource External Resource key
+     * @return permit, granted or not
+     */
+    public Permit acquireWaiting(final String resource) {
+        return acquire(resource, props.getAcquireTimeout());
+    }
+
+    /**
+     * Attempts to enter the bulkhead of the given resource from a thread of the shared propagation pool, waiting up
+     * to the configured pool timeout if the concurrency limit is reached.
+     *
+     * @param resource External Resource key
+     * @return permit, granted or not
+     */
+    public Permit acquirePooled(final String resource) {
+        return acquire(resource, props.getPoolAcquireTimeout());
+    }
+
+    protected Permit acquire(final String resource, final Duration timeout) {
+        if (!props.isEnabled()) {
+            return UNGUARDED;
+        }
+        return bulkheads.computeIfAbsent(resource, Bulkhead::new).acquire(timeout);
+    }
+
+    /**
+     * Drops any state collected for the given resource.
+     *
+     * @param resource External Resource key
+     */
+    public void reset(final String resource) {
+        bulkheads.remove(resource);
+    }
+
+    public Map<String, Status> getStatus() {
+        Map<String, Status> status = new TreeMap<>();
+        bulkheads.forEach((resource, bulkhead) -> status.put(resource, bulkhead.status()));
+        return status;
+    }
+}
@@ -111,7 +111,11 @@ public abstract class AbstractPullResultHandler extends AbstractSyncopeResultHan
 
     protected SyncopePullExecutor executor;
 
-    protected Result latestResult;
+    /**
+     * Result of the latest delta handled by the current thread, as the same handler instance can be invoked by
+     * several threads when pulling in parallel.
+     */
+    protected final ThreadLocal<Result> latestResult = new ThreadLocal<>();
 
     protected abstract String getName(AnyTO anyTO);
 
@@ -151,11 +155,8 @@ public abstract class AbstractPullResultHandler extends AbstractSyncopeResultHan
                 return true;
             }
 
-            boolean shouldContinue;
-            synchronized (this) {
-                shouldContinue = latestResult == Result.SUCCESS;
-                this.latestResult = null;
-            }
+            boolean shouldContinue = latestResult.get() == Result.SUCCESS;
+            latestResult.remove();
             if (shouldContinue) {
                 executor.setLatestSyncToken(delta.getObjectClass().getObjectClassValue(), delta.getToken());
             }
@@ -953,9 +954,7 @@ public abstract class AbstractPullResultHandler extends AbstractSyncopeResultHan
             final SyncDelta delta,
             final Object... furtherInput) {
 
-        synchronized (this) {
-            this.latestResult = result;
-        }
+        latestResult.set(result);
 
         notificationManager.createTasks(
                 profile.getExecutor(),
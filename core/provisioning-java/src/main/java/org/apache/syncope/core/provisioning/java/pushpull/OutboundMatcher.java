@@ -20,12 +20,14 @@ package org.apache.syncope.core.provisioning.java.pushpull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.syncope.common.lib.to.Item;
@@ -49,10 +51,13 @@ import org.apache.syncope.core.provisioning.api.propagation.PropagationTaskInfo;
 import org.apache.syncope.core.provisioning.java.utils.MappingUtils;
 import org.apache.syncope.core.spring.implementation.ImplementationManager;
 import org.identityconnectors.framework.common.objects.AttributeBuilder;
+import org.identityconnectors.framework.common.objects.AttributeUtil;
 import org.identityconnectors.framework.common.objects.ConnectorObject;
 import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
 import org.identityconnectors.framework.common.objects.SearchResult;
 import org.identityconnectors.framework.common.objects.filter.Filter;
+import org.identityconnectors.framework.common.objects.filter.FilterBuilder;
 import org.identityconnectors.framework.spi.SearchResultsHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -62,6 +67,8 @@ public class OutboundMatcher {
 
     protected static final Logger LOG = LoggerFactory.getLogger(OutboundMatcher.class);
 
+    protected static final int BULK_MATCH_SIZE = 50;
+
     protected final MappingManager mappingManager;
 
     protected final UserDAO userDAO;
@@ -90,7 +97,7 @@ public class OutboundMatcher {
         this.virAttrHandler = virAttrHandler;
     }
 
-    protected Optional<PushCorrelationRule> rule(final ExternalResource resource, final Provision provision) {
+    public Optional<PushCorrelationRule> rule(final ExternalResource resource, final Provision provision) {
         Optional<? extends PushCorrelationRuleEntity> correlationRule = resource.getPushPolicy() == null
                 ? Optional.empty()
                 : resource.getPushPolicy().getCorrelationRule(provision.getAnyType());
@@ -317,4 +324,85 @@ public class OutboundMatcher {
 
         return Optional.ofNullable(obj);
     }
+
+    /**
+     * Looks up, in bulk, the connector objects matching the given connObjectKey values: values are split in chunks,
+     * each looked up via a single OR-ed filter, read by pages.
+     * No access to persistence is performed, hence this method can be safely invoked from threads other than the one
+     * having loaded the given arguments.
+     *
+     * @param connector connector
+     * @param connObjectKeyItem connObjectKey mapping item
+     * @param connObjectKeyValues connObjectKey values to look up
+     * @param provision provision
+     * @param moreAttrsToGet additional attributes to get
+     * @param linkingItems linking items
+     * @return matching connector objects, by connObjectKey value
+     */
+    public Map<String, ConnectorObject> matchByConnObjectKeyValues(
+            final Connector connector,
+            final Item connObjectKeyItem,
+            final Collection<String> connObjectKeyValues,
+            final Provision provision,
+            final Optional<String[]> moreAttrsToGet,
+            final Collection<Item> linkingItems) {
+
+        Function<String, String> normalizer = provision.isIgnoreCaseMatch()
+                ? value -> value.toLowerCase()
+                : Function.identity();
+        Map<String, String> values = new HashMap<>();
+        connObjectKeyValues.forEach(value -> values.put(normalizer.apply(value), value));
+
+        ObjectClass objectClass = new ObjectClass(provision.getObjectClass());
+        OperationOptions options = MappingUtils.buildOperationOptions(
+                Stream.concat(provision.getMapping().getItems().stream(), linkingItems.stream()),
+                moreAttrsToGet.orElse(null));
+
+        Map<String, ConnectorObject> result = new HashMap<>();
+        SearchResultsHandler handler = new SearchResultsHandler() {
+
+            @Override
+            public void handleResult(final SearchResult result) {
+                // nothing to do
+            }
+
+            @Override
+            public boolean handle(final ConnectorObject connectorObject) {
+                Optional.ofNullable(connectorObject.getAttributeByName(connObjectKeyItem.getExtAttrName())).
+                        map(AttributeUtil::getSingleValue).
+                        map(value -> values.get(normalizer.apply(value.toString()))).
+                        ifPresent(value -> result.put(value, connectorObject));
+                return true;
+            }
+        };
+
+        List<String> toMatch = List.copyOf(connObjectKeyValues);
+        for (int i = 0; i < toMatch.size(); i += BULK_MATCH_SIZE) {
+            List<String> chunk = toMatch.subList(i, Math.min(i + BULK_MATCH_SIZE, toMatch.size()));
+
+            Filter filter = chunk.stream().
+                    map(value -> AttributeBuilder.build(connObjectKeyItem.getExtAttrName(), value)).
+                    map(attr -> provision.isIgnoreCaseMatch()
+                    ? FilterBuilder.equalsIgnoreCase(attr)
+                    : FilterBuilder.equalTo(attr)).
+                    reduce(FilterBuilder::or).
+                    orElseThrow();
+
+            try {
+                String cookie = null;
+                do {
+                    SearchResult searchResult = connector.search(
+                            objectClass, filter, handler, BULK_MATCH_SIZE, cookie, List.of(), options);
+                    cookie = searchResult == null ? null : searchResult.getPagedResultsCookie();
+                } while (cookie != null);
+            } catch (TimeoutException toe) {
+                LOG.debug("Request timeout", toe);
+                throw toe;
+            } catch (RuntimeException e) {
+                LOG.error("While looking up {} on {}", chunk, objectClass, e);
+            }
+        }
+
+        return result;
+    }
 }
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.pushpull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.syncope.core.provisioning.api.pushpull.SyncopePullExecutor;
+import org.apache.syncope.core.provisioning.api.pushpull.SyncopePullResultHandler;
+import org.identityconnectors.framework.common.objects.Name;
+import org.identityconnectors.framework.common.objects.SyncDelta;
+import org.identityconnectors.framework.common.objects.SyncResultsHandler;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Fans the {@link SyncDelta} instances received from a connector out to a fixed number of workers, each
+ * handling its own partition of connector object keys: deltas about the same object are always handled by the
+ * same worker, in the order they were received.
+ * The number of deltas received but not yet handled is bounded, so that the connector is slowed down when workers
+ * cannot keep up; sync tokens are reported to the actual pull executor only once all earlier deltas were handled
+ * successfully.
+ */
+public class PartitionedSyncDeltaDispatcher implements SyncResultsHandler, SyncopePullExecutor {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(PartitionedSyncDeltaDispatcher.class);
+
+    /**
+     * How many deltas, per worker, can be waiting to be handled before the connector is blocked.
+     */
+    protected static final int MAX_PENDING_PER_WORKER = 50;
+
+    protected final SyncopePullResultHandler handler;
+
+    protected final SyncopePullExecutor executor;
+
+    protected final String objectClass;
+
+    protected final Authentication authentication;
+
+    protected final ExecutorService[] workers;
+
+    protected final int maxPending;
+
+    protected final Semaphore pending;
+
+    protected final AtomicBoolean stopped = new AtomicBoolean(false);
+
+    /**
+     * Deltas successfully handled whose sync token cannot be reported yet, by sequence number.
+     */
+    protected final Map<Long, SyncDelta> handled = new HashMap<>();
+
+    protected long sequence;
+
+    protected long nextToReport;
+
+    protected volatile Throwable failure;
+
+    public PartitionedSyncDeltaDispatcher(
+            final SyncopePullResultHandler handler,
+            final SyncopePullExecutor executor,
+            final String objectClass,
+            final int concurrency) {
+
+        this.handler = handler;
+        this.executor = executor;
+        this.objectClass = objectClass;
+        this.authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        this.workers = new ExecutorService[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            workers[i] = Executors.newSingleThreadExecutor(
+                    new CustomizableThreadFactory("Pull-" + objectClass + "-" + i + "-"));
+        }
+        this.maxPending = concurrency * MAX_PENDING_PER_WORKER;
+        this.pending = new Semaphore(maxPending);
+
+        handler.setPullExecutor(this);
+    }
+
+    protected int partition(final SyncDelta delta) {
+        return Math.floorMod(delta.getUid().getUidValue().hashCode(), workers.length);
+    }
+
+    @Override
+    public boolean handle(final SyncDelta delta) {
+        if (stopped.get()) {
+            return false;
+        }
+
+        try {
+            pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped.set(true);
+            return false;
+        }
+        if (stopped.get()) {
+            pending.release();
+            return false;
+        }
+
+        long seq = sequence++;
+        workers[partition(delta)].execute(() -> {
+            SecurityContext ctx = SecurityContextHolder.createEmptyContext();
+            ctx.setAuthentication(authentication);
+            SecurityContextHolder.setContext(ctx);
+            try {
+                if (stopped.get()) {
+                    return;
+                }
+
+                if (handler.handle(delta)) {
+                    completed(seq, delta);
+                } else {
+                    stopped.set(true);
+                }
+            } catch (Throwable t) {
+                LOG.error("While handling {}", delta, t);
+                failure = t;
+                stopped.set(true);
+            } finally {
+                SecurityContextHolder.clearContext();
+                pending.release();
+            }
+        });
+
+        return true;
+    }
+
+    protected void completed(final long seq, final SyncDelta delta) {
+        synchronized (handled) {
+            handled.put(seq, delta);
+
+            SyncDelta next;
+            while ((next = handled.remove(nextToReport)) != null) {
+                nextToReport++;
+                if (next.getToken() != null) {
+                    executor.setLatestSyncToken(objectClass, next.getToken());
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until all the deltas dispatched so far were handled, then rethrows the exception raised while
+     * handling any of them, if any.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void await() throws InterruptedException {
+        pending.acquire(maxPending);
+        pending.release(maxPending);
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    /**
+     * Stops all workers and gives the pull executor back to the wrapped handler.
+     */
+    public void shutdown() {
+        stopped.set(true);
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+        handler.setPullExecutor(executor);
+    }
+
+    @Override
+    public void setLatestSyncToken(final String objectClass, final SyncToken latestSyncToken) {
+        // ignore: sync tokens are reported in order by completed()
+    }
+
+    @Override
+    public void reportHandled(final String objectClass, final Name name) {
+        executor.reportHandled(objectClass, name);
+    }
+
+    @Override
+    public boolean wasInterruptRequested() {
+        return executor.wasInterruptRequested();
+    }
+
+    @Override
+    public void setInterrupted() {
+        executor.setInterrupted();
+    }
+}
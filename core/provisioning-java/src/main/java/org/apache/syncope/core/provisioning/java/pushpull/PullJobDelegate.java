@@ -19,6 +19,7 @@
 package org.apache.syncope.core.provisioning.java.pushpull;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -34,6 +35,7 @@ import org.apache.syncope.common.lib.to.Item;
 import org.apache.syncope.common.lib.to.OrgUnit;
 import org.apache.syncope.common.lib.to.Provision;
 import org.apache.syncope.common.lib.types.ConflictResolutionAction;
+import org.apache.syncope.common.lib.types.PullMode;
 import org.apache.syncope.common.lib.types.ResourceOperation;
 import org.apache.syncope.core.persistence.api.attrvalue.validation.PlainAttrValidationManager;
 import org.apache.syncope.core.persistence.api.dao.GroupDAO;
@@ -67,6 +69,7 @@ import org.apache.syncope.core.spring.implementation.ImplementationManager;
 import org.identityconnectors.framework.common.objects.Name;
 import org.identityconnectors.framework.common.objects.ObjectClass;
 import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncResultsHandler;
 import org.identityconnectors.framework.common.objects.SyncToken;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
@@ -93,11 +96,11 @@ public class PullJobDelegate extends AbstractProvisioningJobDelegate<PullTask> i
     @Autowired
     protected PlainAttrValidationManager validator;
 
-    protected final Map<String, SyncToken> latestSyncTokens = new HashMap<>();
+    protected final Map<String, SyncToken> latestSyncTokens = Collections.synchronizedMap(new HashMap<>());
 
     protected ProvisioningProfile<PullTask, PullActions> profile;
 
-    protected final Map<String, MutablePair<Integer, String>> handled = new HashMap<>();
+    protected final Map<String, MutablePair<Integer, String>> handled = new ConcurrentHashMap<>();
 
     protected final Map<String, PullActions> perContextActions = new ConcurrentHashMap<>();
 
@@ -110,13 +113,11 @@ public class PullJobDelegate extends AbstractProvisioningJobDelegate<PullTask> i
 
     @Override
     public void reportHandled(final String objectClass, final Name name) {
-        MutablePair<Integer, String> pair = Optional.ofNullable(handled.get(objectClass)).orElseGet(() -> {
-            MutablePair<Integer, String> p = MutablePair.of(0, null);
-            handled.put(objectClass, p);
-            return p;
-        });
-        pair.setLeft(pair.getLeft() + 1);
-        pair.setRight(name.getNameValue());
+        MutablePair<Integer, String> pair = handled.computeIfAbsent(objectClass, k -> MutablePair.of(0, null));
+        synchronized (pair) {
+            pair.setLeft(pair.getLeft() + 1);
+            pair.setRight(name.getNameValue());
+        }
     }
 
     @Override
@@ -134,10 +135,14 @@ public class PullJobDelegate extends AbstractProvisioningJobDelegate<PullTask> i
         synchronized (status) {
             if (!handled.isEmpty()) {
                 StringBuilder builder = new StringBuilder("Processed:\n");
-                handled.forEach((key, value) -> builder.append(' ').append(value.getLeft()).append('\t').
-                        append(key).
-                        append(" / latest: ").append(value.getRight()).
-                        append('\n'));
+                handled.forEach((key, value) -> {
+                    synchronized (value) {
+                        builder.append(' ').append(value.getLeft()).append('\t').
+                                append(key).
+                                append(" / latest: ").append(value.getRight()).
+                                append('\n');
+                    }
+                });
                 status.set(builder.toString());
             }
         }
@@ -251,7 +256,7 @@ public class PullJobDelegate extends AbstractProvisioningJobDelegate<PullTask> i
 
         status.set("Initialization completed");
 
-        // First realms...
+        // First realms, always sequentially as parents need to be pulled before children...
         if (pullTask.getResource().getOrgUnit() != null) {
             status.set("Pulling " + pullTask.getResource().getOrgUnit().getObjectClass());
 
@@ -336,6 +341,12 @@ public class PullJobDelegate extends AbstractProvisioningJobDelegate<PullTask> i
             handler.setProfile(profile);
             handler.setPullExecutor(this);
 
+            PartitionedSyncDeltaDispatcher dispatcher = pullTask.getConcurrency() > 1
+                    ? new PartitionedSyncDeltaDispatcher(
+                            handler, this, provision.getObjectClass(), pullTask.getConcurrency())
+                    : null;
+            SyncResultsHandler resultsHandler = dispatcher == null ? handler : dispatcher;
+
             try {
                 Set<String> moreAttrsToGet = new HashSet<>();
                 profile.getActions().forEach(a -> moreAttrsToGet.addAll(a.moreAttrsToGet(profile, provision)));
@@ -346,41 +357,51 @@ public class PullJobDelegate extends AbstractProvisioningJobDelegate<PullTask> i
                 OperationOptions options = MappingUtils.buildOperationOptions(
                         mapItems, moreAttrsToGet.toArray(String[]::new));
 
-                switch (pullTask.getPullMode()) {
-                    case INCREMENTAL:
-                        if (!dryRun) {
-                            latestSyncTokens.put(
-                                    provision.getObjectClass(),
-                                    ConnObjectUtils.toSyncToken(provision.getSyncToken()));
-                        }
-
-                        connector.sync(
-                                new ObjectClass(provision.getObjectClass()),
-                                ConnObjectUtils.toSyncToken(provision.getSyncToken()),
-                                handler,
-                                options);
-
-                        if (!dryRun) {
-                            provision.setSyncToken(
-                                    ConnObjectUtils.toString(latestSyncTokens.get(provision.getObjectClass())));
-                            resourceDAO.save(pullTask.getResource());
-                        }
-                        break;
-
-                    case FILTERED_RECONCILIATION:
-                        connector.filteredReconciliation(new ObjectClass(provision.getObjectClass()),
-                                getReconFilterBuilder(pullTask),
-                                handler,
-                                options);
-                        break;
+                try {
+                    switch (pullTask.getPullMode()) {
+                        case INCREMENTAL:
+                            if (!dryRun) {
+                                latestSyncTokens.put(
+                                        provision.getObjectClass(),
+                                        ConnObjectUtils.toSyncToken(provision.getSyncToken()));
+                            }
+
+                            connector.sync(
+                                    new ObjectClass(provision.getObjectClass()),
+                                    ConnObjectUtils.toSyncToken(provision.getSyncToken()),
+                                    resultsHandler,
+                                    options);
+                            break;
+
+                        case FILTERED_RECONCILIATION:
+                            connector.filteredReconciliation(new ObjectClass(provision.getObjectClass()),
+                                    getReconFilterBuilder(pullTask),
+                                    resultsHandler,
+                                    options);
+                            break;
+
+                        case FULL_RECONCILIATION:
+                        default:
+                            connector.fullReconciliation(
+                                    new ObjectClass(provision.getObjectClass()),
+                                    resultsHandler,
+                                    options);
+                            break;
+                    }
+
+                    if (dispatcher != null) {
+                        dispatcher.await();
+                    }
+                } finally {
+                    if (dispatcher != null) {
+                        dispatcher.shutdown();
+                    }
+                }
 
-                    case FULL_RECONCILIATION:
-                    default:
-                        connector.fullReconciliation(
-                                new ObjectClass(provision.getObjectClass()),
-                                handler,
-                                options);
-                        break;
+                if (pullTask.getPullMode() == PullMode.INCREMENTAL && !dryRun) {
+                    provision.setSyncToken(
+                            ConnObjectUtils.toString(latestSyncTokens.get(provision.getObjectClass())));
+                    resourceDAO.save(pullTask.getResource());
                 }
 
                 if (provision.getUidOnCreate() != null) {
@@ -19,15 +19,19 @@
 package org.apache.syncope.core.provisioning.java.pushpull;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.MutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.syncope.common.lib.SyncopeConstants;
 import org.apache.syncope.common.lib.to.Provision;
 import org.apache.syncope.common.lib.types.ConflictResolutionAction;
@@ -38,6 +42,7 @@ import org.apache.syncope.core.persistence.api.dao.search.SearchCond;
 import org.apache.syncope.core.persistence.api.entity.Any;
 import org.apache.syncope.core.persistence.api.entity.AnyType;
 import org.apache.syncope.core.persistence.api.entity.AnyUtilsFactory;
+import org.apache.syncope.core.persistence.api.entity.ConnPoolConf;
 import org.apache.syncope.core.persistence.api.entity.ExternalResource;
 import org.apache.syncope.core.persistence.api.entity.Implementation;
 import org.apache.syncope.core.persistence.api.entity.Realm;
@@ -59,13 +64,31 @@ import org.apache.syncope.core.provisioning.api.pushpull.SyncopePushResultHandle
 import org.apache.syncope.core.provisioning.api.pushpull.UserPushResultHandler;
 import org.apache.syncope.core.spring.ApplicationContextProvider;
 import org.apache.syncope.core.spring.implementation.ImplementationManager;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 public class PushJobDelegate extends AbstractProvisioningJobDelegate<PushTask> {
 
+    /**
+     * How many keys, per worker, can be waiting to be pushed when pushing in parallel.
+     */
+    protected static final int MAX_PENDING_PER_WORKER = 50;
+
+    /**
+     * Permits for parallel push workers, by domain and resource, shared among all push tasks running on this node:
+     * when the resource's connector has a pool configured, no more workers than the pool's max objects are allowed
+     * to push at the same time towards that resource. Each entry also reports the number of permits it was created
+     * with, so that it is replaced when the pool configuration changes.
+     */
+    protected static final Map<String, Pair<Integer, Semaphore>> RESOURCE_PERMITS = new ConcurrentHashMap<>();
+
     /**
      * Search DAO.
      */
@@ -83,18 +106,16 @@ public class PushJobDelegate extends AbstractProvisioningJobDelegate<PushTask> {
 
     protected ProvisioningProfile<PushTask, PushActions> profile;
 
-    protected final Map<String, MutablePair<Integer, String>> handled = new HashMap<>();
+    protected final Map<String, MutablePair<Integer, String>> handled = new ConcurrentHashMap<>();
 
     protected final Map<String, PushActions> perContextActions = new ConcurrentHashMap<>();
 
     protected void reportHandled(final String anyType, final String key) {
-        MutablePair<Integer, String> pair = handled.get(anyType);
-        if (pair == null) {
-            pair = MutablePair.of(0, null);
-            handled.put(anyType, pair);
+        MutablePair<Integer, String> pair = handled.computeIfAbsent(anyType, k -> MutablePair.of(0, null));
+        synchronized (pair) {
+            pair.setLeft(pair.getLeft() + 1);
+            pair.setRight(key);
         }
-        pair.setLeft(pair.getLeft() + 1);
-        pair.setRight(key);
     }
 
     @Override
@@ -102,10 +123,14 @@ public class PushJobDelegate extends AbstractProvisioningJobDelegate<PushTask> {
         synchronized (status) {
             if (!handled.isEmpty()) {
                 StringBuilder builder = new StringBuilder("Processed:\n");
-                handled.forEach((key, value) -> builder.append(' ').append(value.getLeft()).append('\t').
-                        append(key).
-                        append(" / latest: ").append(value.getRight()).
-                        append('\n'));
+                handled.forEach((key, value) -> {
+                    synchronized (value) {
+                        builder.append(' ').append(value.getLeft()).append('\t').
+                                append(key).
+                                append(" / latest: ").append(value.getRight()).
+                                append('\n');
+                    }
+                });
                 status.set(builder.toString());
             }
         }
@@ -135,6 +160,144 @@ public class PushJobDelegate extends AbstractProvisioningJobDelegate<PushTask> {
         }
     }
 
+    /**
+     * Pushes all matching anys one after the other, page by page.
+     *
+     * @param anyType any type
+     * @param cond search condition
+     * @param handler push handler
+     * @param resource external resource
+     * @throws JobExecutionException if pushing any of the matching anys fails
+     */
+    protected void doHandleSequentially(
+            final AnyType anyType,
+            final SearchCond cond,
+            final SyncopePushResultHandler handler,
+            final ExternalResource resource)
+            throws JobExecutionException {
+
+        // keyset pagination: each page is fetched by seeking after the last key handled
+        String after = null;
+        List<? extends Any<?>> anys;
+        do {
+            anys = searchDAO.search(
+                    profile.getTask().getSourceRealm(),
+                    true,
+                    Set.of(profile.getTask().getSourceRealm().getFullPath()),
+                    cond,
+                    after,
+                    AnyDAO.DEFAULT_PAGE_SIZE,
+                    anyType.getKind());
+            doHandle(anys, handler, resource);
+
+            if (!anys.isEmpty()) {
+                after = anys.get(anys.size() - 1).getKey();
+            }
+        } while (anys.size() == AnyDAO.DEFAULT_PAGE_SIZE && !interrupt);
+    }
+
+    protected Optional<Semaphore> resourcePermits(final ExternalResource resource) {
+        Integer maxObjects = Optional.ofNullable(resource.getConnector().getPoolConf()).
+                map(ConnPoolConf::getMaxObjects).orElse(null);
+        if (maxObjects == null || maxObjects < 1) {
+            return Optional.empty();
+        }
+
+        return Optional.of(RESOURCE_PERMITS.compute(
+                AuthContextUtils.getDomain() + '/' + resource.getKey(),
+                (k, v) -> v == null || v.getLeft() != maxObjects.intValue()
+                ? Pair.of(maxObjects, new Semaphore(maxObjects))
+                : v).getRight());
+    }
+
+    /**
+     * Streams the keys of all matching anys, page by page, to a bounded pool of workers pushing them in parallel:
+     * the next page is read while workers are still pushing the previous one, and reading is paused when too many
+     * keys are waiting to be pushed.
+     *
+     * @param anyType any type
+     * @param cond search condition
+     * @param handler push handler
+     * @param resource external resource
+     * @throws JobExecutionException if pushing any of the matching anys fails
+     */
+    protected void doHandleInParallel(
+            final AnyType anyType,
+            final SearchCond cond,
+            final SyncopePushResultHandler handler,
+            final ExternalResource resource)
+            throws JobExecutionException {
+
+        int concurrency = profile.getTask().getConcurrency();
+        Optional<Semaphore> resourcePermits = resourcePermits(resource);
+        Semaphore pending = new Semaphore(concurrency * MAX_PENDING_PER_WORKER);
+        AtomicReference<JobExecutionException> failure = new AtomicReference<>();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        ExecutorService workers = Executors.newFixedThreadPool(
+                concurrency, new CustomizableThreadFactory("Push-" + resource.getKey() + "-"));
+        try {
+            String after = null;
+            List<String> keys;
+            do {
+                keys = searchDAO.searchKeys(
+                        profile.getTask().getSourceRealm(),
+                        true,
+                        Set.of(profile.getTask().getSourceRealm().getFullPath()),
+                        cond,
+                        after,
+                        AnyDAO.DEFAULT_PAGE_SIZE,
+                        anyType.getKind());
+
+                for (int i = 0; i < keys.size() && !interrupt && failure.get() == null; i++) {
+                    String key = keys.get(i);
+
+                    pending.acquire();
+                    workers.execute(() -> {
+                        SecurityContext ctx = SecurityContextHolder.createEmptyContext();
+                        ctx.setAuthentication(authentication);
+                        SecurityContextHolder.setContext(ctx);
+                        try {
+                            if (resourcePermits.isPresent()) {
+                                resourcePermits.get().acquire();
+                            }
+                            try {
+                                if (!interrupt && failure.get() == null) {
+                                    handler.handle(key);
+                                    reportHandled(anyType.getKey(), key);
+                                }
+                            } finally {
+                                resourcePermits.ifPresent(Semaphore::release);
+                            }
+                        } catch (Exception e) {
+                            LOG.warn("Failure pushing '{}' on '{}'", key, resource, e);
+                            failure.compareAndSet(
+                                    null, new JobExecutionException("While pushing " + key + " on " + resource, e));
+                        } finally {
+                            SecurityContextHolder.clearContext();
+                            pending.release();
+                        }
+                    });
+                }
+
+                if (!keys.isEmpty()) {
+                    after = keys.get(keys.size() - 1);
+                }
+            } while (keys.size() == AnyDAO.DEFAULT_PAGE_SIZE && !interrupt && failure.get() == null);
+
+            pending.acquire(concurrency * MAX_PENDING_PER_WORKER);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobExecutionException("Interrupted while pushing on " + resource, e);
+        } finally {
+            workers.shutdown();
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
     protected RealmPushResultHandler buildRealmHandler() {
         return (RealmPushResultHandler) ApplicationContextProvider.getBeanFactory().
                 createBean(DefaultRealmPushResultHandler.class, AbstractBeanDefinition.AUTOWIRE_BY_NAME, false);
@@ -253,23 +416,10 @@ public class PushJobDelegate extends AbstractProvisioningJobDelegate<PushTask> {
             SearchCond cond = StringUtils.isBlank(filter)
                     ? anyDAO.getAllMatchingCond()
                     : SearchCondConverter.convert(searchCondVisitor, filter);
-            int count = searchDAO.count(
-                    profile.getTask().getSourceRealm(),
-                    true,
-                    Set.of(profile.getTask().getSourceRealm().getFullPath()),
-                    cond,
-                    anyType.getKind());
-            for (int page = 1; page <= (count / AnyDAO.DEFAULT_PAGE_SIZE) + 1 && !interrupt; page++) {
-                List<? extends Any<?>> anys = searchDAO.search(
-                        profile.getTask().getSourceRealm(),
-                        true,
-                        Set.of(profile.getTask().getSourceRealm().getFullPath()),
-                        cond,
-                        page,
-                        AnyDAO.DEFAULT_PAGE_SIZE,
-                        List.of(),
-                        anyType.getKind());
-                doHandle(anys, handler, pushTask.getResource());
+            if (pushTask.getConcurrency() > 1) {
+                doHandleInParallel(anyType, cond, handler, pushTask.getResource());
+            } else {
+                doHandleSequentially(anyType, cond, handler, pushTask.getResource());
             }
         }
 
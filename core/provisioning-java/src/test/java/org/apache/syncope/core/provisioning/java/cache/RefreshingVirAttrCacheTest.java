@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.syncope.common.keymaster.client.api.ConfParamOps;
+import org.apache.syncope.common.lib.SyncopeConstants;
+import org.apache.syncope.core.provisioning.api.cache.VirAttrCacheKey;
+import org.apache.syncope.core.provisioning.api.cache.VirAttrCacheValue;
+import org.apache.syncope.core.provisioning.api.serialization.POJOHelper;
+import org.apache.syncope.core.provisioning.java.ProvisioningProperties;
+import org.junit.jupiter.api.Test;
+
+public class RefreshingVirAttrCacheTest {
+
+    private static class InMemoryConfParamOps implements ConfParamOps {
+
+        private final Map<String, Object> params = new ConcurrentHashMap<>();
+
+        @Override
+        public Map<String, Object> list(final String domain) {
+            return new TreeMap<>(params);
+        }
+
+        @Override
+        public <T> T get(final String domain, final String key, final T defaultValue, final Class<T> reference) {
+            return reference.cast(params.getOrDefault(key, defaultValue));
+        }
+
+        @Override
+        public <T> void set(final String domain, final String key, final T value) {
+            params.put(key, value);
+        }
+
+        @Override
+        public void remove(final String domain, final String key) {
+            params.remove(key);
+        }
+    }
+
+    private static ProvisioningProperties.VirAttrCacheInvalidationProperties props() {
+        ProvisioningProperties.VirAttrCacheInvalidationProperties props =
+                new ProvisioningProperties.VirAttrCacheInvalidationProperties();
+        props.setMaxKeys(2);
+        return props;
+    }
+
+    private static RefreshingVirAttrCache cache(final ConfParamOps confParamOps) {
+        RefreshingVirAttrCache cache = new RefreshingVirAttrCache(props(), confParamOps, Runnable::run);
+        cache.setCacheSpec("maximumSize=100");
+        cache.load(SyncopeConstants.MASTER_DOMAIN, null);
+        return cache;
+    }
+
+    private static RefreshingVirAttrCache cache() {
+        return cache(new InMemoryConfParamOps());
+    }
+
+    private static VirAttrCacheKey key(final String schema) {
+        return new VirAttrCacheKey("USER", "1417acbe-cbf6-4277-9372-e75e04f97000", schema);
+    }
+
+    private static VirAttrCacheValue value(final String value) {
+        return new VirAttrCacheValue(List.of(value));
+    }
+
+    @Test
+    public void singleFlight() throws Exception {
+        RefreshingVirAttrCache cache = cache();
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Map<VirAttrCacheKey, VirAttrCacheValue>> first = CompletableFuture.supplyAsync(
+                () -> cache.getAll(Set.of(key("virtualdata")), keys -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Map.of(key("virtualdata"), value("remote"));
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Map<VirAttrCacheKey, VirAttrCacheValue>> second = CompletableFuture.supplyAsync(
+                () -> cache.getAll(Set.of(key("virtualdata")), keys -> {
+                    loads.incrementAndGet();
+                    return Map.of();
+                }));
+        release.countDown();
+
+        assertEquals(value("remote"), first.get(5, TimeUnit.SECONDS).get(key("virtualdata")));
+        assertEquals(value("remote"), second.get(5, TimeUnit.SECONDS).get(key("virtualdata")));
+        assertEquals(1, loads.get());
+        assertEquals(value("remote"), cache.get(key("virtualdata")));
+    }
+
+    @Test
+    public void expireWhileLoading() {
+        RefreshingVirAttrCache cache = cache();
+
+        Map<VirAttrCacheKey, VirAttrCacheValue> result = cache.getAll(Set.of(key("virtualdata")), keys -> {
+            cache.expire(key("virtualdata"));
+            return Map.of(key("virtualdata"), value("stale"));
+        });
+
+        // the caller gets what was read, but this is not cached
+        assertEquals(value("stale"), result.get(key("virtualdata")));
+        assertNull(cache.get(key("virtualdata")));
+    }
+
+    @Test
+    public void bulkRefresh() throws Exception {
+        List<Set<VirAttrCacheKey>> loads = new CopyOnWriteArrayList<>();
+        RefreshingVirAttrCache cache = new RefreshingVirAttrCache(props(), new InMemoryConfParamOps(), Runnable::run) {
+
+            @Override
+            protected Map<VirAttrCacheKey, VirAttrCacheValue> read(
+                    final String domain, final Set<VirAttrCacheKey> keys) {
+
+                loads.add(Set.copyOf(keys));
+                return Map.of(RefreshingVirAttrCacheTest.key("virtualdata"), value("new"));
+            }
+        };
+        cache.setCacheSpec("maximumSize=100");
+
+        cache.put(key("virtualdata"), value("old"));
+        cache.put(key("virtualPropagation"), value("old"));
+
+        CompletableFuture<VirAttrCacheValue> virtualdata = cache.cache.refresh(cache.key(key("virtualdata")));
+        CompletableFuture<VirAttrCacheValue> virtualPropagation =
+                cache.cache.refresh(cache.key(key("virtualPropagation")));
+
+        assertEquals(value("new"), virtualdata.get(5, TimeUnit.SECONDS));
+        // not read: the cached value is kept
+        assertEquals(value("old"), virtualPropagation.get(5, TimeUnit.SECONDS));
+
+        // both refreshes were read together
+        assertEquals(List.of(Set.of(key("virtualdata"), key("virtualPropagation"))), loads);
+        assertEquals(1L, cache.getStatistics().get("bulkRefreshCount"));
+        assertEquals(value("new"), cache.get(key("virtualdata")));
+        assertEquals(value("old"), cache.get(key("virtualPropagation")));
+    }
+
+    @Test
+    public void clusterInvalidation() {
+        ConfParamOps confParamOps = new InMemoryConfParamOps();
+        RefreshingVirAttrCache node1 = cache(confParamOps);
+        RefreshingVirAttrCache node2 = cache(confParamOps);
+        node2.poll();
+
+        node1.put(key("virtualdata"), value("a"));
+        node2.put(key("virtualdata"), value("a"));
+        node2.put(key("virtualPropagation"), value("b"));
+
+        node1.expire(key("virtualdata"));
+        node1.poll();
+        node2.poll();
+
+        assertNull(node2.get(key("virtualdata")));
+        assertNotNull(node2.get(key("virtualPropagation")));
+        assertEquals(1L, node2.getStatistics().get("receivedInvalidationCount"));
+
+        // more invalidations than retained between two polls: the whole domain is cleared
+        node2.put(key("virtualdata"), value("a"));
+        node1.expire(key("schema1"));
+        node1.expire(key("schema2"));
+        node1.expire(key("schema3"));
+        node1.poll();
+        node2.poll();
+
+        assertNull(node2.get(key("virtualdata")));
+        assertNull(node2.get(key("virtualPropagation")));
+
+        // a clean shutdown removes what was published
+        node1.unload();
+        assertTrue(confParamOps.list(SyncopeConstants.MASTER_DOMAIN).isEmpty());
+    }
+
+    @Test
+    public void removeStaleInvalidations() {
+        ConfParamOps confParamOps = new InMemoryConfParamOps();
+
+        // left by an instance which did not shut down cleanly
+        RefreshingVirAttrCache.InvalidationLog orphan = new RefreshingVirAttrCache.InvalidationLog();
+        orphan.setSeq(1);
+        orphan.setUpdated(System.currentTimeMillis() - Duration.ofHours(1).toMillis());
+        orphan.getKeys().add(new String[] { "1", "USER", "1417acbe-cbf6-4277-9372-e75e04f97000", "virtualdata" });
+        confParamOps.set(SyncopeConstants.MASTER_DOMAIN,
+                RefreshingVirAttrCache.INVALIDATIONS_PREFIX + "crashed", POJOHelper.serialize(orphan));
+
+        RefreshingVirAttrCache node = cache(confParamOps);
+        node.put(key("virtualdata"), value("a"));
+        node.poll();
+
+        assertFalse(confParamOps.list(SyncopeConstants.MASTER_DOMAIN).
+                containsKey(RefreshingVirAttrCache.INVALIDATIONS_PREFIX + "crashed"));
+        assertNotNull(node.get(key("virtualdata")));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.job.report;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.syncope.common.lib.SyncopeConstants;
+import org.apache.syncope.core.persistence.api.entity.ReportExec;
+import org.apache.syncope.core.provisioning.api.event.EntityLifecycleEvent;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReportStoreCleanupTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void deleteAfterCommit() throws IOException {
+        FileSystemReportStore reportStore = new FileSystemReportStore(directory);
+        String reference = reportStore.reference(SyncopeConstants.MASTER_DOMAIN, "execKey");
+        try (OutputStream os = reportStore.write(reference)) {
+            os.write("result".getBytes(StandardCharsets.UTF_8));
+        }
+        assertTrue(Files.exists(directory.resolve(reference)));
+
+        ReportExec reportExec = mock(ReportExec.class);
+        when(reportExec.getExecResultRef()).thenReturn(reference);
+
+        ReportStoreCleanup cleanup = new ReportStoreCleanup(reportStore);
+
+        cleanup.afterDelete(new EntityLifecycleEvent<>(
+                this, SyncDeltaType.UPDATE, reportExec, SyncopeConstants.MASTER_DOMAIN));
+        assertTrue(Files.exists(directory.resolve(reference)));
+
+        cleanup.afterDelete(new EntityLifecycleEvent<>(
+                this, SyncDeltaType.DELETE, reportExec, SyncopeConstants.MASTER_DOMAIN));
+        assertFalse(Files.exists(directory.resolve(reference)));
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.propagation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.syncope.common.lib.types.AnyTypeKind;
+import org.apache.syncope.common.lib.types.ResourceOperation;
+import org.apache.syncope.core.persistence.api.attrvalue.validation.PlainAttrValidationManager;
+import org.apache.syncope.core.persistence.api.dao.AnyObjectDAO;
+import org.apache.syncope.core.persistence.api.dao.ExternalResourceDAO;
+import org.apache.syncope.core.persistence.api.dao.GroupDAO;
+import org.apache.syncope.core.persistence.api.dao.PlainSchemaDAO;
+import org.apache.syncope.core.persistence.api.dao.TaskDAO;
+import org.apache.syncope.core.persistence.api.dao.UserDAO;
+import org.apache.syncope.core.persistence.api.entity.AnyUtilsFactory;
+import org.apache.syncope.core.persistence.api.entity.EntityFactory;
+import org.apache.syncope.core.persistence.api.entity.ExternalResource;
+import org.apache.syncope.core.persistence.api.entity.task.PropagationData;
+import org.apache.syncope.core.persistence.api.entity.task.PropagationTask;
+import org.apache.syncope.core.persistence.api.entity.task.TaskUtilsFactory;
+import org.apache.syncope.core.persistence.jpa.entity.task.JPAPropagationTask;
+import org.apache.syncope.core.provisioning.api.AuditManager;
+import org.apache.syncope.core.provisioning.api.ConnectorManager;
+import org.apache.syncope.core.provisioning.api.data.TaskDataBinder;
+import org.apache.syncope.core.provisioning.api.notification.NotificationManager;
+import org.apache.syncope.core.provisioning.api.propagation.PropagationReporter;
+import org.apache.syncope.core.provisioning.api.propagation.PropagationTaskCallable;
+import org.apache.syncope.core.provisioning.api.propagation.PropagationTaskInfo;
+import org.apache.syncope.core.provisioning.java.ProvisioningProperties;
+import org.apache.syncope.core.provisioning.java.pushpull.OutboundMatcher;
+import org.apache.syncope.core.provisioning.java.utils.ConnObjectUtils;
+import org.identityconnectors.framework.common.objects.Attribute;
+import org.identityconnectors.framework.common.objects.AttributeBuilder;
+import org.identityconnectors.framework.common.objects.AttributeDeltaBuilder;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+public class AbstractPropagationTaskExecutorTest {
+
+    private static final String ENTITY_KEY = "1417acbe-cbf6-4277-9372-e75e04f97000";
+
+    private static PropagationData data(final Attribute... attrs) {
+        return new PropagationData(Set.of(attrs));
+    }
+
+    private static Map<String, Object> values(final PropagationData data) {
+        return data.getAttributes().stream().
+                collect(Collectors.toMap(Attribute::getName, attr -> attr.getValue().get(0)));
+    }
+
+    private TaskDAO taskDAO;
+
+    private ExternalResource resource;
+
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    private AbstractPropagationTaskExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        taskDAO = mock(TaskDAO.class);
+        when(taskDAO.save(any(PropagationTask.class))).thenAnswer(ic -> ic.getArgument(0));
+
+        resource = mock(ExternalResource.class);
+        when(resource.getKey()).thenReturn("resource-ldap");
+
+        taskExecutor = mock(ThreadPoolTaskExecutor.class);
+
+        PropagationTaskCallable callable = mock(PropagationTaskCallable.class);
+        executor = new PriorityPropagationTaskExecutor(
+                mock(ConnectorManager.class),
+                mock(ConnObjectUtils.class),
+                mock(UserDAO.class),
+                mock(GroupDAO.class),
+                mock(AnyObjectDAO.class),
+                taskDAO,
+                mock(ExternalResourceDAO.class),
+                mock(PlainSchemaDAO.class),
+                mock(NotificationManager.class),
+                mock(AuditManager.class),
+                mock(TaskDataBinder.class),
+                mock(AnyUtilsFactory.class),
+                mock(TaskUtilsFactory.class),
+                mock(EntityFactory.class),
+                mock(OutboundMatcher.class),
+                mock(PlainAttrValidationManager.class),
+                new ResourceBulkheads(new ProvisioningProperties.ResourceBulkheadProperties()),
+                taskExecutor,
+                new PropagationOutboxDispatcher(
+                        new ProvisioningProperties.PropagationOutboxProperties(),
+                        taskDAO,
+                        mock(ThreadPoolTaskExecutor.class))) {
+
+            @Override
+            protected PropagationTaskCallable newPropagationTaskCallable(
+                    final PropagationTaskInfo taskInfo, final PropagationReporter reporter, final String executor) {
+
+                return callable;
+            }
+        };
+    }
+
+    private PropagationTask pending(final ResourceOperation operation, final PropagationData data) {
+        JPAPropagationTask pending = new JPAPropagationTask();
+        pending.setKey("d2a8bf8d-0b0b-4b7a-9d6a-0c4b2b4f4a1e");
+        pending.setOperation(operation);
+        pending.setAnyTypeKind(AnyTypeKind.USER);
+        pending.setAnyType(AnyTypeKind.USER.name());
+        pending.setEntityKey(ENTITY_KEY);
+        pending.setConnObjectKey("rossini");
+        pending.setPropagationData(data);
+        pending.setQueuedDate(OffsetDateTime.now().minusMinutes(1));
+        pending.setDueDate(OffsetDateTime.now().minusMinutes(1));
+        pending.setAttempts(0);
+
+        // once held, the queued task is handed over as-is
+        when(taskDAO.holdPropagation(anyString())).thenReturn(Optional.of(pending));
+        return pending;
+    }
+
+    private PropagationTaskInfo incoming(final ResourceOperation operation, final PropagationData data) {
+        return new PropagationTaskInfo(
+                resource,
+                operation,
+                ObjectClass.ACCOUNT,
+                AnyTypeKind.USER,
+                AnyTypeKind.USER.name(),
+                ENTITY_KEY,
+                "rossini",
+                data);
+    }
+
+    @Test
+    public void coalesceOperations() {
+        assertEquals(
+                Optional.of(ResourceOperation.CREATE),
+                executor.coalesce(ResourceOperation.CREATE, ResourceOperation.UPDATE));
+        assertEquals(
+                Optional.of(ResourceOperation.UPDATE),
+                executor.coalesce(ResourceOperation.UPDATE, ResourceOperation.UPDATE));
+        assertEquals(
+                Optional.of(ResourceOperation.DELETE),
+                executor.coalesce(ResourceOperation.UPDATE, ResourceOperation.DELETE));
+        assertEquals(
+                Optional.of(ResourceOperation.DELETE),
+                executor.coalesce(ResourceOperation.CREATE, ResourceOperation.DELETE));
+        assertTrue(executor.coalesce(ResourceOperation.DELETE, ResourceOperation.CREATE).isEmpty());
+        assertTrue(executor.coalesce(ResourceOperation.DELETE, ResourceOperation.UPDATE).isEmpty());
+        assertTrue(executor.coalesce(ResourceOperation.NONE, ResourceOperation.UPDATE).isEmpty());
+        assertTrue(executor.coalesce(ResourceOperation.UPDATE, ResourceOperation.NONE).isEmpty());
+    }
+
+    @Test
+    public void coalesceCreateAndUpdate() {
+        PropagationTask pending = pending(ResourceOperation.CREATE, data(
+                AttributeBuilder.build("cn", "Gioacchino Rossini"),
+                AttributeBuilder.build("mail", "rossini@apache.org")));
+        OffsetDateTime dueDate = pending.getDueDate();
+
+        Optional<PropagationTask> merged = executor.coalesce(pending, incoming(ResourceOperation.UPDATE, data(
+                AttributeBuilder.build("mail", "gioacchino.rossini@apache.org"),
+                AttributeBuilder.build("telephoneNumber", "+39 0721 000000"))));
+
+        assertTrue(merged.isPresent());
+        assertSame(pending, merged.get());
+        assertEquals(ResourceOperation.CREATE, merged.get().getOperation());
+        // attributes from the incoming task take precedence
+        assertEquals(
+                Map.of("cn", "Gioacchino Rossini",
+                        "mail", "gioacchino.rossini@apache.org",
+                        "telephoneNumber", "+39 0721 000000"),
+                values(merged.get().getPropagationData()));
+        // keeps its place in the queue
+        assertEquals(dueDate, merged.get().getDueDate());
+    }
+
+    @Test
+    public void coalesceUpdateAndDelete() {
+        PropagationTask pending = pending(ResourceOperation.UPDATE, data(
+                AttributeBuilder.build("mail", "rossini@apache.org")));
+
+        PropagationData deleteData = data(AttributeBuilder.build("cn", "Gioacchino Rossini"));
+        Optional<PropagationTask> merged = executor.coalesce(
+                pending, incoming(ResourceOperation.DELETE, deleteData));
+
+        assertTrue(merged.isPresent());
+        assertEquals(ResourceOperation.DELETE, merged.get().getOperation());
+        // nothing from the update is left to propagate
+        assertEquals(values(deleteData), values(merged.get().getPropagationData()));
+    }
+
+    @Test
+    public void noCoalesceDeleteAndCreate() {
+        PropagationTask pending = pending(ResourceOperation.DELETE, data(
+                AttributeBuilder.build("cn", "Gioacchino Rossini")));
+
+        assertFalse(executor.coalesce(pending, incoming(ResourceOperation.CREATE, data(
+                AttributeBuilder.build("cn", "Gioacchino Rossini")))).isPresent());
+
+        assertEquals(ResourceOperation.DELETE, pending.getOperation());
+        verify(taskDAO, never()).holdPropagation(anyString());
+        verify(taskDAO, never()).save(any(PropagationTask.class));
+    }
+
+    @Test
+    public void noCoalesceWithAttributeDeltas() {
+        PropagationTask pending = pending(ResourceOperation.UPDATE, data(
+                AttributeBuilder.build("mail", "rossini@apache.org")));
+
+        PropagationData deltas = data();
+        deltas.setAttributeDeltas(Set.of(AttributeDeltaBuilder.build("mail", Set.of("gioacchino@apache.org"), null)));
+
+        assertFalse(executor.coalesce(pending, incoming(ResourceOperation.UPDATE, deltas)).isPresent());
+        verify(taskDAO, never()).holdPropagation(anyString());
+    }
+
+    @Test
+    public void noCoalesceWhenAlreadyAttempted() {
+        PropagationTask pending = pending(ResourceOperation.CREATE, data(
+                AttributeBuilder.build("cn", "Gioacchino Rossini")));
+        // meanwhile claimed for execution
+        when(taskDAO.holdPropagation(anyString())).thenReturn(Optional.empty());
+
+        assertFalse(executor.coalesce(pending, incoming(ResourceOperation.UPDATE, data(
+                AttributeBuilder.build("mail", "rossini@apache.org")))).isPresent());
+        verify(taskDAO, never()).save(any(PropagationTask.class));
+    }
+
+    @Test
+    public void noCoalesceWithDefaultConfiguration() {
+        when(resource.getPropagationPriority()).thenReturn(null);
+
+        // the propagation outbox is disabled by default: tasks are handed over to the thread pool as generated
+        executor.execute(List.of(
+                incoming(ResourceOperation.UPDATE, data(AttributeBuilder.build("cn", "Gioacchino Rossini"))),
+                incoming(ResourceOperation.UPDATE, data(AttributeBuilder.build("mail", "rossini@apache.org")))),
+                true,
+                "admin");
+
+        verify(taskExecutor, times(2)).execute(any(Runnable.class));
+        verify(taskDAO, never()).findLastQueuedPropagation(any(), anyString(), anyString());
+        verify(taskDAO, never()).holdPropagation(anyString());
+        verify(taskDAO, never()).save(any(PropagationTask.class));
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.propagation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.syncope.core.provisioning.java.ProvisioningProperties;
+import org.junit.jupiter.api.Test;
+
+public class ResourceBulkheadsTest {
+
+    private static ProvisioningProperties.ResourceBulkheadProperties props() {
+        ProvisioningProperties.ResourceBulkheadProperties props =
+                new ProvisioningProperties.ResourceBulkheadProperties();
+        props.setEnabled(true);
+        props.setMaxInFlight(2);
+        props.setSlidingWindowSize(4);
+        props.setFailureRateThreshold(50);
+        props.setLatencyThreshold(Duration.ofSeconds(1));
+        props.setOpenDuration(Duration.ofMillis(200));
+        props.setAcquireTimeout(Duration.ofMillis(200));
+        props.setPoolAcquireTimeout(Duration.ZERO);
+        props.setRetryDelay(Duration.ofMillis(500));
+        return props;
+    }
+
+    @Test
+    public void concurrencyLimit() {
+        ResourceBulkheads bulkheads = new ResourceBulkheads(props());
+
+        ResourceBulkheads.Permit first = bulkheads.acquire("resource-ldap");
+        ResourceBulkheads.Permit second = bulkheads.acquire("resource-ldap");
+        assertTrue(first.isGranted());
+        assertTrue(second.isGranted());
+        ResourceBulkheads.Permit rejected = bulkheads.acquire("resource-ldap");
+        assertFalse(rejected.isGranted());
+        assertEquals(Duration.ofMillis(500), rejected.getRetryAfter());
+
+        // other resources are not affected
+        assertTrue(bulkheads.acquire("ws-target-resource-1").isGranted());
+
+        first.release(false, Duration.ofMillis(10));
+        assertTrue(bulkheads.acquire("resource-ldap").isGranted());
+        assertEquals(1, bulkheads.getStatus().get("resource-ldap").getRejected());
+
+        // slow calls halve the limit
+        second.release(false, Duration.ofSeconds(2));
+        assertEquals(1, bulkheads.getStatus().get("resource-ldap").getLimit());
+    }
+
+    @Test
+    public void waitForConcurrencyLimit() throws InterruptedException, ExecutionException, TimeoutException {
+        ResourceBulkheads bulkheads = new ResourceBulkheads(props());
+
+        ResourceBulkheads.Permit first = bulkheads.acquire("resource-ldap");
+        ResourceBulkheads.Permit second = bulkheads.acquire("resource-ldap");
+
+        // no slot freed within the timeout
+        ResourceBulkheads.Permit timedOut = bulkheads.acquireWaiting("resource-ldap");
+        assertFalse(timedOut.isGranted());
+        assertEquals(Duration.ofMillis(500), timedOut.getRetryAfter());
+
+        // a slot freed while waiting
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ResourceBulkheads.Permit> waiting =
+                    executor.submit(() -> bulkheads.acquireWaiting("resource-ldap"));
+            Thread.sleep(50);
+            first.release(false, Duration.ofMillis(10));
+            assertTrue(waiting.get(1, TimeUnit.SECONDS).isGranted());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, bulkheads.getStatus().get("resource-ldap").getInFlight());
+        second.release(false, Duration.ofMillis(10));
+    }
+
+    @Test
+    public void pooledDoesNotWait() {
+        ProvisioningProperties.ResourceBulkheadProperties props = props();
+        props.setAcquireTimeout(Duration.ofSeconds(30));
+        ResourceBulkheads bulkheads = new ResourceBulkheads(props);
+
+        bulkheads.acquire("resource-ldap");
+        bulkheads.acquire("resource-ldap");
+
+        long start = System.nanoTime();
+        ResourceBulkheads.Permit rejected = bulkheads.acquirePooled("resource-ldap");
+        assertFalse(rejected.isGranted());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+        assertEquals(1, bulkheads.getStatus().get("resource-ldap").getRejected());
+    }
+
+    @Test
+    public void circuitBreaker() throws InterruptedException {
+        ResourceBulkheads bulkheads = new ResourceBulkheads(props());
+
+        for (int i = 0; i < 4; i++) {
+            bulkheads.acquire("resource-ldap").release(i % 2 == 0, Duration.ofMillis(10));
+        }
+        assertEquals(ResourceBulkheads.State.OPEN, bulkheads.getStatus().get("resource-ldap").getState());
+
+        ResourceBulkheads.Permit rejected = bulkheads.acquire("resource-ldap");
+        assertFalse(rejected.isGranted());
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ZERO) > 0);
+
+        Thread.sleep(250);
+
+        // only one probe is let through while half-open
+        ResourceBulkheads.Permit probe = bulkheads.acquire("resource-ldap");
+        assertTrue(probe.isGranted());
+        assertEquals(ResourceBulkheads.State.HALF_OPEN, bulkheads.getStatus().get("resource-ldap").getState());
+        assertFalse(bulkheads.acquire("resource-ldap").isGranted());
+
+        probe.release(false, Duration.ofMillis(10));
+        assertEquals(ResourceBulkheads.State.CLOSED, bulkheads.getStatus().get("resource-ldap").getState());
+        assertTrue(bulkheads.acquire("resource-ldap").isGranted());
+    }
+
+    @Test
+    public void disabled() {
+        ProvisioningProperties.ResourceBulkheadProperties props = props();
+        props.setEnabled(false);
+        ResourceBulkheads bulkheads = new ResourceBulkheads(props);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bulkheads.acquire("resource-ldap").isGranted());
+        }
+        assertTrue(bulkheads.getStatus().isEmpty());
+    }
+}
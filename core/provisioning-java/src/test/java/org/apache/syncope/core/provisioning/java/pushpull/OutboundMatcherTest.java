@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.pushpull;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.syncope.common.lib.to.Item;
+import org.apache.syncope.common.lib.to.Mapping;
+import org.apache.syncope.common.lib.to.Provision;
+import org.apache.syncope.core.provisioning.api.Connector;
+import org.apache.syncope.core.provisioning.java.AbstractTest;
+import org.identityconnectors.framework.common.objects.ConnectorObject;
+import org.identityconnectors.framework.common.objects.ConnectorObjectBuilder;
+import org.identityconnectors.framework.common.objects.Name;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SearchResult;
+import org.identityconnectors.framework.common.objects.filter.Filter;
+import org.identityconnectors.framework.spi.SearchResultsHandler;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+public class OutboundMatcherTest extends AbstractTest {
+
+    @Mock
+    private Connector connector;
+
+    private static ConnectorObject connObj(final String name) {
+        return new ConnectorObjectBuilder().setObjectClass(ObjectClass.ACCOUNT).setUid(name).setName(name).build();
+    }
+
+    @Test
+    public void matchByConnObjectKeyValues() {
+        Item connObjectKeyItem = new Item();
+        connObjectKeyItem.setExtAttrName(Name.NAME);
+        connObjectKeyItem.setConnObjectKey(true);
+
+        Provision provision = new Provision();
+        provision.setAnyType("USER");
+        provision.setObjectClass(ObjectClass.ACCOUNT_NAME);
+        provision.setIgnoreCaseMatch(true);
+        provision.setMapping(new Mapping());
+        provision.getMapping().add(connObjectKeyItem);
+
+        // the remote resource only knows about two of the requested values, with different case
+        when(connector.search(
+                any(ObjectClass.class),
+                any(Filter.class),
+                any(SearchResultsHandler.class),
+                anyInt(),
+                isNull(),
+                anyList(),
+                any(OperationOptions.class))).thenAnswer(ic -> {
+
+            SearchResultsHandler handler = ic.getArgument(2);
+            handler.handle(connObj("USER7"));
+            handler.handle(connObj("user101"));
+            return new SearchResult();
+        });
+
+        List<String> values = IntStream.range(0, 120).mapToObj(i -> "User" + i).collect(Collectors.toList());
+
+        Map<String, ConnectorObject> matched = new OutboundMatcher(null, null, null, null, null).
+                matchByConnObjectKeyValues(
+                        connector, connObjectKeyItem, values, provision, Optional.empty(), List.of());
+
+        assertEquals(2, matched.size());
+        assertEquals("USER7", matched.get("User7").getName().getNameValue());
+        assertEquals("user101", matched.get("User101").getName().getNameValue());
+        assertFalse(matched.containsKey("User8"));
+
+        // 120 values are looked up in 3 chunks
+        verify(connector, times(3)).search(
+                any(ObjectClass.class),
+                any(Filter.class),
+                any(SearchResultsHandler.class),
+                anyInt(),
+                isNull(),
+                anyList(),
+                any(OperationOptions.class));
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.pushpull;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.syncope.core.persistence.api.entity.task.PullTask;
+import org.apache.syncope.core.provisioning.api.pushpull.ProvisioningProfile;
+import org.apache.syncope.core.provisioning.api.pushpull.PullActions;
+import org.apache.syncope.core.provisioning.api.pushpull.SyncopePullExecutor;
+import org.apache.syncope.core.provisioning.api.pushpull.SyncopePullResultHandler;
+import org.apache.syncope.core.provisioning.java.AbstractTest;
+import org.identityconnectors.framework.common.objects.ConnectorObjectBuilder;
+import org.identityconnectors.framework.common.objects.Name;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.SyncDelta;
+import org.identityconnectors.framework.common.objects.SyncDeltaBuilder;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.identityconnectors.framework.common.objects.Uid;
+import org.junit.jupiter.api.Test;
+
+public class PartitionedSyncDeltaDispatcherTest extends AbstractTest {
+
+    private static class TestPullResultHandler implements SyncopePullResultHandler {
+
+        private final Map<String, List<Integer>> handled = new ConcurrentHashMap<>();
+
+        private final Map<String, String> threads = new ConcurrentHashMap<>();
+
+        private final int failAt;
+
+        private SyncopePullExecutor executor;
+
+        TestPullResultHandler(final int failAt) {
+            this.failAt = failAt;
+        }
+
+        @Override
+        public ProvisioningProfile<PullTask, PullActions> getProfile() {
+            return null;
+        }
+
+        @Override
+        public void setProfile(final ProvisioningProfile<PullTask, PullActions> profile) {
+            // not used
+        }
+
+        @Override
+        public void setPullExecutor(final SyncopePullExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public boolean handle(final SyncDelta delta) {
+            int token = (Integer) delta.getToken().getValue();
+            if (token == failAt) {
+                return false;
+            }
+
+            handled.computeIfAbsent(delta.getUid().getUidValue(), k -> new ArrayList<>()).add(token);
+            threads.merge(
+                    delta.getUid().getUidValue(),
+                    Thread.currentThread().getName(),
+                    (prev, curr) -> prev.equals(curr) ? prev : "MORE THAN ONE THREAD");
+
+            executor.setLatestSyncToken(delta.getObjectClass().getObjectClassValue(), delta.getToken());
+            executor.reportHandled(delta.getObjectClass().getObjectClassValue(), delta.getObject().getName());
+            return true;
+        }
+    }
+
+    private static class TestPullExecutor implements SyncopePullExecutor {
+
+        private final AtomicInteger reported = new AtomicInteger();
+
+        private volatile SyncToken latestSyncToken;
+
+        @Override
+        public void setLatestSyncToken(final String objectClass, final SyncToken latestSyncToken) {
+            this.latestSyncToken = latestSyncToken;
+        }
+
+        @Override
+        public void reportHandled(final String objectClass, final Name name) {
+            reported.incrementAndGet();
+        }
+
+        @Override
+        public boolean wasInterruptRequested() {
+            return false;
+        }
+
+        @Override
+        public void setInterrupted() {
+            // not used
+        }
+    }
+
+    private static SyncDelta delta(final int token) {
+        String uid = "uid" + (token % 10);
+        return new SyncDeltaBuilder().
+                setDeltaType(SyncDeltaType.CREATE_OR_UPDATE).
+                setToken(new SyncToken(token)).
+                setUid(new Uid(uid)).
+                setObject(new ConnectorObjectBuilder().
+                        setObjectClass(ObjectClass.ACCOUNT).setUid(uid).setName(uid).build()).
+                build();
+    }
+
+    @Test
+    public void dispatch() throws InterruptedException {
+        TestPullResultHandler handler = new TestPullResultHandler(-1);
+        TestPullExecutor executor = new TestPullExecutor();
+
+        PartitionedSyncDeltaDispatcher dispatcher = new PartitionedSyncDeltaDispatcher(
+                handler, executor, ObjectClass.ACCOUNT_NAME, 4);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(dispatcher.handle(delta(i)));
+            }
+            dispatcher.await();
+        } finally {
+            dispatcher.shutdown();
+        }
+
+        assertEquals(1000, executor.reported.get());
+        assertEquals(999, executor.latestSyncToken.getValue());
+
+        // deltas about the same object were handled in order, by the same thread
+        assertEquals(10, handler.handled.size());
+        handler.handled.forEach((uid, tokens) -> {
+            assertEquals(100, tokens.size());
+            for (int i = 1; i < tokens.size(); i++) {
+                assertTrue(tokens.get(i - 1) < tokens.get(i));
+            }
+        });
+        handler.threads.values().forEach(thread -> assertTrue(thread.startsWith("Pull-")));
+
+        // executor was given back to the handler
+        assertEquals(executor, handler.executor);
+    }
+
+    @Test
+    public void stopOnFailure() throws InterruptedException {
+        TestPullResultHandler handler = new TestPullResultHandler(500);
+        TestPullExecutor executor = new TestPullExecutor();
+
+        PartitionedSyncDeltaDispatcher dispatcher = new PartitionedSyncDeltaDispatcher(
+                handler, executor, ObjectClass.ACCOUNT_NAME, 4);
+        boolean stopped = false;
+        try {
+            for (int i = 0; i < 1000 && !stopped; i++) {
+                stopped = !dispatcher.handle(delta(i));
+            }
+            dispatcher.await();
+        } finally {
+            dispatcher.shutdown();
+        }
+
+        // no sync token beyond the failed delta was reported, even though later deltas might have been handled
+        assertTrue((Integer) executor.latestSyncToken.getValue() < 500);
+        assertFalse(dispatcher.handle(delta(1000)));
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.provisioning.java.pushpull;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.syncope.common.lib.to.ProvisioningReport;
+import org.apache.syncope.common.lib.types.AnyTypeKind;
+import org.apache.syncope.common.lib.types.ResourceOperation;
+import org.apache.syncope.core.persistence.api.dao.AnySearchDAO;
+import org.apache.syncope.core.persistence.api.dao.search.SearchCond;
+import org.apache.syncope.core.persistence.api.entity.AnyType;
+import org.apache.syncope.core.persistence.api.entity.ConnInstance;
+import org.apache.syncope.core.persistence.api.entity.ExternalResource;
+import org.apache.syncope.core.persistence.api.entity.Realm;
+import org.apache.syncope.core.persistence.api.entity.task.PushTask;
+import org.apache.syncope.core.persistence.api.entity.user.User;
+import org.apache.syncope.core.provisioning.api.Connector;
+import org.apache.syncope.core.provisioning.api.pushpull.ProvisioningProfile;
+import org.apache.syncope.core.provisioning.api.pushpull.PushActions;
+import org.apache.syncope.core.provisioning.api.pushpull.SyncopePushResultHandler;
+import org.apache.syncope.core.provisioning.java.AbstractTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.JobExecutionException;
+
+public class PushJobDelegateTest extends AbstractTest {
+
+    private static final List<String> KEYS = IntStream.range(0, 1234).
+            mapToObj(i -> String.format("%08d", i)).collect(Collectors.toList());
+
+    private static class TestPushResultHandler implements SyncopePushResultHandler {
+
+        private final Set<String> handled = ConcurrentHashMap.newKeySet();
+
+        private final String failAt;
+
+        private ProvisioningProfile<PushTask, PushActions> profile;
+
+        TestPushResultHandler(final String failAt) {
+            this.failAt = failAt;
+        }
+
+        @Override
+        public ProvisioningProfile<PushTask, PushActions> getProfile() {
+            return profile;
+        }
+
+        @Override
+        public void setProfile(final ProvisioningProfile<PushTask, PushActions> profile) {
+            this.profile = profile;
+        }
+
+        @Override
+        public boolean handle(final String anyKey) {
+            if (anyKey.equals(failAt)) {
+                throw new IllegalStateException("Failure for " + anyKey);
+            }
+
+            if (!handled.add(anyKey)) {
+                throw new IllegalStateException("Already pushed: " + anyKey);
+            }
+
+            ProvisioningReport report = new ProvisioningReport();
+            report.setKey(anyKey);
+            report.setAnyType(AnyTypeKind.USER.name());
+            report.setOperation(ResourceOperation.UPDATE);
+            report.setStatus(ProvisioningReport.Status.SUCCESS);
+            profile.getResults().add(report);
+            return true;
+        }
+    }
+
+    private static List<String> page(final String after, final int size) {
+        return KEYS.stream().filter(key -> after == null || key.compareTo(after) > 0).
+                limit(size).collect(Collectors.toList());
+    }
+
+    private AnySearchDAO searchDAO;
+
+    private AnyType anyType;
+
+    private ExternalResource resource;
+
+    @BeforeEach
+    public void setUp() {
+        anyType = mock(AnyType.class);
+        lenient().when(anyType.getKey()).thenReturn(AnyTypeKind.USER.name());
+        lenient().when(anyType.getKind()).thenReturn(AnyTypeKind.USER);
+
+        resource = mock(ExternalResource.class);
+        lenient().when(resource.getKey()).thenReturn("resource-test");
+        lenient().when(resource.getConnector()).thenReturn(mock(ConnInstance.class));
+
+        searchDAO = mock(AnySearchDAO.class);
+        lenient().when(searchDAO.searchKeys(
+                any(Realm.class), anyBoolean(), anySet(), any(SearchCond.class),
+                nullable(String.class), anyInt(), any(AnyTypeKind.class))).
+                thenAnswer(ic -> page(ic.getArgument(4), ic.getArgument(5)));
+        lenient().doAnswer(ic -> page(ic.getArgument(4), ic.getArgument(5)).stream().map(key -> {
+            User user = mock(User.class);
+            lenient().when(user.getKey()).thenReturn(key);
+            lenient().when(user.getType()).thenReturn(anyType);
+            lenient().when(user.getUsername()).thenReturn("user" + key);
+            return user;
+        }).collect(Collectors.toList())).when(searchDAO).search(
+                any(Realm.class), anyBoolean(), anySet(), any(SearchCond.class),
+                nullable(String.class), anyInt(), any(AnyTypeKind.class));
+    }
+
+    private PushJobDelegate delegate(final int concurrency) {
+        Realm realm = mock(Realm.class);
+        lenient().when(realm.getFullPath()).thenReturn("/");
+
+        PushTask task = mock(PushTask.class);
+        lenient().when(task.getConcurrency()).thenReturn(concurrency);
+        lenient().when(task.getSourceRealm()).thenReturn(realm);
+
+        PushJobDelegate delegate = new PushJobDelegate();
+        delegate.searchDAO = searchDAO;
+        delegate.profile = new ProvisioningProfile<>(mock(Connector.class), task);
+        return delegate;
+    }
+
+    private static List<String> results(final PushJobDelegate delegate) {
+        return delegate.profile.getResults().stream().
+                map(report -> report.getKey() + ' ' + report.getStatus() + ' ' + report.getOperation()).
+                sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void parallelAndSequentialPushSameResults() throws JobExecutionException {
+        SearchCond cond = mock(SearchCond.class);
+
+        PushJobDelegate sequential = delegate(1);
+        TestPushResultHandler sequentialHandler = new TestPushResultHandler(null);
+        sequentialHandler.setProfile(sequential.profile);
+        sequential.doHandleSequentially(anyType, cond, sequentialHandler, resource);
+
+        PushJobDelegate parallel = delegate(4);
+        TestPushResultHandler parallelHandler = new TestPushResultHandler(null);
+        parallelHandler.setProfile(parallel.profile);
+        parallel.doHandleInParallel(anyType, cond, parallelHandler, resource);
+
+        assertEquals(Set.copyOf(KEYS), sequentialHandler.handled);
+        assertEquals(sequentialHandler.handled, parallelHandler.handled);
+
+        assertEquals(KEYS.size(), sequential.profile.getResults().size());
+        assertEquals(results(sequential), results(parallel));
+
+        assertTrue(sequential.currentStatus().contains(KEYS.size() + "\t" + AnyTypeKind.USER.name()));
+        assertTrue(parallel.currentStatus().contains(KEYS.size() + "\t" + AnyTypeKind.USER.name()));
+    }
+
+    @Test
+    public void parallelAndSequentialPushSameFailure() {
+        SearchCond cond = mock(SearchCond.class);
+        String failAt = KEYS.get(700);
+
+        PushJobDelegate sequential = delegate(1);
+        TestPushResultHandler sequentialHandler = new TestPushResultHandler(failAt);
+        sequentialHandler.setProfile(sequential.profile);
+        JobExecutionException sequentialFailure = assertThrows(JobExecutionException.class,
+                () -> sequential.doHandleSequentially(anyType, cond, sequentialHandler, resource));
+
+        PushJobDelegate parallel = delegate(4);
+        TestPushResultHandler parallelHandler = new TestPushResultHandler(failAt);
+        parallelHandler.setProfile(parallel.profile);
+        JobExecutionException parallelFailure = assertThrows(JobExecutionException.class,
+                () -> parallel.doHandleInParallel(anyType, cond, parallelHandler, resource));
+
+        assertEquals(IllegalStateException.class, sequentialFailure.getCause().getClass());
+        assertEquals(sequentialFailure.getCause().getMessage(), parallelFailure.getCause().getMessage());
+
+        // sequential push stops right at failure, parallel push might have completed anything already dispatched
+        assertEquals(Set.copyOf(KEYS.subList(0, 700)), sequentialHandler.handled);
+        assertFalse(parallelHandler.handled.contains(failAt));
+        assertTrue(parallelHandler.handled.size() < KEYS.size());
+    }
+
+    @Test
+    public void interruptStopsParallelPush() throws JobExecutionException {
+        PushJobDelegate parallel = delegate(4);
+        TestPushResultHandler handler = new TestPushResultHandler(null) {
+
+            @Override
+            public boolean handle(final String anyKey) {
+                if (anyKey.equals(KEYS.get(100))) {
+                    parallel.interrupt();
+                }
+                return super.handle(anyKey);
+            }
+        };
+        handler.setProfile(parallel.profile);
+        parallel.doHandleInParallel(anyType, mock(SearchCond.class), handler, resource);
+
+        assertTrue(handler.handled.size() < KEYS.size());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.spring.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.syncope.common.lib.types.CipherAlgorithm;
+import org.apache.syncope.core.spring.ApplicationContextProvider;
+import org.jasypt.commons.CommonUtils;
+import org.jasypt.digest.StandardStringDigester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Compares the throughput of {@link Encryptor} against the previous implementation, which was creating and
+ * initializing a new {@link Cipher} for each AES operation and sharing a single digester per algorithm.
+ *
+ * Run with {@code mvn -Pbenchmark} from this module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class EncryptorBenchmark {
+
+    private static final String SECRET_KEY = "1abcdefghilmnopqrstuvz2!";
+
+    private static final String VALUE = "password";
+
+    @Param({ "AES", "SHA256", "SSHA256", "BCRYPT" })
+    private CipherAlgorithm cipherAlgorithm;
+
+    private Encryptor encryptor;
+
+    private SecretKeySpec keySpec;
+
+    private StandardStringDigester digester;
+
+    private String encoded;
+
+    @Setup
+    public void setup() throws Exception {
+        // no Spring context is available when running via JMH
+        SecurityProperties securityProperties = new SecurityProperties();
+        if (ApplicationContextProvider.getApplicationContext() == null) {
+            GenericApplicationContext ctx = new GenericApplicationContext();
+            ctx.registerBean(SecurityProperties.class, () -> securityProperties);
+            ctx.refresh();
+            ApplicationContextProvider.setApplicationContext(ctx);
+        }
+
+        encryptor = Encryptor.getInstance(SECRET_KEY);
+
+        keySpec = new SecretKeySpec(
+                ArrayUtils.subarray(SECRET_KEY.getBytes(StandardCharsets.UTF_8), 0, 16),
+                CipherAlgorithm.AES.getAlgorithm());
+
+        digester = new StandardStringDigester();
+        if (cipherAlgorithm.isSalted()) {
+            digester.setAlgorithm(cipherAlgorithm.getAlgorithm().replaceFirst("S\\-", ""));
+            digester.setIterations(securityProperties.getDigester().getSaltIterations());
+            digester.setSaltSizeBytes(securityProperties.getDigester().getSaltSizeBytes());
+            digester.setInvertPositionOfPlainSaltInEncryptionResults(
+                    securityProperties.getDigester().isInvertPositionOfPlainSaltInEncryptionResults());
+            digester.setInvertPositionOfSaltInMessageBeforeDigesting(
+                    securityProperties.getDigester().isInvertPositionOfSaltInMessageBeforeDigesting());
+            digester.setUseLenientSaltSizeCheck(securityProperties.getDigester().isUseLenientSaltSizeCheck());
+        } else if (cipherAlgorithm != CipherAlgorithm.AES && cipherAlgorithm != CipherAlgorithm.BCRYPT) {
+            digester.setAlgorithm(cipherAlgorithm.getAlgorithm());
+            digester.setIterations(1);
+            digester.setSaltSizeBytes(0);
+        }
+        digester.setStringOutputType(CommonUtils.STRING_OUTPUT_TYPE_HEXADECIMAL);
+
+        encoded = encryptor.encode(VALUE, cipherAlgorithm);
+    }
+
+    @Benchmark
+    public String encodeBaseline() throws Exception {
+        switch (cipherAlgorithm) {
+            case AES:
+                Cipher cipher = Cipher.getInstance(CipherAlgorithm.AES.getAlgorithm());
+                cipher.init(Cipher.ENCRYPT_MODE, keySpec);
+                return Base64.getEncoder().encodeToString(cipher.doFinal(VALUE.getBytes(StandardCharsets.UTF_8)));
+
+            case BCRYPT:
+                return BCrypt.hashpw(VALUE, BCrypt.gensalt());
+
+            default:
+                return digester.digest(VALUE);
+        }
+    }
+
+    @Benchmark
+    public String encodePooled() throws Exception {
+        return encryptor.encode(VALUE, cipherAlgorithm);
+    }
+
+    @Benchmark
+    public boolean verifyBaseline() throws Exception {
+        switch (cipherAlgorithm) {
+            case AES:
+                Cipher cipher = Cipher.getInstance(CipherAlgorithm.AES.getAlgorithm());
+                cipher.init(Cipher.DECRYPT_MODE, keySpec);
+                return VALUE.equals(
+                        new String(cipher.doFinal(Base64.getDecoder().decode(encoded)), StandardCharsets.UTF_8));
+
+            case BCRYPT:
+                return BCrypt.checkpw(VALUE, encoded);
+
+            default:
+                return digester.matches(VALUE, encoded);
+        }
+    }
+
+    @Benchmark
+    public boolean verifyPooled() throws Exception {
+        return cipherAlgorithm == CipherAlgorithm.AES
+                ? VALUE.equals(encryptor.decode(encoded, cipherAlgorithm))
+                : encryptor.verify(VALUE, cipherAlgorithm, encoded);
+    }
+}
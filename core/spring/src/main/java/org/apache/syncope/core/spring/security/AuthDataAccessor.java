@@ -124,6 +124,8 @@ public class AuthDataAccessor {
 
     protected final ImplementationLookup implementationLookup;
 
+    protected final AuthDataCache authDataCache;
+
     private Map<String, JWTSSOProvider> jwtSSOProviders;
 
     public AuthDataAccessor(
@@ -140,7 +142,8 @@ public class AuthDataAccessor {
             final ConnectorManager connectorManager,
             final AuditManager auditManager,
             final MappingManager mappingManager,
-            final ImplementationLookup implementationLookup) {
+            final ImplementationLookup implementationLookup,
+            final AuthDataCache authDataCache) {
 
         this.securityProperties = securityProperties;
         this.realmDAO = realmDAO;
@@ -156,6 +159,7 @@ public class AuthDataAccessor {
         this.auditManager = auditManager;
         this.mappingManager = mappingManager;
         this.implementationLookup = implementationLookup;
+        this.authDataCache = authDataCache;
     }
 
     public JWTSSOProvider getJWTSSOProvider(final String issuer) {
@@ -432,20 +436,34 @@ public class AuthDataAccessor {
             authorities = ANONYMOUS_AUTHORITIES;
         } else if (securityProperties.getAdminUser().equals(username)) {
             authorities = getAdminAuthorities();
-        } else if (delegationKey != null) {
-            Delegation delegation = Optional.ofNullable(delegationDAO.find(delegationKey)).
-                    orElseThrow(() -> new UsernameNotFoundException(
-                    "Could not find delegation " + delegationKey));
-
-            authorities = delegation.getRoles().isEmpty()
-                    ? getUserAuthorities(delegation.getDelegating())
-                    : getDelegatedAuthorities(delegation);
         } else {
-            User user = Optional.ofNullable(userDAO.findByUsername(username)).
-                    orElseThrow(() -> new UsernameNotFoundException(
-                    "Could not find any user with username " + username));
+            String domain = AuthContextUtils.getDomain();
+
+            Optional<Set<SyncopeGrantedAuthority>> cached =
+                    authDataCache.getAuthorities(domain, username, delegationKey);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+
+            User user;
+            if (delegationKey != null) {
+                Delegation delegation = Optional.ofNullable(delegationDAO.find(delegationKey)).
+                        orElseThrow(() -> new UsernameNotFoundException(
+                        "Could not find delegation " + delegationKey));
+
+                user = delegation.getDelegated();
+                authorities = delegation.getRoles().isEmpty()
+                        ? getUserAuthorities(delegation.getDelegating())
+                        : getDelegatedAuthorities(delegation);
+            } else {
+                user = Optional.ofNullable(userDAO.findByUsername(username)).
+                        orElseThrow(() -> new UsernameNotFoundException(
+                        "Could not find any user with username " + username));
+
+                authorities = getUserAuthorities(user);
+            }
 
-            authorities = getUserAuthorities(user);
+            authDataCache.putAuthorities(domain, user.getKey(), username, delegationKey, authorities);
         }
 
         return authorities;
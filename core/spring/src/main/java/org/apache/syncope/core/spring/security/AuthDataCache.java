@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.spring.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.syncope.common.lib.types.AnyTypeKind;
+import org.apache.syncope.core.persistence.api.entity.Delegation;
+import org.apache.syncope.core.persistence.api.entity.Role;
+import org.apache.syncope.core.persistence.api.entity.group.Group;
+import org.apache.syncope.core.persistence.api.entity.user.User;
+import org.apache.syncope.core.provisioning.api.event.AnyLifecycleEvent;
+import org.apache.syncope.core.provisioning.api.event.BulkAnyLifecycleEvent;
+import org.apache.syncope.core.provisioning.api.event.EntityLifecycleEvent;
+import org.apache.syncope.core.provisioning.api.utils.RealmUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Per-domain cache of computed authorities, to avoid traversing roles, dynamic roles, delegations and group
+ * ownerships every time authorities are needed.
+ *
+ * Only authorities are cached: access token existence, user status and JWT SSO provider resolution are checked on
+ * every request, so that revoked tokens and suspended users are rejected at once on all Core instances.
+ * Entries are evicted once changes to the related users, groups, roles or delegations are committed, but only on the
+ * Core instance where such changes occur: with more than one instance, removed entitlements keep being granted by the
+ * others until the configured expiration, this is why caching is disabled by default.
+ */
+public class AuthDataCache {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(AuthDataCache.class);
+
+    protected static class Entry {
+
+        protected final String userKey;
+
+        protected final String username;
+
+        protected final String delegationKey;
+
+        protected final Set<SyncopeGrantedAuthority> authorities;
+
+        protected Entry(
+                final String userKey,
+                final String username,
+                final String delegationKey,
+                final Set<SyncopeGrantedAuthority> authorities) {
+
+            this.userKey = userKey;
+            this.username = username;
+            this.delegationKey = delegationKey;
+            this.authorities = Set.copyOf(authorities);
+        }
+
+        protected boolean isAbout(final String userKey) {
+            // authorities granted under delegation might come from the delegating user
+            return delegationKey != null || (userKey != null && userKey.equals(this.userKey));
+        }
+    }
+
+    protected static void invalidate(
+            final Cache<Pair<String, String>, Entry> cache,
+            final Predicate<Entry> predicate) {
+
+        cache.asMap().values().removeIf(predicate);
+    }
+
+    protected static Map<String, Object> statistics(final Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+
+        Map<String, Object> statistics = new TreeMap<>();
+        statistics.put("size", cache.estimatedSize());
+        statistics.put("hitCount", stats.hitCount());
+        statistics.put("missCount", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("evictionCount", stats.evictionCount());
+        return statistics;
+    }
+
+    protected final String cacheSpec;
+
+    /**
+     * Computed authorities, by domain, then by username and delegation key.
+     */
+    protected final Map<String, Cache<Pair<String, String>, Entry>> domains = new ConcurrentHashMap<>();
+
+    /**
+     * @param cacheSpec Caffeine specification for each cache, blank to disable caching
+     */
+    public AuthDataCache(final String cacheSpec) {
+        this.cacheSpec = cacheSpec;
+    }
+
+    public boolean isEnabled() {
+        return StringUtils.isNotBlank(cacheSpec);
+    }
+
+    protected Optional<Cache<Pair<String, String>, Entry>> domain(final String domain) {
+        return isEnabled()
+                ? Optional.of(domains.computeIfAbsent(domain, k -> Caffeine.from(cacheSpec).recordStats().build()))
+                : Optional.empty();
+    }
+
+    public Optional<Set<SyncopeGrantedAuthority>> getAuthorities(
+            final String domain, final String username, final String delegationKey) {
+
+        return domain(domain).map(cache -> cache.getIfPresent(Pair.of(username, delegationKey))).
+                map(entry -> entry.authorities);
+    }
+
+    public void putAuthorities(
+            final String domain,
+            final String userKey,
+            final String username,
+            final String delegationKey,
+            final Set<SyncopeGrantedAuthority> authorities) {
+
+        domain(domain).ifPresent(cache -> cache.put(
+                Pair.of(username, delegationKey), new Entry(userKey, username, delegationKey, authorities)));
+    }
+
+    public void invalidateUser(final String domain, final String userKey) {
+        Optional.ofNullable(domains.get(domain)).ifPresent(cache -> invalidate(cache, entry -> entry.isAbout(userKey)));
+    }
+
+    public void invalidateGroup(final String domain, final Group group) {
+        Optional.ofNullable(domains.get(domain)).ifPresent(cache -> {
+            if (group.getGroupOwner() == null) {
+                String ownerKey = Optional.ofNullable(group.getUserOwner()).map(User::getKey).orElse(null);
+                String ownerRealm = RealmUtils.getGroupOwnerRealm(StringUtils.EMPTY, group.getKey());
+                invalidate(cache, entry -> entry.isAbout(ownerKey)
+                        || entry.authorities.stream().anyMatch(authority -> authority.getRealms().stream().
+                                anyMatch(realm -> realm.endsWith(ownerRealm))));
+            } else {
+                // all members of the owner group are affected
+                cache.invalidateAll();
+            }
+        });
+    }
+
+    public void invalidate(final String domain) {
+        Optional.ofNullable(domains.get(domain)).ifPresent(Cache::invalidateAll);
+    }
+
+    public void clear() {
+        domains.values().forEach(Cache::invalidateAll);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new TreeMap<>();
+        domains.forEach((domain, cache) -> statistics.put(domain, Map.of("authorities", statistics(cache))));
+        return statistics;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void any(final AnyLifecycleEvent<?> event) {
+        if (event.getAny() instanceof User) {
+            invalidateUser(event.getDomain(), event.getAny().getKey());
+        } else if (event.getAny() instanceof Group) {
+            invalidateGroup(event.getDomain(), (Group) event.getAny());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void bulkAny(final BulkAnyLifecycleEvent event) {
+        if (event.getKind() == AnyTypeKind.USER) {
+            event.getKeys().forEach(key -> invalidateUser(event.getDomain(), key));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void entity(final EntityLifecycleEvent<?> event) {
+        if (event.getEntity() instanceof Role || event.getEntity() instanceof Delegation) {
+            LOG.debug("{} {} changed, invalidating domain {}",
+                    event.getEntity().getClass().getSimpleName(), event.getEntity().getKey(), event.getDomain());
+            invalidate(event.getDomain());
+        }
+    }
+}
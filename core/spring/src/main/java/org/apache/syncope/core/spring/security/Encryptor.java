@@ -22,7 +22,10 @@ import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.crypto.BadPaddingException;
@@ -35,7 +38,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.syncope.common.lib.types.CipherAlgorithm;
 import org.apache.syncope.core.spring.ApplicationContextProvider;
 import org.jasypt.commons.CommonUtils;
-import org.jasypt.digest.StandardStringDigester;
+import org.jasypt.digest.PooledStringDigester;
+import org.jasypt.digest.StringDigester;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.crypto.bcrypt.BCrypt;
@@ -55,16 +59,21 @@ public final class Encryptor {
     public static Encryptor getInstance(final String secretKey) {
         String actualKey = StringUtils.isBlank(secretKey) ? DEFAULT_SECRET_KEY : secretKey;
 
-        Encryptor instance = INSTANCES.get(actualKey);
-        if (instance == null) {
-            instance = new Encryptor(actualKey);
-            INSTANCES.put(actualKey, instance);
-        }
-
-        return instance;
+        return INSTANCES.computeIfAbsent(actualKey, Encryptor::new);
     }
 
-    private final Map<CipherAlgorithm, StandardStringDigester> digesters = new ConcurrentHashMap<>();
+    /**
+     * Digesters are pooled, as each instance can only compute one digest at a time.
+     */
+    private final Map<CipherAlgorithm, StringDigester> digesters = new ConcurrentHashMap<>();
+
+    /**
+     * AES ciphers are confined to threads, as they are not thread-safe but can be reused once initialized: this
+     * avoids looking up the provider and initializing the key for each value.
+     */
+    private final ThreadLocal<Cipher> encryptCipher = new ThreadLocal<>();
+
+    private final ThreadLocal<Cipher> decryptCipher = new ThreadLocal<>();
 
     private SecretKeySpec keySpec;
 
@@ -91,6 +100,32 @@ public final class Encryptor {
         }
     }
 
+    private Cipher getCipher(final ThreadLocal<Cipher> ciphers, final int mode)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException {
+
+        Cipher cipher = ciphers.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(CipherAlgorithm.AES.getAlgorithm());
+            cipher.init(mode, keySpec);
+            ciphers.set(cipher);
+        }
+        return cipher;
+    }
+
+    private byte[] doFinal(final ThreadLocal<Cipher> ciphers, final int mode, final byte[] input)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            IllegalBlockSizeException, BadPaddingException {
+
+        try {
+            // once done, cipher is reset to the state it had right after init
+            return getCipher(ciphers, mode).doFinal(input);
+        } catch (IllegalBlockSizeException | BadPaddingException | RuntimeException e) {
+            // do not reuse a cipher whose state is not known
+            ciphers.remove();
+            throw e;
+        }
+    }
+
     public String encode(final String value, final CipherAlgorithm cipherAlgorithm)
             throws UnsupportedEncodingException, NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
             IllegalBlockSizeException, BadPaddingException {
@@ -99,10 +134,8 @@ public final class Encryptor {
 
         if (value != null) {
             if (cipherAlgorithm == null || cipherAlgorithm == CipherAlgorithm.AES) {
-                Cipher cipher = Cipher.getInstance(CipherAlgorithm.AES.getAlgorithm());
-                cipher.init(Cipher.ENCRYPT_MODE, keySpec);
-
-                encoded = Base64.getEncoder().encodeToString(cipher.doFinal(value.getBytes(StandardCharsets.UTF_8)));
+                encoded = Base64.getEncoder().encodeToString(
+                        doFinal(encryptCipher, Cipher.ENCRYPT_MODE, value.getBytes(StandardCharsets.UTF_8)));
             } else if (cipherAlgorithm == CipherAlgorithm.BCRYPT) {
                 encoded = BCrypt.hashpw(value, BCrypt.gensalt());
             } else {
@@ -140,19 +173,66 @@ public final class Encryptor {
         String decoded = null;
 
         if (encoded != null && cipherAlgorithm == CipherAlgorithm.AES) {
-            Cipher cipher = Cipher.getInstance(CipherAlgorithm.AES.getAlgorithm());
-            cipher.init(Cipher.DECRYPT_MODE, keySpec);
+            decoded = new String(
+                    doFinal(decryptCipher, Cipher.DECRYPT_MODE, Base64.getDecoder().decode(encoded)),
+                    StandardCharsets.UTF_8);
+        }
+
+        return decoded;
+    }
 
-            decoded = new String(cipher.doFinal(Base64.getDecoder().decode(encoded)), StandardCharsets.UTF_8);
+    /**
+     * Encodes all given values with the given algorithm.
+     *
+     * @param values values to encode
+     * @param cipherAlgorithm cipher algorithm
+     * @return encoded values, in the same order as given; null values are encoded as null
+     * @throws UnsupportedEncodingException if thrown while encoding any value
+     * @throws NoSuchAlgorithmException if thrown while encoding any value
+     * @throws NoSuchPaddingException if thrown while encoding any value
+     * @throws InvalidKeyException if thrown while encoding any value
+     * @throws IllegalBlockSizeException if thrown while encoding any value
+     * @throws BadPaddingException if thrown while encoding any value
+     */
+    public List<String> encode(final Collection<String> values, final CipherAlgorithm cipherAlgorithm)
+            throws UnsupportedEncodingException, NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            IllegalBlockSizeException, BadPaddingException {
+
+        List<String> encoded = new ArrayList<>(values.size());
+        for (String value : values) {
+            encoded.add(encode(value, cipherAlgorithm));
         }
+        return encoded;
+    }
+
+    /**
+     * Decodes all given values with the given algorithm.
+     *
+     * @param encoded values to decode
+     * @param cipherAlgorithm cipher algorithm
+     * @return decoded values, in the same order as given; null values are decoded as null
+     * @throws UnsupportedEncodingException if thrown while decoding any value
+     * @throws NoSuchAlgorithmException if thrown while decoding any value
+     * @throws NoSuchPaddingException if thrown while decoding any value
+     * @throws InvalidKeyException if thrown while decoding any value
+     * @throws IllegalBlockSizeException if thrown while decoding any value
+     * @throws BadPaddingException if thrown while decoding any value
+     */
+    public List<String> decode(final Collection<String> encoded, final CipherAlgorithm cipherAlgorithm)
+            throws UnsupportedEncodingException, NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            IllegalBlockSizeException, BadPaddingException {
 
+        List<String> decoded = new ArrayList<>(encoded.size());
+        for (String value : encoded) {
+            decoded.add(decode(value, cipherAlgorithm));
+        }
         return decoded;
     }
 
-    private StandardStringDigester getDigester(final CipherAlgorithm cipherAlgorithm) {
-        StandardStringDigester digester = digesters.get(cipherAlgorithm);
-        if (digester == null) {
-            digester = new StandardStringDigester();
+    private StringDigester getDigester(final CipherAlgorithm cipherAlgorithm) {
+        return digesters.computeIfAbsent(cipherAlgorithm, k -> {
+            PooledStringDigester digester = new PooledStringDigester();
+            digester.setPoolSize(Runtime.getRuntime().availableProcessors());
 
             if (cipherAlgorithm.getAlgorithm().startsWith("S-")) {
                 SecurityProperties securityProperties =
@@ -177,9 +257,7 @@ public final class Encryptor {
 
             digester.setStringOutputType(CommonUtils.STRING_OUTPUT_TYPE_HEXADECIMAL);
 
-            digesters.put(cipherAlgorithm, digester);
-        }
-
-        return digester;
+            return digester;
+        });
     }
 }
@@ -100,6 +100,13 @@ public class SecurityProperties {
 
     private String secretKey;
 
+    /**
+     * Caffeine specification for the cache of computed authorities, empty (default) to disable; entries are only
+     * evicted on the Core instance where changes occur, so expiration bounds how long changes performed elsewhere
+     * can go unnoticed.
+     */
+    private String authDataCacheSpec;
+
     private final DigesterProperties digester = new DigesterProperties();
 
     public String getAdminUser() {
@@ -174,6 +181,14 @@ public class SecurityProperties {
         this.secretKey = secretKey;
     }
 
+    public String getAuthDataCacheSpec() {
+        return authDataCacheSpec;
+    }
+
+    public void setAuthDataCacheSpec(final String authDataCacheSpec) {
+        this.authDataCacheSpec = authDataCacheSpec;
+    }
+
     public DigesterProperties getDigester() {
         return digester;
     }
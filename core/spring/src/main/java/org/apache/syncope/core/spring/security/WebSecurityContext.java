@@ -164,6 +164,12 @@ public class WebSecurityContext {
         return new SyncopeAccessDeniedHandler();
     }
 
+    @ConditionalOnMissingBean
+    @Bean
+    public AuthDataCache authDataCache(final SecurityProperties securityProperties) {
+        return new AuthDataCache(securityProperties.getAuthDataCacheSpec());
+    }
+
     @ConditionalOnMissingBean
     @Bean
     public AuthDataAccessor authDataAccessor(
@@ -180,7 +186,8 @@ public class WebSecurityContext {
             final ConnectorManager connectorManager,
             final AuditManager auditManager,
             final MappingManager mappingManager,
-            final ImplementationLookup implementationLookup) {
+            final ImplementationLookup implementationLookup,
+            final AuthDataCache authDataCache) {
 
         return new AuthDataAccessor(
                 securityProperties,
@@ -196,6 +203,7 @@ public class WebSecurityContext {
                 connectorManager,
                 auditManager,
                 mappingManager,
-                implementationLookup);
+                implementationLookup,
+                authDataCache);
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.core.spring.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import org.apache.syncope.common.lib.SyncopeConstants;
+import org.apache.syncope.common.lib.types.AnyTypeKind;
+import org.apache.syncope.common.lib.types.IdRepoEntitlement;
+import org.apache.syncope.core.provisioning.api.event.BulkAnyLifecycleEvent;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.junit.jupiter.api.Test;
+
+public class AuthDataCacheTest {
+
+    private static final Set<SyncopeGrantedAuthority> AUTHORITIES =
+            Set.of(new SyncopeGrantedAuthority(IdRepoEntitlement.USER_READ, SyncopeConstants.ROOT_REALM));
+
+    @Test
+    public void authorities() {
+        AuthDataCache cache = new AuthDataCache("maximumSize=100");
+        assertTrue(cache.isEnabled());
+
+        cache.putAuthorities(SyncopeConstants.MASTER_DOMAIN, "user1", "rossini", null, AUTHORITIES);
+        cache.putAuthorities(SyncopeConstants.MASTER_DOMAIN, "user1", "rossini", "delegation1", AUTHORITIES);
+        cache.putAuthorities(SyncopeConstants.MASTER_DOMAIN, "user2", "verdi", null, AUTHORITIES);
+
+        assertEquals(AUTHORITIES, cache.getAuthorities(SyncopeConstants.MASTER_DOMAIN, "rossini", null).get());
+
+        // delegated authorities might come from any user, hence are always invalidated
+        cache.invalidateUser(SyncopeConstants.MASTER_DOMAIN, "user2");
+        assertTrue(cache.getAuthorities(SyncopeConstants.MASTER_DOMAIN, "rossini", null).isPresent());
+        assertFalse(cache.getAuthorities(SyncopeConstants.MASTER_DOMAIN, "rossini", "delegation1").isPresent());
+        assertFalse(cache.getAuthorities(SyncopeConstants.MASTER_DOMAIN, "verdi", null).isPresent());
+
+        // role or delegation changed
+        cache.putAuthorities("Two", "user1", "rossini", null, AUTHORITIES);
+        cache.invalidate("Two");
+        assertFalse(cache.getAuthorities("Two", "rossini", null).isPresent());
+        assertTrue(cache.getAuthorities(SyncopeConstants.MASTER_DOMAIN, "rossini", null).isPresent());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) ((Map<String, Object>) cache.getStatistics().
+                get(SyncopeConstants.MASTER_DOMAIN)).get("authorities");
+        assertEquals(3L, stats.get("hitCount"));
+
+        cache.clear();
+        assertFalse(cache.getAuthorities(SyncopeConstants.MASTER_DOMAIN, "rossini", null).isPresent());
+    }
+
+    @Test
+    public void disabled() {
+        AuthDataCache cache = new AuthDataCache(" ");
+        assertFalse(cache.isEnabled());
+
+        cache.putAuthorities(SyncopeConstants.MASTER_DOMAIN, "user1", "rossini", null, AUTHORITIES);
+        assertFalse(cache.getAuthorities(SyncopeConstants.MASTER_DOMAIN, "rossini", null).isPresent());
+        assertTrue(cache.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void bulkAny() {
+        AuthDataCache cache = new AuthDataCache("maximumSize=100");
+        cache.putAuthorities(SyncopeConstants.MASTER_DOMAIN, "user1", "rossini", null, AUTHORITIES);
+        cache.putAuthorities(SyncopeConstants.MASTER_DOMAIN, "user2", "verdi", null, AUTHORITIES);
+
+        cache.bulkAny(new BulkAnyLifecycleEvent(
+                this, SyncDeltaType.UPDATE, AnyTypeKind.GROUP, Set.of("user1"), SyncopeConstants.MASTER_DOMAIN));
+        assertTrue(cache.getAuthorities(SyncopeConstants.MASTER_DOMAIN, "rossini", null).isPresent());
+
+        cache.bulkAny(new BulkAnyLifecycleEvent(
+                this, SyncDeltaType.UPDATE, AnyTypeKind.USER, Set.of("user1"), SyncopeConstants.MASTER_DOMAIN));
+        assertFalse(cache.getAuthorities(SyncopeConstants.MASTER_DOMAIN, "rossini", null).isPresent());
+        assertTrue(cache.getAuthorities(SyncopeConstants.MASTER_DOMAIN, "verdi", null).isPresent());
+    }
+
+    @Test
+    public void disabledByDefault() {
+        assertFalse(new AuthDataCache(new SecurityProperties().getAuthDataCacheSpec()).isEnabled());
+    }
+}
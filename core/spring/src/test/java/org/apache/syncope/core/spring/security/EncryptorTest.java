@@ -21,8 +21,15 @@ package org.apache.syncope.core.spring.security;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.syncope.common.lib.types.CipherAlgorithm;
 import org.apache.syncope.core.spring.ApplicationContextProvider;
 import org.junit.jupiter.api.BeforeAll;
@@ -89,4 +96,38 @@ public class EncryptorTest {
         String encPassword = "b098017d584647e3fa1f3e0eb437648aefa84093c15e0d3efb752a4183cfdcf3666ac543";
         assertTrue(ENCRYPTOR.verify(PASSWORD_VALUE, CipherAlgorithm.SSHA256, encPassword));
     }
+
+    @Test
+    public void bulk() throws Exception {
+        List<String> values = Arrays.asList(PASSWORD_VALUE, null, PASSWORD_VALUE + "diff");
+
+        List<String> encoded = ENCRYPTOR.encode(values, CipherAlgorithm.AES);
+        assertEquals(values.size(), encoded.size());
+        assertNull(encoded.get(1));
+
+        assertEquals(values, ENCRYPTOR.decode(encoded, CipherAlgorithm.AES));
+    }
+
+    @Test
+    public void concurrent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String value = PASSWORD_VALUE + i;
+                CipherAlgorithm cipherAlgorithm = i % 2 == 0 ? CipherAlgorithm.AES : CipherAlgorithm.SSHA256;
+                results.add(executor.submit(() -> {
+                    String encoded = ENCRYPTOR.encode(value, cipherAlgorithm);
+                    return ENCRYPTOR.verify(value, cipherAlgorithm, encoded)
+                            && (cipherAlgorithm != CipherAlgorithm.AES
+                            || value.equals(ENCRYPTOR.decode(encoded, cipherAlgorithm)));
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
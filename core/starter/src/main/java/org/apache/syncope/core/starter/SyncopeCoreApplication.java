@@ -55,13 +55,17 @@ import org.apache.syncope.core.provisioning.api.cache.VirAttrCache;
 import org.apache.syncope.core.provisioning.api.notification.NotificationManager;
 import org.apache.syncope.core.provisioning.api.propagation.PropagationTaskExecutor;
 import org.apache.syncope.core.provisioning.java.ProvisioningProperties;
+import org.apache.syncope.core.provisioning.java.propagation.ResourceBulkheads;
+import org.apache.syncope.core.spring.security.AuthDataCache;
 import org.apache.syncope.core.spring.security.PasswordGenerator;
 import org.apache.syncope.core.spring.security.SecurityProperties;
+import org.apache.syncope.core.starter.actuate.AuthDataCacheEndpoint;
 import org.apache.syncope.core.starter.actuate.DefaultSyncopeCoreInfoContributor;
 import org.apache.syncope.core.starter.actuate.DomainsHealthIndicator;
 import org.apache.syncope.core.starter.actuate.EntityCacheEndpoint;
 import org.apache.syncope.core.starter.actuate.ExternalResourcesHealthIndicator;
 import org.apache.syncope.core.starter.actuate.SyncopeCoreInfoContributor;
+import org.apache.syncope.core.starter.actuate.VirAttrCacheEndpoint;
 import org.apache.syncope.core.workflow.api.AnyObjectWorkflowAdapter;
 import org.apache.syncope.core.workflow.api.GroupWorkflowAdapter;
 import org.apache.syncope.core.workflow.api.UserWorkflowAdapter;
@@ -173,7 +177,8 @@ public class SyncopeCoreApplication extends SpringBootServletInitializer {
             @Qualifier("asyncConnectorFacadeExecutor")
             final ThreadPoolTaskExecutor asyncConnectorFacadeExecutor,
             @Qualifier("propagationTaskExecutorAsyncExecutor")
-            final ThreadPoolTaskExecutor propagationTaskExecutorAsyncExecutor) {
+            final ThreadPoolTaskExecutor propagationTaskExecutorAsyncExecutor,
+            final ResourceBulkheads resourceBulkheads) {
 
         return new DefaultSyncopeCoreInfoContributor(securityProperties,
                 persistenceProperties,
@@ -212,7 +217,8 @@ public class SyncopeCoreApplication extends SpringBootServletInitializer {
                 roleDAO,
                 securityQuestionDAO,
                 asyncConnectorFacadeExecutor,
-                propagationTaskExecutorAsyncExecutor);
+                propagationTaskExecutorAsyncExecutor,
+                resourceBulkheads);
     }
 
     @ConditionalOnMissingBean
@@ -240,6 +246,18 @@ public class SyncopeCoreApplication extends SpringBootServletInitializer {
         return new EntityCacheEndpoint(entityCacheDAO);
     }
 
+    @ConditionalOnMissingBean
+    @Bean
+    public AuthDataCacheEndpoint authDataCacheEndpoint(final AuthDataCache authDataCache) {
+        return new AuthDataCacheEndpoint(authDataCache);
+    }
+
+    @ConditionalOnMissingBean
+    @Bean
+    public VirAttrCacheEndpoint virAttrCacheEndpoint(final VirAttrCache virAttrCache) {
+        return new VirAttrCacheEndpoint(virAttrCache);
+    }
+
     @Bean
     public SyncopeStarterEventListener syncopeCoreEventListener(
             @Qualifier("syncopeCoreInfoContributor")
@@ -73,6 +73,7 @@ import org.apache.syncope.core.provisioning.api.cache.VirAttrCache;
 import org.apache.syncope.core.provisioning.api.notification.NotificationManager;
 import org.apache.syncope.core.provisioning.api.propagation.PropagationTaskExecutor;
 import org.apache.syncope.core.provisioning.java.ProvisioningProperties;
+import org.apache.syncope.core.provisioning.java.propagation.ResourceBulkheads;
 import org.apache.syncope.core.spring.security.AuthContextUtils;
 import org.apache.syncope.core.spring.security.PasswordGenerator;
 import org.apache.syncope.core.spring.security.SecurityProperties;
@@ -231,6 +232,8 @@ public class DefaultSyncopeCoreInfoContributor implements SyncopeCoreInfoContrib
 
     private final ThreadPoolTaskExecutor propagationTaskExecutorAsyncExecutor;
 
+    private final ResourceBulkheads resourceBulkheads;
+
     public DefaultSyncopeCoreInfoContributor(
             final SecurityProperties securityProperties,
             final PersistenceProperties persistenceProperties,
@@ -269,7 +272,8 @@ public class DefaultSyncopeCoreInfoContributor implements SyncopeCoreInfoContrib
             final RoleDAO roleDAO,
             final SecurityQuestionDAO securityQuestionDAO,
             final ThreadPoolTaskExecutor asyncConnectorFacadeExecutor,
-            final ThreadPoolTaskExecutor propagationTaskExecutorAsyncExecutor) {
+            final ThreadPoolTaskExecutor propagationTaskExecutorAsyncExecutor,
+            final ResourceBulkheads resourceBulkheads) {
 
         this.securityProperties = securityProperties;
         this.persistenceProperties = persistenceProperties;
@@ -309,6 +313,7 @@ public class DefaultSyncopeCoreInfoContributor implements SyncopeCoreInfoContrib
         this.securityQuestionDAO = securityQuestionDAO;
         this.asyncConnectorFacadeExecutor = asyncConnectorFacadeExecutor;
         this.propagationTaskExecutorAsyncExecutor = propagationTaskExecutorAsyncExecutor;
+        this.resourceBulkheads = resourceBulkheads;
     }
 
     protected boolean isSelfRegAllowed() {
@@ -495,6 +500,8 @@ public class DefaultSyncopeCoreInfoContributor implements SyncopeCoreInfoContrib
         buildSystem();
         builder.withDetail("system", SYSTEM_INFO);
 
+        builder.withDetail("resourceBulkheads", resourceBulkheads.getStatus());
+
         builder.withDetail("securityProperties", securityProperties);
         builder.withDetail("persistenceProperties", persistenceProperties);
         builder.withDetail("provisioningProperties", provisioningProperties);
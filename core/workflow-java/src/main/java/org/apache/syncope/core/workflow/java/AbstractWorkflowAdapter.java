@@ -19,10 +19,16 @@
 package org.apache.syncope.core.workflow.java;
 
 import java.time.OffsetDateTime;
+import java.util.Set;
 import org.apache.syncope.core.persistence.api.entity.Any;
 
 public abstract class AbstractWorkflowAdapter {
 
+    /**
+     * Fields changed by {@link #metadata(Any, String, String)} on existing entities.
+     */
+    protected static final Set<String> METADATA_FIELDS = Set.of("lastModifier", "lastChangeDate", "lastChangeContext");
+
     protected void metadata(final Any<?> any, final String who, final String context) {
         OffsetDateTime now = OffsetDateTime.now();
 
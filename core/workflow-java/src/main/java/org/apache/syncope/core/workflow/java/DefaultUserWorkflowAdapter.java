@@ -135,6 +135,7 @@ public class DefaultUserWorkflowAdapter extends AbstractUserWorkflowAdapter {
                 dataBinder.update(user, userUR);
 
         metadata(user, updater, context);
+        userDAO.declareChanges(user.getKey(), METADATA_FIELDS);
         User updated = userDAO.save(user);
 
         publisher.publishEvent(new AnyLifecycleEvent<>(
@@ -51,6 +51,8 @@ public class ElasticsearchClientContext {
         utils.setRetryOnConflict(5);
         utils.setNumberOfShards(1);
         utils.setNumberOfReplicas(1);
+        utils.setReindexParallelism(4);
+        utils.setReindexBatchBytes(5 * 1024 * 1024);
         return utils;
     }
 
@@ -62,4 +64,21 @@ public class ElasticsearchClientContext {
 
         return new ElasticsearchIndexManager(client, elasticsearchUtils);
     }
+
+    @ConditionalOnMissingBean
+    @Bean
+    public ElasticsearchIndexQueue elasticsearchIndexQueue(final ElasticsearchIndexManager indexManager) {
+        ElasticsearchIndexQueue queue = new ElasticsearchIndexQueue(indexManager);
+        queue.setBatchSize(500);
+        queue.setFlushInterval(500);
+        queue.setMaxBackoff(60000);
+        queue.setHeartbeatInterval(30000);
+        return queue;
+    }
+
+    @ConditionalOnMissingBean
+    @Bean
+    public ElasticsearchIndexQueueEndpoint elasticsearchIndexQueueEndpoint(final ElasticsearchIndexQueue indexQueue) {
+        return new ElasticsearchIndexQueueEndpoint(indexQueue);
+    }
 }
@@ -26,29 +26,38 @@ import co.elastic.clients.elasticsearch._types.mapping.DynamicTemplate;
 import co.elastic.clients.elasticsearch._types.mapping.KeywordProperty;
 import co.elastic.clients.elasticsearch._types.mapping.Property;
 import co.elastic.clients.elasticsearch._types.mapping.TypeMapping;
-import co.elastic.clients.elasticsearch.core.DeleteRequest;
-import co.elastic.clients.elasticsearch.core.DeleteResponse;
-import co.elastic.clients.elasticsearch.core.IndexRequest;
-import co.elastic.clients.elasticsearch.core.IndexResponse;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.DeleteOperation;
+import co.elastic.clients.elasticsearch.core.bulk.IndexOperation;
 import co.elastic.clients.elasticsearch.indices.CreateIndexRequest;
 import co.elastic.clients.elasticsearch.indices.CreateIndexResponse;
 import co.elastic.clients.elasticsearch.indices.DeleteIndexRequest;
 import co.elastic.clients.elasticsearch.indices.DeleteIndexResponse;
+import co.elastic.clients.elasticsearch.indices.ExistsAliasRequest;
+import co.elastic.clients.elasticsearch.indices.GetAliasRequest;
 import co.elastic.clients.elasticsearch.indices.IndexSettings;
 import co.elastic.clients.elasticsearch.indices.IndexSettingsAnalysis;
+import co.elastic.clients.elasticsearch.indices.UpdateAliasesRequest;
+import co.elastic.clients.elasticsearch.indices.UpdateAliasesResponse;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import org.apache.syncope.common.lib.types.AnyTypeKind;
-import org.apache.syncope.core.persistence.api.entity.Any;
-import org.apache.syncope.core.provisioning.api.event.AnyLifecycleEvent;
-import org.identityconnectors.framework.common.objects.SyncDeltaType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.transaction.event.TransactionalEventListener;
 
 /**
- * Listen to any create / update and delete in order to keep the Elasticsearch indexes consistent.
+ * Manage the Elasticsearch indexes and update their content, as requested by {@link ElasticsearchIndexQueue}.
  */
 public class ElasticsearchIndexManager {
 
@@ -58,6 +67,18 @@ public class ElasticsearchIndexManager {
 
     protected final ElasticsearchUtils elasticsearchUtils;
 
+    /**
+     * Indexes being rebuilt, by the alias they are going to replace: while an entry is present, all changes are
+     * written to both.
+     */
+    protected final Map<String, String> reindexing = new ConcurrentHashMap<>();
+
+    /**
+     * Keys deleted while rebuilding, by index being rebuilt: these are removed once more right before swapping, as
+     * documents read before deletion might have been created meanwhile by the rebuild.
+     */
+    protected final Map<String, Set<String>> tombstones = new ConcurrentHashMap<>();
+
     public ElasticsearchIndexManager(
             final ElasticsearchClient client,
             final ElasticsearchUtils elasticsearchUtils) {
@@ -136,36 +157,183 @@ public class ElasticsearchIndexManager {
         }
     }
 
+    protected List<String> aliasedIndexes(final String alias) throws IOException {
+        if (!client.indices().existsAlias(new ExistsAliasRequest.Builder().name(alias).build()).value()) {
+            return List.of();
+        }
+
+        return new ArrayList<>(client.indices().getAlias(new GetAliasRequest.Builder().name(alias).build()).
+                result().keySet());
+    }
+
     public void removeIndex(final String domain, final AnyTypeKind kind) throws IOException {
+        String alias = ElasticsearchUtils.getContextDomainName(domain, kind);
+        List<String> indexes = aliasedIndexes(alias);
+
         DeleteIndexResponse response = client.indices().delete(
-                new DeleteIndexRequest.Builder().index(ElasticsearchUtils.getContextDomainName(domain, kind)).build());
-        LOG.debug("Successfully removed {}: {}",
-                ElasticsearchUtils.getContextDomainName(domain, kind), response);
+                new DeleteIndexRequest.Builder().index(indexes.isEmpty() ? List.of(alias) : indexes).build());
+        LOG.debug("Successfully removed {}: {}", alias, response);
     }
 
-    @TransactionalEventListener
-    public void after(final AnyLifecycleEvent<Any<?>> event) throws IOException {
-        LOG.debug("About to {} index for {}", event.getType().name(), event.getAny());
-
-        if (event.getType() == SyncDeltaType.DELETE) {
-            DeleteRequest request = new DeleteRequest.Builder().index(
-                    ElasticsearchUtils.getContextDomainName(event.getDomain(), event.getAny().getType().getKind())).
-                    id(event.getAny().getKey()).
-                    build();
-            DeleteResponse response = client.delete(request);
-            LOG.debug("Index successfully deleted for {}[{}]: {}",
-                    event.getAny().getType().getKind(), event.getAny().getKey(), response);
+    /**
+     * Creates a new index, to be rebuilt and then swapped in place of the current one via
+     * {@link #swapIndex(String, AnyTypeKind, String)}; until then, all changes are also written to the new index.
+     *
+     * @param domain domain
+     * @param kind any type kind
+     * @param settings index settings
+     * @param mappings index mappings
+     * @return name of the new index
+     * @throws IOException in case of errors
+     */
+    public String createVersionedIndex(
+            final String domain,
+            final AnyTypeKind kind,
+            final IndexSettings settings,
+            final TypeMapping mappings)
+            throws IOException {
+
+        String alias = ElasticsearchUtils.getContextDomainName(domain, kind);
+        String index = alias + '_' + System.currentTimeMillis();
+
+        CreateIndexResponse response = client.indices().create(
+                new CreateIndexRequest.Builder().
+                        index(index).
+                        settings(settings).
+                        mappings(mappings).
+                        build());
+        tombstones.put(index, ConcurrentHashMap.newKeySet());
+        reindexing.put(alias, index);
+
+        LOG.debug("Successfully created {} for {}: {}", index, kind.name(), response);
+        return index;
+    }
+
+    /**
+     * Atomically points the alias for the given domain and kind to the provided index, removing all the indexes
+     * previously behind it; documents deleted while rebuilding are removed from the provided index beforehand.
+     *
+     * @param domain domain
+     * @param kind any type kind
+     * @param index index, as returned by {@link #createVersionedIndex(String, AnyTypeKind, IndexSettings,
+     * TypeMapping)}
+     * @throws IOException in case of errors
+     */
+    public void swapIndex(final String domain, final AnyTypeKind kind, final String index) throws IOException {
+        String alias = ElasticsearchUtils.getContextDomainName(domain, kind);
+
+        // deletions happening from now on are still written to both indexes
+        Set<String> deleted = Optional.ofNullable(tombstones.get(index)).map(Set::copyOf).orElse(Set.of());
+        if (!deleted.isEmpty()) {
+            BulkResponse response = client.bulk(new BulkRequest.Builder().operations(deleted.stream().
+                    map(key -> new BulkOperation.Builder().
+                    delete(new DeleteOperation.Builder().index(index).id(key).build()).
+                    build()).
+                    collect(Collectors.toList())).build());
+            LOG.debug("Removed from {} {} {} deleted while rebuilding, errors: {}",
+                    index, deleted.size(), kind, response.errors());
+        }
+
+        List<Action> actions = new ArrayList<>();
+        actions.add(new Action.Builder().add(add -> add.index(index).alias(alias)).build());
+
+        List<String> previous = aliasedIndexes(alias);
+        if (previous.isEmpty() && existsIndex(domain, kind)) {
+            // the current index was created before aliases were in use
+            previous = List.of(alias);
+        }
+        previous.stream().filter(p -> !p.equals(index)).forEach(p -> actions.add(
+                new Action.Builder().removeIndex(remove -> remove.index(p)).build()));
+
+        try {
+            UpdateAliasesResponse response = client.indices().updateAliases(
+                    new UpdateAliasesRequest.Builder().actions(actions).build());
+            LOG.debug("Successfully pointed {} to {}, removed {}: {}", alias, index, previous, response);
+        } finally {
+            reindexing.remove(alias, index);
+            tombstones.remove(index);
+        }
+    }
+
+    /**
+     * Removes the provided index, as returned by {@link #createVersionedIndex(String, AnyTypeKind, IndexSettings,
+     * TypeMapping)}, leaving the current one in place.
+     *
+     * @param domain domain
+     * @param kind any type kind
+     * @param index index
+     * @throws IOException in case of errors
+     */
+    public void abortVersionedIndex(final String domain, final AnyTypeKind kind, final String index)
+            throws IOException {
+
+        reindexing.remove(ElasticsearchUtils.getContextDomainName(domain, kind), index);
+        tombstones.remove(index);
+
+        DeleteIndexResponse response = client.indices().delete(
+                new DeleteIndexRequest.Builder().index(index).build());
+        LOG.debug("Successfully removed {}: {}", index, response);
+    }
+
+    protected List<String> writeIndexes(final String domain, final AnyTypeKind kind) {
+        String alias = ElasticsearchUtils.getContextDomainName(domain, kind);
+        return Optional.ofNullable(reindexing.get(alias)).map(index -> List.of(alias, index)).orElse(List.of(alias));
+    }
+
+    /**
+     * Updates the indexes for the given kind in bulk: documents for the given keys to index are read from the
+     * database, those no longer found are skipped.
+     *
+     * @param domain domain
+     * @param kind any type kind
+     * @param toIndex keys of the entities to create or update
+     * @param toDelete keys of the entities to delete
+     * @return keys whose update was rejected for transient reasons, and can be retried
+     * @throws IOException if the Elasticsearch cluster could not be reached
+     */
+    public Set<String> index(
+            final String domain,
+            final AnyTypeKind kind,
+            final Collection<String> toIndex,
+            final Collection<String> toDelete) throws IOException {
+
+        List<String> indexes = writeIndexes(domain, kind);
+        if (indexes.size() > 1 && !toDelete.isEmpty()) {
+            Optional.ofNullable(tombstones.get(indexes.get(1))).ifPresent(deleted -> deleted.addAll(toDelete));
+        }
+
+        List<BulkOperation> operations = new ArrayList<>();
+        indexes.forEach(index -> toDelete.forEach(key -> operations.add(new BulkOperation.Builder().
+                delete(new DeleteOperation.Builder().index(index).id(key).build()).
+                build())));
+        if (!toIndex.isEmpty()) {
+            Map<String, Map<String, Object>> documents = elasticsearchUtils.documents(kind, toIndex, domain);
+            indexes.forEach(index -> documents.forEach((key, document) -> operations.add(
+                    new BulkOperation.Builder().
+                            index(new IndexOperation.Builder<Map<String, Object>>().
+                                    index(index).id(key).document(document).build()).
+                            build())));
+        }
+        if (operations.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<String> retry = new HashSet<>();
+
+        BulkResponse response = client.bulk(new BulkRequest.Builder().operations(operations).build());
+        if (response.errors()) {
+            response.items().stream().filter(item -> item.error() != null).forEach(item -> {
+                if (item.status() == 429 || item.status() >= 500) {
+                    retry.add(item.id());
+                } else if (item.status() != 404) {
+                    LOG.error("Could not {} index for {}[{}]: {}",
+                            item.operationType(), kind, item.id(), item.error().reason());
+                }
+            });
         } else {
-            String index = ElasticsearchUtils.getContextDomainName(
-                    event.getDomain(), event.getAny().getType().getKind());
-
-            IndexRequest<Map<String, Object>> request = new IndexRequest.Builder<Map<String, Object>>().
-                    index(index).
-                    id(event.getAny().getKey()).
-                    document(elasticsearchUtils.document(event.getAny(), event.getDomain())).
-                    build();
-            IndexResponse response = client.index(request);
-            LOG.debug("Index successfully created or updated for {}: {}", event.getAny(), response);
+            LOG.debug("Index successfully updated for {} {}", operations.size(), kind);
         }
+
+        return retry;
     }
 }
@@ -0,0 +1,605 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.ext.elasticsearch.client;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.syncope.common.lib.types.AnyTypeKind;
+import org.apache.syncope.core.persistence.api.SyncopeCoreLoader;
+import org.apache.syncope.core.persistence.api.entity.Any;
+import org.apache.syncope.core.provisioning.api.event.AnyLifecycleEvent;
+import org.apache.syncope.core.provisioning.api.event.BulkAnyLifecycleEvent;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Listen to any create / update and delete in order to keep the Elasticsearch indexes consistent; each change is
+ * first recorded in the {@code ElasticsearchIndexQueue} table, within the same transaction as the entity change, then
+ * sent asynchronously after commit:
+ * <ul>
+ * <li>repeated changes to the same entity are coalesced until sent;</li>
+ * <li>changes are sent in bulk as soon as {@code batchSize} are pending, or every {@code flushInterval};</li>
+ * <li>when the Elasticsearch cluster cannot be reached, changes are kept and sent again with exponential
+ * backoff;</li>
+ * <li>records are removed once sent; each Core instance increments its own heartbeat in the
+ * {@code ElasticsearchIndexQueueNode} table every {@code heartbeatInterval}, and the records left by an instance
+ * whose heartbeat did not change for three intervals are claimed and sent by another one.</li>
+ * </ul>
+ */
+public class ElasticsearchIndexQueue implements SyncopeCoreLoader {
+
+    protected static final Logger LOG = LoggerFactory.getLogger(ElasticsearchIndexQueue.class);
+
+    protected static final String QUEUE_TABLE = "ElasticsearchIndexQueue";
+
+    protected static final String NODE_TABLE = "ElasticsearchIndexQueueNode";
+
+    protected static class Change {
+
+        protected final boolean delete;
+
+        protected final OffsetDateTime since;
+
+        /**
+         * Keys of the {@code ElasticsearchIndexQueue} records to remove once this change is sent.
+         */
+        protected final Set<String> ids;
+
+        protected Change(final boolean delete, final OffsetDateTime since, final Set<String> ids) {
+            this.delete = delete;
+            this.since = since;
+            this.ids = ids;
+        }
+
+        protected Change merge(final boolean newDelete, final Set<String> newIds) {
+            Set<String> merged = new HashSet<>(ids);
+            merged.addAll(newIds);
+            return new Change(newDelete, since, merged);
+        }
+    }
+
+    protected final ElasticsearchIndexManager indexManager;
+
+    protected final String node = UUID.randomUUID().toString();
+
+    protected final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+
+    protected final Map<String, Map<Pair<AnyTypeKind, String>, Change>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Last heartbeat observed for each other Core instance, with the time when it was first observed.
+     */
+    protected final Map<String, Map<String, Pair<Long, Long>>> heartbeats = new ConcurrentHashMap<>();
+
+    protected final Map<String, Integer> failures = new ConcurrentHashMap<>();
+
+    protected final Map<String, Long> retryAt = new ConcurrentHashMap<>();
+
+    protected final Map<String, OffsetDateTime> lastFlush = new ConcurrentHashMap<>();
+
+    protected final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    protected final LongAdder enqueuedCount = new LongAdder();
+
+    protected final LongAdder coalescedCount = new LongAdder();
+
+    protected final LongAdder indexedCount = new LongAdder();
+
+    protected final LongAdder deletedCount = new LongAdder();
+
+    protected final LongAdder failureCount = new LongAdder();
+
+    protected final LongAdder takenOverCount = new LongAdder();
+
+    protected int batchSize = 500;
+
+    protected long flushInterval = 500;
+
+    protected long maxBackoff = 60000;
+
+    protected long heartbeatInterval = 30000;
+
+    protected long lastHeartbeat;
+
+    protected ScheduledExecutorService flusher;
+
+    public ElasticsearchIndexQueue(final ElasticsearchIndexManager indexManager) {
+        this.indexManager = indexManager;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(final long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(final long maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(final long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    protected void enqueue(
+            final String domain,
+            final AnyTypeKind kind,
+            final String key,
+            final boolean delete,
+            final Set<String> ids) {
+
+        Map<Pair<AnyTypeKind, String>, Change> changes = pending.computeIfAbsent(
+                domain, k -> new ConcurrentHashMap<>());
+        changes.merge(Pair.of(kind, key), new Change(delete, OffsetDateTime.now(), ids), (previous, change) -> {
+            coalescedCount.increment();
+            return previous.merge(change.delete, change.ids);
+        });
+        enqueuedCount.increment();
+
+        if (changes.size() >= batchSize && flusher != null && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Records the given changes in the {@code ElasticsearchIndexQueue} table, with the connection bound to the
+     * current transaction, if any, and enqueues them once committed.
+     *
+     * @param domain domain
+     * @param kind any type kind
+     * @param keys keys of the changed entities
+     * @param delete whether the entities were deleted
+     */
+    protected void record(
+            final String domain,
+            final AnyTypeKind kind,
+            final Collection<String> keys,
+            final boolean delete) {
+
+        Map<String, String> ids = new LinkedHashMap<>();
+        keys.forEach(key -> ids.put(key, UUID.randomUUID().toString()));
+
+        DataSource dataSource = dataSources.get(domain);
+        if (dataSource != null) {
+            new JdbcTemplate(dataSource).batchUpdate(
+                    "INSERT INTO " + QUEUE_TABLE + "(ID, ANYTYPEKIND, ANYKEY, DELETED, NODE) VALUES(?, ?, ?, ?, ?)",
+                    ids.entrySet().stream().map(id -> new Object[] {
+                id.getValue(), kind.name(), id.getKey(), delete ? 1 : 0, node }).collect(Collectors.toList()));
+        }
+
+        Runnable afterCommit = () -> ids.forEach((key, id) -> enqueue(
+                domain, kind, key, delete, dataSource == null ? Set.of() : Set.of(id)));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    afterCommit.run();
+                }
+            });
+        } else {
+            afterCommit.run();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void changed(final AnyLifecycleEvent<Any<?>> event) {
+        LOG.debug("About to {} index for {}", event.getType().name(), event.getAny());
+
+        record(event.getDomain(),
+                event.getAny().getType().getKind(),
+                List.of(event.getAny().getKey()),
+                event.getType() == SyncDeltaType.DELETE);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void changed(final BulkAnyLifecycleEvent event) {
+        LOG.debug("About to {} index for {} {}", event.getType().name(), event.getKeys().size(), event.getKind());
+
+        record(event.getDomain(), event.getKind(), event.getKeys(), event.getType() == SyncDeltaType.DELETE);
+    }
+
+    protected void requeue(
+            final Map<Pair<AnyTypeKind, String>, Change> changes,
+            final Pair<AnyTypeKind, String> key,
+            final Change change) {
+
+        // newer changes take precedence, but the oldest time is kept
+        changes.merge(key, change, (newer, failed) -> failed.merge(newer.delete, newer.ids));
+    }
+
+    protected void failed(final String domain) {
+        failureCount.increment();
+        int attempts = failures.merge(domain, 1, Integer::sum);
+        long backoff = Math.min(maxBackoff, flushInterval << Math.min(attempts, 20));
+        retryAt.put(domain, System.currentTimeMillis() + backoff);
+    }
+
+    /**
+     * Removes the records of the changes sent to Elasticsearch; on failure, these are sent again by whichever
+     * Core instance will claim them.
+     *
+     * @param domain domain
+     * @param ids keys of the records to remove
+     */
+    protected void sent(final String domain, final Collection<String> ids) {
+        DataSource dataSource = dataSources.get(domain);
+        if (dataSource == null || ids.isEmpty()) {
+            return;
+        }
+
+        try {
+            new JdbcTemplate(dataSource).batchUpdate(
+                    "DELETE FROM " + QUEUE_TABLE + " WHERE ID=?",
+                    ids.stream().map(id -> new Object[] { id }).collect(Collectors.toList()));
+        } catch (Exception e) {
+            LOG.error("While removing {} sent changes from the Elasticsearch index queue on domain {}",
+                    ids.size(), domain, e);
+        }
+    }
+
+    /**
+     * Sends to Elasticsearch up to {@code batchSize} pending changes for the given domain.
+     *
+     * @param domain domain
+     * @param changes pending changes for the given domain
+     * @return whether all changes were sent successfully
+     */
+    protected boolean flush(final String domain, final Map<Pair<AnyTypeKind, String>, Change> changes) {
+        Map<Pair<AnyTypeKind, String>, Change> batch = new HashMap<>();
+        for (Iterator<Map.Entry<Pair<AnyTypeKind, String>, Change>> itor = changes.entrySet().iterator();
+                itor.hasNext() && batch.size() < batchSize;) {
+
+            Map.Entry<Pair<AnyTypeKind, String>, Change> entry = itor.next();
+            if (changes.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        List<String> sent = new ArrayList<>();
+        boolean success = true;
+        for (AnyTypeKind kind : AnyTypeKind.values()) {
+            List<String> toIndex = new ArrayList<>();
+            List<String> toDelete = new ArrayList<>();
+            batch.forEach((key, change) -> {
+                if (key.getLeft() == kind) {
+                    (change.delete ? toDelete : toIndex).add(key.getRight());
+                }
+            });
+            if (toIndex.isEmpty() && toDelete.isEmpty()) {
+                continue;
+            }
+
+            try {
+                Set<String> retry = indexManager.index(domain, kind, toIndex, toDelete);
+                if (!retry.isEmpty()) {
+                    LOG.warn("{} {} changes rejected by Elasticsearch on domain {}, will retry",
+                            retry.size(), kind, domain);
+                    retry.forEach(key -> requeue(changes, Pair.of(kind, key), batch.get(Pair.of(kind, key))));
+                    success = false;
+                }
+                batch.forEach((key, change) -> {
+                    if (key.getLeft() == kind && !retry.contains(key.getRight())) {
+                        sent.addAll(change.ids);
+                    }
+                });
+
+                indexedCount.add(toIndex.size() - toIndex.stream().filter(retry::contains).count());
+                deletedCount.add(toDelete.size() - toDelete.stream().filter(retry::contains).count());
+            } catch (Exception e) {
+                LOG.error("While sending {} {} changes to Elasticsearch on domain {}, will retry",
+                        toIndex.size() + toDelete.size(), kind, domain, e);
+                batch.forEach((key, change) -> {
+                    if (key.getLeft() == kind) {
+                        requeue(changes, key, change);
+                    }
+                });
+                success = false;
+            }
+        }
+
+        sent(domain, sent);
+
+        if (success) {
+            failures.remove(domain);
+            retryAt.remove(domain);
+            lastFlush.put(domain, OffsetDateTime.now());
+        } else {
+            failed(domain);
+        }
+        return success;
+    }
+
+    protected void flush() {
+        flushRequested.set(false);
+
+        pending.forEach((domain, changes) -> {
+            if (retryAt.getOrDefault(domain, 0L) > System.currentTimeMillis()) {
+                return;
+            }
+
+            boolean success = true;
+            while (success && !changes.isEmpty()) {
+                success = flush(domain, changes);
+            }
+        });
+
+        if (System.currentTimeMillis() - lastHeartbeat >= heartbeatInterval) {
+            lastHeartbeat = System.currentTimeMillis();
+
+            dataSources.keySet().forEach(domain -> {
+                try {
+                    heartbeat(domain);
+                } catch (Exception e) {
+                    LOG.error("While updating the Elasticsearch index queue heartbeat on domain {}", domain, e);
+                }
+
+                try {
+                    takeOver(domain);
+                } catch (Exception e) {
+                    LOG.error("While taking over Elasticsearch index queue changes on domain {}", domain, e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Increments the heartbeat of this Core instance; registers it again if its record was removed meanwhile, as
+     * when another instance took over after missing a few heartbeats.
+     *
+     * @param domain domain
+     */
+    protected void heartbeat(final String domain) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSources.get(domain));
+        if (jdbcTemplate.update("UPDATE " + NODE_TABLE + " SET HEARTBEAT=HEARTBEAT+1 WHERE NODE=?", node) == 0) {
+            jdbcTemplate.update("INSERT INTO " + NODE_TABLE + "(NODE, HEARTBEAT) VALUES(?, 0)", node);
+        }
+    }
+
+    /**
+     * Claims the records left by the given Core instance, then enqueues them.
+     * The instance record is removed only if its heartbeat is still the one observed: when more instances attempt
+     * to claim the same records concurrently, only one succeeds.
+     *
+     * @param domain domain
+     * @param other Core instance to take over
+     * @param heartbeat last heartbeat observed, or {@code null} if the instance is not registered
+     * @return whether the records were claimed
+     */
+    protected boolean claim(final String domain, final String other, final Long heartbeat) {
+        DataSource dataSource = dataSources.get(domain);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        List<Triple<String, Pair<AnyTypeKind, String>, Boolean>> claimed =
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)).execute(status -> {
+
+                    if (heartbeat != null && jdbcTemplate.update(
+                            "DELETE FROM " + NODE_TABLE + " WHERE NODE=? AND HEARTBEAT=?", other, heartbeat) != 1) {
+
+                        return null;
+                    }
+
+                    List<Triple<String, Pair<AnyTypeKind, String>, Boolean>> records = jdbcTemplate.query(
+                            "SELECT ID, ANYTYPEKIND, ANYKEY, DELETED FROM " + QUEUE_TABLE + " WHERE NODE=?",
+                            (rs, rowNum) -> Triple.of(
+                                    rs.getString(1),
+                                    Pair.of(AnyTypeKind.valueOf(rs.getString(2)), rs.getString(3)),
+                                    rs.getInt(4) == 1),
+                            other);
+                    jdbcTemplate.update("UPDATE " + QUEUE_TABLE + " SET NODE=? WHERE NODE=?", node, other);
+                    return records;
+                });
+        if (claimed == null) {
+            return false;
+        }
+
+        LOG.info("Took over {} Elasticsearch index changes from {} on domain {}", claimed.size(), other, domain);
+        takenOverCount.increment();
+        claimed.forEach(record -> enqueue(
+                domain, record.getMiddle().getLeft(), record.getMiddle().getRight(), record.getRight(),
+                Set.of(record.getLeft())));
+        return true;
+    }
+
+    /**
+     * Takes over the changes recorded by Core instances whose heartbeat did not change for three intervals, or which
+     * are not registered any more.
+     *
+     * @param domain domain
+     */
+    protected void takeOver(final String domain) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSources.get(domain));
+        long now = System.currentTimeMillis();
+
+        Map<String, Long> current = new HashMap<>();
+        jdbcTemplate.query("SELECT NODE, HEARTBEAT FROM " + NODE_TABLE,
+                rs -> {
+                    current.put(rs.getString(1), rs.getLong(2));
+                });
+
+        Map<String, Pair<Long, Long>> observed = heartbeats.computeIfAbsent(domain, k -> new ConcurrentHashMap<>());
+        observed.keySet().retainAll(current.keySet());
+        current.forEach((other, heartbeat) -> {
+            if (node.equals(other)) {
+                return;
+            }
+
+            Pair<Long, Long> last = observed.get(other);
+            if (last == null || !last.getLeft().equals(heartbeat)) {
+                observed.put(other, Pair.of(heartbeat, now));
+            } else if (now - last.getRight() >= 3 * heartbeatInterval) {
+                observed.remove(other);
+                claim(domain, other, heartbeat);
+            }
+        });
+
+        jdbcTemplate.queryForList(
+                "SELECT DISTINCT NODE FROM " + QUEUE_TABLE
+                + " WHERE NODE NOT IN (SELECT NODE FROM " + NODE_TABLE + ")", String.class).
+                forEach(other -> claim(domain, other, null));
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enqueuedCount", enqueuedCount.sum());
+        statistics.put("coalescedCount", coalescedCount.sum());
+        statistics.put("indexedCount", indexedCount.sum());
+        statistics.put("deletedCount", deletedCount.sum());
+        statistics.put("failureCount", failureCount.sum());
+        statistics.put("takenOverCount", takenOverCount.sum());
+
+        OffsetDateTime now = OffsetDateTime.now();
+        Map<String, Object> byDomain = new LinkedHashMap<>();
+        pending.forEach((domain, changes) -> {
+            Map<String, Object> domainStatistics = new LinkedHashMap<>();
+            domainStatistics.put("pending", changes.size());
+            // how far the Elasticsearch indexes are behind the database
+            domainStatistics.put("lagMillis", changes.values().stream().map(change -> change.since).
+                    min(Comparator.naturalOrder()).
+                    map(since -> now.toInstant().toEpochMilli() - since.toInstant().toEpochMilli()).
+                    orElse(0L));
+            domainStatistics.put("lastFlush", lastFlush.get(domain));
+            domainStatistics.put("consecutiveFailures", failures.getOrDefault(domain, 0));
+            byDomain.put(domain, domainStatistics);
+        });
+        statistics.put("domains", byDomain);
+
+        return statistics;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public void load() {
+        flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("ElasticsearchIndexQueue-"));
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                LOG.error("While flushing the Elasticsearch index queue", e);
+            }
+        }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void load(final String domain, final DataSource datasource) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        populator.setContinueOnError(true);
+        populator.setSqlScriptEncoding("UTF-8");
+        populator.addScript(new ClassPathResource("/elasticsearch/indexQueue.sql"));
+        DatabasePopulatorUtils.execute(populator, datasource);
+
+        try {
+            new JdbcTemplate(datasource).update("INSERT INTO " + NODE_TABLE + "(NODE, HEARTBEAT) VALUES(?, 0)", node);
+            dataSources.put(domain, datasource);
+        } catch (Exception e) {
+            LOG.error("Could not register on the Elasticsearch index queue for domain {}, "
+                    + "changes will only be kept in memory", domain, e);
+        }
+    }
+
+    @Override
+    public void unload(final String domain) {
+        Map<Pair<AnyTypeKind, String>, Change> changes = pending.getOrDefault(domain, Map.of());
+        boolean success = true;
+        while (success && !changes.isEmpty()) {
+            success = flush(domain, changes);
+        }
+
+        // with changes still pending, the records are left to other Core instances, or to the next restart
+        Optional.ofNullable(dataSources.remove(domain)).filter(dataSource -> changes.isEmpty()).
+                ifPresent(dataSource -> {
+                    try {
+                        new JdbcTemplate(dataSource).update("DELETE FROM " + NODE_TABLE + " WHERE NODE=?", node);
+                    } catch (Exception e) {
+                        LOG.debug("While unregistering from the Elasticsearch index queue on domain {}", domain, e);
+                    }
+                });
+    }
+
+    @Override
+    public void unload() {
+        Optional.ofNullable(flusher).ifPresent(f -> {
+            f.shutdown();
+            try {
+                f.awaitTermination(flushInterval, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Set<String> domains = new HashSet<>(pending.keySet());
+        domains.addAll(dataSources.keySet());
+        domains.forEach(this::unload);
+    }
+}
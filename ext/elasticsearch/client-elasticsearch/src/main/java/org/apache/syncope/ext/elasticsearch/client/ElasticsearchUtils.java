@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.syncope.common.lib.types.AnyTypeKind;
+import org.apache.syncope.core.persistence.api.dao.AnyDAO;
 import org.apache.syncope.core.persistence.api.dao.AnyObjectDAO;
 import org.apache.syncope.core.persistence.api.dao.GroupDAO;
 import org.apache.syncope.core.persistence.api.dao.UserDAO;
@@ -65,6 +66,10 @@ public class ElasticsearchUtils {
 
     protected String numberOfReplicas = "1";
 
+    protected int reindexParallelism = 4;
+
+    protected long reindexBatchBytes = 5 * 1024 * 1024;
+
     public ElasticsearchUtils(final UserDAO userDAO, final GroupDAO groupDAO, final AnyObjectDAO anyObjectDAO) {
         this.userDAO = userDAO;
         this.groupDAO = groupDAO;
@@ -103,6 +108,56 @@ public class ElasticsearchUtils {
         this.numberOfReplicas = String.valueOf(numberOfReplicas);
     }
 
+    public int getReindexParallelism() {
+        return reindexParallelism;
+    }
+
+    public void setReindexParallelism(final int reindexParallelism) {
+        this.reindexParallelism = reindexParallelism;
+    }
+
+    public long getReindexBatchBytes() {
+        return reindexBatchBytes;
+    }
+
+    public void setReindexBatchBytes(final long reindexBatchBytes) {
+        this.reindexBatchBytes = reindexBatchBytes;
+    }
+
+    public AnyDAO<?> anyDAO(final AnyTypeKind kind) {
+        return kind == AnyTypeKind.USER
+                ? userDAO
+                : kind == AnyTypeKind.GROUP
+                        ? groupDAO
+                        : anyObjectDAO;
+    }
+
+    /**
+     * Returns the documents specialized with content from the anys matching the provided keys; keys not matching
+     * any existing entity are skipped.
+     *
+     * @param kind any type kind
+     * @param keys keys of the users, groups or any objects to index
+     * @param domain tenant information
+     * @return documents specialized with content from the matching anys, by key
+     * @throws IOException in case of errors
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Map<String, Object>> documents(
+            final AnyTypeKind kind,
+            final Collection<String> keys,
+            final String domain) throws IOException {
+
+        List<String> keyList = new ArrayList<>(keys);
+        List<? extends Any<?>> anys = AuthContextUtils.callAsAdmin(domain, () -> anyDAO(kind).findByKeys(keyList));
+
+        Map<String, Map<String, Object>> documents = new HashMap<>();
+        for (Any<?> any : anys) {
+            documents.put(any.getKey(), document(any, domain));
+        }
+        return documents;
+    }
+
     /**
      * Returns the document specialized with content from the provided any.
      *
@@ -0,0 +1,32 @@
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+
+CREATE TABLE ElasticsearchIndexQueue (
+  ID VARCHAR(36) NOT NULL,
+  ANYTYPEKIND VARCHAR(20) NOT NULL,
+  ANYKEY VARCHAR(36) NOT NULL,
+  DELETED INTEGER NOT NULL,
+  NODE VARCHAR(36) NOT NULL,
+  PRIMARY KEY (ID)
+);
+CREATE INDEX ElasticsearchIndexQueue_node_idx ON ElasticsearchIndexQueue(NODE);
+
+CREATE TABLE ElasticsearchIndexQueueNode (
+  NODE VARCHAR(36) NOT NULL,
+  HEARTBEAT INTEGER NOT NULL,
+  PRIMARY KEY (NODE)
+);
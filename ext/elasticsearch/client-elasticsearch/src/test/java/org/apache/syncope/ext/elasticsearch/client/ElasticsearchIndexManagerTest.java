@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.ext.elasticsearch.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.ExistsAliasRequest;
+import co.elastic.clients.elasticsearch.indices.ExistsRequest;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import java.io.IOException;
+import java.util.List;
+import org.apache.syncope.common.lib.SyncopeConstants;
+import org.apache.syncope.common.lib.types.AnyTypeKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ElasticsearchIndexManagerTest {
+
+    @Mock
+    private ElasticsearchClient client;
+
+    @Mock
+    private ElasticsearchIndicesClient indices;
+
+    @Mock
+    private ElasticsearchUtils elasticsearchUtils;
+
+    @Mock
+    private BulkResponse bulkResponse;
+
+    @Test
+    public void removeDeletedWhileRebuilding() throws IOException {
+        when(client.indices()).thenReturn(indices);
+        when(indices.existsAlias(any(ExistsAliasRequest.class))).thenReturn(new BooleanResponse(false));
+        when(indices.exists(any(ExistsRequest.class))).thenReturn(new BooleanResponse(true));
+        when(client.bulk(any(BulkRequest.class))).thenReturn(bulkResponse);
+
+        ElasticsearchIndexManager indexManager = new ElasticsearchIndexManager(client, elasticsearchUtils);
+
+        String index = indexManager.createVersionedIndex(
+                SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.USER, null, null);
+
+        // deleted while rebuilding: the document might be created by the rebuild afterwards
+        indexManager.index(SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.USER, List.of(), List.of("user1"));
+
+        indexManager.swapIndex(SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.USER, index);
+
+        ArgumentCaptor<BulkRequest> bulk = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, times(2)).bulk(bulk.capture());
+
+        // first deleted from both indexes, then once more from the new index, right before swapping
+        assertEquals(2, bulk.getAllValues().get(0).operations().size());
+        List<BulkOperation> purge = bulk.getAllValues().get(1).operations();
+        assertEquals(1, purge.size());
+        assertTrue(purge.get(0).isDelete());
+        assertEquals(index, purge.get(0).delete().index());
+        assertEquals("user1", purge.get(0).delete().id());
+
+        assertTrue(indexManager.tombstones.isEmpty());
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.ext.elasticsearch.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.syncope.common.lib.SyncopeConstants;
+import org.apache.syncope.common.lib.types.AnyTypeKind;
+import org.apache.syncope.core.persistence.api.entity.Any;
+import org.apache.syncope.core.persistence.api.entity.AnyType;
+import org.apache.syncope.core.provisioning.api.event.AnyLifecycleEvent;
+import org.apache.syncope.core.provisioning.api.event.BulkAnyLifecycleEvent;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+@ExtendWith(MockitoExtension.class)
+public class ElasticsearchIndexQueueTest {
+
+    @Mock
+    private ElasticsearchIndexManager indexManager;
+
+    private DataSource dataSource;
+
+    private ElasticsearchIndexQueue queue;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        queue = new ElasticsearchIndexQueue(indexManager);
+    }
+
+    private int records(final String node) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "SELECT COUNT(*) FROM " + ElasticsearchIndexQueue.QUEUE_TABLE + " WHERE NODE=?", Integer.class, node);
+    }
+
+    @Test
+    public void coalesce() throws IOException {
+        queue.enqueue(SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.USER, "user1", false, Set.of());
+        queue.enqueue(SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.USER, "user1", false, Set.of());
+        queue.enqueue(SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.USER, "user1", true, Set.of());
+        queue.enqueue(SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.USER, "user2", false, Set.of());
+        assertEquals(2, queue.pending.get(SyncopeConstants.MASTER_DOMAIN).size());
+
+        when(indexManager.index(
+                SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.USER, List.of("user2"), List.of("user1"))).
+                thenReturn(Set.of());
+
+        assertTrue(queue.flush(SyncopeConstants.MASTER_DOMAIN, queue.pending.get(SyncopeConstants.MASTER_DOMAIN)));
+        assertTrue(queue.pending.get(SyncopeConstants.MASTER_DOMAIN).isEmpty());
+
+        verify(indexManager, times(1)).index(eq(SyncopeConstants.MASTER_DOMAIN), eq(AnyTypeKind.USER),
+                anyCollection(), anyCollection());
+        assertEquals(2L, queue.getStatistics().get("coalescedCount"));
+        assertEquals(1L, queue.getStatistics().get("indexedCount"));
+        assertEquals(1L, queue.getStatistics().get("deletedCount"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void retry() throws IOException {
+        queue.enqueue(SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.GROUP, "group1", false, Set.of());
+
+        when(indexManager.index(
+                SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.GROUP, List.of("group1"), List.of())).
+                thenThrow(new IOException("unavailable")).
+                thenReturn(Set.of());
+
+        assertFalse(queue.flush(SyncopeConstants.MASTER_DOMAIN, queue.pending.get(SyncopeConstants.MASTER_DOMAIN)));
+        assertEquals(1, queue.pending.get(SyncopeConstants.MASTER_DOMAIN).size());
+        assertTrue(queue.retryAt.get(SyncopeConstants.MASTER_DOMAIN) > System.currentTimeMillis());
+
+        Map<String, Object> domain = (Map<String, Object>) ((Map<String, Object>) queue.getStatistics().
+                get("domains")).get(SyncopeConstants.MASTER_DOMAIN);
+        assertEquals(1, domain.get("pending"));
+        assertEquals(1, domain.get("consecutiveFailures"));
+
+        assertTrue(queue.flush(SyncopeConstants.MASTER_DOMAIN, queue.pending.get(SyncopeConstants.MASTER_DOMAIN)));
+        assertTrue(queue.pending.get(SyncopeConstants.MASTER_DOMAIN).isEmpty());
+        assertEquals(1L, queue.getStatistics().get("failureCount"));
+        assertFalse(queue.retryAt.containsKey(SyncopeConstants.MASTER_DOMAIN));
+    }
+
+    @Test
+    public void durable() throws IOException {
+        queue.load(SyncopeConstants.MASTER_DOMAIN, dataSource);
+
+        AnyType anyType = mock(AnyType.class);
+        when(anyType.getKind()).thenReturn(AnyTypeKind.USER);
+        Any<?> user = mock(Any.class);
+        when(user.getType()).thenReturn(anyType);
+        when(user.getKey()).thenReturn("user1");
+
+        queue.changed(new AnyLifecycleEvent<>(
+                this, SyncDeltaType.DELETE, (Any<?>) user, SyncopeConstants.MASTER_DOMAIN));
+        queue.changed(new BulkAnyLifecycleEvent(
+                this, SyncDeltaType.UPDATE, AnyTypeKind.GROUP, Set.of("group1", "group2"),
+                SyncopeConstants.MASTER_DOMAIN));
+
+        // recorded, and enqueued as no transaction is active
+        assertEquals(3, records(queue.node));
+        assertTrue(queue.pending.get(SyncopeConstants.MASTER_DOMAIN).get(Pair.of(AnyTypeKind.USER, "user1")).delete);
+        assertEquals(3, queue.pending.get(SyncopeConstants.MASTER_DOMAIN).size());
+
+        when(indexManager.index(SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.USER, List.of(), List.of("user1"))).
+                thenReturn(Set.of());
+        when(indexManager.index(
+                eq(SyncopeConstants.MASTER_DOMAIN), eq(AnyTypeKind.GROUP), anyCollection(), eq(List.of()))).
+                thenReturn(Set.of("group2"));
+
+        assertFalse(queue.flush(SyncopeConstants.MASTER_DOMAIN, queue.pending.get(SyncopeConstants.MASTER_DOMAIN)));
+
+        // only the record of the rejected change is kept
+        assertEquals(1, records(queue.node));
+        assertEquals(1, queue.pending.get(SyncopeConstants.MASTER_DOMAIN).size());
+        assertEquals(1, queue.pending.get(SyncopeConstants.MASTER_DOMAIN).
+                get(Pair.of(AnyTypeKind.GROUP, "group2")).ids.size());
+    }
+
+    @Test
+    public void takeOver() {
+        ElasticsearchIndexQueue stopped = new ElasticsearchIndexQueue(indexManager);
+        stopped.load(SyncopeConstants.MASTER_DOMAIN, dataSource);
+        stopped.record(SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.USER, List.of("user1", "user2"), false);
+        assertEquals(2, records(stopped.node));
+
+        queue.setHeartbeatInterval(0);
+        queue.load(SyncopeConstants.MASTER_DOMAIN, dataSource);
+
+        // first observation of the heartbeat
+        queue.takeOver(SyncopeConstants.MASTER_DOMAIN);
+        assertFalse(queue.pending.containsKey(SyncopeConstants.MASTER_DOMAIN));
+
+        // heartbeat changed meanwhile
+        stopped.heartbeat(SyncopeConstants.MASTER_DOMAIN);
+        queue.takeOver(SyncopeConstants.MASTER_DOMAIN);
+        assertFalse(queue.pending.containsKey(SyncopeConstants.MASTER_DOMAIN));
+
+        // heartbeat unchanged
+        queue.takeOver(SyncopeConstants.MASTER_DOMAIN);
+        assertEquals(2, queue.pending.get(SyncopeConstants.MASTER_DOMAIN).size());
+        assertEquals(0, records(stopped.node));
+        assertEquals(2, records(queue.node));
+        assertEquals(1L, queue.getStatistics().get("takenOverCount"));
+    }
+
+    @Test
+    public void claimOnce() {
+        ElasticsearchIndexQueue stopped = new ElasticsearchIndexQueue(indexManager);
+        stopped.load(SyncopeConstants.MASTER_DOMAIN, dataSource);
+        stopped.record(SyncopeConstants.MASTER_DOMAIN, AnyTypeKind.GROUP, List.of("group1"), false);
+
+        ElasticsearchIndexQueue other = new ElasticsearchIndexQueue(indexManager);
+        other.load(SyncopeConstants.MASTER_DOMAIN, dataSource);
+        queue.load(SyncopeConstants.MASTER_DOMAIN, dataSource);
+
+        // both observed the same heartbeat, only the first claim succeeds
+        assertTrue(queue.claim(SyncopeConstants.MASTER_DOMAIN, stopped.node, 0L));
+        assertFalse(other.claim(SyncopeConstants.MASTER_DOMAIN, stopped.node, 0L));
+
+        assertEquals(1, queue.pending.get(SyncopeConstants.MASTER_DOMAIN).size());
+        assertFalse(other.pending.containsKey(SyncopeConstants.MASTER_DOMAIN));
+        assertEquals(1, records(queue.node));
+    }
+}
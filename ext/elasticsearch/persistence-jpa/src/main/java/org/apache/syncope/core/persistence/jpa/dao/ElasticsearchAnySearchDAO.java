@@ -29,6 +29,7 @@ import co.elastic.clients.elasticsearch._types.query_dsl.QueryBuilders;
 import co.elastic.clients.elasticsearch.core.CountRequest;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.SourceConfig;
 import co.elastic.clients.json.JsonData;
 import java.io.IOException;
 import java.lang.reflect.Field;
@@ -70,7 +71,6 @@ import org.apache.syncope.core.persistence.api.dao.search.RelationshipTypeCond;
 import org.apache.syncope.core.persistence.api.dao.search.ResourceCond;
 import org.apache.syncope.core.persistence.api.dao.search.RoleCond;
 import org.apache.syncope.core.persistence.api.dao.search.SearchCond;
-import org.apache.syncope.core.persistence.api.entity.Any;
 import org.apache.syncope.core.persistence.api.entity.AnyUtils;
 import org.apache.syncope.core.persistence.api.entity.AnyUtilsFactory;
 import org.apache.syncope.core.persistence.api.entity.DynRealm;
@@ -287,7 +287,7 @@ public class ElasticsearchAnySearchDAO extends AbstractAnySearchDAO {
     }
 
     @Override
-    protected <T extends Any<?>> List<T> doSearch(
+    protected List<String> doSearch(
             final Realm base,
             final boolean recursive,
             final Set<String> adminRealms,
@@ -301,11 +301,40 @@ public class ElasticsearchAnySearchDAO extends AbstractAnySearchDAO {
                 index(ElasticsearchUtils.getContextDomainName(AuthContextUtils.getDomain(), kind)).
                 searchType(SearchType.QueryThenFetch).
                 query(getQuery(base, recursive, adminRealms, cond, kind)).
+                source(new SourceConfig.Builder().fetch(false).build()).
                 from(itemsPerPage * (page <= 0 ? 0 : page - 1)).
                 size(itemsPerPage < 0 ? elasticsearchUtils.getIndexMaxResultWindow() : itemsPerPage).
                 sort(sortBuilders(kind, orderBy)).
                 build();
 
+        return doSearch(request);
+    }
+
+    @Override
+    protected List<String> doSearch(
+            final Realm base,
+            final boolean recursive,
+            final Set<String> adminRealms,
+            final SearchCond cond,
+            final String after,
+            final int itemsPerPage,
+            final AnyTypeKind kind) {
+
+        SearchRequest.Builder builder = new SearchRequest.Builder().
+                index(ElasticsearchUtils.getContextDomainName(AuthContextUtils.getDomain(), kind)).
+                searchType(SearchType.QueryThenFetch).
+                query(getQuery(base, recursive, adminRealms, cond, kind)).
+                source(new SourceConfig.Builder().fetch(false).build()).
+                size(itemsPerPage < 0 ? elasticsearchUtils.getIndexMaxResultWindow() : itemsPerPage).
+                sort(sortBuilders(kind, keyOrderBy()));
+        if (after != null) {
+            builder.searchAfter(after);
+        }
+
+        return doSearch(builder.build());
+    }
+
+    protected List<String> doSearch(final SearchRequest request) {
         @SuppressWarnings("rawtypes")
         List<Hit<Map>> esResult = null;
         try {
@@ -316,7 +345,7 @@ public class ElasticsearchAnySearchDAO extends AbstractAnySearchDAO {
 
         return CollectionUtils.isEmpty(esResult)
                 ? List.of()
-                : buildResult(esResult.stream().map(Hit::id).collect(Collectors.toList()), kind);
+                : esResult.stream().map(Hit::id).collect(Collectors.toList());
     }
 
     protected Query getQuery(final SearchCond cond, final AnyTypeKind kind) {
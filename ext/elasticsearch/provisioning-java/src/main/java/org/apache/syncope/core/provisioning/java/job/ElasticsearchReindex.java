@@ -20,11 +20,24 @@ package org.apache.syncope.core.provisioning.java.job;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.mapping.TypeMapping;
-import co.elastic.clients.elasticsearch.core.IndexRequest;
-import co.elastic.clients.elasticsearch.core.IndexResponse;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.CreateOperation;
+import co.elastic.clients.elasticsearch.core.bulk.IndexOperation;
 import co.elastic.clients.elasticsearch.indices.IndexSettings;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.syncope.common.lib.types.AnyTypeKind;
 import org.apache.syncope.core.persistence.api.dao.AnyDAO;
 import org.apache.syncope.core.persistence.api.dao.AnyObjectDAO;
@@ -32,18 +45,30 @@ import org.apache.syncope.core.persistence.api.dao.GroupDAO;
 import org.apache.syncope.core.persistence.api.dao.UserDAO;
 import org.apache.syncope.core.persistence.api.entity.task.SchedTask;
 import org.apache.syncope.core.persistence.api.entity.task.TaskExec;
+import org.apache.syncope.core.provisioning.api.serialization.POJOHelper;
+import org.apache.syncope.core.spring.ApplicationContextProvider;
 import org.apache.syncope.core.spring.security.AuthContextUtils;
 import org.apache.syncope.ext.elasticsearch.client.ElasticsearchIndexManager;
 import org.apache.syncope.ext.elasticsearch.client.ElasticsearchUtils;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
- * Remove and rebuild all Elasticsearch indexes with information from existing users, groups and any objects.
+ * Rebuild all Elasticsearch indexes with information from existing users, groups and any objects.
+ *
+ * Each index is rebuilt from scratch in a new, versioned index, by reading and sending in bulk several chunks of
+ * entities in parallel, while the current index keeps serving searches; once completed, the alias used by searches
+ * and changes is atomically moved to the new index, then the entities changed meanwhile are indexed once more.
  */
 public class ElasticsearchReindex extends AbstractSchedTaskJobDelegate<SchedTask> {
 
+    protected static final int MAX_PENDING_PER_WORKER = 2;
+
     @Autowired
     protected ElasticsearchClient client;
 
@@ -86,80 +111,217 @@ public class ElasticsearchReindex extends AbstractSchedTaskJobDelegate<SchedTask
         return indexManager.defaultMapping();
     }
 
-    @Override
-    protected String doExecute(final boolean dryRun, final String executor, final JobExecutionContext context)
+    protected void bulk(final AnyTypeKind kind, final List<BulkOperation> operations) throws IOException {
+        BulkResponse response = client.bulk(new BulkRequest.Builder().operations(operations).build());
+        if (response.errors()) {
+            response.items().stream().filter(item -> item.error() != null).forEach(item -> {
+                if ("version_conflict_engine_exception".equals(item.error().type())) {
+                    LOG.debug("{}[{}] was already indexed by a concurrent change", kind, item.id());
+                } else {
+                    LOG.error("Could not {} index for {}[{}]: {}",
+                            item.operationType(), kind, item.id(), item.error().reason());
+                }
+            });
+        } else {
+            LOG.debug("Index successfully updated for {} {}", operations.size(), kind);
+        }
+    }
+
+    /**
+     * Sends the given documents to the given index, in bulk requests not exceeding the configured size.
+     *
+     * @param kind any type kind
+     * @param index index
+     * @param documents documents, by key
+     * @param create whether documents are only to be created, leaving in place those already indexed by concurrent
+     * changes, or rather indexed anyway
+     * @throws IOException in case of errors
+     */
+    protected void bulk(
+            final AnyTypeKind kind,
+            final String index,
+            final Map<String, Map<String, Object>> documents,
+            final boolean create) throws IOException {
+
+        List<BulkOperation> operations = new ArrayList<>();
+        long bytes = 0;
+        for (Map.Entry<String, Map<String, Object>> entry : documents.entrySet()) {
+            operations.add(create
+                    ? new BulkOperation.Builder().create(new CreateOperation.Builder<Map<String, Object>>().
+                            index(index).id(entry.getKey()).document(entry.getValue()).build()).build()
+                    : new BulkOperation.Builder().index(new IndexOperation.Builder<Map<String, Object>>().
+                            index(index).id(entry.getKey()).document(entry.getValue()).build()).build());
+
+            bytes += Optional.ofNullable(POJOHelper.serialize(entry.getValue())).map(String::length).orElse(0);
+            if (bytes >= utils.getReindexBatchBytes()) {
+                bulk(kind, operations);
+                operations = new ArrayList<>();
+                bytes = 0;
+            }
+        }
+        if (!operations.isEmpty()) {
+            bulk(kind, operations);
+        }
+    }
+
+    /**
+     * Indexes all entities of the given kind, or only those created or changed since the given instant, by reading
+     * their keys in chunks and processing each chunk in parallel.
+     *
+     * @param domain domain
+     * @param kind any type kind
+     * @param index index
+     * @param changedSince if not {@code null}, only index entities created or changed since then
+     * @param create whether documents are only to be created, or rather indexed anyway
+     * @return number of indexed entities
+     * @throws JobExecutionException if indexing any chunk fails
+     */
+    protected long index(
+            final String domain,
+            final AnyTypeKind kind,
+            final String index,
+            final OffsetDateTime changedSince,
+            final boolean create)
             throws JobExecutionException {
 
-        if (!dryRun) {
-            LOG.debug("Start rebuilding indexes");
+        AnyDAO<?> anyDAO = utils.anyDAO(kind);
 
-            try {
-                indexManager.createIndex(
-                        AuthContextUtils.getDomain(), AnyTypeKind.USER, userSettings(), userMapping());
-
-                indexManager.createIndex(
-                        AuthContextUtils.getDomain(), AnyTypeKind.GROUP, groupSettings(), groupMapping());
-
-                indexManager.createIndex(
-                        AuthContextUtils.getDomain(), AnyTypeKind.ANY_OBJECT, anyObjectSettings(), anyObjectMapping());
-
-                LOG.debug("Indexing users...");
-                for (int page = 1; page <= (userDAO.count() / AnyDAO.DEFAULT_PAGE_SIZE) + 1; page++) {
-                    for (String user : userDAO.findAllKeys(page, AnyDAO.DEFAULT_PAGE_SIZE)) {
-                        IndexRequest<Map<String, Object>> request = new IndexRequest.Builder<Map<String, Object>>().
-                                index(ElasticsearchUtils.getContextDomainName(
-                                        AuthContextUtils.getDomain(), AnyTypeKind.USER)).
-                                id(user).
-                                document(utils.document(userDAO.find(user), AuthContextUtils.getDomain())).
-                                build();
-                        try {
-                            IndexResponse response = client.index(request);
-                            LOG.debug("Index successfully created for {}: {}", user, response);
-                        } catch (Exception e) {
-                            LOG.error("Could not create index for {} {}", AnyTypeKind.USER, user, e);
-                        }
-                    }
-                }
+        // each chunk is read in its own transaction, on the given domain
+        TransactionTemplate chunkTx = new TransactionTemplate(ApplicationContextProvider.getBeanFactory().
+                getBean(domain + "TransactionManager", PlatformTransactionManager.class));
+        chunkTx.setReadOnly(true);
 
-                LOG.debug("Indexing groups...");
-                for (int page = 1; page <= (groupDAO.count() / AnyDAO.DEFAULT_PAGE_SIZE) + 1; page++) {
-                    for (String group : groupDAO.findAllKeys(page, AnyDAO.DEFAULT_PAGE_SIZE)) {
-                        IndexRequest<Map<String, Object>> request = new IndexRequest.Builder<Map<String, Object>>().
-                                index(ElasticsearchUtils.getContextDomainName(
-                                        AuthContextUtils.getDomain(), AnyTypeKind.GROUP)).
-                                id(group).
-                                document(utils.document(groupDAO.find(group), AuthContextUtils.getDomain())).
-                                build();
+        int parallelism = Math.max(1, utils.getReindexParallelism());
+        Semaphore pending = new Semaphore(parallelism * MAX_PENDING_PER_WORKER);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicLong indexed = new AtomicLong();
+
+        ExecutorService workers = Executors.newFixedThreadPool(
+                parallelism, new CustomizableThreadFactory("ElasticsearchReindex-"));
+        try {
+            String after = null;
+            List<String> keys;
+            do {
+                keys = anyDAO.findAllKeys(after, changedSince, AnyDAO.DEFAULT_PAGE_SIZE);
+                if (!keys.isEmpty()) {
+                    List<String> chunk = keys;
+
+                    pending.acquire();
+                    workers.execute(() -> {
+                        SecurityContextHolder.setContext(SecurityContextHolder.createEmptyContext());
                         try {
-                            IndexResponse response = client.index(request);
-                            LOG.debug("Index successfully created for {}: {}", group, response);
+                            if (!interrupt && failure.get() == null) {
+                                Map<String, Map<String, Object>> documents = AuthContextUtils.callAsAdmin(
+                                        domain, () -> chunkTx.execute(tx -> {
+                                            try {
+                                                return utils.documents(kind, chunk, domain);
+                                            } catch (IOException e) {
+                                                throw new UncheckedIOException(e);
+                                            }
+                                        }));
+                                bulk(kind, index, documents, create);
+
+                                status.set("Indexed " + indexed.addAndGet(documents.size()) + ' ' + kind
+                                        + " into " + index);
+                            }
                         } catch (Exception e) {
-                            LOG.error("Could not create index for {} {}", AnyTypeKind.GROUP, group, e);
+                            LOG.error("While indexing {} {} into {}", chunk.size(), kind, index, e);
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            SecurityContextHolder.clearContext();
+                            pending.release();
                         }
-                    }
+                    });
+
+                    after = keys.get(keys.size() - 1);
                 }
+            } while (keys.size() == AnyDAO.DEFAULT_PAGE_SIZE && !interrupt && failure.get() == null);
 
-                LOG.debug("Indexing any objects...");
-                for (int page = 1; page <= (anyObjectDAO.count() / AnyDAO.DEFAULT_PAGE_SIZE) + 1; page++) {
-                    for (String anyObject : anyObjectDAO.findAllKeys(page, AnyDAO.DEFAULT_PAGE_SIZE)) {
-                        IndexRequest<Map<String, Object>> request = new IndexRequest.Builder<Map<String, Object>>().
-                                index(ElasticsearchUtils.getContextDomainName(
-                                        AuthContextUtils.getDomain(), AnyTypeKind.ANY_OBJECT)).
-                                id(anyObject).
-                                document(utils.document(anyObjectDAO.find(anyObject), AuthContextUtils.getDomain())).
-                                build();
-                        try {
-                            IndexResponse response = client.index(request);
-                            LOG.debug("Index successfully created for {}: {}", anyObject, response);
-                        } catch (Exception e) {
-                            LOG.error("Could not create index for {} {}", AnyTypeKind.ANY_OBJECT, anyObject, e);
-                        }
-                    }
+            pending.acquire(parallelism * MAX_PENDING_PER_WORKER);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobExecutionException("Interrupted while indexing " + kind + " into " + index, e);
+        } finally {
+            workers.shutdown();
+        }
+
+        if (failure.get() != null) {
+            throw new JobExecutionException("While indexing " + kind + " into " + index, failure.get());
+        }
+
+        return indexed.get();
+    }
+
+    /**
+     * Rebuilds the index for the given kind, then replaces the current one with it.
+     *
+     * @param domain domain
+     * @param kind any type kind
+     * @param settings index settings
+     * @param mappings index mappings
+     * @return whether the index was replaced, e.g. {@code false} if interrupted
+     * @throws IOException in case of errors while managing indexes
+     * @throws JobExecutionException in case of errors while indexing
+     */
+    protected boolean reindex(
+            final String domain,
+            final AnyTypeKind kind,
+            final IndexSettings settings,
+            final TypeMapping mappings)
+            throws IOException, JobExecutionException {
+
+        OffsetDateTime start = OffsetDateTime.now();
+
+        String index = indexManager.createVersionedIndex(domain, kind, settings, mappings);
+        LOG.debug("Indexing {} into {}...", kind, index);
+        try {
+            long indexed = index(domain, kind, index, null, true);
+            if (interrupt) {
+                indexManager.abortVersionedIndex(domain, kind, index);
+                return false;
+            }
+
+            indexManager.swapIndex(domain, kind, index);
+            LOG.debug("{} {} indexed into {}", indexed, kind, index);
+        } catch (IOException | JobExecutionException | RuntimeException e) {
+            try {
+                indexManager.abortVersionedIndex(domain, kind, index);
+            } catch (Exception ae) {
+                LOG.error("Could not remove {}", index, ae);
+            }
+            throw e;
+        }
+
+        // index once more what was changed while rebuilding, possibly by other Core instances
+        long changed = index(domain, kind, ElasticsearchUtils.getContextDomainName(domain, kind), start, false);
+        LOG.debug("{} {} changed while rebuilding indexed again", changed, kind);
+
+        return true;
+    }
+
+    @Override
+    protected String doExecute(final boolean dryRun, final String executor, final JobExecutionContext context)
+            throws JobExecutionException {
+
+        if (!dryRun) {
+            String domain = AuthContextUtils.getDomain();
+            LOG.debug("Start rebuilding indexes for domain {}", domain);
+
+            try {
+                boolean completed = reindex(domain, AnyTypeKind.USER, userSettings(), userMapping())
+                        && reindex(domain, AnyTypeKind.GROUP, groupSettings(), groupMapping())
+                        && reindex(domain, AnyTypeKind.ANY_OBJECT, anyObjectSettings(), anyObjectMapping());
+                if (!completed) {
+                    LOG.debug("Rebuild indexes for domain {} interrupted", domain);
+                    interrupted = true;
+                    return "INTERRUPTED";
                 }
 
-                LOG.debug("Rebuild indexes for domain {} successfully completed", AuthContextUtils.getDomain());
+                LOG.debug("Rebuild indexes for domain {} successfully completed", domain);
+            } catch (JobExecutionException e) {
+                throw e;
             } catch (Exception e) {
-                throw new JobExecutionException("While rebuilding index for domain " + AuthContextUtils.getDomain(), e);
+                throw new JobExecutionException("While rebuilding index for domain " + domain, e);
             }
         }
 
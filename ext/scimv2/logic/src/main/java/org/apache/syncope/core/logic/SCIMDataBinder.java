@@ -19,12 +19,15 @@
 package org.apache.syncope.core.logic;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.syncope.common.lib.Attr;
 import org.apache.syncope.common.lib.EntityTOUtils;
 import org.apache.syncope.common.lib.SyncopeConstants;
@@ -35,10 +38,14 @@ import org.apache.syncope.common.lib.scim.SCIMConf;
 import org.apache.syncope.common.lib.to.GroupTO;
 import org.apache.syncope.common.lib.to.MembershipTO;
 import org.apache.syncope.common.lib.to.UserTO;
+import org.apache.syncope.common.lib.types.IdRepoEntitlement;
 import org.apache.syncope.core.logic.scim.SCIMConfManager;
 import org.apache.syncope.core.persistence.api.dao.AnyDAO;
+import org.apache.syncope.core.persistence.api.dao.GroupDAO;
 import org.apache.syncope.core.persistence.api.dao.search.MembershipCond;
 import org.apache.syncope.core.persistence.api.dao.search.SearchCond;
+import org.apache.syncope.core.provisioning.api.utils.RealmUtils;
+import org.apache.syncope.core.spring.security.AuthContextUtils;
 import org.apache.syncope.core.spring.security.AuthDataAccessor;
 import org.apache.syncope.ext.scimv2.api.BadRequestException;
 import org.apache.syncope.ext.scimv2.api.data.Group;
@@ -69,20 +76,26 @@ public class SCIMDataBinder {
 
     protected static final List<String> GROUP_SCHEMAS = List.of(Resource.Group.schema());
 
+    protected static final int MEMBERS_PAGE_SIZE = 500;
+
     protected final SCIMConfManager confManager;
 
     protected final UserLogic userLogic;
 
     protected final AuthDataAccessor authDataAccessor;
 
+    protected final GroupDAO groupDAO;
+
     public SCIMDataBinder(
             final SCIMConfManager confManager,
             final UserLogic userLogic,
-            final AuthDataAccessor authDataAccessor) {
+            final AuthDataAccessor authDataAccessor,
+            final GroupDAO groupDAO) {
 
         this.confManager = confManager;
         this.userLogic = userLogic;
         this.authDataAccessor = authDataAccessor;
+        this.groupDAO = groupDAO;
     }
 
     protected <E extends Enum<?>> void fill(
@@ -629,28 +642,53 @@ public class SCIMDataBinder {
                         location),
                 output(attributes, excludedAttributes, "displayName", groupTO.getName()));
 
-        MembershipCond membCond = new MembershipCond();
-        membCond.setGroup(groupTO.getKey());
-        SearchCond searchCond = SearchCond.getLeaf(membCond);
-
         if (output(attributes, excludedAttributes, "members")) {
-            int count = userLogic.search(searchCond,
-                    1, 1, List.of(), SyncopeConstants.ROOT_REALM, true, false).getLeft();
-
-            for (int page = 1; page <= (count / AnyDAO.DEFAULT_PAGE_SIZE) + 1; page++) {
-                List<UserTO> users = userLogic.search(
-                        searchCond,
-                        page,
-                        AnyDAO.DEFAULT_PAGE_SIZE,
-                        List.of(),
-                        SyncopeConstants.ROOT_REALM,
-                        true,
-                        false).
-                        getRight();
-                users.forEach(userTO -> group.getMembers().add(new Member(
-                        userTO.getKey(),
-                        StringUtils.substringBefore(location, "/Groups") + "/Users/" + userTO.getKey(),
-                        userTO.getUsername())));
+            String usersLocation = StringUtils.substringBefore(location, "/Groups") + "/Users/";
+
+            Set<String> authRealms = AuthContextUtils.getAuthorizations().
+                    getOrDefault(IdRepoEntitlement.USER_SEARCH, Set.of());
+            boolean allVisible = authRealms.contains(SyncopeConstants.ROOT_REALM)
+                    || authRealms.stream().map(RealmUtils::parseGroupOwnerRealm).flatMap(Optional::stream).
+                            anyMatch(pair -> groupTO.getKey().equals(pair.getRight()));
+            Set<String> realms = authRealms.stream().
+                    filter(realm -> realm.startsWith("/") && realm.indexOf('@') == -1).collect(Collectors.toSet());
+
+            if (allVisible || (!realms.isEmpty() && realms.size() == authRealms.size())) {
+                // visibility only depends on realms: page through members by key, without reading them
+                org.apache.syncope.core.persistence.api.entity.group.Group entity =
+                        groupDAO.find(groupTO.getKey());
+                Collection<String> filter = allVisible ? List.of() : realms;
+                List<Pair<String, String>> members;
+                String after = null;
+                do {
+                    members = groupDAO.findUMembers(entity, filter, after, MEMBERS_PAGE_SIZE);
+                    members.forEach(member -> group.getMembers().add(new Member(
+                            member.getLeft(), usersLocation + member.getLeft(), member.getRight())));
+                    after = members.isEmpty() ? null : members.get(members.size() - 1).getLeft();
+                } while (members.size() == MEMBERS_PAGE_SIZE);
+            } else if (!authRealms.isEmpty()) {
+                // ownership of other groups or dynamic realms: let user search evaluate visibility, page by page
+                MembershipCond membCond = new MembershipCond();
+                membCond.setGroup(groupTO.getKey());
+                SearchCond searchCond = SearchCond.getLeaf(membCond);
+
+                List<UserTO> users;
+                int page = 1;
+                do {
+                    users = userLogic.search(
+                            searchCond,
+                            page++,
+                            AnyDAO.DEFAULT_PAGE_SIZE,
+                            List.of(),
+                            SyncopeConstants.ROOT_REALM,
+                            true,
+                            false).
+                            getRight();
+                    users.forEach(userTO -> group.getMembers().add(new Member(
+                            userTO.getKey(),
+                            usersLocation + userTO.getKey(),
+                            userTO.getUsername())));
+                } while (users.size() == AnyDAO.DEFAULT_PAGE_SIZE);
             }
         }
 
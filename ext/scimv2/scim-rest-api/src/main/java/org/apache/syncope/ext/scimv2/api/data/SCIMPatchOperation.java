@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.ext.scimv2.api.data;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.apache.syncope.ext.scimv2.api.type.PatchOp;
+
+@JsonPropertyOrder({ "op", "path", "value" })
+public class SCIMPatchOperation extends SCIMBean {
+
+    private static final long serialVersionUID = 6289421478361215402L;
+
+    private final PatchOp op;
+
+    private final String path;
+
+    private final Object value;
+
+    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
+    public SCIMPatchOperation(
+            @JsonProperty("op") final PatchOp op,
+            @JsonProperty("path") final String path,
+            @JsonProperty("value") final Object value) {
+
+        this.op = op;
+        this.path = path;
+        this.value = value;
+    }
+
+    public PatchOp getOp() {
+        return op;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+}
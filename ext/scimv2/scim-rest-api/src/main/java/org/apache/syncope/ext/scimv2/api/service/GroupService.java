@@ -30,6 +30,7 @@ import javax.ws.rs.core.Response;
 import org.apache.cxf.jaxrs.ext.PATCH;
 import org.apache.syncope.ext.scimv2.api.SCIMConstants;
 import org.apache.syncope.ext.scimv2.api.data.SCIMGroup;
+import org.apache.syncope.ext.scimv2.api.data.SCIMPatchOp;
 
 @Path("v2/Groups")
 public interface GroupService extends ReadService<SCIMGroup> {
@@ -43,7 +44,7 @@ public interface GroupService extends ReadService<SCIMGroup> {
     @Path("{id}")
     @Produces({ SCIMConstants.APPLICATION_SCIM_JSON })
     @Consumes({ SCIMConstants.APPLICATION_SCIM_JSON })
-    Response update(@NotNull @PathParam("id") String id);
+    Response update(@NotNull @PathParam("id") String id, SCIMPatchOp patch);
 
     @PUT
     @Path("{id}")
@@ -28,6 +28,9 @@ public enum Resource {
     Group("urn:ietf:params:scim:schemas:core:2.0:Group"),
     SearchRequest("urn:ietf:params:scim:api:messages:2.0:SearchRequest"),
     ListResponse("urn:ietf:params:scim:api:messages:2.0:ListResponse"),
+    PatchOp("urn:ietf:params:scim:api:messages:2.0:PatchOp"),
+    BulkRequest("urn:ietf:params:scim:api:messages:2.0:BulkRequest"),
+    BulkResponse("urn:ietf:params:scim:api:messages:2.0:BulkResponse"),
     Error("urn:ietf:params:scim:api:messages:2.0:Error");
 
     private final String schema;
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.ext.scimv2.cxf;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.apache.syncope.core.logic.scim.SCIMConfManager;
+import org.apache.syncope.ext.scimv2.api.data.BulkRequest;
+import org.apache.syncope.ext.scimv2.api.data.SCIMError;
+
+/**
+ * Enforces the configured {@code bulkMaxPayloadSize} while reading bulk requests, so that also requests not declaring
+ * their {@code Content-Length} - as when chunked - are rejected as soon as the limit is exceeded.
+ */
+@Provider
+public class BulkPayloadSizeInterceptor implements ReaderInterceptor {
+
+    protected static class PayloadTooLargeException extends IOException {
+
+        private static final long serialVersionUID = -3870458127264312165L;
+
+        protected PayloadTooLargeException() {
+            super("Payload too large");
+        }
+    }
+
+    /**
+     * Fails with {@link PayloadTooLargeException}, as an {@link IOException} is passed through unwrapped by JSON
+     * parsing.
+     */
+    protected static class LimitedInputStream extends FilterInputStream {
+
+        protected final long limit;
+
+        protected long count;
+
+        protected LimitedInputStream(final InputStream in, final long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        protected void count(final long read) throws PayloadTooLargeException {
+            if (read > 0) {
+                count += read;
+                if (count > limit) {
+                    throw new PayloadTooLargeException();
+                }
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            count(read == -1 ? 0 : 1);
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            int read = super.read(b, off, len);
+            count(read);
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    protected static WebApplicationException tooLarge(final long limit) {
+        return new WebApplicationException(Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE).
+                entity(new SCIMError(null, Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(),
+                        "The size of the bulk operation exceeds the maxPayloadSize (" + limit + ")")).
+                build());
+    }
+
+    protected final SCIMConfManager confManager;
+
+    public BulkPayloadSizeInterceptor(final SCIMConfManager confManager) {
+        this.confManager = confManager;
+    }
+
+    @Override
+    public Object aroundReadFrom(final ReaderInterceptorContext context) throws IOException {
+        if (!BulkRequest.class.equals(context.getType())) {
+            return context.proceed();
+        }
+
+        long limit = confManager.get().getGeneralConf().getBulkMaxPayloadSize();
+        if (NumberUtils.toLong(context.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH), -1) > limit) {
+            throw tooLarge(limit);
+        }
+
+        context.setInputStream(new LimitedInputStream(context.getInputStream(), limit));
+        try {
+            return context.proceed();
+        } catch (PayloadTooLargeException e) {
+            throw tooLarge(limit);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.Set;
 import javax.validation.ValidationException;
 import javax.ws.rs.ForbiddenException;
 import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.ext.ExceptionMapper;
@@ -92,6 +93,10 @@ public class SCIMExceptionMapper implements ExceptionMapper<Exception> {
 
             // leaves the default exception processing
             builder = null;
+        } else if (ex instanceof WebApplicationException
+                && ((WebApplicationException) ex).getResponse().getEntity() instanceof SCIMError) {
+
+            return ((WebApplicationException) ex).getResponse();
         } else if (ex instanceof NotFoundException) {
             return Response.status(Response.Status.NOT_FOUND).entity(new SCIMError(null,
                     Response.Status.NOT_FOUND.getStatusCode(), ExceptionUtils.getRootCauseMessage(ex))).
@@ -36,16 +36,20 @@ import org.apache.syncope.core.logic.UserLogic;
 import org.apache.syncope.core.logic.scim.SCIMConfManager;
 import org.apache.syncope.core.persistence.api.dao.GroupDAO;
 import org.apache.syncope.core.persistence.api.dao.UserDAO;
+import org.apache.syncope.ext.scimv2.api.service.BulkService;
 import org.apache.syncope.ext.scimv2.api.service.GroupService;
 import org.apache.syncope.ext.scimv2.api.service.SCIMService;
 import org.apache.syncope.ext.scimv2.api.service.UserService;
+import org.apache.syncope.ext.scimv2.cxf.service.BulkServiceImpl;
 import org.apache.syncope.ext.scimv2.cxf.service.GroupServiceImpl;
 import org.apache.syncope.ext.scimv2.cxf.service.SCIMServiceImpl;
 import org.apache.syncope.ext.scimv2.cxf.service.UserServiceImpl;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration(proxyBeanMethods = false)
 public class SCIMv2RESTCXFContext {
@@ -69,6 +73,12 @@ public class SCIMv2RESTCXFContext {
         return new AddETagFilter();
     }
 
+    @ConditionalOnMissingBean(name = "scimBulkPayloadSizeInterceptor")
+    @Bean
+    public BulkPayloadSizeInterceptor scimBulkPayloadSizeInterceptor(final SCIMConfManager confManager) {
+        return new BulkPayloadSizeInterceptor(confManager);
+    }
+
     @ConditionalOnMissingBean(name = "scimv2Container")
     @Bean
     public Server scimv2Container(
@@ -76,7 +86,8 @@ public class SCIMv2RESTCXFContext {
             final Bus bus,
             final JacksonJsonProvider scimJacksonJsonProvider,
             final SCIMExceptionMapper scimExceptionMapper,
-            final AddETagFilter scimAddETagFilter) {
+            final AddETagFilter scimAddETagFilter,
+            final BulkPayloadSizeInterceptor scimBulkPayloadSizeInterceptor) {
 
         SpringJAXRSServerFactoryBean scimv2Container = new SpringJAXRSServerFactoryBean();
         scimv2Container.setBus(bus);
@@ -97,7 +108,8 @@ public class SCIMv2RESTCXFContext {
         scimv2Container.setProviders(List.of(
                 scimJacksonJsonProvider,
                 scimExceptionMapper,
-                scimAddETagFilter));
+                scimAddETagFilter,
+                scimBulkPayloadSizeInterceptor));
 
         scimv2Container.setApplicationContext(ctx);
         return scimv2Container.create();
@@ -142,4 +154,21 @@ public class SCIMv2RESTCXFContext {
 
         return new UserServiceImpl(userDAO, groupDAO, userLogic, groupLogic, binder, confManager);
     }
+
+    @ConditionalOnMissingBean
+    @Bean
+    public BulkService scimv2BulkService(
+            final UserDAO userDAO,
+            final GroupDAO groupDAO,
+            final UserLogic userLogic,
+            final GroupLogic groupLogic,
+            final SCIMDataBinder binder,
+            final SCIMConfManager confManager,
+            final SCIMExceptionMapper scimExceptionMapper,
+            @Qualifier("batchItemExecutor")
+            final ThreadPoolTaskExecutor batchItemExecutor) {
+
+        return new BulkServiceImpl(
+                userDAO, groupDAO, userLogic, groupLogic, binder, confManager, scimExceptionMapper, batchItemExecutor);
+    }
 }
@@ -19,7 +19,16 @@
 package org.apache.syncope.ext.scimv2.cxf.service;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Response;
@@ -28,10 +37,16 @@ import javax.ws.rs.core.UriInfo;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.cxf.jaxrs.ext.MessageContext;
+import org.apache.syncope.common.lib.AnyOperations;
+import org.apache.syncope.common.lib.SyncopeClientException;
 import org.apache.syncope.common.lib.SyncopeConstants;
+import org.apache.syncope.common.lib.request.GroupUR;
+import org.apache.syncope.common.lib.request.StringReplacePatchItem;
 import org.apache.syncope.common.lib.to.AnyTO;
 import org.apache.syncope.common.lib.to.GroupTO;
+import org.apache.syncope.common.lib.to.ProvisioningResult;
 import org.apache.syncope.common.lib.to.UserTO;
+import org.apache.syncope.common.lib.types.ClientExceptionType;
 import org.apache.syncope.core.logic.AbstractAnyLogic;
 import org.apache.syncope.core.logic.GroupLogic;
 import org.apache.syncope.core.logic.SCIMDataBinder;
@@ -44,11 +59,17 @@ import org.apache.syncope.core.persistence.api.dao.GroupDAO;
 import org.apache.syncope.core.persistence.api.dao.NotFoundException;
 import org.apache.syncope.core.persistence.api.dao.UserDAO;
 import org.apache.syncope.core.persistence.api.dao.search.OrderByClause;
+import org.apache.syncope.core.persistence.api.entity.group.Group;
 import org.apache.syncope.ext.scimv2.api.BadRequestException;
 import org.apache.syncope.ext.scimv2.api.data.ListResponse;
+import org.apache.syncope.ext.scimv2.api.data.Member;
+import org.apache.syncope.ext.scimv2.api.data.SCIMGroup;
+import org.apache.syncope.ext.scimv2.api.data.SCIMPatchOp;
+import org.apache.syncope.ext.scimv2.api.data.SCIMPatchOperation;
 import org.apache.syncope.ext.scimv2.api.data.SCIMResource;
 import org.apache.syncope.ext.scimv2.api.data.SCIMSearchRequest;
 import org.apache.syncope.ext.scimv2.api.type.ErrorType;
+import org.apache.syncope.ext.scimv2.api.type.PatchOp;
 import org.apache.syncope.ext.scimv2.api.type.Resource;
 import org.apache.syncope.ext.scimv2.api.type.SortOrder;
 import org.slf4j.Logger;
@@ -64,6 +85,8 @@ abstract class AbstractService<R extends SCIMResource> {
     @Context
     protected MessageContext messageContext;
 
+    protected static final Pattern MEMBER_FILTER = Pattern.compile("^members\\[value eq \"([^\"]+)\"\\]$");
+
     protected final UserDAO userDAO;
 
     protected final GroupDAO groupDAO;
@@ -140,6 +163,162 @@ abstract class AbstractService<R extends SCIMResource> {
                 evaluatePreconditions(new EntityTag(String.valueOf(lastChange.toInstant().toEpochMilli()), true));
     }
 
+    protected static List<String> memberKeys(final Object value) {
+        Collection<?> members = value instanceof Collection ? (Collection<?>) value : Collections.singleton(value);
+        return members.stream().map(member -> {
+            Object key = member instanceof Map ? ((Map<?, ?>) member).get("value") : null;
+            if (key == null) {
+                throw new BadRequestException(ErrorType.invalidValue, "Invalid member: " + member);
+            }
+            return key.toString();
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Updates memberships of the given users to the given group, failing if any of them could not be updated.
+     *
+     * @param groupKey group key
+     * @param added keys of users to assign to the group
+     * @param removed keys of users to unassign from the group
+     */
+    protected void updateMemberships(
+            final String groupKey,
+            final Collection<String> added,
+            final Collection<String> removed) {
+
+        Set<String> failed = userLogic.updateMemberships(groupKey, added, removed, false);
+        if (!failed.isEmpty()) {
+            SyncopeClientException sce = SyncopeClientException.build(ClientExceptionType.InvalidMembership);
+            sce.getElements().add("Could not update membership to group " + groupKey + " for users " + failed);
+            throw sce;
+        }
+    }
+
+    protected ProvisioningResult<GroupTO> createGroup(final SCIMGroup group) {
+        // first create group, no members assigned
+        ProvisioningResult<GroupTO> result = groupLogic.create(SCIMDataBinder.toGroupCR(group), false);
+
+        // then assign members
+        updateMemberships(
+                result.getEntity().getKey(),
+                group.getMembers().stream().map(Member::getValue).collect(Collectors.toList()),
+                List.of());
+
+        return result;
+    }
+
+    protected ProvisioningResult<GroupTO> replaceGroup(final String id, final SCIMGroup group) {
+        // update group, don't change members
+        ProvisioningResult<GroupTO> result = groupLogic.update(
+                AnyOperations.diff(SCIMDataBinder.toGroupTO(group), groupLogic.read(id), false), false);
+
+        // compare current and new members by key, then update only users whose membership changes; members which the
+        // caller is not entitled to update are left untouched
+        Set<String> beforeMembers = userLogic.findUpdatableMemberKeys(id);
+        Set<String> afterMembers = group.getMembers().stream().map(Member::getValue).collect(Collectors.toSet());
+        updateMemberships(
+                id,
+                afterMembers.stream().filter(member -> !beforeMembers.contains(member)).collect(Collectors.toList()),
+                beforeMembers.stream().filter(member -> !afterMembers.contains(member)).collect(Collectors.toList()));
+
+        return result;
+    }
+
+    /**
+     * Applies the given patch to the given group; only {@code displayName} and {@code members} are supported, the
+     * latter being added or removed without enumerating current members, unless all of them are replaced or removed.
+     * All operations, the new {@code displayName} and the users to add are validated before any change; the rename
+     * is applied last, and only if all memberships could be updated, otherwise the partial result is reported.
+     *
+     * @param id group key
+     * @param patch patch
+     */
+    protected void patchGroup(final String id, final SCIMPatchOp patch) {
+        if (groupDAO.find(id) == null) {
+            throw new NotFoundException("Group " + id);
+        }
+
+        String displayName = null;
+        Set<String> added = new HashSet<>();
+        Set<String> removed = new HashSet<>();
+        for (SCIMPatchOperation op : patch.getOperations()) {
+            if (op.getOp() == null) {
+                throw new BadRequestException(ErrorType.invalidSyntax, "Missing op");
+            }
+
+            Map<String, Object> targets = new HashMap<>();
+            if (op.getPath() == null) {
+                if (op.getOp() == PatchOp.remove || !(op.getValue() instanceof Map)) {
+                    throw new BadRequestException(ErrorType.noTarget, "Missing path");
+                }
+                ((Map<?, ?>) op.getValue()).forEach((attr, value) -> targets.put(attr.toString(), value));
+            } else {
+                Matcher matcher = MEMBER_FILTER.matcher(op.getPath());
+                if (matcher.matches()) {
+                    if (op.getOp() != PatchOp.remove) {
+                        throw new BadRequestException(ErrorType.invalidPath, "Unsupported path: " + op.getPath());
+                    }
+                    added.remove(matcher.group(1));
+                    removed.add(matcher.group(1));
+                    continue;
+                }
+                targets.put(op.getPath(), op.getValue());
+            }
+
+            for (Map.Entry<String, Object> target : targets.entrySet()) {
+                if ("displayName".equals(target.getKey())) {
+                    if (op.getOp() == PatchOp.remove || !(target.getValue() instanceof String)) {
+                        throw new BadRequestException(ErrorType.invalidValue, "displayName is required");
+                    }
+                    displayName = (String) target.getValue();
+                } else if ("members".equals(target.getKey())) {
+                    if (op.getOp() != PatchOp.add) {
+                        // remove and replace both drop all current members, as far as the caller is entitled to
+                        added.clear();
+                        removed.addAll(userLogic.findUpdatableMemberKeys(id));
+                    }
+                    if (op.getOp() != PatchOp.remove) {
+                        memberKeys(target.getValue()).forEach(member -> {
+                            removed.remove(member);
+                            added.add(member);
+                        });
+                    }
+                } else {
+                    throw new BadRequestException(ErrorType.invalidPath, "Unsupported path: " + target.getKey());
+                }
+            }
+        }
+
+        // validate everything that can be checked before changing anything
+        if (displayName != null) {
+            Group sameName = groupDAO.findByName(displayName);
+            if (sameName != null && !id.equals(sameName.getKey())) {
+                throw new BadRequestException(ErrorType.uniqueness, "Group " + displayName + " already exists");
+            }
+        }
+        List<String> unknown = added.stream().
+                filter(member -> userDAO.findUsername(member).isEmpty()).sorted().collect(Collectors.toList());
+        if (!unknown.isEmpty()) {
+            throw new BadRequestException(ErrorType.invalidValue, "Users not found: " + unknown);
+        }
+
+        // memberships are updated user by user, hence cannot be rolled back: rename only if all of them succeeded
+        Set<String> failed = userLogic.updateMemberships(id, added, removed, false);
+        if (!failed.isEmpty()) {
+            SyncopeClientException sce = SyncopeClientException.build(ClientExceptionType.InvalidMembership);
+            sce.getElements().add("Patch partially applied to group " + id
+                    + ": could not update membership for users " + failed
+                    + ", memberships of other users were updated"
+                    + (displayName == null ? "" : ", displayName was not changed"));
+            throw sce;
+        }
+
+        if (displayName != null) {
+            groupLogic.update(new GroupUR.Builder(id).
+                    name(new StringReplacePatchItem.Builder().value(displayName).build()).build(), false);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     protected ListResponse<R> doSearch(
             final Resource type,
@@ -0,0 +1,516 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.ext.scimv2.cxf.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.syncope.common.lib.AnyOperations;
+import org.apache.syncope.common.lib.scim.SCIMGeneralConf;
+import org.apache.syncope.common.lib.to.ProvisioningResult;
+import org.apache.syncope.common.lib.to.UserTO;
+import org.apache.syncope.core.logic.GroupLogic;
+import org.apache.syncope.core.logic.SCIMDataBinder;
+import org.apache.syncope.core.logic.UserLogic;
+import org.apache.syncope.core.logic.scim.SCIMConfManager;
+import org.apache.syncope.core.persistence.api.dao.GroupDAO;
+import org.apache.syncope.core.persistence.api.dao.NotFoundException;
+import org.apache.syncope.core.persistence.api.dao.UserDAO;
+import org.apache.syncope.ext.scimv2.api.BadRequestException;
+import org.apache.syncope.ext.scimv2.api.SCIMConstants;
+import org.apache.syncope.ext.scimv2.api.data.BulkOperation;
+import org.apache.syncope.ext.scimv2.api.data.BulkRequest;
+import org.apache.syncope.ext.scimv2.api.data.SCIMError;
+import org.apache.syncope.ext.scimv2.api.data.SCIMGroup;
+import org.apache.syncope.ext.scimv2.api.data.SCIMPatchOp;
+import org.apache.syncope.ext.scimv2.api.data.SCIMResource;
+import org.apache.syncope.ext.scimv2.api.data.SCIMUser;
+import org.apache.syncope.ext.scimv2.api.service.BulkService;
+import org.apache.syncope.ext.scimv2.api.type.ErrorType;
+import org.apache.syncope.ext.scimv2.api.type.Resource;
+import org.apache.syncope.ext.scimv2.cxf.SCIMExceptionMapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Processes SCIM bulk requests: operations not depending on each other - via {@code bulkId} references or because
+ * targeting the same resource - are executed in parallel, up to the size of the given executor, and their outcome is
+ * streamed back as soon as available.
+ */
+public class BulkServiceImpl extends AbstractService<SCIMResource> implements BulkService {
+
+    protected static final String BULK_ID_PREFIX = "bulkId:";
+
+    protected static final JsonMapper MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+    protected final SCIMExceptionMapper exceptionMapper;
+
+    protected final ThreadPoolTaskExecutor bulkExecutor;
+
+    public BulkServiceImpl(
+            final UserDAO userDAO,
+            final GroupDAO groupDAO,
+            final UserLogic userLogic,
+            final GroupLogic groupLogic,
+            final SCIMDataBinder binder,
+            final SCIMConfManager confManager,
+            final SCIMExceptionMapper exceptionMapper,
+            final ThreadPoolTaskExecutor bulkExecutor) {
+
+        super(userDAO, groupDAO, userLogic, groupLogic, binder, confManager);
+        this.exceptionMapper = exceptionMapper;
+        this.bulkExecutor = bulkExecutor;
+    }
+
+    protected static void collectBulkIds(final Object value, final Set<String> bulkIds) {
+        if (value instanceof String) {
+            if (((String) value).startsWith(BULK_ID_PREFIX)) {
+                bulkIds.add(StringUtils.substringAfter((String) value, BULK_ID_PREFIX));
+            }
+        } else if (value instanceof Map) {
+            ((Map<?, ?>) value).values().forEach(v -> collectBulkIds(v, bulkIds));
+        } else if (value instanceof Collection) {
+            ((Collection<?>) value).forEach(v -> collectBulkIds(v, bulkIds));
+        }
+    }
+
+    protected static Object resolveBulkIds(final Object value, final Map<String, String> resolved) {
+        if (value instanceof String) {
+            return ((String) value).startsWith(BULK_ID_PREFIX)
+                    ? resolved.getOrDefault(StringUtils.substringAfter((String) value, BULK_ID_PREFIX), (String) value)
+                    : value;
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> map.put(k, resolveBulkIds(v, resolved)));
+            return map;
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().
+                    map(v -> resolveBulkIds(v, resolved)).collect(Collectors.toList());
+        }
+        return value;
+    }
+
+    /**
+     * Normalizes the given path, so that equivalent paths - as with or without leading or trailing slashes - are
+     * matched; {@code bulkId} references are resolved as far as possible.
+     *
+     * @param path path
+     * @param resolved resolved bulkId references
+     * @return normalized path
+     */
+    protected static String resolvePath(final String path, final Map<String, String> resolved) {
+        return List.of(StringUtils.split(path, '/')).stream().
+                map(segment -> (String) resolveBulkIds(segment, resolved)).
+                collect(Collectors.joining("/"));
+    }
+
+    protected static BulkOperation failure(
+            final BulkOperation op,
+            final int status,
+            final ErrorType scimType,
+            final String detail) {
+
+        return new BulkOperation(
+                op.getMethod(),
+                op.getBulkId(),
+                null,
+                null,
+                null,
+                null,
+                status,
+                new SCIMError(scimType, status, detail));
+    }
+
+    protected BulkOperation failure(final BulkOperation op, final Exception e) {
+        Response response = exceptionMapper.toResponse(e);
+        if (response == null) {
+            return failure(op, Response.Status.FORBIDDEN.getStatusCode(), null, e.getMessage());
+        }
+        if (response.getEntity() instanceof SCIMError) {
+            SCIMError error = (SCIMError) response.getEntity();
+            return failure(op, response.getStatus(), error.getScimType(), error.getDetail());
+        }
+        return failure(op, response.getStatus(), null, String.valueOf(response.getEntity()));
+    }
+
+    protected String version(final Resource type, final String key) {
+        OffsetDateTime lastChange = anyDAO(type).findLastChange(key);
+        if (lastChange == null) {
+            throw new NotFoundException("Resource " + key + " not found");
+        }
+        return new EntityTag(String.valueOf(lastChange.toInstant().toEpochMilli()), true).toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T extends SCIMResource> T toResource(final Object data, final String id, final Class<T> reference) {
+        Map<String, Object> map = data instanceof Map
+                ? new LinkedHashMap<>((Map<String, Object>) data)
+                : new LinkedHashMap<>();
+        if (id != null) {
+            Object found = map.putIfAbsent("id", id);
+            if (found != null && !id.equals(found)) {
+                throw new BadRequestException(ErrorType.invalidPath, "Expected " + id + ", found " + found);
+            }
+        }
+        return MAPPER.convertValue(map, reference);
+    }
+
+    protected BulkOperation execute(
+            final BulkOperation op,
+            final String baseLocation,
+            final Map<String, String> resolved) {
+
+        String[] path = StringUtils.split(resolvePath(op.getPath(), resolved), '/');
+        Resource type;
+        if (path.length > 0 && "Users".equals(path[0])) {
+            type = Resource.User;
+        } else if (path.length > 0 && "Groups".equals(path[0])) {
+            type = Resource.Group;
+        } else {
+            return failure(op, Response.Status.BAD_REQUEST.getStatusCode(), ErrorType.invalidPath,
+                    "Unsupported path: " + op.getPath());
+        }
+        String id = path.length > 1 ? path[1] : null;
+        if (HttpMethod.POST.equals(op.getMethod()) ? id != null : id == null) {
+            return failure(op, Response.Status.BAD_REQUEST.getStatusCode(), ErrorType.invalidPath,
+                    "Invalid path for " + op.getMethod() + ": " + op.getPath());
+        }
+        if (id != null && op.getVersion() != null && !op.getVersion().equals(version(type, id))) {
+            return failure(op, Response.Status.PRECONDITION_FAILED.getStatusCode(), null,
+                    "Resource " + id + " was modified after version " + op.getVersion());
+        }
+
+        Object data = resolveBulkIds(op.getData(), resolved);
+        String key;
+        int status;
+        switch (op.getMethod()) {
+            case HttpMethod.POST:
+                if (type == Resource.User) {
+                    key = userLogic.create(binder.toUserCR(toResource(data, null, SCIMUser.class)), false).
+                            getEntity().getKey();
+                } else {
+                    key = createGroup(toResource(data, null, SCIMGroup.class)).getEntity().getKey();
+                }
+                status = Response.Status.CREATED.getStatusCode();
+                break;
+
+            case HttpMethod.PUT:
+                if (type == Resource.User) {
+                    ProvisioningResult<UserTO> result = userLogic.update(AnyOperations.diff(
+                            binder.toUserTO(toResource(data, id, SCIMUser.class)), userLogic.read(id), false), false);
+                    key = result.getEntity().getKey();
+                } else {
+                    key = replaceGroup(id, toResource(data, id, SCIMGroup.class)).getEntity().getKey();
+                }
+                status = Response.Status.OK.getStatusCode();
+                break;
+
+            case HttpMethod.DELETE:
+                anyLogic(type).delete(id, false);
+                return new BulkOperation(
+                        op.getMethod(),
+                        op.getBulkId(),
+                        null,
+                        null,
+                        baseLocation + path[0] + "/" + id,
+                        null,
+                        Response.Status.NO_CONTENT.getStatusCode(),
+                        null);
+
+            case HttpMethod.PATCH:
+                if (type == Resource.User) {
+                    return failure(op, Response.Status.NOT_IMPLEMENTED.getStatusCode(), null,
+                            "PATCH is not supported for Users");
+                }
+                patchGroup(id, MAPPER.convertValue(data, SCIMPatchOp.class));
+                key = id;
+                status = Response.Status.OK.getStatusCode();
+                break;
+
+            default:
+                return failure(op, Response.Status.METHOD_NOT_ALLOWED.getStatusCode(), null,
+                        "Unsupported method: " + op.getMethod());
+        }
+
+        return new BulkOperation(
+                op.getMethod(),
+                op.getBulkId(),
+                version(type, key),
+                null,
+                baseLocation + path[0] + "/" + key,
+                null,
+                status,
+                null);
+    }
+
+    protected void submit(
+            final int index,
+            final BulkOperation op,
+            final String baseLocation,
+            final Map<String, String> resolved,
+            final Authentication authentication,
+            final BlockingQueue<Pair<Integer, BulkOperation>> completed) {
+
+        bulkExecutor.execute(() -> {
+            // this might run on the current thread, if no other is available
+            SecurityContext original = SecurityContextHolder.getContext();
+            SecurityContext ctx = SecurityContextHolder.createEmptyContext();
+            ctx.setAuthentication(authentication);
+            SecurityContextHolder.setContext(ctx);
+
+            BulkOperation result;
+            try {
+                result = execute(op, baseLocation, resolved);
+            } catch (Exception e) {
+                LOG.error("While processing bulk operation {} {}", op.getMethod(), op.getPath(), e);
+                result = failure(op, e);
+            } finally {
+                SecurityContextHolder.setContext(original);
+            }
+            completed.add(Pair.of(index, result));
+        });
+    }
+
+    protected void process(
+            final List<BulkOperation> ops,
+            final int failOnErrors,
+            final String baseLocation,
+            final Authentication authentication,
+            final JsonGenerator generator) throws Exception {
+
+        // bulkId references: operations failing make the referring ones fail as well
+        Map<String, Integer> bulkIds = new HashMap<>();
+        for (int i = 0; i < ops.size(); i++) {
+            if (ops.get(i).getBulkId() != null) {
+                bulkIds.put(ops.get(i).getBulkId(), i);
+            }
+        }
+        List<Set<Integer>> referrers = new ArrayList<>();
+        // same target: operations are executed in request order, regardless of the outcome; targets referred via
+        // bulkId are only known once resolved, hence operations are also kept from running concurrently on the same
+        // resolved path
+        List<Set<Integer>> followers = new ArrayList<>();
+        String[] targets = new String[ops.size()];
+        Map<String, Deque<Integer>> waitingByTarget = new HashMap<>();
+        Map<String, Integer> lastByPath = new HashMap<>();
+        int[] pending = new int[ops.size()];
+        boolean[] scheduled = new boolean[ops.size()];
+
+        Deque<Pair<Integer, BulkOperation>> outcomes = new ArrayDeque<>();
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < ops.size(); i++) {
+            referrers.add(new HashSet<>());
+            followers.add(new HashSet<>());
+        }
+        for (int i = 0; i < ops.size(); i++) {
+            BulkOperation op = ops.get(i);
+
+            Set<String> refs = new HashSet<>();
+            collectBulkIds(op.getData(), refs);
+            List.of(StringUtils.split(op.getPath(), '/')).forEach(segment -> collectBulkIds(segment, refs));
+            Optional<String> unknown = refs.stream().filter(ref -> !bulkIds.containsKey(ref)).findFirst();
+            if (unknown.isPresent()) {
+                outcomes.add(Pair.of(i, failure(op, Response.Status.CONFLICT.getStatusCode(), ErrorType.invalidValue,
+                        "Unknown bulkId: " + unknown.get())));
+                scheduled[i] = true;
+                continue;
+            }
+            for (String ref : refs) {
+                if (referrers.get(bulkIds.get(ref)).add(i)) {
+                    pending[i]++;
+                }
+            }
+
+            if (!HttpMethod.POST.equals(op.getMethod())) {
+                Integer previous = lastByPath.put(resolvePath(op.getPath(), Map.of()), i);
+                if (previous != null && followers.get(previous).add(i)) {
+                    pending[i]++;
+                }
+            }
+
+            if (pending[i] == 0) {
+                ready.add(i);
+                scheduled[i] = true;
+            }
+        }
+
+        Map<String, String> resolved = new ConcurrentHashMap<>();
+        BlockingQueue<Pair<Integer, BulkOperation>> completed = new LinkedBlockingQueue<>();
+        int concurrency = Math.max(1, bulkExecutor.getMaxPoolSize());
+        int inFlight = 0;
+        int errors = 0;
+        boolean stopped = false;
+        while (!stopped) {
+            while (inFlight < concurrency && !ready.isEmpty()) {
+                int index = ready.poll();
+                if (!HttpMethod.POST.equals(ops.get(index).getMethod())) {
+                    String target = resolvePath(ops.get(index).getPath(), resolved);
+                    Deque<Integer> waiting = waitingByTarget.get(target);
+                    if (waiting != null) {
+                        waiting.add(index);
+                        continue;
+                    }
+                    waitingByTarget.put(target, new ArrayDeque<>());
+                    targets[index] = target;
+                }
+                submit(index, ops.get(index), baseLocation, resolved, authentication, completed);
+                inFlight++;
+            }
+
+            Pair<Integer, BulkOperation> outcome = outcomes.poll();
+            if (outcome == null) {
+                if (inFlight == 0) {
+                    break;
+                }
+                outcome = completed.take();
+                inFlight--;
+            }
+
+            int index = outcome.getLeft();
+            BulkOperation result = outcome.getRight();
+            generator.writeObject(result);
+            generator.flush();
+
+            if (targets[index] != null) {
+                Deque<Integer> waiting = waitingByTarget.remove(targets[index]);
+                waiting.descendingIterator().forEachRemaining(ready::addFirst);
+            }
+
+            followers.get(index).stream().
+                    filter(follower -> --pending[follower] == 0 && !scheduled[follower]).
+                    forEach(follower -> {
+                        ready.add(follower);
+                        scheduled[follower] = true;
+                    });
+            if (result.getStatus() < Response.Status.BAD_REQUEST.getStatusCode()) {
+                if (result.getBulkId() != null && result.getLocation() != null) {
+                    resolved.put(result.getBulkId(), StringUtils.substringAfterLast(result.getLocation(), "/"));
+                }
+                referrers.get(index).stream().
+                        filter(referrer -> --pending[referrer] == 0 && !scheduled[referrer]).
+                        forEach(referrer -> {
+                            ready.add(referrer);
+                            scheduled[referrer] = true;
+                        });
+            } else {
+                errors++;
+                stopped = failOnErrors > 0 && errors >= failOnErrors;
+
+                referrers.get(index).stream().filter(referrer -> !scheduled[referrer]).forEach(referrer -> {
+                    outcomes.add(Pair.of(referrer, failure(
+                            ops.get(referrer), Response.Status.CONFLICT.getStatusCode(), ErrorType.invalidValue,
+                            "Operation " + result.getBulkId() + " failed")));
+                    scheduled[referrer] = true;
+                });
+            }
+        }
+
+        // wait for operations still running, so that no processing happens once the response is complete
+        while (inFlight > 0) {
+            Pair<Integer, BulkOperation> outcome = completed.take();
+            inFlight--;
+            generator.writeObject(outcome.getRight());
+            generator.flush();
+        }
+
+        // anything never scheduled is waiting on circular bulkId references
+        if (!stopped) {
+            for (int i = 0; i < ops.size(); i++) {
+                if (!scheduled[i]) {
+                    generator.writeObject(failure(ops.get(i), Response.Status.CONFLICT.getStatusCode(),
+                            ErrorType.invalidValue, "Circular bulkId references"));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Response bulk(final BulkRequest request) {
+        SCIMGeneralConf conf = confManager.get().getGeneralConf();
+
+        if (request.getOperations().size() > conf.getBulkMaxOperations()) {
+            return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE).
+                    entity(new SCIMError(null, Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(),
+                            "The number of operations exceeds the maxOperations ("
+                            + conf.getBulkMaxOperations() + ")")).
+                    build();
+        }
+
+        Set<String> bulkIds = new HashSet<>();
+        request.getOperations().forEach(op -> {
+            if (StringUtils.isBlank(op.getMethod()) || StringUtils.isBlank(op.getPath())) {
+                throw new BadRequestException(ErrorType.invalidSyntax, "Both method and path are required");
+            }
+            if (HttpMethod.POST.equals(op.getMethod()) && StringUtils.isBlank(op.getBulkId())) {
+                throw new BadRequestException(ErrorType.invalidSyntax, "bulkId is required for POST");
+            }
+            if (op.getBulkId() != null && !bulkIds.add(op.getBulkId())) {
+                throw new BadRequestException(ErrorType.invalidValue, "Duplicate bulkId: " + op.getBulkId());
+            }
+        });
+
+        String baseLocation = uriInfo.getBaseUriBuilder().path("v2").build().toASCIIString() + "/";
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        int failOnErrors = Optional.ofNullable(request.getFailOnErrors()).orElse(0);
+
+        StreamingOutput sout = os -> {
+            JsonGenerator generator = MAPPER.getFactory().createGenerator(os);
+            generator.writeStartObject();
+            generator.writeObjectField("schemas", List.of(Resource.BulkResponse.schema()));
+            generator.writeArrayFieldStart("Operations");
+            try {
+                process(request.getOperations(), failOnErrors, baseLocation, authentication, generator);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.error("Interrupted while processing bulk request", e);
+            } catch (Exception e) {
+                LOG.error("While processing bulk request", e);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.flush();
+        };
+        return Response.ok(sout).type(SCIMConstants.APPLICATION_SCIM_JSON_TYPE).build();
+    }
+}
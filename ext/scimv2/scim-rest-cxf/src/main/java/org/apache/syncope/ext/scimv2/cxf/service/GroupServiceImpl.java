@@ -18,34 +18,23 @@
  */
 package org.apache.syncope.ext.scimv2.cxf.service;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.syncope.common.lib.AnyOperations;
-import org.apache.syncope.common.lib.SyncopeConstants;
-import org.apache.syncope.common.lib.request.MembershipUR;
-import org.apache.syncope.common.lib.request.UserUR;
 import org.apache.syncope.common.lib.to.GroupTO;
 import org.apache.syncope.common.lib.to.ProvisioningResult;
-import org.apache.syncope.common.lib.to.UserTO;
-import org.apache.syncope.common.lib.types.PatchOperation;
 import org.apache.syncope.core.logic.GroupLogic;
 import org.apache.syncope.core.logic.SCIMDataBinder;
 import org.apache.syncope.core.logic.UserLogic;
 import org.apache.syncope.core.logic.scim.SCIMConfManager;
-import org.apache.syncope.core.persistence.api.dao.AnyDAO;
 import org.apache.syncope.core.persistence.api.dao.GroupDAO;
 import org.apache.syncope.core.persistence.api.dao.UserDAO;
-import org.apache.syncope.core.persistence.api.dao.search.MembershipCond;
-import org.apache.syncope.core.persistence.api.dao.search.SearchCond;
 import org.apache.syncope.ext.scimv2.api.BadRequestException;
 import org.apache.syncope.ext.scimv2.api.data.ListResponse;
 import org.apache.syncope.ext.scimv2.api.data.SCIMGroup;
+import org.apache.syncope.ext.scimv2.api.data.SCIMPatchOp;
 import org.apache.syncope.ext.scimv2.api.data.SCIMSearchRequest;
 import org.apache.syncope.ext.scimv2.api.service.GroupService;
 import org.apache.syncope.ext.scimv2.api.type.ErrorType;
@@ -67,21 +56,7 @@ public class GroupServiceImpl extends AbstractService<SCIMGroup> implements Grou
 
     @Override
     public Response create(final SCIMGroup group) {
-        // first create group, no members assigned
-        ProvisioningResult<GroupTO> result = groupLogic.create(SCIMDataBinder.toGroupCR(group), false);
-
-        // then assign members
-        group.getMembers().forEach(member -> {
-            UserUR req = new UserUR.Builder(member.getValue()).
-                    membership(new MembershipUR.Builder(result.getEntity().getKey()).
-                            operation(PatchOperation.ADD_REPLACE).build()).
-                    build();
-            try {
-                userLogic.update(req, false);
-            } catch (Exception e) {
-                LOG.error("While setting membership of {} to {}", result.getEntity().getKey(), member.getValue(), e);
-            }
-        });
+        ProvisioningResult<GroupTO> result = createGroup(group);
 
         return createResponse(
                 result.getEntity().getKey(),
@@ -105,8 +80,14 @@ public class GroupServiceImpl extends AbstractService<SCIMGroup> implements Grou
     }
 
     @Override
-    public Response update(final String id) {
-        return Response.status(Response.Status.NOT_IMPLEMENTED).build();
+    public Response update(final String id, final SCIMPatchOp patch) {
+        ResponseBuilder builder = checkETag(Resource.Group, id);
+        if (builder != null) {
+            return builder.build();
+        }
+
+        patchGroup(id, patch);
+        return Response.noContent().build();
     }
 
     @Override
@@ -120,60 +101,7 @@ public class GroupServiceImpl extends AbstractService<SCIMGroup> implements Grou
             return builder.build();
         }
 
-        // save current group members
-        Set<String> beforeMembers = new HashSet<>();
-
-        MembershipCond membCond = new MembershipCond();
-        membCond.setGroup(id);
-        SearchCond searchCond = SearchCond.getLeaf(membCond);
-        int count = userLogic.search(searchCond,
-                1, 1, List.of(), SyncopeConstants.ROOT_REALM, true, false).getLeft();
-        for (int page = 1; page <= (count / AnyDAO.DEFAULT_PAGE_SIZE) + 1; page++) {
-            beforeMembers.addAll(userLogic.search(
-                    searchCond,
-                    page,
-                    AnyDAO.DEFAULT_PAGE_SIZE,
-                    List.of(),
-                    SyncopeConstants.ROOT_REALM,
-                    true,
-                    false).
-                    getRight().stream().map(UserTO::getKey).collect(Collectors.toSet()));
-        }
-
-        // update group, don't change members
-        ProvisioningResult<GroupTO> result = groupLogic.update(
-                AnyOperations.diff(SCIMDataBinder.toGroupTO(group), groupLogic.read(id), false), false);
-
-        // assign new members
-        Set<String> afterMembers = new HashSet<>();
-        group.getMembers().forEach(member -> {
-            afterMembers.add(member.getValue());
-
-            if (!beforeMembers.contains(member.getValue())) {
-                UserUR req = new UserUR.Builder(member.getValue()).
-                        membership(new MembershipUR.Builder(result.getEntity().getKey()).
-                                operation(PatchOperation.ADD_REPLACE).build()).
-                        build();
-                try {
-                    userLogic.update(req, false);
-                } catch (Exception e) {
-                    LOG.error("While setting membership of {} to {}",
-                            result.getEntity().getKey(), member.getValue(), e);
-                }
-            }
-        });
-        // remove unconfirmed members
-        beforeMembers.stream().filter(member -> !afterMembers.contains(member)).forEach(user -> {
-            UserUR req = new UserUR.Builder(user).
-                    membership(new MembershipUR.Builder(result.getEntity().getKey()).
-                            operation(PatchOperation.DELETE).build()).
-                    build();
-            try {
-                userLogic.update(req, false);
-            } catch (Exception e) {
-                LOG.error("While removing membership of {} from {}", result.getEntity().getKey(), user, e);
-            }
-        });
+        ProvisioningResult<GroupTO> result = replaceGroup(id, group);
 
         return updateResponse(
                 result.getEntity().getKey(),
@@ -36,7 +36,9 @@ import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
@@ -50,6 +52,9 @@ import org.apache.syncope.common.lib.scim.types.EmailCanonicalType;
 import org.apache.syncope.common.lib.to.ProvisioningResult;
 import org.apache.syncope.common.lib.to.UserTO;
 import org.apache.syncope.ext.scimv2.api.SCIMConstants;
+import org.apache.syncope.ext.scimv2.api.data.BulkOperation;
+import org.apache.syncope.ext.scimv2.api.data.BulkRequest;
+import org.apache.syncope.ext.scimv2.api.data.BulkResponse;
 import org.apache.syncope.ext.scimv2.api.data.Group;
 import org.apache.syncope.ext.scimv2.api.data.ListResponse;
 import org.apache.syncope.ext.scimv2.api.data.Member;
@@ -57,12 +62,15 @@ import org.apache.syncope.ext.scimv2.api.data.ResourceType;
 import org.apache.syncope.ext.scimv2.api.data.SCIMComplexValue;
 import org.apache.syncope.ext.scimv2.api.data.SCIMError;
 import org.apache.syncope.ext.scimv2.api.data.SCIMGroup;
+import org.apache.syncope.ext.scimv2.api.data.SCIMPatchOp;
+import org.apache.syncope.ext.scimv2.api.data.SCIMPatchOperation;
 import org.apache.syncope.ext.scimv2.api.data.SCIMSearchRequest;
 import org.apache.syncope.ext.scimv2.api.data.SCIMUser;
 import org.apache.syncope.ext.scimv2.api.data.SCIMUserName;
 import org.apache.syncope.ext.scimv2.api.data.ServiceProviderConfig;
 import org.apache.syncope.ext.scimv2.api.data.Value;
 import org.apache.syncope.ext.scimv2.api.type.ErrorType;
+import org.apache.syncope.ext.scimv2.api.type.PatchOp;
 import org.apache.syncope.ext.scimv2.api.type.Resource;
 import org.apache.syncope.fit.AbstractITCase;
 import org.junit.jupiter.api.BeforeAll;
@@ -132,8 +140,8 @@ public class SCIMITCase extends AbstractITCase {
 
         ServiceProviderConfig serviceProviderConfig = response.readEntity(ServiceProviderConfig.class);
         assertNotNull(serviceProviderConfig);
-        assertFalse(serviceProviderConfig.getPatch().isSupported());
-        assertFalse(serviceProviderConfig.getBulk().isSupported());
+        assertTrue(serviceProviderConfig.getPatch().isSupported());
+        assertTrue(serviceProviderConfig.getBulk().isSupported());
         assertTrue(serviceProviderConfig.getChangePassword().isSupported());
         assertTrue(serviceProviderConfig.getEtag().isSupported());
         assertTrue(serviceProviderConfig.getSort().isSupported());
@@ -489,6 +497,37 @@ public class SCIMITCase extends AbstractITCase {
         assertEquals("c9b2dec2-00a7-4855-97c0-d854842b4b24", group.getMembers().get(0).getValue());
     }
 
+    @Test
+    public void updateGroup() {
+        SCIMGroup group = new SCIMGroup(null, null, UUID.randomUUID().toString());
+        group.getMembers().add(new Member("b3cbc78d-32e6-4bd4-92e0-bbe07566a2ee", null, null));
+        Response response = webClient().path("Groups").post(group);
+        assertEquals(Response.Status.CREATED.getStatusCode(), response.getStatus());
+
+        group = response.readEntity(SCIMGroup.class);
+        assertNotNull(group.getId());
+
+        SCIMPatchOp patch = new SCIMPatchOp();
+        patch.getOperations().add(new SCIMPatchOperation(PatchOp.add, "members",
+                List.of(Map.of("value", "c9b2dec2-00a7-4855-97c0-d854842b4b24"))));
+        patch.getOperations().add(new SCIMPatchOperation(PatchOp.remove,
+                "members[value eq \"b3cbc78d-32e6-4bd4-92e0-bbe07566a2ee\"]", null));
+        patch.getOperations().add(new SCIMPatchOperation(PatchOp.replace, "displayName", "patched" + group.getId()));
+
+        response = webClient().path("Groups").path(group.getId()).invoke(HttpMethod.PATCH, patch);
+        assertEquals(Response.Status.NO_CONTENT.getStatusCode(), response.getStatus());
+
+        group = webClient().path("Groups").path(group.getId()).get().readEntity(SCIMGroup.class);
+        assertTrue(group.getDisplayName().startsWith("patched"));
+        assertEquals(1, group.getMembers().size());
+        assertEquals("c9b2dec2-00a7-4855-97c0-d854842b4b24", group.getMembers().get(0).getValue());
+
+        // members can be excluded from output
+        group = webClient().path("Groups").path(group.getId()).query("excludedAttributes", "members").
+                get().readEntity(SCIMGroup.class);
+        assertTrue(group.getMembers().isEmpty());
+    }
+
     @Test
     public void deleteGroup() {
         SCIMGroup group = new SCIMGroup(null, null, UUID.randomUUID().toString());
@@ -507,4 +546,61 @@ public class SCIMITCase extends AbstractITCase {
         response = webClient().path("Groups").path(group.getId()).get();
         assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
     }
+
+    @Test
+    public void bulk() {
+        SCIM_CONF_SERVICE.set(CONF);
+
+        SCIMUser user = getSampleUser(UUID.randomUUID().toString());
+        SCIMGroup group = new SCIMGroup(null, null, UUID.randomUUID().toString());
+        group.getMembers().add(new Member("bulkId:user", null, null));
+
+        // the group references the user, hence it is created only after
+        BulkRequest request = new BulkRequest(null);
+        request.getOperations().add(
+                new BulkOperation(HttpMethod.POST, "group", null, "/Groups", null, group, null, null));
+        request.getOperations().add(
+                new BulkOperation(HttpMethod.POST, "user", null, "/Users", null, user, null, null));
+        request.getOperations().add(
+                new BulkOperation(HttpMethod.DELETE, null, null, "/Users/bulkId:missing", null, null, null, null));
+
+        Response response = webClient().path("Bulk").post(request);
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+
+        BulkResponse result = response.readEntity(BulkResponse.class);
+        assertEquals(3, result.getOperations().size());
+
+        BulkOperation userOp = result.getOperations().stream().
+                filter(op -> "user".equals(op.getBulkId())).findFirst().get();
+        assertEquals(Response.Status.CREATED.getStatusCode(), userOp.getStatus());
+        assertNotNull(userOp.getVersion());
+        String userId = StringUtils.substringAfterLast(userOp.getLocation(), "/");
+
+        BulkOperation groupOp = result.getOperations().stream().
+                filter(op -> "group".equals(op.getBulkId())).findFirst().get();
+        assertEquals(Response.Status.CREATED.getStatusCode(), groupOp.getStatus());
+
+        BulkOperation missingOp = result.getOperations().stream().
+                filter(op -> HttpMethod.DELETE.equals(op.getMethod())).findFirst().get();
+        assertEquals(Response.Status.CONFLICT.getStatusCode(), missingOp.getStatus());
+        assertEquals(ErrorType.invalidValue, missingOp.getResponse().getScimType());
+
+        group = webClient().path("Groups").path(StringUtils.substringAfterLast(groupOp.getLocation(), "/")).
+                get().readEntity(SCIMGroup.class);
+        assertEquals(1, group.getMembers().size());
+        assertEquals(userId, group.getMembers().get(0).getValue());
+
+        // operations on the same resource are processed in order: stop after the first failure
+        request = new BulkRequest(1);
+        String unknown = "/Users/" + UUID.randomUUID().toString();
+        request.getOperations().add(new BulkOperation(HttpMethod.DELETE, null, null, unknown, null, null, null, null));
+        request.getOperations().add(new BulkOperation(HttpMethod.DELETE, null, null, unknown, null, null, null, null));
+
+        response = webClient().path("Bulk").post(request);
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+
+        result = response.readEntity(BulkResponse.class);
+        assertEquals(1, result.getOperations().size());
+        assertEquals(Response.Status.NOT_FOUND.getStatusCode(), result.getOperations().get(0).getStatus());
+    }
 }
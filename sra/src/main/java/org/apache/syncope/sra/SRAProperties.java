@@ -41,6 +41,12 @@ public class SRAProperties extends SyncopeProperties {
 
         private URI postLogout = URI.create("/logout");
 
+        /**
+         * Maximum number of characters that response modifying filters are allowed to hold while waiting for an
+         * incomplete token to be completed by subsequent chunks; once exceeded, content is passed through unmodified.
+         */
+        private int maxModifyBuffer = 65536;
+
         public URI getError() {
             return error;
         }
@@ -56,6 +62,14 @@ public class SRAProperties extends SyncopeProperties {
         public void setPostLogout(final URI postLogout) {
             this.postLogout = postLogout;
         }
+
+        public int getMaxModifyBuffer() {
+            return maxModifyBuffer;
+        }
+
+        public void setMaxModifyBuffer(final int maxModifyBuffer) {
+            this.maxModifyBuffer = maxModifyBuffer;
+        }
     }
 
     public enum AMType {
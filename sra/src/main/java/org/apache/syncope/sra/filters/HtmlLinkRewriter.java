@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.sra.filters;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rewrites links in HTML content, chunk by chunk: tags are recognized by an incremental tokenizer, so that only
+ * incomplete tokens are retained between invocations, up to the configured maximum buffer size.
+ */
+public class HtmlLinkRewriter implements ModifyResponseGatewayFilterFactory.BodyModifier {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HtmlLinkRewriter.class);
+
+    /**
+     * Element name to attribute to rewrite, when root-relative.
+     */
+    private static final Map<String, String> ROOT_ATTRS = Map.of(
+            "a", "href",
+            "link", "href",
+            "img", "src",
+            "script", "src",
+            "object", "data");
+
+    private static final Pattern ATTR = Pattern.compile(
+            "(\\s)([^\\s\"'>/=]+)(\\s*=\\s*)(\"[^\"]*\"|'[^']*'|[^\\s\"'>]+)");
+
+    private static String tagName(final String tag) {
+        int start = tag.startsWith("</") ? 2 : 1;
+        int end = start;
+        while (end < tag.length()
+                && (Character.isLetterOrDigit(tag.charAt(end)) || tag.charAt(end) == '-' || tag.charAt(end) == ':')) {
+
+            end++;
+        }
+        return tag.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds the end of the tag starting at the given position.
+     *
+     * @param seq content
+     * @param start position of {@code <}
+     * @return position right after the closing {@code >}, or -1 if the tag is not complete yet
+     */
+    private static int tagEnd(final StringBuilder seq, final int start) {
+        if (seq.length() - start >= 4 && "<!--".contentEquals(seq.subSequence(start, start + 4))) {
+            int end = seq.indexOf("-->", start + 4);
+            return end == -1 ? -1 : end + 3;
+        }
+
+        char quote = 0;
+        char prev = 0;
+        for (int i = start + 1; i < seq.length(); i++) {
+            char c = seq.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if ((c == '"' || c == '\'') && prev == '=') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+
+            if (!Character.isWhitespace(c)) {
+                prev = c;
+            }
+        }
+        return -1;
+    }
+
+    private final Charset charset;
+
+    private final CharsetDecoder decoder;
+
+    private final String oldBase;
+
+    private final String newBase;
+
+    private final String newBaseAsPrefix;
+
+    private final boolean rewriteRootAttrs;
+
+    private final int maxBuffer;
+
+    private ByteBuffer undecoded = ByteBuffer.allocate(0);
+
+    /**
+     * Decoded content not yet returned, as possibly containing an incomplete token.
+     */
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * Closing tag of the raw text element (script or style) being processed, if any.
+     */
+    private String rawTextEnd;
+
+    public HtmlLinkRewriter(
+            final Charset charset,
+            final String oldBase,
+            final String newBase,
+            final String newBaseAsPrefix,
+            final boolean rewriteRootAttrs,
+            final int maxBuffer) {
+
+        this.charset = charset;
+        this.decoder = charset.newDecoder().
+                onMalformedInput(CodingErrorAction.REPLACE).
+                onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.oldBase = oldBase;
+        this.newBase = newBase;
+        this.newBaseAsPrefix = newBaseAsPrefix;
+        this.rewriteRootAttrs = rewriteRootAttrs;
+        this.maxBuffer = maxBuffer;
+    }
+
+    private String decode(final byte[] chunk, final boolean last) {
+        ByteBuffer in = ByteBuffer.allocate(undecoded.remaining() + chunk.length);
+        in.put(undecoded).put(chunk).flip();
+
+        CharBuffer out = CharBuffer.allocate((int) Math.ceil(in.remaining() * (double) decoder.maxCharsPerByte()) + 1);
+        decoder.decode(in, out, last);
+        if (last) {
+            decoder.flush(out);
+        }
+
+        // multi-byte sequences can be split across chunks
+        undecoded = in.slice();
+
+        out.flip();
+        return out.toString();
+    }
+
+    private String rewriteTag(final String tag) {
+        if (!rewriteRootAttrs || tag.startsWith("</") || tag.startsWith("<!")) {
+            return tag;
+        }
+        String attr = ROOT_ATTRS.get(tagName(tag));
+        if (attr == null) {
+            return tag;
+        }
+
+        StringBuilder rewritten = new StringBuilder(tag.length() + newBaseAsPrefix.length());
+        Matcher matcher = ATTR.matcher(tag);
+        while (matcher.find()) {
+            String replacement = matcher.group();
+            if (attr.equalsIgnoreCase(matcher.group(2))) {
+                String value = matcher.group(4);
+                String quote = value.startsWith("\"") || value.startsWith("'") ? value.substring(0, 1) : "";
+                String unquoted = value.substring(quote.length(), value.length() - quote.length());
+                if (unquoted.startsWith("/") && !unquoted.startsWith("//")) {
+                    replacement = matcher.group(1) + matcher.group(2) + matcher.group(3)
+                            + quote + newBaseAsPrefix + unquoted + quote;
+                }
+            }
+            matcher.appendReplacement(rewritten, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(rewritten);
+        return rewritten.toString();
+    }
+
+    /**
+     * Appends the text found in the given range of pending content; unless the range is complete, a tail which
+     * might be the beginning of {@code oldBase} is retained.
+     *
+     * @param out output
+     * @param start range start
+     * @param end range end
+     * @param complete whether the range is known to be complete
+     * @return position up to which the pending content was processed
+     */
+    private int text(final StringBuilder out, final int start, final int end, final boolean complete) {
+        int cut = end;
+        if (!complete) {
+            cut = Math.max(start, end - oldBase.length() + 1);
+
+            // do not split any occurrence of oldBase straddling the cut
+            int match = pending.indexOf(oldBase, Math.max(start, cut - oldBase.length() + 1));
+            if (match != -1 && match < cut) {
+                cut = match + oldBase.length();
+            }
+        }
+
+        out.append(StringUtils.replace(pending.substring(start, cut), oldBase, newBase));
+        return cut;
+    }
+
+    @Override
+    public byte[] modify(final byte[] chunk, final boolean last) {
+        pending.append(decode(chunk, last));
+
+        StringBuilder out = new StringBuilder(pending.length() + newBaseAsPrefix.length());
+        int pos = 0;
+        boolean incomplete = false;
+        while (pos < pending.length() && !incomplete) {
+            if (rawTextEnd != null) {
+                int end = StringUtils.indexOfIgnoreCase(pending, rawTextEnd, pos);
+                if (end == -1) {
+                    // the closing tag might have just begun
+                    int limit = last ? pending.length() : Math.max(pos, pending.length() - rawTextEnd.length() + 1);
+                    pos = text(out, pos, limit, last);
+                    incomplete = true;
+                } else {
+                    pos = text(out, pos, end, true);
+                    rawTextEnd = null;
+                }
+            } else {
+                int lt = pending.indexOf("<", pos);
+                if (lt == -1) {
+                    pos = text(out, pos, pending.length(), last);
+                    incomplete = true;
+                } else if (lt > pos) {
+                    pos = text(out, pos, lt, true);
+                } else if (pos + 1 == pending.length() && !last) {
+                    incomplete = true;
+                } else if (pos + 1 == pending.length()
+                        || !(Character.isLetter(pending.charAt(pos + 1))
+                        || pending.charAt(pos + 1) == '/'
+                        || pending.charAt(pos + 1) == '!'
+                        || pending.charAt(pos + 1) == '?')) {
+
+                    // not a tag
+                    pos = text(out, pos, pos + 1, true);
+                } else {
+                    int end = tagEnd(pending, pos);
+                    if (end == -1) {
+                        if (last) {
+                            pos = text(out, pos, pending.length(), true);
+                        }
+                        incomplete = true;
+                    } else {
+                        String tag = pending.substring(pos, end);
+                        out.append(StringUtils.replace(rewriteTag(tag), oldBase, newBase));
+                        pos = end;
+
+                        String name = tagName(tag);
+                        if (!tag.startsWith("</") && !tag.endsWith("/>")
+                                && ("script".equals(name) || "style".equals(name))) {
+
+                            rawTextEnd = "</" + name;
+                        }
+                    }
+                }
+            }
+        }
+        pending.delete(0, pos);
+
+        if (pending.length() > maxBuffer) {
+            LOG.warn("Incomplete token exceeding {} characters, passing through unmodified", maxBuffer);
+            out.append(pending);
+            pending.setLength(0);
+        }
+
+        return out.toString().getBytes(charset);
+    }
+}
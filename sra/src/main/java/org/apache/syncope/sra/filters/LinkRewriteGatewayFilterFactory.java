@@ -18,14 +18,10 @@
  */
 package org.apache.syncope.sra.filters;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -44,22 +40,11 @@ public class LinkRewriteGatewayFilterFactory extends ModifyResponseGatewayFilter
                 : StandardCharsets.UTF_8;
     }
 
-    private void replace(final Document doc, final String element, final String attr, final String prefix) {
-        doc.select(element).forEach(link -> {
-            String attrValue = link.attributes().get(attr);
-            if (attrValue.startsWith("/") && !attrValue.startsWith("//")) {
-                link.attr(attr, attrValue.replace(attrValue, prefix + attrValue));
-            }
-        });
-    }
-
     @Override
-    protected byte[] modifyResponse(
-            final InputStream responseBody,
+    protected BodyModifier modifier(
             final Config config,
             final ServerHttpResponseDecorator decorator,
-            final ServerWebExchange exchange)
-            throws IOException {
+            final ServerWebExchange exchange) {
 
         String[] keyValue = config.getData().split(",");
 
@@ -72,17 +57,12 @@ public class LinkRewriteGatewayFilterFactory extends ModifyResponseGatewayFilter
             rewriterRootAttrs = BooleanUtils.toBoolean(keyValue[2]);
         }
 
-        Document doc = Jsoup.parse(
-                responseBody, getCharset(decorator).name(), exchange.getRequest().getURI().toASCIIString());
-
-        if (rewriterRootAttrs) {
-            replace(doc, "a", "href", newBaseAsPrefix);
-            replace(doc, "link", "href", newBaseAsPrefix);
-            replace(doc, "img", "src", newBaseAsPrefix);
-            replace(doc, "script", "src", newBaseAsPrefix);
-            replace(doc, "object", "data", newBaseAsPrefix);
-        }
-
-        return doc.toString().replace(oldBase, newBase).getBytes();
+        return new HtmlLinkRewriter(
+                getCharset(decorator),
+                oldBase,
+                newBase,
+                newBaseAsPrefix,
+                rewriterRootAttrs,
+                props.getGlobal().getMaxModifyBuffer());
     }
 }
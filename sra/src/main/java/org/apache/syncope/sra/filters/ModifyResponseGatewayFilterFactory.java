@@ -18,22 +18,26 @@
  */
 package org.apache.syncope.sra.filters;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.function.Supplier;
+import org.apache.syncope.sra.SRAProperties;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
-import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import org.springframework.web.server.ServerWebExchange;
@@ -42,28 +46,141 @@ import reactor.core.publisher.Mono;
 
 /**
  * Inspired by {@link org.springframework.cloud.gateway.filter.factory.rewrite.ModifyResponseBodyGatewayFilterFactory}.
+ *
+ * The response body is never materialized: each chunk is (GZIP-decoded, if needed) passed to the
+ * {@link BodyModifier} as soon as received, and the modified content is (GZIP-encoded, if needed) written
+ * downstream right away.
  */
 public abstract class ModifyResponseGatewayFilterFactory extends CustomGatewayFilterFactory {
 
     protected static final Logger LOG = LoggerFactory.getLogger(ModifyResponseGatewayFilterFactory.class);
 
+    /**
+     * Incremental modification of the response body.
+     */
+    public interface BodyModifier {
+
+        /**
+         * Modifies the given chunk of (decoded) response body.
+         *
+         * @param chunk response body chunk, possibly empty
+         * @param last whether no more chunks are going to follow: any content retained from previous invocations
+         * must be returned
+         * @return modified content; a tail of the given chunk can be retained until next invocation, for example
+         * when containing an incomplete token
+         */
+        byte[] modify(byte[] chunk, boolean last);
+    }
+
+    @Autowired
+    protected SRAProperties props;
+
     @Override
     public GatewayFilter apply(final Config config) {
         return new InternalModifyResponseGatewayFilter(config);
     }
 
-    protected abstract byte[] modifyResponse(
-            InputStream responseBody,
+    /**
+     * Creates the {@link BodyModifier} instance which will take care of the body of the given response.
+     *
+     * @param config filter configuration
+     * @param decorator response decorator
+     * @param exchange exchange
+     * @return stateful modifier, dedicated to the given response
+     */
+    protected abstract BodyModifier modifier(
             Config config,
             ServerHttpResponseDecorator decorator,
-            ServerWebExchange exchange)
-            throws IOException;
+            ServerWebExchange exchange);
 
     protected boolean skipCond(final ServerHttpResponseDecorator decorator) {
         LOG.debug("Decorator: {}", decorator);
         return false;
     }
 
+    /**
+     * Chains streaming GZIP decoding / encoding, if needed, around the given {@link BodyModifier}.
+     */
+    protected static class BodyPipeline {
+
+        private static byte[] drain(final Supplier<Object> reader) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (Object msg = reader.get(); msg != null; msg = reader.get()) {
+                ByteBuf buf = (ByteBuf) msg;
+                try {
+                    byte[] bytes = new byte[buf.readableBytes()];
+                    buf.readBytes(bytes);
+                    out.write(bytes, 0, bytes.length);
+                } finally {
+                    buf.release();
+                }
+            }
+            return out.toByteArray();
+        }
+
+        private final BodyModifier modifier;
+
+        private final EmbeddedChannel decoder;
+
+        private final EmbeddedChannel encoder;
+
+        private boolean started;
+
+        public BodyPipeline(final BodyModifier modifier, final boolean compressed) {
+            this.modifier = modifier;
+            if (compressed) {
+                decoder = new EmbeddedChannel(ZlibCodecFactory.newZlibDecoder(ZlibWrapper.GZIP));
+                encoder = new EmbeddedChannel(ZlibCodecFactory.newZlibEncoder(ZlibWrapper.GZIP));
+            } else {
+                decoder = null;
+                encoder = null;
+            }
+        }
+
+        public byte[] process(final byte[] input, final boolean last) {
+            started |= input.length > 0;
+            if (!started) {
+                // nothing to modify (or to GZIP-encode) on empty body
+                return input;
+            }
+
+            byte[] content = input;
+            if (decoder != null) {
+                if (input.length > 0) {
+                    decoder.writeInbound(Unpooled.wrappedBuffer(input));
+                }
+                if (last) {
+                    decoder.finish();
+                }
+                content = drain(decoder::readInbound);
+            }
+
+            byte[] output = modifier.modify(content, last);
+
+            if (encoder != null) {
+                if (output.length > 0) {
+                    encoder.writeOutbound(Unpooled.wrappedBuffer(output));
+                }
+                if (last) {
+                    // writes the GZIP trailer
+                    encoder.finish();
+                }
+                output = drain(encoder::readOutbound);
+            }
+
+            return output;
+        }
+
+        public void close() {
+            if (decoder != null) {
+                decoder.finishAndReleaseAll();
+            }
+            if (encoder != null) {
+                encoder.finishAndReleaseAll();
+            }
+        }
+    }
+
     protected class InternalModifyResponseGatewayFilter implements GatewayFilter, Ordered {
 
         private final Config config;
@@ -82,60 +199,35 @@ public abstract class ModifyResponseGatewayFilterFactory extends CustomGatewayFi
 
                 @Override
                 public Mono<Void> writeWith(final Publisher<? extends DataBuffer> body) {
-                    return skipCond(this)
-                            ? super.writeWith(body)
-                            : super.writeWith(Flux.from(body).
-                                    collectList().
-                                    filter(list -> !list.isEmpty()).
-                                    map(list -> list.get(0).factory().join(list)).
-                                    doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release).
-                                    map(dataBuffer -> {
-                                        if (dataBuffer.readableByteCount() > 0) {
-                                            LOG.trace("Retaining body in exchange attribute");
-                                            exchange.getAttributes().put(
-                                                    ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR, dataBuffer);
-                                        }
-
-                                        boolean inputCompressed = false;
-                                        if (dataBuffer.readableByteCount() >= 2) {
-                                            byte[] first2 = new byte[2];
-                                            dataBuffer.read(first2, 0, 2);
-                                            dataBuffer.readPosition(0);
-
-                                            inputCompressed = ((first2[0] == (byte) (GZIPInputStream.GZIP_MAGIC))
-                                                    && (first2[1] == (byte) (GZIPInputStream.GZIP_MAGIC >> 8)));
-                                        }
-
-                                        boolean outputCompressed = false;
-                                        byte[] output;
-                                        try (InputStream is = inputCompressed
-                                                ? new GZIPInputStream(dataBuffer.asInputStream())
-                                                : dataBuffer.asInputStream()) {
-
-                                            outputCompressed = is instanceof GZIPInputStream;
-
-                                            output = modifyResponse(is, config, this, exchange);
-                                        } catch (IOException e) {
-                                            LOG.error("While modifying response", e);
-
-                                            output = new byte[dataBuffer.readableByteCount()];
-                                            dataBuffer.read(output);
-                                        }
-
-                                        if (outputCompressed) {
-                                            try (ByteArrayOutputStream baos = new ByteArrayOutputStream(output.length);
-                                                    GZIPOutputStream gzipos = new GZIPOutputStream(baos)) {
-
-                                                gzipos.write(output);
-                                                gzipos.finish();
-                                                output = baos.toByteArray();
-                                            } catch (IOException e) {
-                                                LOG.error("While GZIP-encoding output", e);
-                                            }
-                                        }
-
-                                        return exchange.getResponse().bufferFactory().wrap(output);
-                                    }));
+                    String contentEncoding = getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+                    boolean compressed = "gzip".equalsIgnoreCase(contentEncoding);
+                    if (skipCond(this)
+                            || (contentEncoding != null && !compressed
+                            && !"identity".equalsIgnoreCase(contentEncoding))) {
+
+                        return super.writeWith(body);
+                    }
+
+                    // length of modified content is not known in advance
+                    getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+
+                    BodyPipeline pipeline = new BodyPipeline(modifier(config, this, exchange), compressed);
+                    DataBufferFactory bufferFactory = bufferFactory();
+                    return super.writeWith(Flux.from(body).
+                            map(dataBuffer -> {
+                                byte[] chunk = new byte[dataBuffer.readableByteCount()];
+                                try {
+                                    dataBuffer.read(chunk);
+                                } finally {
+                                    DataBufferUtils.release(dataBuffer);
+                                }
+                                return pipeline.process(chunk, false);
+                            }).
+                            concatWith(Mono.fromSupplier(() -> pipeline.process(new byte[0], true))).
+                            filter(output -> output.length > 0).
+                            map(bufferFactory::wrap).
+                            doOnError(e -> LOG.error("While modifying response", e)).
+                            doFinally(signal -> pipeline.close()));
                 }
 
                 @Override
@@ -26,6 +26,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -34,9 +35,14 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import org.apache.syncope.common.lib.to.SRARouteTO;
 import org.apache.syncope.common.lib.types.SRARouteFilter;
 import org.apache.syncope.common.lib.types.SRARouteFilterFactory;
@@ -545,6 +551,53 @@ public class RouteProviderTest extends AbstractTest {
                 });
     }
 
+    @Test
+    public void linkRewriteGZIP() throws IOException {
+        // large enough to be received in several chunks
+        StringBuilder html = new StringBuilder("<html><head><script src=\"/static/app.js\"></script></head><body>");
+        StringBuilder expected = new StringBuilder("<html><head><script src=\"http://localhost:" + sraPort
+                + "/static/app.js\"></script></head><body>");
+        for (int i = 0; i < 10000; i++) {
+            html.append("<p><a href=\"/page").append(i).append("\">page ").append(i).append("</a></p>");
+            expected.append("<p><a href=\"http://localhost:").append(sraPort).append("/page").append(i).
+                    append("\">page ").append(i).append("</a></p>");
+        }
+        html.append("</body></html>");
+        expected.append("</body></html>");
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipos = new GZIPOutputStream(compressed)) {
+            gzipos.write(html.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        stubFor(get(urlEqualTo("/linkRewriteGZIP")).willReturn(aResponse().
+                withHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_HTML_VALUE).
+                withHeader(HttpHeaders.CONTENT_ENCODING, "gzip").
+                withBody(compressed.toByteArray())));
+
+        SRARouteTO route = new SRARouteTO();
+        route.setKey("linkRewriteGZIP");
+        route.setTarget(URI.create("http://localhost:" + wiremockPort));
+        route.getFilters().add(new SRARouteFilter.Builder().factory(SRARouteFilterFactory.LINK_REWRITE).
+                args("http://localhost:" + sraPort).build());
+
+        SyncopeCoreTestingServer.ROUTES.put(route.getKey(), route);
+        routeRefresher.refresh();
+
+        webClient.get().uri("/linkRewriteGZIP").exchange().
+                expectStatus().isOk().
+                expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip").
+                expectBody().consumeWith(exchange -> {
+                    try (GZIPInputStream gzipis = new GZIPInputStream(
+                            new ByteArrayInputStream(exchange.getResponseBody()))) {
+
+                        assertEquals(expected.toString(), new String(gzipis.readAllBytes(), StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        fail(e.getMessage(), e);
+                    }
+                });
+    }
+
     @Test
     public void clientCertToRequestHeader() {
         stubFor(get(urlEqualTo("/clientCert")).willReturn(aResponse().
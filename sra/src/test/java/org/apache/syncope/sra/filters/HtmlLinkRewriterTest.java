@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.sra.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+public class HtmlLinkRewriterTest {
+
+    private static final String OLD_BASE = "http://localhost:8080/";
+
+    private static final String NEW_BASE = "https://sra.example.org/app/";
+
+    private static final String NEW_BASE_AS_PREFIX = "https://sra.example.org/app";
+
+    private static HtmlLinkRewriter rewriter(final int maxBuffer) {
+        return new HtmlLinkRewriter(
+                StandardCharsets.UTF_8, OLD_BASE, NEW_BASE, NEW_BASE_AS_PREFIX, true, maxBuffer);
+    }
+
+    private static String rewrite(final HtmlLinkRewriter rewriter, final String html, final int chunkSize) {
+        byte[] bytes = html.getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            int end = Math.min(i + chunkSize, bytes.length);
+            out.writeBytes(rewriter.modify(Arrays.copyOfRange(bytes, i, end), end == bytes.length));
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void assertRewritten(final String expected, final String html) {
+        int length = html.getBytes(StandardCharsets.UTF_8).length;
+        for (int chunkSize = 1; chunkSize <= length; chunkSize++) {
+            assertEquals(expected, rewrite(rewriter(65536), html, chunkSize), "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    public void tagsSplitAcrossChunks() {
+        String html = "<html><body>"
+                + "<a class=\"x\" href=\"/path?q=1\">link</a>"
+                + "<IMG alt='a > b' SRC='/img.png'/>"
+                + "<script src=/js/app.js></script>"
+                + "<a href=\"//cdn.example.org/x\">cdn</a>"
+                + "<a href=\"relative\">rel</a>"
+                + "<p title=\"/notALink\">1 < 2</p>"
+                + "</body></html>";
+
+        assertRewritten("<html><body>"
+                + "<a class=\"x\" href=\"" + NEW_BASE_AS_PREFIX + "/path?q=1\">link</a>"
+                + "<IMG alt='a > b' SRC='" + NEW_BASE_AS_PREFIX + "/img.png'/>"
+                + "<script src=" + NEW_BASE_AS_PREFIX + "/js/app.js></script>"
+                + "<a href=\"//cdn.example.org/x\">cdn</a>"
+                + "<a href=\"relative\">rel</a>"
+                + "<p title=\"/notALink\">1 < 2</p>"
+                + "</body></html>",
+                html);
+    }
+
+    @Test
+    public void oldBaseAcrossChunks() {
+        String html = "<p>See " + OLD_BASE + "docs and " + OLD_BASE + "api</p>"
+                + "<a href=\"" + OLD_BASE + "home\">" + OLD_BASE + "</a>"
+                + "http://localhost:80 " + OLD_BASE;
+
+        assertRewritten("<p>See " + NEW_BASE + "docs and " + NEW_BASE + "api</p>"
+                + "<a href=\"" + NEW_BASE + "home\">" + NEW_BASE + "</a>"
+                + "http://localhost:80 " + NEW_BASE,
+                html);
+    }
+
+    @Test
+    public void multiByteAcrossChunks() {
+        String html = "<p>Caf\u00E9 \u2013 \u65E5\u672C\u8A9E \uD83D\uDE00</p>"
+                + "<a title=\"\u00E8\u00E9\" href=\"/\u00E0\">" + OLD_BASE + "\u00F9</a>";
+
+        assertRewritten("<p>Caf\u00E9 \u2013 \u65E5\u672C\u8A9E \uD83D\uDE00</p>"
+                + "<a title=\"\u00E8\u00E9\" href=\"" + NEW_BASE_AS_PREFIX + "/\u00E0\">" + NEW_BASE + "\u00F9</a>",
+                html);
+    }
+
+    @Test
+    public void rawText() {
+        String html = "<script type=\"text/javascript\">"
+                + "if (a < b && c > d) { x = '<a href=\"/no\">'; y = \"" + OLD_BASE + "\"; }"
+                + "</SCRIPT>"
+                + "<style>a > b { background: url('/bg.png'); }</style>"
+                + "<!-- <a href=\"/commented\"> -->"
+                + "<a href=\"/yes\">yes</a>";
+
+        assertRewritten("<script type=\"text/javascript\">"
+                + "if (a < b && c > d) { x = '<a href=\"/no\">'; y = \"" + NEW_BASE + "\"; }"
+                + "</SCRIPT>"
+                + "<style>a > b { background: url('/bg.png'); }</style>"
+                + "<!-- <a href=\"/commented\"> -->"
+                + "<a href=\"" + NEW_BASE_AS_PREFIX + "/yes\">yes</a>",
+                html);
+    }
+
+    @Test
+    public void maxModifyBuffer() {
+        String html = "<a title=\"" + StringUtils.repeat('x', 100) + "\" href=\"/p\">long</a>"
+                + " tail <a href=\"/q\">short</a>";
+
+        // the long tag exceeds the buffer, hence passes through unmodified; the following content is still rewritten
+        assertEquals(
+                StringUtils.replace(html, "\"/q\"", "\"" + NEW_BASE_AS_PREFIX + "/q\""),
+                rewrite(rewriter(32), html, 8));
+
+        // with enough buffer, both tags are rewritten
+        assertEquals(
+                StringUtils.replaceEach(html,
+                        new String[] { "\"/p\"", "\"/q\"" },
+                        new String[] { "\"" + NEW_BASE_AS_PREFIX + "/p\"", "\"" + NEW_BASE_AS_PREFIX + "/q\"" }),
+                rewrite(rewriter(65536), html, 8));
+    }
+}
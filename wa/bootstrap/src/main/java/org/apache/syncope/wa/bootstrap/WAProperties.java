@@ -26,6 +26,17 @@ public class WAProperties extends SyncopeProperties {
 
     private long contextRefreshDelay = 15;
 
+    /**
+     * Seconds after which cached registered services are fetched again from Core on lookup.
+     */
+    private long registeredServiceCacheTtl = 60;
+
+    /**
+     * Seconds during which a stale registered service keeps being served without contacting Core again, after a
+     * failed attempt to fetch it.
+     */
+    private long registeredServiceRetryDelay = 10;
+
     public long getContextRefreshDelay() {
         return contextRefreshDelay;
     }
@@ -33,4 +44,20 @@ public class WAProperties extends SyncopeProperties {
     public void setContextRefreshDelay(final long contextRefreshDelay) {
         this.contextRefreshDelay = contextRefreshDelay;
     }
+
+    public long getRegisteredServiceCacheTtl() {
+        return registeredServiceCacheTtl;
+    }
+
+    public void setRegisteredServiceCacheTtl(final long registeredServiceCacheTtl) {
+        this.registeredServiceCacheTtl = registeredServiceCacheTtl;
+    }
+
+    public long getRegisteredServiceRetryDelay() {
+        return registeredServiceRetryDelay;
+    }
+
+    public void setRegisteredServiceRetryDelay(final long registeredServiceRetryDelay) {
+        this.registeredServiceRetryDelay = registeredServiceRetryDelay;
+    }
 }
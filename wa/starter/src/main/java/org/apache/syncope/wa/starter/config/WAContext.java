@@ -25,6 +25,7 @@ import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -221,13 +222,18 @@ public class WAContext {
     @Bean
     public ServiceRegistryExecutionPlanConfigurer syncopeServiceRegistryConfigurer(
             final ConfigurableApplicationContext ctx,
+            final WAProperties waProperties,
             final WARestClient restClient,
             final RegisteredServiceMapper registeredServiceMapper,
             @Qualifier("serviceRegistryListeners")
             final ObjectProvider<List<ServiceRegistryListener>> serviceRegistryListeners) {
 
         WAServiceRegistry registry = new WAServiceRegistry(
-                restClient, registeredServiceMapper, ctx,
+                restClient,
+                registeredServiceMapper,
+                Duration.ofSeconds(waProperties.getRegisteredServiceCacheTtl()),
+                Duration.ofSeconds(waProperties.getRegisteredServiceRetryDelay()),
+                ctx,
                 Optional.ofNullable(serviceRegistryListeners.getIfAvailable()).orElseGet(ArrayList::new));
         return plan -> plan.registerServiceRegistry(registry);
     }
@@ -18,11 +18,20 @@
  */
 package org.apache.syncope.wa.starter.services;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.syncope.client.lib.SyncopeClient;
+import org.apache.syncope.common.lib.SyncopeClientException;
 import org.apache.syncope.common.lib.types.ClientAppType;
+import org.apache.syncope.common.lib.types.ClientExceptionType;
+import org.apache.syncope.common.lib.wa.WAClientApp;
 import org.apache.syncope.common.rest.api.service.wa.WAClientAppService;
 import org.apache.syncope.wa.bootstrap.WARestClient;
 import org.apache.syncope.wa.starter.mapping.RegisteredServiceMapper;
@@ -35,6 +44,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ConfigurableApplicationContext;
 
+/**
+ * Serves registered services from an in-process cache, indexed by id and by name: the cache is fully replaced by
+ * {@link #load()}, which is invoked periodically by CAS; since Core does not notify WA about client application
+ * changes, cached entries older than the configured TTL are fetched again from Core on lookup. Services removed from
+ * Core are evicted, while stale entries keep being served if Core cannot be reached, so that Core outages do not
+ * stall authentication for known services: after a failed fetch, stale entries are not fetched again before the
+ * configured retry delay, so that lookups during an outage do not wait each for Core to time out.
+ */
 public class WAServiceRegistry extends AbstractServiceRegistry {
 
     private static final Logger LOG = LoggerFactory.getLogger(WAServiceRegistry.class);
@@ -43,15 +60,27 @@ public class WAServiceRegistry extends AbstractServiceRegistry {
 
     private final RegisteredServiceMapper registeredServiceMapper;
 
+    private final long cacheTtl;
+
+    private final long retryDelay;
+
+    private volatile Map<Long, CachedService> byId = new ConcurrentHashMap<>();
+
+    private volatile Map<String, List<CachedService>> byName = new ConcurrentHashMap<>();
+
     public WAServiceRegistry(
             final WARestClient restClient,
             final RegisteredServiceMapper registeredServiceMapper,
+            final Duration cacheTtl,
+            final Duration retryDelay,
             final ConfigurableApplicationContext applicationContext,
             final Collection<ServiceRegistryListener> serviceRegistryListeners) {
 
         super(applicationContext, serviceRegistryListeners);
         this.waRestClient = restClient;
         this.registeredServiceMapper = registeredServiceMapper;
+        this.cacheTtl = cacheTtl.toMillis();
+        this.retryDelay = retryDelay.toMillis();
     }
 
     @Override
@@ -69,87 +98,180 @@ public class WAServiceRegistry extends AbstractServiceRegistry {
         throw new UnsupportedOperationException("Bulk deleting registered services from WA is not supported");
     }
 
+    private void index(final CachedService cached) {
+        CachedService previous = byId.put(cached.service.getId(), cached);
+        if (previous != null && !previous.service.getName().equals(cached.service.getName())) {
+            unindexName(previous.service);
+        }
+        byName.compute(cached.service.getName(), (name, services) -> {
+            List<CachedService> updated = Optional.ofNullable(services).
+                    map(s -> s.stream().filter(e -> e.service.getId() != cached.service.getId()).
+                    collect(Collectors.toList())).
+                    orElseGet(ArrayList::new);
+            updated.add(cached);
+            return List.copyOf(updated);
+        });
+    }
+
+    private void unindexName(final RegisteredService service) {
+        byName.computeIfPresent(service.getName(), (name, services) -> {
+            List<CachedService> updated = services.stream().
+                    filter(e -> e.service.getId() != service.getId()).
+                    collect(Collectors.toUnmodifiableList());
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+
+    private void evict(final CachedService cached) {
+        if (cached != null) {
+            byId.remove(cached.service.getId(), cached);
+            unindexName(cached.service);
+        }
+    }
+
     @Override
     public Collection<RegisteredService> load() {
         SyncopeClient syncopeClient = waRestClient.getSyncopeClient();
         if (syncopeClient == null) {
             LOG.debug("Syncope client is not yet ready to fetch application definitions");
             return List.of();
-        } else {
-            LOG.info("Loading application definitions");
-            return waRestClient.getSyncopeClient().getService(WAClientAppService.class).list().stream().
-                    map(registeredServiceMapper::toRegisteredService).
-                    collect(Collectors.toList());
         }
+
+        LOG.info("Loading application definitions");
+        List<RegisteredService> services = syncopeClient.getService(WAClientAppService.class).list().stream().
+                map(registeredServiceMapper::toRegisteredService).
+                collect(Collectors.toList());
+
+        long expiresAt = System.currentTimeMillis() + cacheTtl;
+        List<CachedService> cached = services.stream().
+                map(service -> new CachedService(service, expiresAt)).
+                collect(Collectors.toList());
+
+        Map<Long, CachedService> newById = new ConcurrentHashMap<>();
+        cached.forEach(entry -> newById.put(entry.service.getId(), entry));
+        Map<String, List<CachedService>> newByName = new ConcurrentHashMap<>(cached.stream().
+                collect(Collectors.groupingBy(entry -> entry.service.getName(), Collectors.toUnmodifiableList())));
+        byId = newById;
+        byName = newByName;
+
+        return services;
     }
 
-    @Override
-    public RegisteredService findServiceById(final long id) {
+    /**
+     * Fetches the application definition from Core, if the given cache entry is missing or expired.
+     *
+     * @param cached cache entry, if any
+     * @param read how to read the application definition from Core
+     * @return the up-to-date service, the stale one if Core could not be reached, null if not found
+     */
+    private RegisteredService fetch(final CachedService cached, final Supplier<WAClientApp> read) {
+        if (cached != null && !cached.isExpired()) {
+            return cached.service;
+        }
+
         SyncopeClient syncopeClient = waRestClient.getSyncopeClient();
         if (syncopeClient == null) {
             LOG.debug("Syncope client is not yet ready to fetch application definitions");
+            return cached == null ? null : cached.service;
+        }
+
+        try {
+            RegisteredService service = registeredServiceMapper.toRegisteredService(read.get());
+            if (service == null) {
+                evict(cached);
+            } else {
+                index(new CachedService(service, System.currentTimeMillis() + cacheTtl));
+            }
+            return service;
+        } catch (SyncopeClientException e) {
+            if (e.getType() == ClientExceptionType.NotFound) {
+                LOG.debug("Application definition not found", e);
+                evict(cached);
+                return null;
+            }
+
+            LOG.error("While fetching application definition", e);
+            return stale(cached);
+        } catch (Exception e) {
+            LOG.error("While fetching application definition", e);
+            return stale(cached);
+        }
+    }
+
+    /**
+     * Keeps serving the given cache entry, if any, after a failed fetch from Core: the entry is stored again with
+     * the retry delay as expiry, to avoid contacting Core on each lookup during an outage.
+     *
+     * @param cached cache entry, if any
+     * @return the stale service, if any
+     */
+    private RegisteredService stale(final CachedService cached) {
+        if (cached == null) {
             return null;
-        } else {
-            LOG.info("Searching for application definition by id {}", id);
-            return registeredServiceMapper.toRegisteredService(waRestClient.getSyncopeClient().
-                    getService(WAClientAppService.class).read(id, null));
         }
+
+        index(new CachedService(cached.service, System.currentTimeMillis() + retryDelay));
+        return cached.service;
+    }
+
+    private static ClientAppType clientAppType(final Class<? extends RegisteredService> clazz) {
+        if (OidcRegisteredService.class.isAssignableFrom(clazz)) {
+            return ClientAppType.OIDCRP;
+        }
+        if (SamlRegisteredService.class.isAssignableFrom(clazz)) {
+            return ClientAppType.SAML2SP;
+        }
+        return ClientAppType.CASSP;
+    }
+
+    @Override
+    public RegisteredService findServiceById(final long id) {
+        LOG.debug("Searching for application definition by id {}", id);
+        return fetch(byId.get(id), () -> waRestClient.getSyncopeClient().
+                getService(WAClientAppService.class).read(id, null));
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T extends RegisteredService> T findServiceById(final long id, final Class<T> clazz) {
-        SyncopeClient syncopeClient = waRestClient.getSyncopeClient();
-        if (syncopeClient == null) {
-            LOG.debug("Syncope client is not yet ready to fetch application definitions");
-            return null;
-        } else {
-            LOG.info("Searching for application definition by id {} and type {}", id, clazz);
-            if (clazz.isInstance(OidcRegisteredService.class)) {
-                return (T) registeredServiceMapper.toRegisteredService(waRestClient.getSyncopeClient().
-                        getService(WAClientAppService.class).read(id, ClientAppType.OIDCRP));
-            } else if (clazz.isInstance(SamlRegisteredService.class)) {
-                return (T) registeredServiceMapper.toRegisteredService(waRestClient.getSyncopeClient().
-                        getService(WAClientAppService.class).read(id, ClientAppType.SAML2SP));
-            } else {
-                return (T) registeredServiceMapper.toRegisteredService(waRestClient.getSyncopeClient().
-                        getService(WAClientAppService.class).read(id, ClientAppType.CASSP));
-            }
-        }
+        LOG.debug("Searching for application definition by id {} and type {}", id, clazz);
+        CachedService cached = Optional.ofNullable(byId.get(id)).
+                filter(entry -> clazz.isInstance(entry.service)).orElse(null);
+        RegisteredService service = fetch(cached, () -> waRestClient.getSyncopeClient().
+                getService(WAClientAppService.class).read(id, clientAppType(clazz)));
+        return clazz.isInstance(service) ? clazz.cast(service) : null;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T extends RegisteredService> T findServiceByExactServiceName(final String name, final Class<T> clazz) {
-        SyncopeClient syncopeClient = waRestClient.getSyncopeClient();
-        if (syncopeClient == null) {
-            LOG.debug("Syncope client is not yet ready to fetch application definitions");
-            return null;
-        } else {
-            LOG.info("Searching for application definition by name {} and type {}", name, clazz);
-            if (clazz.isInstance(OidcRegisteredService.class)) {
-                return (T) registeredServiceMapper.toRegisteredService(waRestClient.getSyncopeClient().
-                        getService(WAClientAppService.class).read(name, ClientAppType.OIDCRP));
-            } else if (clazz.isInstance(SamlRegisteredService.class)) {
-                return (T) registeredServiceMapper.toRegisteredService(waRestClient.getSyncopeClient().
-                        getService(WAClientAppService.class).read(name, ClientAppType.SAML2SP));
-            } else {
-                return (T) registeredServiceMapper.toRegisteredService(waRestClient.getSyncopeClient().
-                        getService(WAClientAppService.class).read(name, ClientAppType.CASSP));
-            }
-        }
+        LOG.debug("Searching for application definition by name {} and type {}", name, clazz);
+        CachedService cached = byName.getOrDefault(name, List.of()).stream().
+                filter(entry -> clazz.isInstance(entry.service)).findFirst().orElse(null);
+        RegisteredService service = fetch(cached, () -> waRestClient.getSyncopeClient().
+                getService(WAClientAppService.class).read(name, clientAppType(clazz)));
+        return clazz.isInstance(service) ? clazz.cast(service) : null;
     }
 
     @Override
     public RegisteredService findServiceByExactServiceName(final String name) {
-        SyncopeClient syncopeClient = waRestClient.getSyncopeClient();
-        if (syncopeClient == null) {
-            LOG.debug("Syncope client is not yet ready to fetch application definitions");
-            return null;
-        } else {
-            LOG.info("Searching for application definition by name {}", name);
-            return registeredServiceMapper.toRegisteredService(waRestClient.getSyncopeClient().
-                    getService(WAClientAppService.class).read(name, null));
+        LOG.debug("Searching for application definition by name {}", name);
+        CachedService cached = byName.getOrDefault(name, List.of()).stream().findFirst().orElse(null);
+        return fetch(cached, () -> waRestClient.getSyncopeClient().
+                getService(WAClientAppService.class).read(name, null));
+    }
+
+    private static final class CachedService {
+
+        private final RegisteredService service;
+
+        private final long expiresAt;
+
+        CachedService(final RegisteredService service, final long expiresAt) {
+            this.service = service;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
         }
     }
 }
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.syncope.wa.starter.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import javax.ws.rs.ProcessingException;
+import org.apache.syncope.client.lib.SyncopeClient;
+import org.apache.syncope.common.lib.SyncopeClientException;
+import org.apache.syncope.common.lib.types.ClientExceptionType;
+import org.apache.syncope.common.lib.wa.WAClientApp;
+import org.apache.syncope.common.rest.api.service.wa.WAClientAppService;
+import org.apache.syncope.wa.bootstrap.WARestClient;
+import org.apache.syncope.wa.starter.mapping.RegisteredServiceMapper;
+import org.apereo.cas.services.CasRegisteredService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+public class WAServiceRegistryCacheTest {
+
+    private static CasRegisteredService service(final long id, final String name, final String serviceId) {
+        CasRegisteredService service = new CasRegisteredService();
+        service.setId(id);
+        service.setName(name);
+        service.setServiceId(serviceId);
+        return service;
+    }
+
+    private WARestClient waRestClient;
+
+    private WAClientAppService clientAppService;
+
+    private RegisteredServiceMapper registeredServiceMapper;
+
+    private final WAClientApp original = new WAClientApp();
+
+    private final WAClientApp changed = new WAClientApp();
+
+    @BeforeEach
+    public void setUp() {
+        clientAppService = mock(WAClientAppService.class);
+        SyncopeClient syncopeClient = mock(SyncopeClient.class);
+        when(syncopeClient.getService(WAClientAppService.class)).thenReturn(clientAppService);
+        waRestClient = mock(WARestClient.class);
+        when(waRestClient.getSyncopeClient()).thenReturn(syncopeClient);
+
+        registeredServiceMapper = mock(RegisteredServiceMapper.class);
+        when(registeredServiceMapper.toRegisteredService(original)).thenReturn(service(1L, "app", "original"));
+        when(registeredServiceMapper.toRegisteredService(changed)).thenReturn(service(1L, "app", "changed"));
+
+        when(clientAppService.list()).thenReturn(List.of(original));
+    }
+
+    private WAServiceRegistry registry(final Duration cacheTtl, final Duration retryDelay) {
+        WAServiceRegistry registry = new WAServiceRegistry(
+                waRestClient,
+                registeredServiceMapper,
+                cacheTtl,
+                retryDelay,
+                mock(ConfigurableApplicationContext.class),
+                List.of());
+        registry.load();
+        return registry;
+    }
+
+    @Test
+    public void servedFromCacheWithinTtl() {
+        WAServiceRegistry registry = registry(Duration.ofHours(1), Duration.ZERO);
+        when(clientAppService.read(anyLong(), any())).thenReturn(changed);
+        when(clientAppService.read(any(String.class), any())).thenReturn(changed);
+
+        assertEquals("original", registry.findServiceById(1L).getServiceId());
+        assertEquals("original", registry.findServiceByExactServiceName("app").getServiceId());
+        assertEquals("original", registry.findServiceById(1L, CasRegisteredService.class).getServiceId());
+
+        verify(clientAppService, never()).read(anyLong(), any());
+        verify(clientAppService, never()).read(any(String.class), any());
+    }
+
+    @Test
+    public void refetchedAfterTtl() {
+        WAServiceRegistry registry = registry(Duration.ZERO, Duration.ZERO);
+        when(clientAppService.read(anyLong(), any())).thenReturn(changed);
+        when(clientAppService.read(any(String.class), any())).thenReturn(changed);
+
+        assertEquals("changed", registry.findServiceById(1L).getServiceId());
+        assertEquals("changed", registry.findServiceByExactServiceName("app").getServiceId());
+        assertEquals(
+                "changed",
+                registry.findServiceByExactServiceName("app", CasRegisteredService.class).getServiceId());
+    }
+
+    @Test
+    public void evictedWhenRemovedFromCore() {
+        WAServiceRegistry registry = registry(Duration.ZERO, Duration.ZERO);
+        when(clientAppService.read(anyLong(), any())).
+                thenThrow(SyncopeClientException.build(ClientExceptionType.NotFound));
+        when(clientAppService.read(any(String.class), any())).
+                thenThrow(SyncopeClientException.build(ClientExceptionType.NotFound));
+
+        assertNull(registry.findServiceById(1L));
+        assertNull(registry.findServiceByExactServiceName("app"));
+    }
+
+    @Test
+    public void staleServedWhenCoreUnreachable() {
+        WAServiceRegistry registry = registry(Duration.ZERO, Duration.ZERO);
+        when(clientAppService.read(anyLong(), any())).thenThrow(new ProcessingException("Connection refused"));
+        when(clientAppService.read(any(String.class), any())).thenThrow(new ProcessingException("Connection refused"));
+
+        assertEquals("original", registry.findServiceById(1L).getServiceId());
+        assertEquals("original", registry.findServiceByExactServiceName("app").getServiceId());
+        assertNull(registry.findServiceById(2L));
+    }
+
+    @Test
+    public void staleNotRefetchedBeforeRetryDelay() {
+        WAServiceRegistry registry = registry(Duration.ZERO, Duration.ofHours(1));
+        when(clientAppService.read(anyLong(), any())).thenThrow(new ProcessingException("Connection refused"));
+        when(clientAppService.read(any(String.class), any())).thenThrow(new ProcessingException("Connection refused"));
+
+        assertEquals("original", registry.findServiceById(1L).getServiceId());
+        assertEquals("original", registry.findServiceById(1L).getServiceId());
+        assertEquals("original", registry.findServiceByExactServiceName("app").getServiceId());
+
+        verify(clientAppService, times(1)).read(anyLong(), any());
+        verify(clientAppService, never()).read(any(String.class), any());
+    }
+}